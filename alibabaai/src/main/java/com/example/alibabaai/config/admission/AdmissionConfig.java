@@ -0,0 +1,111 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.admission;
+
+import com.example.alibabaai.service.admission.AdmissionScheduler;
+import com.example.alibabaai.service.admission.PriorityAdmissionFilter;
+import com.example.alibabaai.service.admission.RequestClassifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 按优先级的准入配置类
+ *
+ * 本配置类负责：
+ * 1. 按路径把请求分为交互式 / 普通 / 批量三级（可用 X-Request-Priority 请求头降级）
+ * 2. 全局并发槽位用尽时按权重轮询各级队列，交互式请求拿到更多槽位
+ * 3. 交互式延迟超过 SLO 时先拒绝批量请求、再拒绝普通请求，返回 503 与 Retry-After
+ *
+ * 仅 Servlet 模式生效；过滤器排在追踪过滤器之后，被拒绝的请求同样会出现在追踪里。
+ */
+@Configuration
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdmissionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionConfig.class);
+
+    /**
+     * 准入调度
+     *
+     * @param maxConcurrent 全局并发槽位（流式请求在整个响应期间占用槽位）
+     * @param queueCapacity 每一级的排队上限
+     * @param weights 交互式、普通、批量三级的轮询权重
+     * @param slo 交互式请求延迟目标（排队 + 流式请求的首字节；同步请求只计排队）
+     * @param adjustInterval 丢弃等级的调整周期（周期内没有交互式样本时自动降一级）
+     * @return AdmissionScheduler实例
+     */
+    @Bean
+    public AdmissionScheduler admissionScheduler(
+            @Value("${admission.max-concurrent:128}") int maxConcurrent,
+            @Value("${admission.queue-capacity:100}") int queueCapacity,
+            @Value("${admission.weights:8,3,1}") int[] weights,
+            @Value("${admission.slo.interactive:2s}") Duration slo,
+            @Value("${admission.adjust-interval:1s}") Duration adjustInterval
+    ) {
+        logger.info("Priority admission enabled, max concurrent: {}, interactive SLO: {}", maxConcurrent, slo);
+        return new AdmissionScheduler(maxConcurrent, queueCapacity, weights, slo, adjustInterval);
+    }
+
+    /**
+     * 请求分级
+     *
+     * @param exemptPaths 不参与准入的路径（健康检查、状态与事件流）
+     * @param interactivePaths 交互式路径
+     * @param bulkPaths 批量路径
+     * @param allowUpgrade 是否允许请求头提升优先级
+     * @return RequestClassifier实例
+     */
+    @Bean
+    public RequestClassifier requestClassifier(
+            @Value("${admission.exempt-paths:/health/**,/admin/**,/startup/**,/trace/**,/limit/**,/admission/**,/usage/**,/cluster/**,/jobs/*/events,/rag/ingest/jobs/*/progress}") List<String> exemptPaths,
+            @Value("${admission.interactive-paths:/chat,/stream/chat,/model/simple/chat,/model/stream/chat,/mcp/chat/stream,/advisor/memory/**}") List<String> interactivePaths,
+            @Value("${admission.bulk-paths:/bulk/**,/translate/**,/image/**,/jobs/**,/rag/ingest/**,/rag/documents,/mcp/tools/fetch_urls/**}") List<String> bulkPaths,
+            @Value("${admission.allow-priority-upgrade:false}") boolean allowUpgrade
+    ) {
+        return new RequestClassifier(exemptPaths, interactivePaths, bulkPaths, allowUpgrade);
+    }
+
+    /**
+     * 准入过滤器 - 紧跟在 HTTP 根观测之后
+     *
+     * @param admissionScheduler 准入调度
+     * @param requestClassifier 请求分级
+     * @return 过滤器注册
+     */
+    @Bean
+    public FilterRegistrationBean<PriorityAdmissionFilter> priorityAdmissionFilter(
+            AdmissionScheduler admissionScheduler,
+            RequestClassifier requestClassifier,
+            @Value("${admission.max-wait:1s}") Duration maxWait,
+            @Value("${admission.retry-after:2s}") Duration retryAfter
+    ) {
+        FilterRegistrationBean<PriorityAdmissionFilter> registration = new FilterRegistrationBean<>(
+                new PriorityAdmissionFilter(admissionScheduler, requestClassifier, maxWait, retryAfter));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
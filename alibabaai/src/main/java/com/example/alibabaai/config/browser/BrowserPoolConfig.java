@@ -0,0 +1,91 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.browser;
+
+import com.example.alibabaai.service.browser.BrowserLauncher;
+import com.example.alibabaai.service.browser.BrowserSessionPool;
+import com.example.alibabaai.service.browser.ChromeLauncher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 浏览器会话池配置类
+ *
+ * chrome_navigate 通过池中长期存活的无头浏览器打开页面，浏览器在首次使用时才启动。
+ */
+@Configuration
+@ConditionalOnProperty(name = "browser.pool.enabled", havingValue = "true", matchIfMissing = true)
+public class BrowserPoolConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrowserPoolConfig.class);
+
+    /**
+     * 浏览器启动器，可声明同类型 Bean 替换（例如测试中不启动真实进程）
+     *
+     * @param executable 可执行文件路径，为空时自动查找
+     * @param headless 是否无头模式
+     * @param extraArguments 额外启动参数
+     * @param startupTimeout 等待 DevTools 就绪的超时
+     * @param objectMapper JSON序列化器
+     * @return BrowserLauncher实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public BrowserLauncher browserLauncher(
+            @Value("${browser.executable:}") String executable,
+            @Value("${browser.headless:true}") boolean headless,
+            @Value("${browser.extra-arguments:}") List<String> extraArguments,
+            @Value("${browser.startup-timeout:20s}") Duration startupTimeout,
+            ObjectMapper objectMapper
+    ) {
+        ChromeLauncher launcher = new ChromeLauncher(executable, headless, extraArguments, startupTimeout, objectMapper);
+        if (!launcher.isAvailable()) {
+            logger.warn("No Chrome/Chromium executable found; chrome_navigate falls back to the desktop browser");
+        }
+        return launcher;
+    }
+
+    /**
+     * 浏览器会话池
+     *
+     * @param browserLauncher 浏览器启动器
+     * @param maxSessions 会话数上限（租出 + 空闲）
+     * @param idleTimeout 空闲会话回收时间
+     * @param leaseTimeout 等待可用会话的超时
+     * @param commandTimeout 单条 DevTools 命令超时
+     * @return BrowserSessionPool实例
+     */
+    @Bean(destroyMethod = "close")
+    public BrowserSessionPool browserSessionPool(
+            BrowserLauncher browserLauncher,
+            @Value("${browser.pool.max-sessions:4}") int maxSessions,
+            @Value("${browser.pool.idle-timeout:5m}") Duration idleTimeout,
+            @Value("${browser.pool.lease-timeout:10s}") Duration leaseTimeout,
+            @Value("${browser.pool.command-timeout:15s}") Duration commandTimeout
+    ) {
+        logger.info("Browser session pool: max {} sessions, idle timeout {}", maxSessions, idleTimeout);
+        return new BrowserSessionPool(browserLauncher, maxSessions, idleTimeout, leaseTimeout, commandTimeout);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.bulk;
+
+import com.example.alibabaai.service.bulk.BulkPromptService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 批量提示词配置类
+ */
+@Configuration
+public class BulkPromptConfig {
+
+    /**
+     * 批量提示词服务
+     *
+     * @param chatModel 聊天模型
+     * @param objectMapper JSON序列化器
+     * @param defaultConcurrency 请求未指定并发度时的默认值
+     * @param maxConcurrency 单个连接允许的最大并发度
+     * @param maxLines 单个请求允许的最大行数
+     * @return BulkPromptService实例
+     */
+    @Bean
+    public BulkPromptService bulkPromptService(
+            ChatModel chatModel,
+            ObjectMapper objectMapper,
+            @Value("${bulk.default-concurrency:8}") int defaultConcurrency,
+            @Value("${bulk.max-concurrency:64}") int maxConcurrency,
+            @Value("${bulk.max-lines:10000}") long maxLines
+    ) {
+        return new BulkPromptService(chatModel, objectMapper, defaultConcurrency, maxConcurrency, maxLines);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.cluster;
+
+import com.example.alibabaai.service.cluster.ClusterMembership;
+import com.example.alibabaai.service.cluster.ClusterSecret;
+import com.example.alibabaai.service.cluster.ClusterSecretFilter;
+import com.example.alibabaai.service.cluster.ConversationRoutingFilter;
+import com.example.alibabaai.service.cluster.ConversationShardingService;
+import com.example.alibabaai.service.http.HttpClientPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 会话分片配置类
+ *
+ * 多实例部署时按 conversation_id 将记忆类请求路由到固定节点，使会话上下文不因负载均衡而丢失。
+ * 成员列表通过 cluster.members 静态配置，运行期可通过 PUT /cluster/members 变更（自动广播并迁移会话）。
+ * 节点间调用与变更类接口都要求共享密钥 cluster.secret，未配置时拒绝启动。
+ */
+@Configuration
+@ConditionalOnProperty(name = "cluster.sharding.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ClusterShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterShardingConfig.class);
+
+    /**
+     * 集群成员
+     *
+     * @param selfUrl 本节点对其他节点可见的地址
+     * @param members 成员地址列表（逗号分隔），为空时仅包含本节点
+     * @return ClusterMembership实例
+     */
+    @Bean
+    public ClusterMembership clusterMembership(
+            @Value("${cluster.self-url:http://localhost:${server.port:8080}}") String selfUrl,
+            @Value("${cluster.members:}") String members
+    ) {
+        List<String> memberList = Arrays.stream(members.split(","))
+                .map(String::trim)
+                .filter(m -> !m.isEmpty())
+                .toList();
+        ClusterMembership membership = new ClusterMembership(selfUrl, memberList.isEmpty() ? List.of(selfUrl) : memberList);
+        logger.info("Conversation sharding enabled, self: {}, members: {}", membership.getSelf(), membership.getMembers());
+        return membership;
+    }
+
+    /**
+     * 集群共享密钥
+     *
+     * @param secret 各节点相同的密钥，通过 X-Cluster-Secret 头传递
+     * @return ClusterSecret实例
+     */
+    @Bean
+    public ClusterSecret clusterSecret(@Value("${cluster.secret:}") String secret) {
+        return new ClusterSecret(secret);
+    }
+
+    /**
+     * 会话分片服务
+     *
+     * @param membership 集群成员
+     * @param chatMemoryRepository 会话记忆存储
+     * @param httpClientPools 出站连接池注册表（转发走 cluster 池，建连超时为 cluster.connect-timeout）
+     * @param clusterSecret 集群共享密钥
+     * @return ConversationShardingService实例
+     */
+    @Bean
+    public ConversationShardingService conversationShardingService(
+            ClusterMembership membership,
+            ChatMemoryRepository chatMemoryRepository,
+            HttpClientPools httpClientPools,
+            ClusterSecret clusterSecret,
+            @Value("${cluster.forward-timeout:120s}") Duration forwardTimeout
+    ) {
+        return new ConversationShardingService(membership, chatMemoryRepository,
+                httpClientPools.pool(HttpClientPools.CLUSTER).requestFactory(forwardTimeout), clusterSecret);
+    }
+
+    /**
+     * 集群变更类接口的密钥校验过滤器
+     *
+     * @param clusterSecret 集群共享密钥
+     * @return 过滤器注册
+     */
+    @Bean
+    public FilterRegistrationBean<ClusterSecretFilter> clusterSecretFilter(ClusterSecret clusterSecret) {
+        FilterRegistrationBean<ClusterSecretFilter> registration =
+                new FilterRegistrationBean<>(new ClusterSecretFilter(clusterSecret));
+        registration.addUrlPatterns("/cluster/members", "/cluster/handoff");
+        return registration;
+    }
+
+    /**
+     * 记忆类接口的路由过滤器
+     *
+     * @param shardingService 会话分片服务
+     * @return 过滤器注册
+     */
+    @Bean
+    public FilterRegistrationBean<ConversationRoutingFilter> conversationRoutingFilter(ConversationShardingService shardingService) {
+        FilterRegistrationBean<ConversationRoutingFilter> registration =
+                new FilterRegistrationBean<>(new ConversationRoutingFilter(shardingService));
+        registration.addUrlPatterns("/advisor/memory/in/*");
+        return registration;
+    }
+}
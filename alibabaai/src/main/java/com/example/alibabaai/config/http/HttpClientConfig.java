@@ -0,0 +1,157 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.http;
+
+import com.example.alibabaai.service.http.HttpClientPool;
+import com.example.alibabaai.service.http.HttpClientPools;
+import com.example.alibabaai.service.http.OutboundUrlGuard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.net.ssl.SSLContext;
+import java.net.http.HttpClient;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 共享 HTTP 客户端配置类
+ *
+ * 所有出站请求走 {@link HttpClientPools} 中按上游命名的连接池，避免每个服务各自 new 一个客户端导致连接无法复用：
+ * <ul>
+ *   <li>model - DashScope 模型调用（经 Spring Boot 的 WebClient.Builder / RestClient.Builder 定制器接入）；</li>
+ *   <li>mcp - MCP 服务的可流式 HTTP 传输；</li>
+ *   <li>fetch - 网页抓取（chrome_get_web_content、fetch_urls）；</li>
+ *   <li>cluster - 集群内会话转发。</li>
+ * </ul>
+ * 池配置为 http.client.*，单个池可用 http.client.pools.&lt;name&gt;.* 覆盖。空闲连接的保活时间与空闲连接数上限
+ * 是 JDK HttpClient 的进程级设置，由 {@link JdkHttpClientPropertiesPostProcessor} 在启动早期写入系统属性。
+ */
+@Configuration
+public class HttpClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientConfig.class);
+
+    /**
+     * 出站连接池注册表
+     *
+     * @param environment 用于读取各池的覆盖配置
+     * @param tlsSessionCacheSize TLS 会话缓存条目数
+     * @param tlsSessionTimeout TLS 会话缓存有效期
+     * @return HttpClientPools实例（关闭时一并关闭回调线程池）
+     */
+    @Bean(destroyMethod = "close")
+    public HttpClientPools httpClientPools(
+            Environment environment,
+            @Value("${http.client.tls.session-cache-size:1000}") int tlsSessionCacheSize,
+            @Value("${http.client.tls.session-timeout:1h}") Duration tlsSessionTimeout
+    ) throws GeneralSecurityException {
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, null, null);
+        sslContext.getClientSessionContext().setSessionCacheSize(tlsSessionCacheSize);
+        sslContext.getClientSessionContext().setSessionTimeout((int) tlsSessionTimeout.toSeconds());
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "pooled-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClientPool.Settings defaults = settings(environment, "http.client.", new HttpClientPool.Settings(
+                HttpClient.Version.HTTP_2, Duration.ofSeconds(5), null, 32, Duration.ofSeconds(10)));
+        logger.info("Outbound HTTP pools, defaults: {}, TLS session cache: {} entries / {}", defaults,
+                tlsSessionCacheSize, tlsSessionTimeout);
+        return new HttpClientPools(name -> settings(environment, "http.client.pools." + name + ".", defaults),
+                sslContext, executor);
+    }
+
+    /**
+     * 抓取池的 HttpClient（预热等直接使用 JDK 客户端的场景）
+     *
+     * @param httpClientPools 连接池注册表
+     * @return HttpClient实例
+     */
+    @Bean(destroyMethod = "")
+    public HttpClient pooledHttpClient(HttpClientPools httpClientPools) {
+        return httpClientPools.pool(HttpClientPools.FETCH).getHttpClient();
+    }
+
+    /**
+     * 抓取类请求的目标地址校验（拒绝内网与本机地址，逐跳校验重定向）
+     *
+     * @param allowPrivateAddresses 是否允许抓取内网/本机地址（仅限可信的内网部署）
+     * @param maxRedirects 最多跟随的重定向次数
+     * @return OutboundUrlGuard实例
+     */
+    @Bean
+    public OutboundUrlGuard outboundUrlGuard(
+            @Value("${mcp.fetch.allow-private-addresses:false}") boolean allowPrivateAddresses,
+            @Value("${mcp.fetch.max-redirects:5}") int maxRedirects
+    ) {
+        return new OutboundUrlGuard(allowPrivateAddresses, maxRedirects);
+    }
+
+    /**
+     * 基于抓取池的 WebClient（抓取池不自动跟随重定向，调用方经 {@link OutboundUrlGuard#exchange} 发起请求）
+     *
+     * @param httpClientPools 连接池注册表
+     * @return WebClient实例
+     */
+    @Bean
+    public WebClient pooledWebClient(HttpClientPools httpClientPools) {
+        return WebClient.builder()
+                .clientConnector(httpClientPools.pool(HttpClientPools.FETCH).connector())
+                .build();
+    }
+
+    /**
+     * 让 Spring Boot 提供的 WebClient.Builder（DashScope 流式调用使用）走模型池
+     *
+     * @param httpClientPools 连接池注册表
+     * @return WebClientCustomizer实例
+     */
+    @Bean
+    public WebClientCustomizer modelPoolWebClientCustomizer(HttpClientPools httpClientPools) {
+        return builder -> builder.clientConnector(httpClientPools.pool(HttpClientPools.MODEL).connector());
+    }
+
+    /**
+     * 让 Spring Boot 提供的 RestClient.Builder（DashScope 同步调用使用）走模型池
+     *
+     * @param httpClientPools 连接池注册表
+     * @return RestClientCustomizer实例
+     */
+    @Bean
+    public RestClientCustomizer modelPoolRestClientCustomizer(HttpClientPools httpClientPools) {
+        return builder -> builder.requestFactory(httpClientPools.pool(HttpClientPools.MODEL).requestFactory());
+    }
+
+    private static HttpClientPool.Settings settings(Environment environment, String prefix,
+                                                    HttpClientPool.Settings defaults) {
+        return new HttpClientPool.Settings(
+                environment.getProperty(prefix + "version", HttpClient.Version.class, defaults.version()),
+                environment.getProperty(prefix + "connect-timeout", Duration.class, defaults.connectTimeout()),
+                environment.getProperty(prefix + "read-timeout", Duration.class, defaults.readTimeout()),
+                environment.getProperty(prefix + "max-per-host", Integer.class, defaults.maxPerHost()),
+                environment.getProperty(prefix + "acquire-timeout", Duration.class, defaults.acquireTimeout()));
+    }
+}
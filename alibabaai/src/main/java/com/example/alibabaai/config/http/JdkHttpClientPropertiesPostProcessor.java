@@ -0,0 +1,47 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.http;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.time.Duration;
+
+/**
+ * 把连接保活配置写入 JDK HttpClient 的系统属性
+ *
+ * JDK HttpClient 的空闲连接保活时间（jdk.httpclient.keepalive.timeout）与空闲连接池上限
+ * （jdk.httpclient.connectionPoolSize）是进程级设置，在第一个 HttpClient 创建时读取一次，
+ * 因此在环境准备好之后、任何 Bean 创建之前写入。启动参数里已显式设置的系统属性优先。
+ */
+public class JdkHttpClientPropertiesPostProcessor implements EnvironmentPostProcessor {
+
+    static final String KEEP_ALIVE = "jdk.httpclient.keepalive.timeout";
+    static final String POOL_SIZE = "jdk.httpclient.connectionPoolSize";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Duration keepAlive = environment.getProperty("http.client.keep-alive", Duration.class);
+        if (keepAlive != null && System.getProperty(KEEP_ALIVE) == null) {
+            System.setProperty(KEEP_ALIVE, Long.toString(Math.max(1, keepAlive.toSeconds())));
+        }
+        Integer maxIdle = environment.getProperty("http.client.max-idle-connections", Integer.class);
+        if (maxIdle != null && System.getProperty(POOL_SIZE) == null) {
+            System.setProperty(POOL_SIZE, Integer.toString(Math.max(0, maxIdle)));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.jfr;
+
+import com.example.alibabaai.service.jfr.JfrObservationHandler;
+import com.example.alibabaai.service.jfr.JfrRecordingService;
+import com.example.alibabaai.service.jfr.SseEmissionFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.servlet.DispatcherType;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * JFR 配置类
+ *
+ * 本配置类负责：
+ * 1. 模型调用、工具调用、会话记忆的 JFR 事件（复用追踪的观测，需开启 tracing.enabled）
+ * 2. SSE 推送的 JFR 事件（Servlet 模式）
+ * 3. 按需录制：POST /admin/jfr/recordings 开始限时录制，结束后下载 .jfr 文件
+ *
+ * 未在录制时各事件类型处于禁用状态，观测处理器与过滤器都直接跳过。
+ * 录制接口没有独立的管理凭证且不参与准入控制，因此默认关闭（jfr.enabled=true 开启），
+ * 只应在 /admin 不对外暴露的部署中打开。
+ */
+@Configuration
+@ConditionalOnProperty(name = "jfr.enabled", havingValue = "true")
+public class JfrConfig {
+
+    /**
+     * 观测到 JFR 事件的转换，由 TracingConfig 注册到观测注册表
+     *
+     * @return JfrObservationHandler实例
+     */
+    @Bean
+    public JfrObservationHandler jfrObservationHandler() {
+        return new JfrObservationHandler();
+    }
+
+    /**
+     * 按需录制
+     *
+     * @param directory 录制文件目录
+     * @param maxDuration 单次录制的最长时长
+     * @param maxSize 单次录制文件的大小上限
+     * @param maxRecordings 保留的录制个数
+     * @return JfrRecordingService实例
+     */
+    @Bean(destroyMethod = "close")
+    public JfrRecordingService jfrRecordingService(
+            @Value("${jfr.recordings.path:data/jfr}") String directory,
+            @Value("${jfr.recordings.max-duration:10m}") Duration maxDuration,
+            @Value("${jfr.recordings.max-size:256MB}") DataSize maxSize,
+            @Value("${jfr.recordings.keep:5}") int maxRecordings
+    ) {
+        return new JfrRecordingService(Path.of(directory), maxDuration, maxSize.toBytes(), maxRecordings);
+    }
+
+    /**
+     * SSE 推送事件过滤器
+     *
+     * @return 过滤器注册
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<SseEmissionFilter> sseEmissionFilter() {
+        FilterRegistrationBean<SseEmissionFilter> registration = new FilterRegistrationBean<>(new SseEmissionFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        registration.setDispatcherTypes(DispatcherType.REQUEST);
+        return registration;
+    }
+}
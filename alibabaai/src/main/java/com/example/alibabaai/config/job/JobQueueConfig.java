@@ -0,0 +1,88 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.job;
+
+import com.example.alibabaai.service.job.ChatJobHandler;
+import com.example.alibabaai.service.job.DurableJobQueue;
+import com.example.alibabaai.service.job.ImageAnalysisJobHandler;
+import com.example.alibabaai.service.job.JobHandler;
+import com.example.alibabaai.service.job.JobWriteAheadLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 持久化任务队列配置类
+ *
+ * 内置任务类型：
+ * 1. chat - 默认模型对话（payload.input）
+ * 2. mcp-chat - 挂载 MCP 工具的对话（payload.message），启用 MCP 工具回调时可用
+ * 3. image-analyze - 图片分析（通过 /jobs/image 上传）
+ * 其他 JobHandler Bean 会被自动注册。
+ */
+@Configuration
+@ConditionalOnProperty(name = "jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class JobQueueConfig {
+
+    /**
+     * 持久化任务队列
+     *
+     * @param chatModel 聊天模型
+     * @param mcpEnabledChatClient 支持MCP工具调用的ChatClient（可选）
+     * @param extraHandlers 其他任务处理器
+     * @param objectMapper JSON序列化器
+     * @return DurableJobQueue实例
+     */
+    @Bean(destroyMethod = "close")
+    public DurableJobQueue durableJobQueue(
+            ChatModel chatModel,
+            @Qualifier("mcpEnabledChatClient") ObjectProvider<ChatClient> mcpEnabledChatClient,
+            ObjectProvider<JobHandler> extraHandlers,
+            ObjectMapper objectMapper,
+            @Value("${jobs.wal.path:data/jobs/wal.jsonl}") String walPath,
+            @Value("${jobs.wal.fsync:true}") boolean fsync,
+            @Value("${jobs.blob-path:data/jobs/blobs}") String blobPath,
+            @Value("${jobs.workers:4}") int workers,
+            @Value("${jobs.result-ttl:1h}") Duration resultTtl,
+            @Value("${jobs.timeout:15m}") Duration timeout,
+            @Value("${jobs.max-attempts:3}") int maxAttempts,
+            @Value("${jobs.max-pending:1000}") int maxPending
+    ) throws IOException {
+        ChatClient defaultClient = ChatClient.builder(chatModel).build();
+        List<JobHandler> handlers = new ArrayList<>();
+        handlers.add(new ChatJobHandler("chat", defaultClient, "input"));
+        handlers.add(new ImageAnalysisJobHandler(defaultClient, Path.of(blobPath)));
+        mcpEnabledChatClient.ifAvailable(client -> handlers.add(new ChatJobHandler("mcp-chat", client, "message")));
+        extraHandlers.orderedStream().forEach(handlers::add);
+
+        DurableJobQueue queue = new DurableJobQueue(new JobWriteAheadLog(Path.of(walPath), objectMapper, fsync),
+                handlers, Path.of(blobPath), workers, resultTtl, timeout, maxAttempts, maxPending);
+        queue.open();
+        return queue;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.limit;
+
+import com.example.alibabaai.service.limit.AdaptiveConcurrencyLimiter;
+import com.example.alibabaai.service.limit.ConcurrencyLimitedChatModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * 模型调用自适应并发限制配置类
+ *
+ * 本配置类负责：
+ * 1. 创建按 RTT 自动调整上限的并发限制器（所有 ChatModel 共享，上游是同一个模型服务）
+ * 2. 通过 BeanPostProcessor 为容器中所有 ChatModel 套上限流装饰器，超过上限的调用直接返回 503
+ */
+@Configuration
+@ConditionalOnProperty(name = "llm.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitConfig.class);
+
+    /**
+     * 模型调用并发限制器
+     *
+     * @param initialLimit 初始上限
+     * @param minLimit 下限
+     * @param maxLimit 上限
+     * @param smoothing 每个样本向目标值靠拢的比例
+     * @param rttTolerance 可容忍的 RTT 相对基线的倍数
+     * @param longWindow 长期 RTT 基线的样本窗口
+     * @param backoffRatio 上游过载时的乘性收缩比例
+     * @return AdaptiveConcurrencyLimiter实例
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter chatModelConcurrencyLimiter(
+            @Value("${llm.limiter.initial-limit:8}") int initialLimit,
+            @Value("${llm.limiter.min-limit:2}") int minLimit,
+            @Value("${llm.limiter.max-limit:64}") int maxLimit,
+            @Value("${llm.limiter.smoothing:0.2}") double smoothing,
+            @Value("${llm.limiter.rtt-tolerance:1.5}") double rttTolerance,
+            @Value("${llm.limiter.long-window:600}") int longWindow,
+            @Value("${llm.limiter.backoff-ratio:0.9}") double backoffRatio
+    ) {
+        logger.info("Adaptive model concurrency limit: initial {}, range [{}, {}]", initialLimit, minLimit, maxLimit);
+        return new AdaptiveConcurrencyLimiter("model", initialLimit, minLimit, maxLimit, smoothing, rttTolerance,
+                longWindow, backoffRatio);
+    }
+
+    /**
+     * ChatModel 限流装饰 - 静态方法，避免提前初始化本配置类
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedChatModelPostProcessor(
+            ObjectProvider<AdaptiveConcurrencyLimiter> limiter, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ChatModel chatModel && !(bean instanceof ConcurrencyLimitedChatModel)) {
+                    logger.info("Enabling adaptive concurrency limit for ChatModel bean '{}'", beanName);
+                    Duration retryAfter = environment.getProperty("llm.limiter.retry-after", Duration.class,
+                            Duration.ofSeconds(1));
+                    return new ConcurrencyLimitedChatModel(chatModel, limiter.getObject(), retryAfter);
+                }
+                return bean;
+            }
+        };
+    }
+}
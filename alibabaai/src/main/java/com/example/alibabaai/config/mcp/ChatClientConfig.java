@@ -17,11 +17,14 @@
  */
 package com.example.alibabaai.config.mcp;
 
+import com.example.alibabaai.service.mcp.FetchUrlsToolCallback;
+import com.example.alibabaai.service.mcp.GatedMcpToolCallback;
+import com.example.alibabaai.service.mcp.selection.ToolSelectionAdvisor;
 import io.modelcontextprotocol.spec.McpSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.mcp.AsyncMcpToolCallback;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -35,6 +38,7 @@ import java.util.List;
  * 1. 配置支持MCP工具调用的ChatClient
  * 2. 集成工具回调处理器
  * 3. 为AI模型提供工具调用能力
+ * 4. 按相关度只挂载部分工具（{@link ToolSelectionAdvisor}，可关闭）
  */
 @Configuration
 @ConditionalOnProperty(name = "spring.ai.mcp.client.toolcallback.enabled", havingValue = "true", matchIfMissing = false)
@@ -46,14 +50,20 @@ public class ChatClientConfig {
      * 
      * @param builder ChatClient构建器
      * @param mcpToolCallback MCP工具回调处理器
+     * @param fetchUrlsToolCallback 多URL并行抓取工具（本地执行）
+     * @param toolSelectionAdvisor 工具选择Advisor（可选）
      * @return 配置好的ChatClient
      */
     @Bean
     public ChatClient mcpEnabledChatClient(
             ChatClient.Builder builder, 
-            AsyncMcpToolCallback mcpToolCallback
+            GatedMcpToolCallback mcpToolCallback,
+            FetchUrlsToolCallback fetchUrlsToolCallback,
+            ObjectProvider<ToolSelectionAdvisor> toolSelectionAdvisor
     ) {
         logger.info("Creating MCP-enabled ChatClient with tool callback support");
-        return builder.defaultToolCallbacks(mcpToolCallback).build();
+        builder.defaultToolCallbacks(mcpToolCallback, fetchUrlsToolCallback);
+        toolSelectionAdvisor.ifAvailable(builder::defaultAdvisors);
+        return builder.build();
     }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.mcp;
+
+import com.example.alibabaai.service.mcp.BrowserMcpService;
+import com.example.alibabaai.service.mcp.MultiUrlFetchService;
+import com.example.alibabaai.service.mcp.binding.ToolArgumentBinders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 本地工具配置类
+ *
+ * 本配置类负责：
+ * 1. 定义本地实现的工具（浏览器导航、网页内容获取、多URL抓取）
+ * 2. 按各工具的 inputSchema 预编译参数绑定器
+ *
+ * 本地工具不依赖外部MCP服务连接，因此不随 MCP 工具回调开关启停。
+ */
+@Configuration
+public class LocalToolConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalToolConfig.class);
+
+    /**
+     * Chrome浏览器导航工具 - 打开指定URL
+     * 
+     * 支持跨平台浏览器操作（Windows/macOS/Linux）
+     */
+    @Bean
+    public McpSchema.Tool chromeNavigateTool() {
+        String inputSchema = """
+                    {
+                      "type": "object",
+                      "required": ["url"],
+                      "properties": {
+                        "url": { "type": "string", "description": "URL to navigate to" },
+                        "newWindow": { "type": "boolean", "description": "Create a new window" },
+                        "width": { "type": "integer", "minimum": 1, "description": "Viewport width in pixels" },
+                        "height": { "type": "integer", "minimum": 1, "description": "Viewport height in pixels" }
+                      }
+                    }
+                """;
+        logger.debug("Registering chrome_navigate tool");
+        return McpSchema.Tool.builder()
+                .name("chrome_navigate")
+                .description("Navigate to a URL or refresh the current tab in Chrome browser")
+                .inputSchema(inputSchema)
+                .build();
+    }
+
+    /**
+     * Chrome网页内容获取工具 - 抓取网页内容
+     * 
+     * 支持获取文本内容、HTML内容以及特定元素选择
+     */
+    @Bean
+    public McpSchema.Tool chromeGetWebContentTool() {
+        String inputSchema = """
+                    {
+                      "type": "object",
+                      "properties": {
+                        "url": { "type": "string", "description": "URL to fetch content from" },
+                        "textContent": { "type": "boolean", "description": "Get visible text content (default false: HTML is returned)" },
+                        "htmlContent": { "type": "boolean", "description": "Get HTML content (the default when textContent is not true)" },
+                        "selector": { "type": "string", "description": "CSS selector to get specific element" },
+                        "maxTokens": { "type": "integer", "minimum": 1, "description": "Approximate token budget for the returned content" }
+                      }
+                    }
+                """;
+        logger.debug("Registering chrome_get_web_content tool");
+        return McpSchema.Tool.builder()
+                .name("chrome_get_web_content")
+                .description("Fetch content from a web page")
+                .inputSchema(inputSchema)
+                .build();
+    }
+    
+    /**
+     * 多URL并行抓取工具 - 一次调用抓取多个页面
+     * 
+     * 按主机限制并发连接数，整次调用共享字节预算，结果按完成顺序返回
+     */
+    @Bean
+    public McpSchema.Tool fetchUrlsTool() {
+        String inputSchema = """
+                    {
+                      "type": "object",
+                      "required": ["urls"],
+                      "properties": {
+                        "urls": { "type": "array", "items": { "type": "string" }, "description": "Absolute http(s) URLs to fetch concurrently" },
+                        "maxBytesPerUrl": { "type": "integer", "minimum": 1, "description": "Maximum response bytes to read per URL" },
+                        "totalBytes": { "type": "integer", "minimum": 1, "description": "Byte budget shared by all URLs in this call" },
+                        "maxTokensPerUrl": { "type": "integer", "minimum": 1, "description": "Approximate token budget for each page's extracted text" },
+                        "textContent": { "type": "boolean", "description": "Extract visible text from HTML (default true)" }
+                      }
+                    }
+                """;
+        logger.debug("Registering fetch_urls tool");
+        return McpSchema.Tool.builder()
+                .name("fetch_urls")
+                .description("Fetch several web pages concurrently and return their text in completion order")
+                .inputSchema(inputSchema)
+                .build();
+    }
+
+    /**
+     * 本地工具支持配置 - 为BrowserMcpController提供工具定义
+     * 
+     * 这些工具定义将被BrowserMcpController使用，实现本地浏览器操作
+     * 不依赖外部MCP服务连接
+     */
+    @Bean
+    public Map<String, McpSchema.Tool> localToolDefinitions(
+            McpSchema.Tool chromeNavigateTool,
+            McpSchema.Tool chromeGetWebContentTool,
+            McpSchema.Tool fetchUrlsTool
+    ) {
+        Map<String, McpSchema.Tool> localTools = new HashMap<>();
+        localTools.put("chrome_navigate", chromeNavigateTool);
+        localTools.put("chrome_get_web_content", chromeGetWebContentTool);
+        localTools.put("fetch_urls", fetchUrlsTool);
+        
+        logger.info("Configured local tool definitions: {}", localTools.keySet());
+        return localTools;
+    }
+
+    /**
+     * 本地工具参数绑定器 - 启动时校验 Schema 与参数记录一致
+     *
+     * @param objectMapper JSON序列化器（使用其 JsonFactory 读取词法流）
+     * @return ToolArgumentBinders实例
+     */
+    @Bean
+    public ToolArgumentBinders toolArgumentBinders(
+            ObjectMapper objectMapper,
+            McpSchema.Tool chromeNavigateTool,
+            McpSchema.Tool chromeGetWebContentTool,
+            McpSchema.Tool fetchUrlsTool
+    ) {
+        return new ToolArgumentBinders(objectMapper.getFactory())
+                .register(chromeNavigateTool, BrowserMcpService.NavigateRequest.class)
+                .register(chromeGetWebContentTool, BrowserMcpService.WebContentRequest.class)
+                .register(fetchUrlsTool, MultiUrlFetchService.FetchRequest.class);
+    }
+}
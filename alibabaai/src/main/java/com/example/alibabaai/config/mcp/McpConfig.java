@@ -17,6 +17,13 @@
  */
 package com.example.alibabaai.config.mcp;
 
+import com.example.alibabaai.service.http.HttpClientPools;
+import com.example.alibabaai.service.mcp.FetchUrlsToolCallback;
+import com.example.alibabaai.service.mcp.GatedMcpToolCallback;
+import com.example.alibabaai.service.mcp.McpNotificationHub;
+import com.example.alibabaai.service.mcp.McpSessionManager;
+import com.example.alibabaai.service.mcp.MultiUrlFetchService;
+import com.example.alibabaai.service.mcp.binding.ToolArgumentBinders;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.modelcontextprotocol.client.McpAsyncClient;
 import io.modelcontextprotocol.client.McpClient;
@@ -31,9 +38,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
 
 /**
  * MCP (Model Context Protocol) 配置类
@@ -43,6 +49,8 @@ import java.util.Map;
  * 2. 定义可用的MCP工具（Tool）
  * 3. 设置工具回调处理
  * 4. 集成浏览器自动化功能
+ *
+ * 本地工具（chrome_navigate、chrome_get_web_content、fetch_urls）的定义见 {@link LocalToolConfig}。
  */
 @Configuration
 @ConditionalOnProperty(name = "spring.ai.mcp.client.toolcallback.enabled", havingValue = "true", matchIfMissing = false)
@@ -58,30 +66,75 @@ public class McpConfig {
     /**
      * MCP传输层配置 - 使用可流式HTTP传输
      * 
+     * 启动时不建立连接，由 {@link McpSessionManager} 在后台完成握手；请求走 mcp 连接池
+     * 
      * @param objectMapper JSON序列化器
+     * @param httpClientPools 出站连接池注册表
      * @return WebClientStreamableHttpTransport实例
      */
     @Bean
-    public WebClientStreamableHttpTransport mcpTransport(ObjectMapper objectMapper) {
+    public WebClientStreamableHttpTransport mcpTransport(ObjectMapper objectMapper, HttpClientPools httpClientPools) {
         logger.info("Initializing MCP Transport with server URL: {}", mcpServerUrl);
-        return WebClientStreamableHttpTransport.builder(WebClient.builder())
+        WebClient.Builder webClientBuilder = WebClient.builder()
+                .clientConnector(httpClientPools.pool(HttpClientPools.MCP).connector());
+        return WebClientStreamableHttpTransport.builder(webClientBuilder)
                 .endpoint(mcpServerUrl)
                 .resumableStreams(true)
                 .objectMapper(objectMapper)
-                .openConnectionOnStartup(true)
+                .openConnectionOnStartup(false)
                 .build();
     }
 
+    /**
+     * MCP通知多播中心 - 会话的 logging / progress 通知经此转发给任意数量的 SSE 订阅者
+     * 
+     * @param defaultBufferSize 订阅者未指定时的缓冲大小
+     * @param maxBufferSize 单个订阅者允许的最大缓冲
+     * @param maxSubscribers 最大订阅者数
+     * @return McpNotificationHub实例
+     */
+    @Bean
+    public McpNotificationHub mcpNotificationHub(
+            @Value("${mcp.notifications.buffer-size:64}") int defaultBufferSize,
+            @Value("${mcp.notifications.max-buffer-size:1024}") int maxBufferSize,
+            @Value("${mcp.notifications.max-subscribers:256}") int maxSubscribers
+    ) {
+        return new McpNotificationHub(defaultBufferSize, maxBufferSize, maxSubscribers);
+    }
+
     /**
      * MCP异步客户端配置
      * 
+     * 通知消费者在这里注册一次，由 {@link McpNotificationHub} 多播，订阅者数量不影响 MCP 会话
+     * 
      * @param transport 传输层实例
+     * @param mcpNotificationHub 通知多播中心
      * @return McpAsyncClient实例
      */
     @Bean
-    public McpAsyncClient mcpAsyncClient(WebClientStreamableHttpTransport transport) {
+    public McpAsyncClient mcpAsyncClient(WebClientStreamableHttpTransport transport, McpNotificationHub mcpNotificationHub) {
         logger.info("Creating MCP Async Client");
-        return McpClient.async(transport).build();
+        return McpClient.async(transport)
+                .loggingConsumer(mcpNotificationHub::onLogging)
+                .progressConsumer(mcpNotificationHub::onProgress)
+                .build();
+    }
+
+    /**
+     * MCP会话管理 - 容器启动完成后在后台连接并重试，不阻塞启动；会话断开后自动重连
+     * 
+     * @param mcpAsyncClient MCP异步客户端
+     * @param healthCheckInterval 就绪后的 ping 间隔，ping 失败即标记断开并重连；0 表示不探测
+     * @return McpSessionManager实例
+     */
+    @Bean
+    public McpSessionManager mcpSessionManager(
+            McpAsyncClient mcpAsyncClient,
+            @Value("${mcp.session.retry-min-backoff:500ms}") Duration minBackoff,
+            @Value("${mcp.session.retry-max-backoff:30s}") Duration maxBackoff,
+            @Value("${mcp.session.health-check-interval:30s}") Duration healthCheckInterval
+    ) {
+        return new McpSessionManager(mcpAsyncClient, minBackoff, maxBackoff, healthCheckInterval);
     }
 
     // ==================== MCP工具定义 ====================
@@ -113,59 +166,6 @@ public class McpConfig {
                 .build();
     }
 
-    /**
-     * Chrome浏览器导航工具 - 打开指定URL
-     * 
-     * 支持跨平台浏览器操作（Windows/macOS/Linux）
-     */
-    @Bean
-    public McpSchema.Tool chromeNavigateTool() {
-        String inputSchema = """
-                    {
-                      "type": "object",
-                      "required": ["url"],
-                      "properties": {
-                        "url": { "type": "string", "description": "URL to navigate to" },
-                        "newWindow": { "type": "boolean", "description": "Create a new window" },
-                        "width": { "type": "number", "description": "Viewport width in pixels" },
-                        "height": { "type": "number", "description": "Viewport height in pixels" }
-                      }
-                    }
-                """;
-        logger.debug("Registering chrome_navigate tool");
-        return McpSchema.Tool.builder()
-                .name("chrome_navigate")
-                .description("Navigate to a URL or refresh the current tab in Chrome browser")
-                .inputSchema(inputSchema)
-                .build();
-    }
-
-    /**
-     * Chrome网页内容获取工具 - 抓取网页内容
-     * 
-     * 支持获取文本内容、HTML内容以及特定元素选择
-     */
-    @Bean
-    public McpSchema.Tool chromeGetWebContentTool() {
-        String inputSchema = """
-                    {
-                      "type": "object",
-                      "properties": {
-                        "url": { "type": "string", "description": "URL to fetch content from" },
-                        "textContent": { "type": "boolean", "description": "Get visible text content" },
-                        "htmlContent": { "type": "boolean", "description": "Get HTML content" },
-                        "selector": { "type": "string", "description": "CSS selector to get specific element" }
-                      }
-                    }
-                """;
-        logger.debug("Registering chrome_get_web_content tool");
-        return McpSchema.Tool.builder()
-                .name("chrome_get_web_content")
-                .description("Fetch content from a web page")
-                .inputSchema(inputSchema)
-                .build();
-    }
-    
     // ==================== 工具集合与回调配置 ====================
 
     /**
@@ -174,18 +174,21 @@ public class McpConfig {
      * @param startNotificationTool 通知流工具
      * @param chromeNavigateTool Chrome导航工具
      * @param chromeGetWebContentTool Chrome内容获取工具
+     * @param fetchUrlsTool 多URL并行抓取工具
      * @return 工具列表
      */
     @Bean
     public List<McpSchema.Tool> mcpTools(
             McpSchema.Tool startNotificationTool,
             McpSchema.Tool chromeNavigateTool,
-            McpSchema.Tool chromeGetWebContentTool
+            McpSchema.Tool chromeGetWebContentTool,
+            McpSchema.Tool fetchUrlsTool
     ) {
         List<McpSchema.Tool> tools = List.of(
             startNotificationTool, 
             chromeNavigateTool, 
-            chromeGetWebContentTool
+            chromeGetWebContentTool,
+            fetchUrlsTool
         );
         logger.info("Registered {} MCP tools: {}", tools.size(), 
                    tools.stream().map(McpSchema.Tool::name).toList());
@@ -198,14 +201,15 @@ public class McpConfig {
      * 根据记忆中的MCP服务连接配置，Chrome MCP服务应该通过stdio方式启动
      * 但我们同时也有本地实现的浏览器工具在BrowserMcpController中
      * 
-     * @param mcpAsyncClient MCP异步客户端
+     * @param mcpSessionManager MCP会话管理（工具调用等待会话就绪）
      * @param startNotificationTool 通知流工具（外部MCP服务）
-     * @return AsyncMcpToolCallback实例
+     * @return GatedMcpToolCallback实例
      */
     @Bean
-    public AsyncMcpToolCallback mcpToolCallback(
-            McpAsyncClient mcpAsyncClient,
-            McpSchema.Tool startNotificationTool
+    public GatedMcpToolCallback mcpToolCallback(
+            McpSessionManager mcpSessionManager,
+            McpSchema.Tool startNotificationTool,
+            @Value("${mcp.session.tool-ready-timeout:10s}") Duration readyTimeout
     ) {
         logger.info("Creating MCP Tool Callback for external MCP service");
         logger.info("External MCP tool: {}", startNotificationTool.name());
@@ -213,37 +217,29 @@ public class McpConfig {
         
         // 仅注册外部MCP服务的工具（通知流）
         // Chrome相关工具由本地BrowserMcpController处理
-        return new AsyncMcpToolCallback(mcpAsyncClient, startNotificationTool);
+        return new GatedMcpToolCallback(
+                new AsyncMcpToolCallback(mcpSessionManager.getClient(), startNotificationTool),
+                mcpSessionManager,
+                readyTimeout);
     }
     
     /**
-     * 本地工具支持配置 - 为BrowserMcpController提供工具定义
+     * 多URL抓取的本地工具回调 - 由模型直接调用，不经过外部MCP服务
      * 
-     * 这些工具定义将被BrowserMcpController使用，实现本地浏览器操作
-     * 不依赖外部MCP服务连接
+     * @param multiUrlFetchService 多URL抓取服务
+     * @param fetchUrlsTool 工具定义
+     * @param toolArgumentBinders 本地工具参数绑定器
+     * @param objectMapper JSON序列化器
+     * @return FetchUrlsToolCallback实例
      */
     @Bean
-    public Map<String, McpSchema.Tool> localToolDefinitions(
-            McpSchema.Tool chromeNavigateTool,
-            McpSchema.Tool chromeGetWebContentTool
+    public FetchUrlsToolCallback fetchUrlsToolCallback(
+            MultiUrlFetchService multiUrlFetchService,
+            McpSchema.Tool fetchUrlsTool,
+            ToolArgumentBinders toolArgumentBinders,
+            ObjectMapper objectMapper
     ) {
-        Map<String, McpSchema.Tool> localTools = new HashMap<>();
-        localTools.put("chrome_navigate", chromeNavigateTool);
-        localTools.put("chrome_get_web_content", chromeGetWebContentTool);
-        
-        logger.info("Configured local tool definitions: {}", localTools.keySet());
-        return localTools;
-    }
-    
-    // ==================== 基础配置 ====================
-    
-    /**
-     * JSON序列化器配置
-     * 
-     * @return ObjectMapper实例
-     */
-    @Bean
-    public ObjectMapper objectMapper() {
-        return new ObjectMapper();
+        return new FetchUrlsToolCallback(multiUrlFetchService, fetchUrlsTool,
+                toolArgumentBinders.binder(fetchUrlsTool.name(), MultiUrlFetchService.FetchRequest.class), objectMapper);
     }
 }
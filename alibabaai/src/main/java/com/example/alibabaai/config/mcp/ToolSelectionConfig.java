@@ -0,0 +1,61 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.mcp;
+
+import com.example.alibabaai.service.mcp.selection.ToolSelectionAdvisor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 工具选择配置类 - 按与用户消息的相关度只挂载 topK 个工具的 schema
+ *
+ * 由 {@link ChatClientConfig} 加到支持 MCP 工具调用的 ChatClient 上。该 ChatClient 只挂载
+ * start-notification-stream 与 fetch_urls 两个回调（浏览器工具由 /mcp/tools/* 直接提供，不交给模型），
+ * 因此 topK 默认为 1，否则工具数不超过 topK，选择不会生效。
+ */
+@Configuration
+@ConditionalOnProperty(name = "mcp.tool-selection.enabled", havingValue = "true", matchIfMissing = true)
+public class ToolSelectionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolSelectionConfig.class);
+
+    /**
+     * 工具选择 Advisor
+     *
+     * @param topK 每个请求最多挂载的工具数（不含 alwaysInclude）
+     * @param minScore BM25 得分下限，低于该值的工具不挂载
+     * @param alwaysInclude 始终挂载的工具名
+     * @param keywords 工具的补充关键词（工具名 -> 空格分隔的词），用于匹配中文等描述中没有的说法
+     * @return ToolSelectionAdvisor实例
+     */
+    @Bean
+    public ToolSelectionAdvisor toolSelectionAdvisor(
+            @Value("${mcp.tool-selection.top-k:1}") int topK,
+            @Value("${mcp.tool-selection.min-score:0.1}") double minScore,
+            @Value("${mcp.tool-selection.always-include:}") Set<String> alwaysInclude,
+            @Value("#{${mcp.tool-selection.keywords:{:}}}") Map<String, String> keywords
+    ) {
+        logger.info("Tool selection enabled, top-k: {}, always include: {}", topK, alwaysInclude);
+        return new ToolSelectionAdvisor(topK, minScore, alwaysInclude, keywords);
+    }
+}
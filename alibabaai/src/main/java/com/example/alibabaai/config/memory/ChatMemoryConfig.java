@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.memory;
+
+import com.example.alibabaai.service.memory.CompactChatMemoryRepository;
+import com.example.alibabaai.service.memory.ObservedChatMemoryRepository;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 会话记忆配置类
+ *
+ * 会话记忆存储作为共享 Bean，记忆接口与集群分片（会话迁移）使用同一份数据。
+ * 默认使用紧凑编码存储（chat.memory.repository=compact），设为 in-memory 可回退到 Spring AI 自带实现。
+ * 存在观测注册表（请求追踪开启）时，记忆读写包装为观测，在追踪中显示为独立的 span。
+ */
+@Configuration
+public class ChatMemoryConfig {
+
+    /**
+     * 会话记忆存储
+     *
+     * @param observationRegistry 观测注册表（可选）
+     * @param repositoryType 存储实现：compact 或 in-memory
+     * @return ChatMemoryRepository实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ChatMemoryRepository chatMemoryRepository(
+            ObjectProvider<ObservationRegistry> observationRegistry,
+            @Value("${chat.memory.repository:compact}") String repositoryType
+    ) {
+        ChatMemoryRepository repository = "in-memory".equals(repositoryType)
+                ? new InMemoryChatMemoryRepository()
+                : new CompactChatMemoryRepository();
+        ObservationRegistry registry = observationRegistry.getIfUnique();
+        return registry != null && !registry.isNoop() ? new ObservedChatMemoryRepository(repository, registry) : repository;
+    }
+}
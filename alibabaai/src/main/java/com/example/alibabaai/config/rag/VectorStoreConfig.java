@@ -0,0 +1,113 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.rag;
+
+import com.example.alibabaai.service.rag.DocumentIngestionService;
+import com.example.alibabaai.service.rag.HashingEmbeddingModel;
+import com.example.alibabaai.service.rag.HnswVectorStore;
+import com.example.alibabaai.service.rag.RetrievalAdvisor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 进程内向量库配置类
+ *
+ * 本配置类负责：
+ * 1. 创建基于 HNSW 的本地向量库（数据目录可配置，重启后直接映射加载）
+ * 2. 创建检索增强 Advisor，供 ChatClient 挂载
+ * 3. 创建文档批量摄取服务（rag.embedding=stub 时使用本地哈希向量，不调用 DashScope）
+ */
+@Configuration
+@ConditionalOnProperty(name = "rag.vector-store.enabled", havingValue = "true", matchIfMissing = true)
+public class VectorStoreConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorStoreConfig.class);
+
+    /**
+     * HNSW 向量库
+     *
+     * @param embeddingModel DashScope 向量模型
+     * @param objectMapper JSON序列化器
+     * @return HnswVectorStore实例
+     */
+    @Bean(destroyMethod = "close")
+    public HnswVectorStore hnswVectorStore(
+            EmbeddingModel embeddingModel,
+            ObjectMapper objectMapper,
+            @Value("${rag.embedding:dashscope}") String embedding,
+            @Value("${rag.embedding.stub-dimensions:256}") int stubDimensions,
+            @Value("${rag.vector-store.path:data/vector-store}") String path,
+            @Value("${rag.vector-store.m:16}") int m,
+            @Value("${rag.vector-store.ef-construction:200}") int efConstruction,
+            @Value("${rag.vector-store.ef-search:64}") int efSearch
+    ) throws IOException {
+        EmbeddingModel storeEmbeddingModel = "stub".equalsIgnoreCase(embedding)
+                ? new HashingEmbeddingModel(stubDimensions)
+                : embeddingModel;
+        HnswVectorStore store = new HnswVectorStore(Path.of(path), storeEmbeddingModel, objectMapper, m, efConstruction, efSearch);
+        store.open();
+        logger.info("HNSW vector store ready at {} with {} documents", path, store.size());
+        return store;
+    }
+
+    /**
+     * 检索增强 Advisor
+     *
+     * @param vectorStore 向量库
+     * @return RetrievalAdvisor实例
+     */
+    @Bean
+    public RetrievalAdvisor retrievalAdvisor(
+            HnswVectorStore vectorStore,
+            @Value("${rag.top-k:4}") int topK,
+            @Value("${rag.similarity-threshold:0.5}") double similarityThreshold
+    ) {
+        return new RetrievalAdvisor(vectorStore, topK, similarityThreshold);
+    }
+
+    /**
+     * 文档批量摄取服务，启动后自动续传上次未完成的任务
+     *
+     * @param vectorStore 向量库
+     * @param objectMapper JSON序列化器
+     * @param baseDir 允许摄取的基础目录，请求中的路径必须位于其下
+     * @return DocumentIngestionService实例
+     */
+    @Bean(destroyMethod = "close")
+    public DocumentIngestionService documentIngestionService(
+            HnswVectorStore vectorStore,
+            ObjectMapper objectMapper,
+            @Value("${rag.ingest.checkpoint-path:data/ingest-jobs}") String checkpointPath,
+            @Value("${rag.ingest.base-dir:data/ingest}") String baseDir,
+            @Value("${rag.ingest.chunk-chars:800}") int chunkChars,
+            @Value("${rag.ingest.batch-size:16}") int batchSize,
+            @Value("${rag.ingest.max-in-flight-batches:4}") int maxInFlightBatches
+    ) {
+        DocumentIngestionService service = new DocumentIngestionService(vectorStore, objectMapper,
+                Path.of(checkpointPath), Path.of(baseDir), chunkChars, batchSize, maxInFlightBatches);
+        service.resumePending();
+        return service;
+    }
+}
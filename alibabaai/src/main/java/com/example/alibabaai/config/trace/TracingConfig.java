@@ -0,0 +1,138 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.trace;
+
+import com.example.alibabaai.service.trace.OtlpJsonFileExporter;
+import com.example.alibabaai.service.trace.SpanTreeObservationHandler;
+import com.example.alibabaai.service.trace.TraceStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import jakarta.servlet.DispatcherType;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * 请求级追踪配置类
+ *
+ * 本配置类负责：
+ * 1. 提供 ObservationRegistry，Spring AI 自带的 ChatClient、Advisor、模型调用与工具调用观测随之生效
+ * 2. 注册 span 树处理器，按采样率记录整棵请求树，带 X-Trace-Sample: true 的请求强制采样
+ * 3. Servlet 模式下注册 HTTP 观测过滤器作为根 span
+ * 4. 追踪写入本地 OTLP-JSON 文件，慢请求保留在内存中供瀑布图查看
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(TracingConfig.class);
+
+    static final String FORCE_SAMPLE_HEADER = "X-Trace-Sample";
+
+    /**
+     * OTLP-JSON 文件导出器
+     *
+     * @param objectMapper JSON序列化器
+     * @return OtlpJsonFileExporter实例
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "tracing.export.enabled", havingValue = "true", matchIfMissing = true)
+    public OtlpJsonFileExporter otlpJsonFileExporter(
+            ObjectMapper objectMapper,
+            @Value("${tracing.export.path:data/traces/spans.jsonl}") String path,
+            @Value("${tracing.export.max-file-size:64MB}") DataSize maxFileSize,
+            @Value("${spring.application.name:alibabaai}") String serviceName
+    ) {
+        logger.info("Exporting sampled traces to {}", path);
+        return new OtlpJsonFileExporter(Path.of(path), maxFileSize.toBytes(), serviceName, objectMapper);
+    }
+
+    /**
+     * 已完成追踪的存储（慢请求瀑布图）
+     *
+     * @param exporter OTLP-JSON 导出器（可选）
+     * @return TraceStore实例
+     */
+    @Bean
+    public TraceStore traceStore(
+            ObjectProvider<OtlpJsonFileExporter> exporter,
+            @Value("${tracing.slow-threshold:1s}") Duration slowThreshold,
+            @Value("${tracing.max-slow-traces:50}") int maxSlowTraces
+    ) {
+        OtlpJsonFileExporter fileExporter = exporter.getIfAvailable();
+        return new TraceStore(slowThreshold, maxSlowTraces, fileExporter != null ? fileExporter::export : null);
+    }
+
+    /**
+     * 观测注册表
+     *
+     * @param traceStore 追踪存储
+     * @param observationHandlers 其他观测处理器（如 JFR 事件）
+     * @return ObservationRegistry实例
+     */
+    @Bean
+    public ObservationRegistry observationRegistry(
+            TraceStore traceStore,
+            ObjectProvider<ObservationHandler<?>> observationHandlers,
+            @Value("${tracing.sample-rate:0.1}") double sampleRate,
+            @Value("${tracing.max-spans-per-trace:500}") int maxSpansPerTrace
+    ) {
+        logger.info("Request tracing enabled, sample rate: {}", sampleRate);
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(
+                new SpanTreeObservationHandler(sampleRate, forceSample(), maxSpansPerTrace, traceStore));
+        observationHandlers.orderedStream().forEach(registry.observationConfig()::observationHandler);
+        return registry;
+    }
+
+    /**
+     * HTTP 请求根观测 - 放在过滤器链最前面，使整个请求（含异步流式响应）都在根 span 之内
+     *
+     * @param observationRegistry 观测注册表
+     * @return 过滤器注册
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<ServerHttpObservationFilter> serverHttpObservationFilter(
+            ObservationRegistry observationRegistry) {
+        FilterRegistrationBean<ServerHttpObservationFilter> registration =
+                new FilterRegistrationBean<>(new ServerHttpObservationFilter(observationRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC, DispatcherType.ERROR);
+        return registration;
+    }
+
+    private static Predicate<Observation.Context> forceSample() {
+        return context -> context instanceof ServerRequestObservationContext request
+                && "true".equalsIgnoreCase(request.getCarrier().getHeader(FORCE_SAMPLE_HEADER));
+    }
+}
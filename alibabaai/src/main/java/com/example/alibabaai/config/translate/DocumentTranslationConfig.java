@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.translate;
+
+import com.example.alibabaai.service.translate.DocumentTranslationService;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 长文档翻译配置类
+ */
+@Configuration
+public class DocumentTranslationConfig {
+
+    /**
+     * 长文档分块并行翻译服务
+     *
+     * @param chatModel 聊天模型
+     * @param chunkChars 每块的最大字符数（在段落、句子边界切分）
+     * @param maxChars 单个文档的最大字符数
+     * @param defaultConcurrency 请求未指定并发度时的默认值
+     * @param maxConcurrency 单个文档允许的最大并发度
+     * @param chunkTimeout 单块翻译超时（超时按可重试错误处理）
+     * @return DocumentTranslationService实例
+     */
+    @Bean
+    public DocumentTranslationService documentTranslationService(
+            ChatModel chatModel,
+            @Value("${translate.document.chunk-chars:1500}") int chunkChars,
+            @Value("${translate.document.max-chars:200000}") int maxChars,
+            @Value("${translate.document.default-concurrency:4}") int defaultConcurrency,
+            @Value("${translate.document.max-concurrency:16}") int maxConcurrency,
+            @Value("${translate.document.chunk-timeout:60s}") Duration chunkTimeout
+    ) {
+        return new DocumentTranslationService(chatModel, chunkChars, maxChars, defaultConcurrency, maxConcurrency,
+                chunkTimeout);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.usage;
+
+import com.example.alibabaai.service.usage.MeteredChatModel;
+import com.example.alibabaai.service.usage.TokenUsageAccountant;
+import com.example.alibabaai.service.usage.TokenUsageLedger;
+import com.example.alibabaai.service.usage.UsageAttributionWebFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Token 用量记账配置类
+ *
+ * 本配置类负责：
+ * 1. 创建本地只追加账本与记账器
+ * 2. 通过 BeanPostProcessor 为容器中所有 ChatModel 套上计量装饰器
+ * 3. 响应式模式下注册 WebFilter，把计费归属放入 Reactor Context
+ */
+@Configuration
+@ConditionalOnProperty(name = "usage.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenUsageConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenUsageConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public TokenUsageAccountant tokenUsageAccountant(
+            ObjectMapper objectMapper,
+            @Value("${usage.ledger.path:data/usage/ledger.jsonl}") String ledgerPath,
+            @Value("${usage.ledger.flush-interval:10s}") Duration flushInterval
+    ) {
+        logger.info("Token usage ledger: {}, flush interval: {}", ledgerPath, flushInterval);
+        return new TokenUsageAccountant(new TokenUsageLedger(Path.of(ledgerPath), objectMapper), flushInterval);
+    }
+
+    /**
+     * ChatModel 计量装饰 - 静态方法，避免提前初始化本配置类
+     */
+    @Bean
+    public static BeanPostProcessor meteredChatModelPostProcessor(ObjectProvider<TokenUsageAccountant> accountant) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ChatModel chatModel && !(bean instanceof MeteredChatModel)) {
+                    logger.info("Enabling token usage accounting for ChatModel bean '{}'", beanName);
+                    return new MeteredChatModel(chatModel, accountant.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * 响应式端点的计费归属 - 请求没有线程绑定，改为经 Reactor Context 传递
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public UsageAttributionWebFilter usageAttributionWebFilter() {
+        return new UsageAttributionWebFilter();
+    }
+}
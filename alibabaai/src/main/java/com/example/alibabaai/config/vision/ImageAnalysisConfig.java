@@ -0,0 +1,49 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.vision;
+
+import com.example.alibabaai.service.vision.ImageAnalysisService;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 图片分析配置类
+ */
+@Configuration
+public class ImageAnalysisConfig {
+
+    /**
+     * 流式图片分析服务
+     *
+     * @param chatModel 聊天模型
+     * @param model 视觉模型名
+     * @param highResolution 默认是否启用高分辨率图片处理
+     * @param maxImageSize 单张图片大小上限
+     * @return ImageAnalysisService实例
+     */
+    @Bean
+    public ImageAnalysisService imageAnalysisService(
+            ChatModel chatModel,
+            @Value("${vision.model:qwen-vl-max-latest}") String model,
+            @Value("${vision.high-resolution:true}") boolean highResolution,
+            @Value("${vision.max-image-size:10MB}") DataSize maxImageSize
+    ) {
+        return new ImageAnalysisService(chatModel, model, highResolution, maxImageSize.toBytes());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.web;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
+import org.springframework.web.client.RestClient;
+
+/**
+ * 响应式模式（reactive profile）的 Web 服务器配置
+ *
+ * classpath 上同时存在 Tomcat 与 Netty，Spring Boot 在响应式模式下默认优先选 Tomcat（Servlet 适配层），
+ * 这里显式声明 Netty 工厂，使长连接流式响应只占用事件循环而不占用线程。
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebServerConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveWebServerConfig.class);
+
+    /**
+     * Netty 服务器工厂（端口等通用配置仍由 server.* 属性定制）
+     *
+     * @return NettyReactiveWebServerFactory实例
+     */
+    @Bean
+    @ConditionalOnClass(name = "reactor.netty.http.server.HttpServer")
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        logger.info("Running reactive endpoints on Netty");
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * 响应式模式下 Spring Boot 不再自动提供 RestClient.Builder，而 DashScope 自动配置依赖它
+     *
+     * 与自动配置一致地应用 RestClientCustomizer（模型调用因此同样走模型连接池）
+     *
+     * @param customizers RestClient 定制器
+     * @return RestClient.Builder实例（原型作用域，每个使用方独立定制）
+     */
+    @Bean
+    @Scope("prototype")
+    @ConditionalOnMissingBean
+    public RestClient.Builder restClientBuilder(ObjectProvider<RestClientCustomizer> customizers) {
+        RestClient.Builder builder = RestClient.builder();
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return builder;
+    }
+}
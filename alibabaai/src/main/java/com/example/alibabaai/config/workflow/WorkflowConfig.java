@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.config.workflow;
+
+import com.example.alibabaai.service.mcp.BrowserMcpService;
+import com.example.alibabaai.service.mcp.binding.ToolArgumentBinders;
+import com.example.alibabaai.service.workflow.WorkflowEngine;
+import com.example.alibabaai.service.workflow.WorkflowToolInvoker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * 工作流配置类 - 模型调用与工具调用组成的 DAG，互不依赖的分支并发执行
+ */
+@Configuration
+@ConditionalOnProperty(name = "workflow.enabled", havingValue = "true", matchIfMissing = true)
+public class WorkflowConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowConfig.class);
+
+    /**
+     * 工作流工具调用器
+     *
+     * @param toolCallbackResolver 按名称解析函数工具、fetch_urls 与 MCP 工具
+     * @param toolArgumentBinders 本地工具参数绑定器
+     * @param browserMcpService 本地浏览器工具
+     * @return WorkflowToolInvoker实例
+     */
+    @Bean
+    public WorkflowToolInvoker workflowToolInvoker(
+            ToolCallbackResolver toolCallbackResolver,
+            ToolArgumentBinders toolArgumentBinders,
+            BrowserMcpService browserMcpService
+    ) {
+        return new WorkflowToolInvoker(toolCallbackResolver, toolArgumentBinders, browserMcpService);
+    }
+
+    /**
+     * 工作流引擎
+     *
+     * @param chatModel 聊天模型（模型步骤使用）
+     * @param workflowToolInvoker 工具调用器
+     * @param objectMapper JSON序列化器
+     * @param maxSteps 单个工作流的最大步骤数
+     * @param defaultStepTimeout 步骤默认超时
+     * @param maxStepTimeout 步骤允许的最大超时
+     * @param maxRunning 同时运行的最大工作流数
+     * @param resultTtl 结束的运行保留多久
+     * @param maxRetainedRuns 最多保留的运行数
+     * @param cacheTtl 步骤结果缓存有效期（0 表示不缓存）
+     * @param cacheMaxEntries 步骤结果缓存最大条目数
+     * @param cacheableTools 默认缓存结果的只读工具
+     * @return WorkflowEngine实例
+     */
+    @Bean
+    public WorkflowEngine workflowEngine(
+            ChatModel chatModel,
+            WorkflowToolInvoker workflowToolInvoker,
+            ObjectMapper objectMapper,
+            @Value("${workflow.max-steps:32}") int maxSteps,
+            @Value("${workflow.step-timeout:60s}") Duration defaultStepTimeout,
+            @Value("${workflow.max-step-timeout:10m}") Duration maxStepTimeout,
+            @Value("${workflow.max-running:32}") int maxRunning,
+            @Value("${workflow.result-ttl:1h}") Duration resultTtl,
+            @Value("${workflow.max-retained-runs:1000}") int maxRetainedRuns,
+            @Value("${workflow.cache.ttl:10m}") Duration cacheTtl,
+            @Value("${workflow.cache.max-entries:500}") int cacheMaxEntries,
+            @Value("${workflow.cache.tools:chrome_get_web_content,fetch_urls}") Set<String> cacheableTools
+    ) {
+        logger.info("Workflow engine: max {} steps, step timeout {}, max {} running, step cache {}", maxSteps,
+                defaultStepTimeout, maxRunning, cacheTtl.isZero() ? "off" : cacheTtl);
+        return new WorkflowEngine(chatModel, workflowToolInvoker, objectMapper, new WorkflowEngine.Settings(
+                maxSteps, defaultStepTimeout, maxStepTimeout, maxRunning, resultTtl, maxRetainedRuns,
+                cacheTtl, cacheMaxEntries, cacheableTools));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.alibabaai.controller.admission;
+
+import com.example.alibabaai.service.admission.AdmissionScheduler;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admission")
+@Api(tags = "准入控制")
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdmissionController {
+
+    private final AdmissionScheduler admissionScheduler;
+
+    public AdmissionController(AdmissionScheduler admissionScheduler) {
+        this.admissionScheduler = admissionScheduler;
+    }
+
+    /**
+     * 各优先级的排队、放行与拒绝计数，当前丢弃等级与交互式延迟
+     */
+    @GetMapping("/stats")
+    @ApiOperation("准入控制-状态")
+    public Map<String, Object> stats() {
+        return admissionScheduler.stats();
+    }
+}
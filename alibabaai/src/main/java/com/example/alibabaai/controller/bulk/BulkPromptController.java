@@ -0,0 +1,59 @@
+package com.example.alibabaai.controller.bulk;
+
+import com.example.alibabaai.service.bulk.BulkPromptService;
+import com.example.alibabaai.service.usage.UsageAttribution;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/bulk")
+@Api(tags = "聊天-批量")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BulkPromptController {
+
+    private final BulkPromptService bulkPromptService;
+
+    public BulkPromptController(BulkPromptService bulkPromptService) {
+        this.bulkPromptService = bulkPromptService;
+    }
+
+    /**
+     * 请求体为 NDJSON，每行示例：{"id":"a1","prompt":"...","temperature":0.2,"maxTokens":256,"tools":["baiduTranslate"]}
+     * 结果按完成顺序逐行返回：{"index":0,"id":"a1","output":"...","totalTokens":123,...}
+     */
+    @PostMapping(value = "/chat", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiOperation("聊天-批量（NDJSON）")
+    public Flux<BulkPromptService.BulkPromptResult> bulkChat(HttpServletRequest request,
+                                                             @RequestParam(value = "concurrency", required = false) Integer concurrency) {
+        // 计费归属在请求线程上解析，后续模型调用运行在其他线程，经 Reactor Context 传递
+        UsageAttribution attribution = UsageAttribution.fromCurrentRequest();
+        Flux<String> lines = Flux.using(
+                        () -> new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)),
+                        reader -> Flux.fromStream(reader.lines()),
+                        reader -> {
+                            try {
+                                reader.close();
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })
+                .subscribeOn(Schedulers.boundedElastic());
+        return bulkPromptService.process(lines, concurrency)
+                .contextWrite(context -> context.put(UsageAttribution.class, attribution));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.alibabaai.controller.bulk;
+
+import com.example.alibabaai.service.bulk.BulkPromptService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * {@link BulkPromptController} 的响应式版本（reactive profile），请求体按行解码，边读边处理
+ */
+@RestController
+@RequestMapping("/bulk")
+@Api(tags = "聊天-批量")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBulkPromptController {
+
+    private final BulkPromptService bulkPromptService;
+
+    public ReactiveBulkPromptController(BulkPromptService bulkPromptService) {
+        this.bulkPromptService = bulkPromptService;
+    }
+
+    @PostMapping(value = "/chat", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiOperation("聊天-批量（NDJSON）")
+    public Flux<BulkPromptService.BulkPromptResult> bulkChat(@RequestBody Flux<String> lines,
+                                                             @RequestParam(value = "concurrency", required = false) Integer concurrency) {
+        return bulkPromptService.process(lines, concurrency);
+    }
+}
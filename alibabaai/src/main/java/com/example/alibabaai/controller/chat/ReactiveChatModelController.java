@@ -0,0 +1,96 @@
+package com.example.alibabaai.controller.chat;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import io.swagger.annotations.Api;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ChatModelController} 的响应式版本（reactive profile）
+ */
+@RestController
+@RequestMapping("/model")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Api(tags = "聊天（model）")
+public class ReactiveChatModelController {
+    private static final String DEFAULT_PROMPT = "你好，介绍下你自己吧。";
+
+    private final ChatModel dashScopeChatModel;
+
+    public ReactiveChatModelController(ChatModel chatModel) {
+        this.dashScopeChatModel = chatModel;
+    }
+
+    @GetMapping("/simple/chat")
+    public Mono<String> simpleChat() {
+        return text(dashScopeChatModel.stream(qwenPlusPrompt())).collect(Collectors.joining());
+    }
+
+    @GetMapping("/stream/chat")
+    public Flux<String> streamChat() {
+        return text(dashScopeChatModel.stream(qwenPlusPrompt()));
+    }
+
+    /**
+     * 流式调用聚合输出，token 用量取最后一个带用量的分片
+     */
+    @GetMapping("/tokens")
+    public Mono<Map<String, Object>> tokens() {
+        StringBuilder output = new StringBuilder();
+        Usage[] usage = new Usage[1];
+        return dashScopeChatModel.stream(qwenPlusPrompt())
+                .doOnNext(resp -> {
+                    if (resp.getResult() != null && resp.getResult().getOutput().getText() != null) {
+                        output.append(resp.getResult().getOutput().getText());
+                    }
+                    if (resp.getMetadata() != null && resp.getMetadata().getUsage() != null
+                            && resp.getMetadata().getUsage().getTotalTokens() != null) {
+                        usage[0] = resp.getMetadata().getUsage();
+                    }
+                })
+                .then(Mono.fromSupplier(() -> {
+                    Map<String, Object> res = new HashMap<>();
+                    res.put("output", output.toString());
+                    res.put("output_token", usage[0] != null ? usage[0].getCompletionTokens() : null);
+                    res.put("input_token", usage[0] != null ? usage[0].getPromptTokens() : null);
+                    res.put("total_token", usage[0] != null ? usage[0].getTotalTokens() : null);
+                    return res;
+                }));
+    }
+
+    @GetMapping("/custom/chat")
+    public Mono<String> customChat() {
+        DashScopeChatOptions customOptions = DashScopeChatOptions.builder()
+                .withTopP(0.7)
+                .withTopK(50)
+                .withTemperature(0.8)
+                .build();
+        return text(dashScopeChatModel.stream(new Prompt(DEFAULT_PROMPT, customOptions))).collect(Collectors.joining());
+    }
+
+    private static Prompt qwenPlusPrompt() {
+        return new Prompt(DEFAULT_PROMPT, DashScopeChatOptions
+                .builder()
+                .withModel(DashScopeApi.ChatModel.QWEN_PLUS.getModel())
+                .build());
+    }
+
+    private static Flux<String> text(Flux<ChatResponse> stream) {
+        return stream
+                .filter(resp -> resp.getResult() != null && resp.getResult().getOutput().getText() != null)
+                .map(resp -> resp.getResult().getOutput().getText());
+    }
+}
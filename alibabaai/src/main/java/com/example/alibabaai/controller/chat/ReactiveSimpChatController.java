@@ -0,0 +1,150 @@
+package com.example.alibabaai.controller.chat;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import com.alibaba.cloud.ai.dashscope.chat.MessageFormat;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeApiConstants;
+import com.example.alibabaai.service.rag.RetrievalAdvisor;
+import com.example.alibabaai.service.vision.ImageAnalysisService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.content.Media;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+
+/**
+ * 聊天接口的响应式版本（reactive profile），路径与参数与 {@link SimpChatController} 一致
+ *
+ * 非流式接口也走模型的流式调用再聚合，整个请求不阻塞任何线程。
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Api(tags = "聊天")
+public class ReactiveSimpChatController {
+
+    private static final String DEFAULT_IMAGE_PROMPT = "请分析这张图片的内容";
+
+    private final ChatClient chatClient;
+    private final ImageAnalysisService imageAnalysisService;
+
+    public ReactiveSimpChatController(ChatModel chatModel, ObjectProvider<RetrievalAdvisor> retrievalAdvisor,
+                                      ImageAnalysisService imageAnalysisService) {
+        this.imageAnalysisService = imageAnalysisService;
+        ChatClient.Builder builder = ChatClient.builder(chatModel)
+                .defaultAdvisors(new SimpleLoggerAdvisor())
+                .defaultOptions(
+                        DashScopeChatOptions.builder()
+                                .withTopP(0.7)
+                                .build()
+                );
+        retrievalAdvisor.ifAvailable(builder::defaultAdvisors);
+        this.chatClient = builder.build();
+    }
+
+    @GetMapping("/chat")
+    @ApiOperation("聊天-默认模型")
+    public Mono<String> chat(@RequestParam(required = false) String input) {
+        return this.chatClient.prompt()
+                .user(input)
+                .stream()
+                .content()
+                .collect(Collectors.joining());
+    }
+
+    @GetMapping(value = "/stream/chat", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation("聊天-默认模型（stream）")
+    public Flux<String> streamChat(@RequestParam(required = false) String input) {
+        return this.chatClient.prompt(input).stream().content();
+    }
+
+    /**
+     * prompt 既可以作为查询参数也可以作为表单字段传入，与 Servlet 版本保持一致
+     */
+    @PostMapping("/image/analyze/upload")
+    @ApiOperation("聊天-图片分析")
+    public Mono<String> analyzeImageByUpload(@RequestParam(value = "prompt", required = false) String promptParam,
+                                             @RequestPart(value = "prompt", required = false) String promptPart,
+                                             @RequestPart("file") FilePart file) {
+        MediaType contentType = file.headers().getContentType();
+        if (contentType == null || !"image".equals(contentType.getType())) {
+            return Mono.just("请上传图片文件");
+        }
+        String prompt = promptParam != null ? promptParam : promptPart != null ? promptPart : DEFAULT_IMAGE_PROMPT;
+
+        return DataBufferUtils.join(file.content())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .flatMap(bytes -> {
+                    Media media = new Media(contentType, new ByteArrayResource(bytes));
+                    UserMessage message = UserMessage.builder()
+                            .text(prompt)
+                            .media(media)
+                            .build();
+                    message.getMetadata().put(DashScopeApiConstants.MESSAGE_FORMAT, MessageFormat.IMAGE);
+
+                    Prompt chatPrompt = new Prompt(message,
+                            DashScopeChatOptions.builder()
+                                    .withModel("qwen-vl-max-latest")
+                                    .withMultiModel(true)
+                                    .withVlHighResolutionImages(true)
+                                    .withTemperature(0.7)
+                                    .build());
+                    return chatClient.prompt(chatPrompt).stream().content().collect(Collectors.joining());
+                })
+                .onErrorResume(e -> Mono.just("图片分析失败: " + e.getMessage()));
+    }
+
+    /**
+     * 图片分析流式版本 - 事件依次为 upload、first-token、token...、complete（失败时为 error）
+     *
+     * upload 耗时即图片请求体的接收时间，接收完成后立即发起模型流式调用；超过 vision.max-image-size 时
+     * 停止读取并以 error 事件结束
+     */
+    @PostMapping(value = "/image/analyze/upload/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation("聊天-图片分析（stream）")
+    public Flux<ServerSentEvent<Object>> streamAnalyzeImageByUpload(
+            @RequestParam(value = "prompt", required = false) String promptParam,
+            @RequestPart(value = "prompt", required = false) String promptPart,
+            @RequestParam(required = false) Boolean highResolution,
+            @RequestPart("file") FilePart file) {
+        MediaType contentType = file.headers().getContentType();
+        if (contentType == null || !"image".equals(contentType.getType())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "请上传图片文件");
+        }
+        String prompt = promptParam != null ? promptParam : promptPart;
+        long maxBytes = imageAnalysisService.getMaxImageBytes();
+        // 边接收边计数，超过上限立即中止读取，而不是先把整个请求体缓冲进内存
+        Mono<byte[]> image = DataBufferUtils.join(file.content(), (int) Math.min(maxBytes, Integer.MAX_VALUE))
+                .onErrorMap(DataBufferLimitException.class, e -> new IllegalArgumentException(
+                        "图片过大: 超过 " + maxBytes + " bytes"))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                });
+        return imageAnalysisService.analyze(prompt, contentType, image, highResolution)
+                .map(event -> ServerSentEvent.builder(event.data()).event(event.event()).build());
+    }
+}
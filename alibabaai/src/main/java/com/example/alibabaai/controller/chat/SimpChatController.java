@@ -3,6 +3,8 @@ package com.example.alibabaai.controller.chat;
 import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
 import com.alibaba.cloud.ai.dashscope.chat.MessageFormat;
 import com.alibaba.cloud.ai.dashscope.common.DashScopeApiConstants;
+import com.example.alibabaai.service.rag.RetrievalAdvisor;
+import com.example.alibabaai.service.vision.ImageAnalysisService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import jakarta.servlet.http.HttpServletResponse;
@@ -12,30 +14,43 @@ import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.content.Media;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @Api(tags = "聊天")
 public class SimpChatController {
     // 默认ChatClient
     private final ChatClient chatClient;
+    private final ImageAnalysisService imageAnalysisService;
 
 
-    public SimpChatController(ChatModel chatModel) {
+    public SimpChatController(ChatModel chatModel, ObjectProvider<RetrievalAdvisor> retrievalAdvisor,
+                              ImageAnalysisService imageAnalysisService) {
+        this.imageAnalysisService = imageAnalysisService;
 
         // 构建默认ChatClient
-        this.chatClient = ChatClient.builder(chatModel)
+        ChatClient.Builder builder = ChatClient.builder(chatModel)
                 .defaultAdvisors(new SimpleLoggerAdvisor())
                 .defaultOptions(
                         DashScopeChatOptions.builder()
                                 .withTopP(0.7)
                                 .build()
-                )
-                .build();
+                );
+        // 启用本地向量库时挂载检索增强（向量库为空时不会发起检索）
+        retrievalAdvisor.ifAvailable(builder::defaultAdvisors);
+        this.chatClient = builder.build();
                 
     }
 
@@ -101,4 +116,26 @@ public class SimpChatController {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * 图片分析流式版本 - 事件依次为 upload、first-token、token...、complete（失败时为 error）
+     *
+     * 图片在 boundedElastic 上读取，模型响应边生成边推送，请求线程在返回 Flux 后即释放。
+     * Servlet 容器在进入控制器前已经收完并解析了 multipart 请求体，这里的 uploadMillis 只是读取已解析分段
+     * （内存或临时文件）的拷贝时间，不包含网络上传；上传大小由 spring.servlet.multipart.* 限制（与 vision.max-image-size 对齐）
+     */
+    @PostMapping(value = "/image/analyze/upload/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation("聊天-图片分析（stream）")
+    public Flux<ServerSentEvent<Object>> streamAnalyzeImageByUpload(
+            @RequestParam(defaultValue = ImageAnalysisService.DEFAULT_PROMPT) String prompt,
+            @RequestParam(required = false) Boolean highResolution,
+            @RequestParam("file") MultipartFile file) {
+        MediaType contentType = file.getContentType() != null ? MediaType.parseMediaType(file.getContentType()) : null;
+        if (contentType == null || !"image".equals(contentType.getType())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "请上传图片文件");
+        }
+        Mono<byte[]> image = Mono.fromCallable(file::getBytes).subscribeOn(Schedulers.boundedElastic());
+        return imageAnalysisService.analyze(prompt, contentType, image, highResolution)
+                .map(event -> ServerSentEvent.builder(event.data()).event(event.event()).build());
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.example.alibabaai.controller.chat;
+
+import com.example.alibabaai.service.structured.StreamingStructuredOutputConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/structured")
+@Api(tags = "聊天-结构化输出")
+public class StructuredOutputController {
+
+    private static final String SUMMARY_PROMPT = """
+            分析下面的文本，按字段顺序 title、language、sentiment、keywords、summary 输出。
+
+            {format}
+
+            文本：
+            {text}""";
+
+    private final ChatClient chatClient;
+    private final StreamingStructuredOutputConverter<DocumentSummary> summaryConverter;
+
+    public StructuredOutputController(ChatModel chatModel, ObjectMapper objectMapper) {
+        this.chatClient = ChatClient.builder(chatModel).build();
+        this.summaryConverter = new StreamingStructuredOutputConverter<>(DocumentSummary.class, objectMapper, 2);
+    }
+
+    /**
+     * 文本摘要（流式结构化输出）- 请求体为原文
+     * 
+     * 每当有字段闭合就推送一次当前的部分结果（event: partial），title、keywords 中的单个关键词等
+     * 在整段输出结束前就能拿到；最后一次为完整结果（event: complete）。
+     */
+    @PostMapping(value = "/summary/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation("结构化输出-文本摘要（流式）")
+    public Flux<ServerSentEvent<StreamingStructuredOutputConverter.Partial<DocumentSummary>>> summary(@RequestBody String text) {
+        Flux<String> chunks = chatClient.prompt()
+                .user(user -> user.text(SUMMARY_PROMPT)
+                        .param("format", summaryConverter.getFormat())
+                        .param("text", text))
+                .stream()
+                .content();
+        return summaryConverter.convert(chunks)
+                .map(partial -> ServerSentEvent.builder(partial)
+                        .event(partial.complete() ? "complete" : "partial")
+                        .build());
+    }
+
+    /**
+     * 文本摘要结构
+     */
+    public record DocumentSummary(String title, String language, String sentiment, List<String> keywords,
+                                  String summary) {
+    }
+}
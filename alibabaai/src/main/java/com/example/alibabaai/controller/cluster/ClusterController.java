@@ -0,0 +1,73 @@
+package com.example.alibabaai.controller.cluster;
+
+import com.example.alibabaai.service.cluster.ClusterMembership;
+import com.example.alibabaai.service.cluster.ConversationShardingService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cluster")
+@Api(tags = "集群-会话分片")
+@ConditionalOnProperty(name = "cluster.sharding.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ClusterController {
+
+    private final ConversationShardingService shardingService;
+
+    public ClusterController(ConversationShardingService shardingService) {
+        this.shardingService = shardingService;
+    }
+
+    @GetMapping("/members")
+    @ApiOperation("集群-成员列表")
+    public Map<String, Object> members() {
+        ClusterMembership membership = shardingService.getMembership();
+        Map<String, Object> res = new HashMap<>();
+        res.put("self", membership.getSelf());
+        res.put("members", membership.getMembers());
+        return res;
+    }
+
+    /**
+     * 变更成员列表，请求体示例：{"members":["http://10.0.0.1:8080","http://10.0.0.2:8080"]}
+     * 默认广播给新旧成员，各节点将不再归属自己的会话迁移给新归属节点
+     */
+    @PutMapping("/members")
+    @ApiOperation("集群-变更成员")
+    public Map<String, Object> updateMembers(@RequestBody ConversationShardingService.MembershipRequest request,
+                                             @RequestParam(value = "propagate", defaultValue = "true") boolean propagate) {
+        if (request.members() == null || request.members().isEmpty()) {
+            throw new IllegalArgumentException("members must not be empty");
+        }
+        return shardingService.applyMembership(request.members(), propagate);
+    }
+
+    @GetMapping("/owner")
+    @ApiOperation("集群-会话归属节点")
+    public Map<String, Object> owner(@RequestParam("conversation_id") String conversationId) {
+        ClusterMembership membership = shardingService.getMembership();
+        Map<String, Object> res = new HashMap<>();
+        res.put("conversationId", conversationId);
+        res.put("owner", membership.owner(conversationId));
+        res.put("local", membership.isLocal(conversationId));
+        return res;
+    }
+
+    /**
+     * 接收其他节点迁移过来的会话记忆（节点间内部调用）
+     */
+    @PostMapping("/handoff")
+    @ApiOperation("集群-接收会话迁移")
+    public Map<String, Object> handoff(@RequestBody List<ConversationShardingService.HandoffConversation> conversations) {
+        Map<String, Object> res = new HashMap<>();
+        res.put("accepted", shardingService.acceptHandoff(conversations));
+        return res;
+    }
+}
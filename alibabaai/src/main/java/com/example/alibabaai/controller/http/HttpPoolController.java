@@ -0,0 +1,32 @@
+package com.example.alibabaai.controller.http;
+
+import com.example.alibabaai.service.http.HttpClientPools;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/http")
+@Api(tags = "出站连接池")
+public class HttpPoolController {
+
+    private final HttpClientPools httpClientPools;
+
+    public HttpPoolController(HttpClientPools httpClientPools) {
+        this.httpClientPools = httpClientPools;
+    }
+
+    /**
+     * 各命名连接池的请求数、并发、排队与等待耗时
+     */
+    @GetMapping("/pools")
+    @ApiOperation("出站连接池统计")
+    public List<Map<String, Object>> pools() {
+        return httpClientPools.stats();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.alibabaai.controller.jfr;
+
+import com.example.alibabaai.service.jfr.JfrRecordingService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/jfr")
+@Api(tags = "JFR录制")
+@ConditionalOnProperty(name = "jfr.enabled", havingValue = "true")
+public class JfrController {
+
+    private final JfrRecordingService jfrRecordingService;
+
+    public JfrController(JfrRecordingService jfrRecordingService) {
+        this.jfrRecordingService = jfrRecordingService;
+    }
+
+    /**
+     * 开始限时录制，到时自动停止；settings 为 default 或 profile
+     */
+    @PostMapping("/recordings")
+    @ApiOperation("JFR-开始录制")
+    public Map<String, Object> start(@RequestParam(value = "duration", defaultValue = "60s") String duration,
+                                     @RequestParam(value = "settings", defaultValue = "profile") String settings) {
+        try {
+            return jfrRecordingService.start(DurationStyle.detectAndParse(duration), settings);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @GetMapping("/recordings")
+    @ApiOperation("JFR-录制列表")
+    public List<Map<String, Object>> list() {
+        return jfrRecordingService.list();
+    }
+
+    @GetMapping("/recordings/{id}")
+    @ApiOperation("JFR-录制状态")
+    public Map<String, Object> get(@PathVariable long id) {
+        try {
+            return jfrRecordingService.describe(id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    /**
+     * 提前停止录制并直接返回录制文件
+     */
+    @PostMapping("/recordings/{id}/stop")
+    @ApiOperation("JFR-停止录制并下载")
+    public ResponseEntity<Resource> stop(@PathVariable long id) {
+        try {
+            jfrRecordingService.stop(id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        return download(id);
+    }
+
+    /**
+     * 下载已结束录制的文件（可用 JDK Mission Control 或 jfr print 查看）
+     */
+    @GetMapping("/recordings/{id}/file")
+    @ApiOperation("JFR-下载录制文件")
+    public ResponseEntity<Resource> download(@PathVariable long id) {
+        Path path;
+        try {
+            path = jfrRecordingService.file(id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(path.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(path));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.alibabaai.controller.job;
+
+import com.example.alibabaai.service.job.DurableJobQueue;
+import com.example.alibabaai.service.job.Job;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/jobs")
+@Api(tags = "异步任务")
+@ConditionalOnProperty(name = "jobs.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class JobController {
+
+    private final DurableJobQueue jobQueue;
+
+    public JobController(DurableJobQueue jobQueue) {
+        this.jobQueue = jobQueue;
+    }
+
+    /**
+     * 提交任务，请求体示例：{"type":"mcp-chat","priority":5,"payload":{"message":"请帮我用 chrome_navigate 打开..."}}
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @ApiOperation("任务-提交")
+    public Map<String, Object> submit(@RequestBody JobRequest request) {
+        try {
+            return jobQueue.submit(request.type(), request.priority(), request.payload()).snapshot(false);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    @PostMapping("/image")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @ApiOperation("任务-提交图片分析")
+    public Map<String, Object> submitImage(@RequestParam(defaultValue = "请分析这张图片的内容") String prompt,
+                                           @RequestParam(value = "priority", required = false) Integer priority,
+                                           @RequestParam("file") MultipartFile file) throws IOException {
+        if (file.getContentType() == null || !file.getContentType().startsWith("image/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "请上传图片文件");
+        }
+        try {
+            return jobQueue.submitImage(prompt, file.getContentType(), file.getBytes(), priority).snapshot(false);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    @GetMapping
+    @ApiOperation("任务-列表")
+    public List<Map<String, Object>> list() {
+        return jobQueue.list().stream()
+                .sorted(Comparator.comparingLong((Job job) -> job.getSpec().submittedAt()).reversed())
+                .map(job -> job.snapshot(false))
+                .toList();
+    }
+
+    @GetMapping("/stats")
+    @ApiOperation("任务-队列统计")
+    public Map<String, Object> stats() {
+        return jobQueue.stats();
+    }
+
+    @GetMapping("/{id}")
+    @ApiOperation("任务-查询结果")
+    public Map<String, Object> get(@PathVariable String id) {
+        return find(id).snapshot(true);
+    }
+
+    /**
+     * SSE 订阅：运行中推送增量输出（output 事件，从头回放），结束时推送最终状态（status 事件）后关闭
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation("任务-订阅输出")
+    public Flux<ServerSentEvent<Object>> events(@PathVariable String id) {
+        Job job = find(id);
+        return jobQueue.liveOutput(job)
+                .map(chunk -> ServerSentEvent.<Object>builder(chunk).event("output").build())
+                .concatWith(Mono.fromSupplier(() -> ServerSentEvent.<Object>builder(job.snapshot(true)).event("status").build()));
+    }
+
+    @DeleteMapping("/{id}")
+    @ApiOperation("任务-取消（仅限未开始）")
+    public Map<String, Object> cancel(@PathVariable String id) {
+        Job job = find(id);
+        if (!jobQueue.cancel(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + id + " is " + job.getStatus());
+        }
+        return job.snapshot(false);
+    }
+
+    private Job find(String id) {
+        Job job = jobQueue.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown job: " + id);
+        }
+        return job;
+    }
+
+    public record JobRequest(String type, Integer priority, Map<String, Object> payload) {
+    }
+}
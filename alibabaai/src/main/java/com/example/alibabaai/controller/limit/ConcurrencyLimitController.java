@@ -0,0 +1,33 @@
+package com.example.alibabaai.controller.limit;
+
+import com.example.alibabaai.service.limit.AdaptiveConcurrencyLimiter;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/limit")
+@Api(tags = "并发限制")
+@ConditionalOnProperty(name = "llm.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitController {
+
+    private final AdaptiveConcurrencyLimiter chatModelConcurrencyLimiter;
+
+    public ConcurrencyLimitController(AdaptiveConcurrencyLimiter chatModelConcurrencyLimiter) {
+        this.chatModelConcurrencyLimiter = chatModelConcurrencyLimiter;
+    }
+
+    /**
+     * 模型调用的当前并发上限、在途数与 RTT 基线
+     */
+    @GetMapping("/model")
+    @ApiOperation("并发限制-模型调用状态")
+    public Map<String, Object> model() {
+        return chatModelConcurrencyLimiter.stats();
+    }
+}
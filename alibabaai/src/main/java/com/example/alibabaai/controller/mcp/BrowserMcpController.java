@@ -19,10 +19,16 @@
 package com.example.alibabaai.controller.mcp;
 
 import com.example.alibabaai.service.mcp.BrowserMcpService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.alibabaai.service.mcp.MultiUrlFetchService;
+import com.example.alibabaai.service.mcp.binding.ToolArgumentBinders;
+import com.example.alibabaai.service.mcp.binding.ToolArgumentException;
+import com.example.alibabaai.service.mcp.selection.ToolSelectionAdvisor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -35,11 +41,17 @@ public class BrowserMcpController {
     private static final Logger logger = LoggerFactory.getLogger(BrowserMcpController.class);
     
     private final BrowserMcpService browserMcpService;
-    private final ObjectMapper objectMapper;
+    private final MultiUrlFetchService multiUrlFetchService;
+    private final ToolArgumentBinders toolArgumentBinders;
+    private final ObjectProvider<ToolSelectionAdvisor> toolSelectionAdvisor;
     
-    public BrowserMcpController(BrowserMcpService browserMcpService, ObjectMapper objectMapper) {
+    public BrowserMcpController(BrowserMcpService browserMcpService, MultiUrlFetchService multiUrlFetchService,
+                                ToolArgumentBinders toolArgumentBinders,
+                                ObjectProvider<ToolSelectionAdvisor> toolSelectionAdvisor) {
         this.browserMcpService = browserMcpService;
-        this.objectMapper = objectMapper;
+        this.multiUrlFetchService = multiUrlFetchService;
+        this.toolArgumentBinders = toolArgumentBinders;
+        this.toolSelectionAdvisor = toolSelectionAdvisor;
     }
     
     /**
@@ -47,95 +59,75 @@ public class BrowserMcpController {
      */
     @GetMapping("/tools/list")
     public Mono<Map<String, Object>> listTools() {
-        return Mono.just(Map.of(
-            "tools", List.of(
-                Map.of(
-                    "name", "chrome_navigate",
-                    "description", "Navigate to a URL or refresh the current tab in Chrome browser",
-                    "inputSchema", Map.of(
-                        "type", "object",
-                        "required", List.of("url"),
-                        "properties", Map.of(
-                            "url", Map.of("type", "string", "description", "URL to navigate to"),
-                            "newWindow", Map.of("type", "boolean", "description", "Create a new window"),
-                            "width", Map.of("type", "number", "description", "Viewport width in pixels"),
-                            "height", Map.of("type", "number", "description", "Viewport height in pixels")
-                        )
-                    )
-                ),
-                Map.of(
-                    "name", "chrome_get_web_content",
-                    "description", "Fetch content from a web page",
-                    "inputSchema", Map.of(
-                        "type", "object",
-                        "properties", Map.of(
-                            "url", Map.of("type", "string", "description", "URL to fetch content from"),
-                            "textContent", Map.of("type", "boolean", "description", "Get visible text content"),
-                            "htmlContent", Map.of("type", "boolean", "description", "Get HTML content"),
-                            "selector", Map.of("type", "string", "description", "CSS selector to get specific element")
-                        )
-                    )
-                )
-            )
-        ));
+        return Mono.just(Map.of("tools", toolArgumentBinders.tools()));
     }
     
     /**
      * Execute tool call
+     * 
+     * 请求体示例：{"name":"chrome_navigate","arguments":{"url":"https://example.com","width":1024}}
+     * 参数按工具 inputSchema 直接从请求体词法流绑定为参数记录，类型不符或缺少必填参数时返回错误结果
      */
     @PostMapping("/tools/call")
-    public Mono<Map<String, Object>> callTool(@RequestBody Map<String, Object> request) {
+    public Mono<Map<String, Object>> callTool(@RequestBody String request) {
         try {
-            String name = (String) request.get("name");
-            Map<String, Object> arguments = (Map<String, Object>) request.get("arguments");
+            ToolArgumentBinders.ToolCall call = toolArgumentBinders.parseCall(request);
             
-            switch (name) {
+            switch (call.name()) {
                 case "chrome_navigate":
-                    return handleChromeNavigate(arguments);
+                    return handleChromeNavigate((BrowserMcpService.NavigateRequest) call.arguments());
                 case "chrome_get_web_content":
-                    return handleChromeGetWebContent(arguments);
+                    return handleChromeGetWebContent((BrowserMcpService.WebContentRequest) call.arguments());
+                case "fetch_urls":
+                    return handleFetchUrls((MultiUrlFetchService.FetchRequest) call.arguments());
                 default:
-                    return Mono.just(Map.of(
-                        "isError", true,
-                        "content", List.of(Map.of(
-                            "type", "text",
-                            "text", "Unknown tool: " + name
-                        ))
-                    ));
+                    return Mono.just(error("Unknown tool: " + call.name()));
             }
+        } catch (ToolArgumentException e) {
+            return Mono.just(error(e.getMessage()));
         } catch (Exception e) {
-            return Mono.just(Map.of(
-                "isError", true,
-                "content", List.of(Map.of(
-                    "type", "text",
-                    "text", "Error executing tool: " + e.getMessage()
-                ))
-            ));
+            return Mono.just(error("Error executing tool: " + e.getMessage()));
         }
     }
     
-    private Mono<Map<String, Object>> handleChromeNavigate(Map<String, Object> arguments) {
-        String url = (String) arguments.get("url");
-        Boolean newWindow = (Boolean) arguments.get("newWindow");
-        Integer width = (Integer) arguments.get("width");
-        Integer height = (Integer) arguments.get("height");
-        
-        return browserMcpService.chromeNavigate(url, newWindow, width, height)
+    /**
+     * 工具选择统计 - 挂载的工具数与省下的 schema token 估算
+     */
+    @GetMapping("/tools/selection")
+    public Map<String, Object> toolSelection() {
+        ToolSelectionAdvisor advisor = toolSelectionAdvisor.getIfAvailable();
+        return advisor != null ? advisor.stats() : Map.of("enabled", false);
+    }
+    
+    /**
+     * 浏览器会话池状态
+     */
+    @GetMapping("/browser/pool")
+    public Map<String, Object> browserPool() {
+        return browserMcpService.browserPoolStatus();
+    }
+    
+    /**
+     * fetch_urls 流式版本 - 每个页面抓取完成即输出一行 NDJSON
+     */
+    @PostMapping(value = "/tools/fetch_urls/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MultiUrlFetchService.FetchResult> streamFetchUrls(@RequestBody MultiUrlFetchService.FetchRequest request) {
+        return multiUrlFetchService.fetch(request);
+    }
+    
+    private Mono<Map<String, Object>> handleChromeNavigate(BrowserMcpService.NavigateRequest arguments) {
+        return browserMcpService.chromeNavigate(arguments.url(), arguments.newWindow(), arguments.width(), arguments.height())
             .map(result -> Map.of(
                 "content", List.of(Map.of(
                     "type", "text",
-                    "text", "Browser opened successfully! Navigated to: " + url
+                    "text", result
                 ))
             ));
     }
     
-    private Mono<Map<String, Object>> handleChromeGetWebContent(Map<String, Object> arguments) {
-        String url = (String) arguments.get("url");
-        Boolean textContent = (Boolean) arguments.get("textContent");
-        Boolean htmlContent = (Boolean) arguments.get("htmlContent");
-        String selector = (String) arguments.get("selector");
-        
-        return browserMcpService.chromeGetWebContent(url, textContent, htmlContent, selector)
+    private Mono<Map<String, Object>> handleChromeGetWebContent(BrowserMcpService.WebContentRequest arguments) {
+        return browserMcpService.chromeGetWebContent(arguments.url(), arguments.textContent(), arguments.htmlContent(),
+                arguments.selector(), arguments.maxTokens())
             .map(result -> Map.of(
                 "content", List.of(Map.of(
                     "type", "text",
@@ -143,4 +135,25 @@ public class BrowserMcpController {
                 ))
             ));
     }
-}
\ No newline at end of file
+    
+    private Mono<Map<String, Object>> handleFetchUrls(MultiUrlFetchService.FetchRequest request) {
+        // 每个页面一个内容项，顺序即完成顺序
+        return multiUrlFetchService.fetch(request)
+            .map(result -> Map.<String, Object>of(
+                "type", "text",
+                "text", result.render()
+            ))
+            .collectList()
+            .map(content -> Map.of("content", content));
+    }
+    
+    private static Map<String, Object> error(String message) {
+        return Map.of(
+            "isError", true,
+            "content", List.of(Map.of(
+                "type", "text",
+                "text", message
+            ))
+        );
+    }
+}
@@ -1,24 +1,36 @@
 package com.example.alibabaai.controller.mcp;
 
+import com.example.alibabaai.service.mcp.McpNotificationHub;
 import io.swagger.annotations.Api;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 
+import java.time.Duration;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/mcp")
 @Api(tags = "MCP浏览器查询")
 public class McpController {
 
     private final ChatClient chatClient;
+    private final McpNotificationHub notificationHub;
+    private final Duration heartbeat;
 
-    public McpController(ChatClient mcpEnabledChatClient) {
+    public McpController(ChatClient mcpEnabledChatClient, McpNotificationHub mcpNotificationHub,
+                         @Value("${mcp.notifications.heartbeat:15s}") Duration heartbeat) {
         this.chatClient = mcpEnabledChatClient;
+        this.notificationHub = mcpNotificationHub;
+        this.heartbeat = heartbeat;
     }
 
 
@@ -34,4 +46,40 @@ public class McpController {
                 .content()
                 .map(token -> ServerSentEvent.builder(token).build());
     }
+
+    /**
+     * MCP 服务端通知流（logging / progress）
+     * 
+     * policy=latest（默认）缓冲满时挤掉最旧的通知，policy=drop 丢弃新到的通知；
+     * 事件 id 为全局序号，出现跳号即表示本订阅者丢失了通知。空闲时定期发送注释行保持连接。
+     */
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<McpNotificationHub.Notification>> notifications(
+            @RequestParam(value = "policy", required = false) String policy,
+            @RequestParam(value = "buffer", required = false) Integer buffer,
+            @RequestParam(value = "type", required = false) String type) {
+        McpNotificationHub.OverflowPolicy overflowPolicy;
+        try {
+            overflowPolicy = McpNotificationHub.OverflowPolicy.parse(policy);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown policy: " + policy);
+        }
+        Flux<ServerSentEvent<McpNotificationHub.Notification>> events = notificationHub.subscribe(overflowPolicy, buffer, type)
+                .onErrorMap(IllegalStateException.class, e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()))
+                .map(notification -> ServerSentEvent.builder(notification)
+                        .id(String.valueOf(notification.sequence()))
+                        .event(notification.type())
+                        .build());
+        Flux<ServerSentEvent<McpNotificationHub.Notification>> heartbeats = Flux.interval(heartbeat)
+                .map(tick -> ServerSentEvent.<McpNotificationHub.Notification>builder().comment("heartbeat").build());
+        return Flux.merge(events, heartbeats);
+    }
+
+    /**
+     * 通知订阅者状态（缓冲、已投递与丢弃数）
+     */
+    @GetMapping("/notifications/subscribers")
+    public Map<String, Object> notificationSubscribers() {
+        return notificationHub.stats();
+    }
 }
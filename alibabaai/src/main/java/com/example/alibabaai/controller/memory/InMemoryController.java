@@ -3,9 +3,10 @@ package com.example.alibabaai.controller.memory;
 import io.swagger.annotations.Api;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
-import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
 import org.springframework.ai.chat.memory.MessageWindowChatMemory;
 import org.springframework.ai.chat.messages.Message;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -20,19 +21,22 @@ import static org.springframework.ai.chat.memory.ChatMemory.CONVERSATION_ID;
  * @date 2025/5/22 22:59
  */
 @Api(tags = "聊天-记忆")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/advisor/memory/in")
 public class InMemoryController {
 
+    public static final String DEFAULT_CONVERSATION_ID = "yingzi";
+
     private final ChatClient chatClient;
-    private final InMemoryChatMemoryRepository chatMemoryRepository = new InMemoryChatMemoryRepository();
     private final int MAX_MESSAGES = 100;
-    private final MessageWindowChatMemory messageWindowChatMemory = MessageWindowChatMemory.builder()
-            .chatMemoryRepository(chatMemoryRepository)
-            .maxMessages(MAX_MESSAGES)
-            .build();
+    private final MessageWindowChatMemory messageWindowChatMemory;
 
-    public InMemoryController(ChatClient.Builder builder) {
+    public InMemoryController(ChatClient.Builder builder, ChatMemoryRepository chatMemoryRepository) {
+        this.messageWindowChatMemory = MessageWindowChatMemory.builder()
+                .chatMemoryRepository(chatMemoryRepository)
+                .maxMessages(MAX_MESSAGES)
+                .build();
         this.chatClient = builder
                 .defaultAdvisors(
                         MessageChatMemoryAdvisor.builder(messageWindowChatMemory)
@@ -43,7 +47,7 @@ public class InMemoryController {
 
     @GetMapping("/call")
     public String call(@RequestParam(value = "query", defaultValue = "你好，我的外号是影子，请记住呀") String query,
-                       @RequestParam(value = "conversation_id", defaultValue = "yingzi") String conversationId
+                       @RequestParam(value = "conversation_id", defaultValue = DEFAULT_CONVERSATION_ID) String conversationId
     ) {
         return chatClient.prompt(query)
                 .advisors(
@@ -53,7 +57,7 @@ public class InMemoryController {
     }
 
     @GetMapping("/messages")
-    public List<Message> messages(@RequestParam(value = "conversation_id", defaultValue = "yingzi") String conversationId) {
+    public List<Message> messages(@RequestParam(value = "conversation_id", defaultValue = DEFAULT_CONVERSATION_ID) String conversationId) {
         return messageWindowChatMemory.get(conversationId);
     }
 
@@ -0,0 +1,66 @@
+package com.example.alibabaai.controller.memory;
+
+import io.swagger.annotations.Api;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.alibabaai.controller.memory.InMemoryController.DEFAULT_CONVERSATION_ID;
+import static org.springframework.ai.chat.memory.ChatMemory.CONVERSATION_ID;
+
+/**
+ * {@link InMemoryController} 的响应式版本（reactive profile），共用同一个会话记忆存储
+ */
+@Api(tags = "聊天-记忆")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/advisor/memory/in")
+public class ReactiveInMemoryController {
+
+    private final ChatClient chatClient;
+    private final int MAX_MESSAGES = 100;
+    private final MessageWindowChatMemory messageWindowChatMemory;
+
+    public ReactiveInMemoryController(ChatClient.Builder builder, ChatMemoryRepository chatMemoryRepository) {
+        this.messageWindowChatMemory = MessageWindowChatMemory.builder()
+                .chatMemoryRepository(chatMemoryRepository)
+                .maxMessages(MAX_MESSAGES)
+                .build();
+        this.chatClient = builder
+                .defaultAdvisors(
+                        MessageChatMemoryAdvisor.builder(messageWindowChatMemory)
+                                .build()
+                )
+                .build();
+    }
+
+    @GetMapping("/call")
+    public Mono<String> call(@RequestParam(value = "query", defaultValue = "你好，我的外号是影子，请记住呀") String query,
+                             @RequestParam(value = "conversation_id", defaultValue = DEFAULT_CONVERSATION_ID) String conversationId
+    ) {
+        return chatClient.prompt(query)
+                .advisors(
+                        a -> a.param(CONVERSATION_ID, conversationId)
+                )
+                .stream()
+                .content()
+                .collect(Collectors.joining());
+    }
+
+    @GetMapping("/messages")
+    public List<Message> messages(@RequestParam(value = "conversation_id", defaultValue = DEFAULT_CONVERSATION_ID) String conversationId) {
+        return messageWindowChatMemory.get(conversationId);
+    }
+
+}
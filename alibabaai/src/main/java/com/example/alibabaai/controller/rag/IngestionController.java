@@ -0,0 +1,82 @@
+package com.example.alibabaai.controller.rag;
+
+import com.example.alibabaai.service.rag.DocumentIngestionService;
+import com.example.alibabaai.service.rag.IngestionJob;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/rag/ingest/jobs")
+@Api(tags = "检索-文档摄取")
+@ConditionalOnProperty(name = "rag.vector-store.enabled", havingValue = "true", matchIfMissing = true)
+public class IngestionController {
+
+    private final DocumentIngestionService ingestionService;
+
+    public IngestionController(DocumentIngestionService ingestionService) {
+        this.ingestionService = ingestionService;
+    }
+
+    /**
+     * 提交摄取任务，请求体示例：{"paths":["corpus"],"chunkChars":800,"batchSize":16,"maxInFlightBatches":4}（路径相对 rag.ingest.base-dir）
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @ApiOperation("摄取-提交任务")
+    public Map<String, Object> submit(@RequestBody IngestionRequest request) {
+        try {
+            return ingestionService.submit(request.paths(), request.chunkChars(), request.batchSize(),
+                    request.maxInFlightBatches()).snapshot();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping
+    @ApiOperation("摄取-任务列表")
+    public List<Map<String, Object>> list() {
+        return ingestionService.list().stream().map(IngestionJob::snapshot).toList();
+    }
+
+    @GetMapping("/{id}")
+    @ApiOperation("摄取-任务进度")
+    public Map<String, Object> get(@PathVariable String id) {
+        return find(id).snapshot();
+    }
+
+    /**
+     * 以 SSE 每秒推送一次进度，任务结束后推送最终状态并关闭
+     */
+    @GetMapping(value = "/{id}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation("摄取-进度订阅")
+    public Flux<ServerSentEvent<Map<String, Object>>> progress(@PathVariable String id) {
+        IngestionJob job = find(id);
+        return Flux.interval(Duration.ZERO, Duration.ofSeconds(1))
+                .map(tick -> job.snapshot())
+                .takeUntil(snapshot -> job.getStatus() == IngestionJob.Status.COMPLETED
+                        || job.getStatus() == IngestionJob.Status.FAILED)
+                .map(snapshot -> ServerSentEvent.builder(snapshot).event("progress").build());
+    }
+
+    private IngestionJob find(String id) {
+        IngestionJob job = ingestionService.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown ingestion job: " + id);
+        }
+        return job;
+    }
+
+    public record IngestionRequest(List<String> paths, Integer chunkChars, Integer batchSize, Integer maxInFlightBatches) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.alibabaai.controller.rag;
+
+import com.example.alibabaai.service.rag.HnswVectorStore;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/rag/documents")
+@Api(tags = "检索-向量库")
+@ConditionalOnProperty(name = "rag.vector-store.enabled", havingValue = "true", matchIfMissing = true)
+public class VectorStoreController {
+
+    private final HnswVectorStore vectorStore;
+
+    public VectorStoreController(HnswVectorStore vectorStore) {
+        this.vectorStore = vectorStore;
+    }
+
+    /**
+     * 写入文档，请求体示例：[{"id":"doc-1","text":"...","metadata":{"source":"faq"}}]
+     */
+    @PostMapping
+    @ApiOperation("向量库-写入文档")
+    public Map<String, Object> add(@RequestBody List<DocumentRequest> requests) throws IOException {
+        List<Document> documents = requests.stream()
+                .map(r -> r.id() != null
+                        ? new Document(r.id(), r.text(), r.metadata() != null ? r.metadata() : new HashMap<>())
+                        : new Document(r.text(), r.metadata() != null ? r.metadata() : new HashMap<>()))
+                .toList();
+        vectorStore.add(documents);
+        vectorStore.flush();
+
+        Map<String, Object> res = new HashMap<>();
+        res.put("added", documents.size());
+        res.put("ids", documents.stream().map(Document::getId).toList());
+        res.put("total", vectorStore.size());
+        return res;
+    }
+
+    @GetMapping("/search")
+    @ApiOperation("向量库-相似度检索")
+    public List<Document> search(@RequestParam("query") String query,
+                                 @RequestParam(value = "topK", defaultValue = "4") int topK,
+                                 @RequestParam(value = "threshold", defaultValue = "0.0") double threshold) {
+        return vectorStore.similaritySearch(SearchRequest.builder()
+                .query(query)
+                .topK(topK)
+                .similarityThreshold(threshold)
+                .build());
+    }
+
+    @DeleteMapping
+    @ApiOperation("向量库-删除文档")
+    public Map<String, Object> delete(@RequestParam("ids") List<String> ids) {
+        vectorStore.delete(ids);
+        return Map.of("total", vectorStore.size());
+    }
+
+    public record DocumentRequest(String id, String text, Map<String, Object> metadata) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.alibabaai.controller.startup;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/health")
+@Api(tags = "健康检查")
+public class HealthController {
+
+    private final ApplicationAvailability applicationAvailability;
+
+    public HealthController(ApplicationAvailability applicationAvailability) {
+        this.applicationAvailability = applicationAvailability;
+    }
+
+    /**
+     * 就绪探针 - 启动预热完成前返回 503
+     */
+    @GetMapping("/readiness")
+    @ApiOperation("健康检查-就绪探针")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        ReadinessState state = applicationAvailability.getReadinessState();
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Map.of("status", status == HttpStatus.OK ? "UP" : "DOWN", "state", state));
+    }
+
+    /**
+     * 存活探针
+     */
+    @GetMapping("/liveness")
+    @ApiOperation("健康检查-存活探针")
+    public ResponseEntity<Map<String, Object>> liveness() {
+        LivenessState state = applicationAvailability.getLivenessState();
+        HttpStatus status = state == LivenessState.CORRECT ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Map.of("status", status == HttpStatus.OK ? "UP" : "DOWN", "state", state));
+    }
+}
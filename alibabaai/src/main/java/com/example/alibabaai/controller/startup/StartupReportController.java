@@ -0,0 +1,31 @@
+package com.example.alibabaai.controller.startup;
+
+import com.example.alibabaai.service.startup.StartupReportService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/startup")
+@Api(tags = "启动")
+public class StartupReportController {
+
+    private final StartupReportService startupReportService;
+
+    public StartupReportController(StartupReportService startupReportService) {
+        this.startupReportService = startupReportService;
+    }
+
+    /**
+     * 启动耗时报告
+     */
+    @GetMapping("/report")
+    @ApiOperation("启动-耗时报告")
+    public Map<String, Object> report() {
+        return startupReportService.report();
+    }
+}
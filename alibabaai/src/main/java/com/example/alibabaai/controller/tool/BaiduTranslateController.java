@@ -1,22 +1,35 @@
 package com.example.alibabaai.controller.tool;
 
+import com.example.alibabaai.service.translate.DocumentTranslationService;
+import com.example.alibabaai.service.usage.UsageAttribution;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/translate")
 public class BaiduTranslateController {
 
     private final ChatClient dashScopeChatClient;
 
+    private final DocumentTranslationService documentTranslationService;
 
-    public BaiduTranslateController(ChatClient chatClient) {
+
+    public BaiduTranslateController(ChatClient chatClient, DocumentTranslationService documentTranslationService) {
 
         this.dashScopeChatClient = chatClient;
+        this.documentTranslationService = documentTranslationService;
     }
 
     /**
@@ -42,4 +55,35 @@ public class BaiduTranslateController {
                 .content();
     }
 
+    /**
+     * 长文档翻译 - 请求体为原文（text/plain），按段落、句子分块并行翻译
+     * 译文块按原文顺序逐行返回：{"index":0,"total":12,"text":"...","sourceChars":1480,"latencyMillis":2310}
+     */
+    @PostMapping(value = "/document", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiOperation("翻译-长文档（NDJSON分块）")
+    public Flux<DocumentTranslationService.TranslatedChunk> translateDocument(
+            @RequestBody String text,
+            @RequestParam(value = "to", defaultValue = "English") String target,
+            @RequestParam(value = "concurrency", required = false) Integer concurrency) {
+        UsageAttribution attribution = UsageAttribution.fromCurrentRequest();
+        return documentTranslationService.translate(text, target, concurrency)
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .contextWrite(context -> context.put(UsageAttribution.class, attribution));
+    }
+
+    /**
+     * 长文档翻译 - 纯文本流，译文按原文顺序边译边输出
+     */
+    @PostMapping(value = "/document/text", produces = MediaType.TEXT_PLAIN_VALUE)
+    @ApiOperation("翻译-长文档（纯文本流）")
+    public Flux<String> translateDocumentText(
+            @RequestBody String text,
+            @RequestParam(value = "to", defaultValue = "English") String target,
+            @RequestParam(value = "concurrency", required = false) Integer concurrency) {
+        UsageAttribution attribution = UsageAttribution.fromCurrentRequest();
+        return documentTranslationService.translateText(text, target, concurrency)
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .contextWrite(context -> context.put(UsageAttribution.class, attribution));
+    }
+
 }
@@ -0,0 +1,84 @@
+package com.example.alibabaai.controller.tool;
+
+import com.example.alibabaai.service.translate.DocumentTranslationService;
+import com.example.alibabaai.service.usage.UsageAttribution;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+
+/**
+ * {@link BaiduTranslateController} 的响应式版本（reactive profile）
+ *
+ * 长文档翻译会并发发起多次模型调用，计费归属在端点上显式写入 Reactor Context，与 Servlet 版本一致
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/translate")
+public class ReactiveBaiduTranslateController {
+
+    private final ChatClient dashScopeChatClient;
+
+    private final DocumentTranslationService documentTranslationService;
+
+    public ReactiveBaiduTranslateController(ChatClient chatClient, DocumentTranslationService documentTranslationService) {
+        this.dashScopeChatClient = chatClient;
+        this.documentTranslationService = documentTranslationService;
+    }
+
+    @GetMapping("/chat")
+    @ApiOperation("聊天-翻译")
+    public Mono<String> simpleChat(@RequestParam(value = "query", defaultValue = "帮我把以下内容翻译成英文：你好，世界。") String query) {
+        return dashScopeChatClient.prompt(query).stream().content().collect(Collectors.joining());
+    }
+
+    @GetMapping("/chat-tool-function-callback")
+    @ApiOperation("聊天-翻译（工具调用）")
+    public Mono<String> chatTranslateFunction(@RequestParam(value = "query", defaultValue = "帮我把以下内容翻译成英文：你好，世界。") String query) {
+        return dashScopeChatClient.prompt(query)
+                .toolNames("baiduTranslate")
+                .stream()
+                .content()
+                .collect(Collectors.joining());
+    }
+
+    @PostMapping(value = "/document", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiOperation("翻译-长文档（NDJSON分块）")
+    public Flux<DocumentTranslationService.TranslatedChunk> translateDocument(
+            @RequestBody String text,
+            @RequestParam(value = "to", defaultValue = "English") String target,
+            @RequestParam(value = "concurrency", required = false) Integer concurrency,
+            ServerHttpRequest request) {
+        UsageAttribution attribution = UsageAttribution.fromRequest(request);
+        return documentTranslationService.translate(text, target, concurrency)
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .contextWrite(context -> context.put(UsageAttribution.class, attribution));
+    }
+
+    @PostMapping(value = "/document/text", produces = MediaType.TEXT_PLAIN_VALUE)
+    @ApiOperation("翻译-长文档（纯文本流）")
+    public Flux<String> translateDocumentText(
+            @RequestBody String text,
+            @RequestParam(value = "to", defaultValue = "English") String target,
+            @RequestParam(value = "concurrency", required = false) Integer concurrency,
+            ServerHttpRequest request) {
+        UsageAttribution attribution = UsageAttribution.fromRequest(request);
+        return documentTranslationService.translateText(text, target, concurrency)
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .contextWrite(context -> context.put(UsageAttribution.class, attribution));
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.example.alibabaai.controller.trace;
+
+import com.example.alibabaai.service.trace.OtlpJsonFileExporter;
+import com.example.alibabaai.service.trace.TraceStore;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/trace")
+@Api(tags = "请求追踪")
+@ConditionalOnProperty(name = "tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TraceController {
+
+    private final TraceStore traceStore;
+    private final ObjectProvider<OtlpJsonFileExporter> exporter;
+
+    public TraceController(TraceStore traceStore, ObjectProvider<OtlpJsonFileExporter> exporter) {
+        this.traceStore = traceStore;
+        this.exporter = exporter;
+    }
+
+    /**
+     * 最近的慢请求（新的在前）
+     */
+    @GetMapping("/slow")
+    @ApiOperation("追踪-慢请求列表")
+    public Map<String, Object> slow() {
+        Map<String, Object> res = new LinkedHashMap<>(traceStore.stats());
+        exporter.ifAvailable(e -> res.put("export", e.stats()));
+        res.put("traces", traceStore.listSlow());
+        return res;
+    }
+
+    /**
+     * 单个慢请求的瀑布图，format=text 返回纯文本
+     */
+    @GetMapping("/{traceId}")
+    @ApiOperation("追踪-瀑布图")
+    public ResponseEntity<?> waterfall(@PathVariable String traceId,
+                                       @RequestParam(value = "format", defaultValue = "json") String format) {
+        if ("text".equalsIgnoreCase(format)) {
+            String text = traceStore.waterfallText(traceId);
+            if (text == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Trace not found: " + traceId);
+            }
+            return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(text);
+        }
+        List<TraceStore.WaterfallRow> rows = traceStore.waterfall(traceId);
+        if (rows == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Trace not found: " + traceId);
+        }
+        return ResponseEntity.ok(Map.of("traceId", traceId, "spans", rows));
+    }
+}
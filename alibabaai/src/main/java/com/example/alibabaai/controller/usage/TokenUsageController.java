@@ -0,0 +1,68 @@
+package com.example.alibabaai.controller.usage;
+
+import com.example.alibabaai.service.usage.TokenUsageAccountant;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/usage")
+@Api(tags = "用量统计")
+public class TokenUsageController {
+
+    private final TokenUsageAccountant accountant;
+
+    public TokenUsageController(TokenUsageAccountant accountant) {
+        this.accountant = accountant;
+    }
+
+    /**
+     * 按时间窗口聚合 token 用量，用于分摊计费与容量规划
+     *
+     * 示例：/usage/summary?from=2025-09-01T00:00:00Z&window=PT1H&groupBy=endpoint,model
+     */
+    @GetMapping("/summary")
+    @ApiOperation("用量-按时间窗口聚合")
+    public Map<String, Object> summary(@RequestParam(required = false) Instant from,
+                                       @RequestParam(required = false) Instant to,
+                                       @RequestParam(required = false) Duration window,
+                                       @RequestParam(defaultValue = "endpoint,model") List<String> groupBy) throws IOException {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+        Map<Long, Map<String, TokenUsageAccountant.UsageTotals>> aggregated;
+        try {
+            aggregated = accountant.aggregate(start.toEpochMilli(), end.toEpochMilli(), window, groupBy);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        List<Map<String, Object>> windows = new ArrayList<>();
+        aggregated.forEach((windowStart, groups) -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("windowStart", Instant.ofEpochMilli(windowStart).toString());
+            item.put("groups", groups);
+            windows.add(item);
+        });
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("from", start.toString());
+        res.put("to", end.toString());
+        res.put("window", window != null ? window.toString() : null);
+        res.put("groupBy", groupBy);
+        res.put("windows", windows);
+        return res;
+    }
+}
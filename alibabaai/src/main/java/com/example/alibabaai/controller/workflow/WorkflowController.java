@@ -0,0 +1,92 @@
+package com.example.alibabaai.controller.workflow;
+
+import com.example.alibabaai.service.usage.UsageAttribution;
+import com.example.alibabaai.service.workflow.WorkflowDefinition;
+import com.example.alibabaai.service.workflow.WorkflowEngine;
+import com.example.alibabaai.service.workflow.WorkflowRun;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/workflows")
+@Api(tags = "工作流")
+@ConditionalOnProperty(name = "workflow.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WorkflowController {
+
+    private final WorkflowEngine workflowEngine;
+
+    public WorkflowController(WorkflowEngine workflowEngine) {
+        this.workflowEngine = workflowEngine;
+    }
+
+    /**
+     * 提交运行，请求体为 {@link WorkflowDefinition}；立即返回运行 id 与各步骤的依赖，之后用 GET /workflows/runs/{id} 查询
+     */
+    @PostMapping("/runs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @ApiOperation("工作流-提交运行")
+    public Map<String, Object> start(@RequestBody WorkflowDefinition definition) {
+        try {
+            return workflowEngine.start(definition, UsageAttribution.fromCurrentRequest()).snapshot(false);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    @GetMapping("/runs")
+    @ApiOperation("工作流-运行列表")
+    public List<Map<String, Object>> list() {
+        return workflowEngine.list().stream().map(run -> run.snapshot(false)).toList();
+    }
+
+    @GetMapping("/stats")
+    @ApiOperation("工作流-统计")
+    public Map<String, Object> stats() {
+        return workflowEngine.stats();
+    }
+
+    /**
+     * 运行状态：各步骤状态、耗时、是否命中缓存与输出；sumMillis 与 criticalPathMillis 对比串行与并行耗时
+     */
+    @GetMapping("/runs/{id}")
+    @ApiOperation("工作流-查询运行")
+    public Map<String, Object> get(@PathVariable String id) {
+        return find(id).snapshot(true);
+    }
+
+    @DeleteMapping("/runs/{id}")
+    @ApiOperation("工作流-取消运行")
+    public Map<String, Object> cancel(@PathVariable String id) {
+        WorkflowRun run = find(id);
+        if (!workflowEngine.cancel(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Run " + id + " is " + run.getStatus());
+        }
+        return run.snapshot(false);
+    }
+
+    private WorkflowRun find(String id) {
+        WorkflowRun run = workflowEngine.get(id);
+        if (run == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown workflow run: " + id);
+        }
+        return run;
+    }
+}
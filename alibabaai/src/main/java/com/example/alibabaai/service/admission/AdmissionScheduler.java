@@ -0,0 +1,375 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.admission;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按优先级的准入调度
+ *
+ * <ul>
+ *   <li>全局并发槽位：有空闲槽位且没有排队者时直接放行；</li>
+ *   <li>槽位用尽后按优先级进入各自的有界队列，槽位释放时按权重做平滑加权轮询（nginx SWRR），
+ *       高优先级拿到更多槽位，低优先级也不会完全饿死；</li>
+ *   <li>交互式请求的延迟（排队时间，流式请求再加上到首个字节写出的时间）按指数移动平均跟踪，
+ *       超过 SLO 时逐级提高丢弃等级：等级 1 直接拒绝 BULK，等级 2 同时拒绝 STANDARD；
+ *       延迟回落到 SLO 的 80% 以下再逐级恢复。每个调整周期最多变动一级，避免抖动。</li>
+ *   <li>丢弃等级不能只靠交互式样本回落：一个调整周期内没有任何交互式样本时，周期任务把等级降一级
+ *       并清空旧的平均值，避免交互流量消失后批量请求被一直拒绝。</li>
+ * </ul>
+ */
+public class AdmissionScheduler implements AutoCloseable {
+
+    private static final PriorityClass[] CLASSES = PriorityClass.values();
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final int[] weights;
+    private final long sloNanos;
+    private final long adjustIntervalNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Deque<Waiter>> queues = new ArrayList<>(CLASSES.length);
+    private final int[] currentWeights = new int[CLASSES.length];
+    private int inUse;
+
+    private volatile int shedLevel;
+    private volatile double interactiveLatencyNanos;
+    private volatile long lastAdjustNanos = System.nanoTime();
+    private volatile long lastSampleNanos = System.nanoTime();
+    private final ScheduledExecutorService adjuster;
+
+    private final AtomicLong[] admitted = counters();
+    private final AtomicLong[] queued = counters();
+    private final AtomicLong[] shed = counters();
+    private final AtomicLong[] rejected = counters();
+
+    /**
+     * @param weights 各优先级权重，按 {@link PriorityClass} 顺序
+     */
+    public AdmissionScheduler(int maxConcurrent, int queueCapacity, int[] weights, Duration slo, Duration adjustInterval) {
+        if (weights.length != CLASSES.length) {
+            throw new IllegalArgumentException("Expected " + CLASSES.length + " weights");
+        }
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.weights = weights.clone();
+        this.sloNanos = slo.toNanos();
+        this.adjustIntervalNanos = adjustInterval.toNanos();
+        for (int i = 0; i < CLASSES.length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+        if (adjustIntervalNanos > 0) {
+            this.adjuster = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "admission-adjust");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.adjuster.scheduleWithFixedDelay(this::decayIfIdle, adjustIntervalNanos, adjustIntervalNanos,
+                    TimeUnit.NANOSECONDS);
+        } else {
+            this.adjuster = null;
+        }
+    }
+
+    /**
+     * 申请准入，最多等待 maxWait；返回的 Ticket 必须调用 {@link Ticket#release()}
+     */
+    public Ticket admit(PriorityClass priority, Duration maxWait) throws InterruptedException {
+        int c = priority.ordinal();
+        long start = System.nanoTime();
+        if (priority != PriorityClass.INTERACTIVE && c >= CLASSES.length - shedLevel) {
+            shed[c].incrementAndGet();
+            return Ticket.rejected(Outcome.SHED);
+        }
+        Waiter waiter = null;
+        lock.lock();
+        try {
+            if (inUse < maxConcurrent && noWaiters()) {
+                inUse++;
+                admitted[c].incrementAndGet();
+                return new Ticket(this, priority, start, 0, Outcome.ADMITTED);
+            }
+            if (queues.get(c).size() >= queueCapacity) {
+                rejected[c].incrementAndGet();
+                return Ticket.rejected(Outcome.QUEUE_FULL);
+            }
+            waiter = new Waiter(lock.newCondition());
+            queues.get(c).addLast(waiter);
+            queued[c].incrementAndGet();
+            long remaining = maxWait.toNanos();
+            while (!waiter.granted && remaining > 0) {
+                remaining = waiter.condition.awaitNanos(remaining);
+            }
+            if (!waiter.granted) {
+                queues.get(c).remove(waiter);
+                rejected[c].incrementAndGet();
+                if (priority == PriorityClass.INTERACTIVE) {
+                    // 交互式请求排队超时本身就是 SLO 被打破的信号
+                    recordLatency(System.nanoTime() - start);
+                }
+                return Ticket.rejected(Outcome.TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            if (waiter.granted) {
+                // 中断前已拿到移交的槽位，继续移交给下一个排队者
+                release();
+            } else {
+                queues.get(c).remove(waiter);
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+        admitted[c].incrementAndGet();
+        return new Ticket(this, priority, start, System.nanoTime() - start, Outcome.ADMITTED);
+    }
+
+    public int getShedLevel() {
+        return shedLevel;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> res = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            res.put("inUse", inUse);
+            res.put("maxConcurrent", maxConcurrent);
+            Map<String, Object> classes = new LinkedHashMap<>();
+            for (PriorityClass priority : CLASSES) {
+                int c = priority.ordinal();
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("weight", weights[c]);
+                stats.put("waiting", queues.get(c).size());
+                stats.put("admitted", admitted[c].get());
+                stats.put("queued", queued[c].get());
+                stats.put("shed", shed[c].get());
+                stats.put("rejected", rejected[c].get());
+                classes.put(priority.name().toLowerCase(), stats);
+            }
+            res.put("classes", classes);
+        } finally {
+            lock.unlock();
+        }
+        res.put("shedLevel", shedLevel);
+        res.put("interactiveLatencyMillis", interactiveLatencyNanos / 1_000_000.0);
+        res.put("sloMillis", sloNanos / 1_000_000);
+        return res;
+    }
+
+    @Override
+    public void close() {
+        if (adjuster != null) {
+            adjuster.shutdownNow();
+        }
+    }
+
+    // ==================== 内部实现 ====================
+
+    void release() {
+        lock.lock();
+        try {
+            Waiter next = pollNext();
+            if (next != null) {
+                // 槽位直接移交给下一个排队者，inUse 不变
+                next.granted = true;
+                next.condition.signal();
+            } else {
+                inUse--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void recordLatency(long nanos) {
+        double current = interactiveLatencyNanos;
+        double updated = current == 0 ? nanos : current + EWMA_ALPHA * (nanos - current);
+        interactiveLatencyNanos = updated;
+        long now = System.nanoTime();
+        lastSampleNanos = now;
+        if (now - lastAdjustNanos < adjustIntervalNanos) {
+            return;
+        }
+        synchronized (this) {
+            if (now - lastAdjustNanos < adjustIntervalNanos) {
+                return;
+            }
+            if (updated > sloNanos && shedLevel < CLASSES.length - 1) {
+                shedLevel++;
+                lastAdjustNanos = now;
+            } else if (updated < sloNanos * 0.8 && shedLevel > 0) {
+                shedLevel--;
+                lastAdjustNanos = now;
+            }
+        }
+    }
+
+    /**
+     * 调整周期任务：上一个周期内没有交互式样本时降一级，并丢弃已经过时的平均值
+     */
+    void decayIfIdle() {
+        long now = System.nanoTime();
+        if (shedLevel == 0 || now - lastSampleNanos < adjustIntervalNanos) {
+            return;
+        }
+        synchronized (this) {
+            if (shedLevel > 0 && now - lastSampleNanos >= adjustIntervalNanos
+                    && now - lastAdjustNanos >= adjustIntervalNanos) {
+                shedLevel--;
+                interactiveLatencyNanos = 0;
+                lastAdjustNanos = now;
+            }
+        }
+    }
+
+    /**
+     * 平滑加权轮询：每个非空队列累加权重，取最大者，被选中者减去本轮总权重
+     */
+    private Waiter pollNext() {
+        int total = 0;
+        int best = -1;
+        for (int i = 0; i < CLASSES.length; i++) {
+            if (queues.get(i).isEmpty()) {
+                continue;
+            }
+            currentWeights[i] += weights[i];
+            total += weights[i];
+            if (best < 0 || currentWeights[i] > currentWeights[best]) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        currentWeights[best] -= total;
+        return queues.get(best).pollFirst();
+    }
+
+    private boolean noWaiters() {
+        for (Deque<Waiter> queue : queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static AtomicLong[] counters() {
+        AtomicLong[] counters = new AtomicLong[CLASSES.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new AtomicLong();
+        }
+        return counters;
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    public enum Outcome { ADMITTED, SHED, QUEUE_FULL, TIMEOUT }
+
+    /**
+     * 一次准入的结果；被拒绝的 Ticket 不占用槽位，release 为空操作
+     */
+    public static final class Ticket {
+
+        private final AdmissionScheduler scheduler;
+        private final PriorityClass priority;
+        private final long startNanos;
+        private final long waitNanos;
+        private final Outcome outcome;
+        private final AtomicBoolean latencyRecorded = new AtomicBoolean();
+        private boolean released;
+
+        private Ticket(AdmissionScheduler scheduler, PriorityClass priority, long startNanos, long waitNanos, Outcome outcome) {
+            this.scheduler = scheduler;
+            this.priority = priority;
+            this.startNanos = startNanos;
+            this.waitNanos = waitNanos;
+            this.outcome = outcome;
+        }
+
+        static Ticket rejected(Outcome outcome) {
+            return new Ticket(null, null, 0, 0, outcome);
+        }
+
+        public boolean isAdmitted() {
+            return outcome == Outcome.ADMITTED;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public long getWaitNanos() {
+            return waitNanos;
+        }
+
+        /**
+         * 请求此刻开始响应，交互式请求以排队 + 处理到此刻的时间计入延迟；每个 Ticket 只计一次
+         */
+        public void responseStarted() {
+            responseStartedAt(System.nanoTime());
+        }
+
+        /**
+         * 请求在 nanoTime 时刻写出首个字节（流式请求），交互式请求以此计入延迟；每个 Ticket 只计一次
+         */
+        public void responseStartedAt(long nanoTime) {
+            record(nanoTime - startNanos);
+        }
+
+        /**
+         * 只以排队时间计入延迟：同步请求的处理时间是整段模型生成，不反映准入压力
+         */
+        public void queueWaitOnly() {
+            record(waitNanos);
+        }
+
+        private void record(long latencyNanos) {
+            if (scheduler != null && priority == PriorityClass.INTERACTIVE && latencyRecorded.compareAndSet(false, true)) {
+                scheduler.recordLatency(latencyNanos);
+            }
+        }
+
+        public synchronized void release() {
+            if (scheduler != null && !released) {
+                released = true;
+                scheduler.release();
+            }
+        }
+    }
+}
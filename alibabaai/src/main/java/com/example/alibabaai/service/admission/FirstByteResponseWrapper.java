@@ -0,0 +1,179 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.admission;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.function.LongConsumer;
+
+/**
+ * 记录响应首个字节写出（或首次 flush / 提交）时刻的响应包装
+ *
+ * 流式请求的首个字节才是用户感知到的"开始响应"，准入调度以此计算交互式延迟。
+ * 首字节可能早于监听器注册（异步处理在过滤器返回前就已写出），注册时会立即补发。
+ */
+class FirstByteResponseWrapper extends HttpServletResponseWrapper {
+
+    private volatile long firstByteNanos;
+    private volatile LongConsumer listener;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    FirstByteResponseWrapper(HttpServletResponse response) {
+        super(response);
+    }
+
+    /**
+     * 注册首字节监听；已经写出过则立即回调（可能回调两次，调用方需自行去重）
+     */
+    void onFirstByte(LongConsumer listener) {
+        this.listener = listener;
+        long at = firstByteNanos;
+        if (at != 0) {
+            listener.accept(at);
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new MarkingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new MarkingWriter(super.getWriter());
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        mark();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        mark();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        mark();
+        super.sendError(sc);
+    }
+
+    private void mark() {
+        if (firstByteNanos != 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        firstByteNanos = now;
+        LongConsumer current = listener;
+        if (current != null) {
+            current.accept(now);
+        }
+    }
+
+    private final class MarkingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        MarkingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            mark();
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                mark();
+            }
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            mark();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private final class MarkingWriter extends PrintWriter {
+
+        MarkingWriter(PrintWriter delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(int c) {
+            mark();
+            super.write(c);
+        }
+
+        @Override
+        public void write(char[] buf, int off, int len) {
+            if (len > 0) {
+                mark();
+            }
+            super.write(buf, off, len);
+        }
+
+        @Override
+        public void write(String s, int off, int len) {
+            if (len > 0) {
+                mark();
+            }
+            super.write(s, off, len);
+        }
+
+        @Override
+        public void flush() {
+            mark();
+            super.flush();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.admission;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * 按优先级的准入过滤器
+ *
+ * 请求在进入控制器前申请槽位，被拒绝时直接返回 503 与 Retry-After，不再占用下游资源。
+ * 槽位一直持有到响应结束：同步请求在过滤器链返回时释放，流式（异步）请求在异步完成、超时或出错时释放。
+ *
+ * 交互式延迟信号：流式请求取排队时间 + 到首个字节写出的时间；同步请求要等整段生成结束才返回，
+ * 处理时间反映的是模型而不是准入压力，只计入排队时间。
+ */
+public class PriorityAdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriorityAdmissionFilter.class);
+
+    static final String PRIORITY_RESPONSE_HEADER = "X-Admission-Class";
+
+    private final AdmissionScheduler scheduler;
+    private final RequestClassifier classifier;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+
+    public PriorityAdmissionFilter(AdmissionScheduler scheduler, RequestClassifier classifier, Duration maxWait,
+                                   Duration retryAfter) {
+        this.scheduler = scheduler;
+        this.classifier = classifier;
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        PriorityClass priority = classifier.classify(request);
+        if (priority == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        AdmissionScheduler.Ticket ticket;
+        try {
+            ticket = scheduler.admit(priority, maxWait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, priority, AdmissionScheduler.Outcome.TIMEOUT);
+            return;
+        }
+        if (!ticket.isAdmitted()) {
+            logger.debug("Rejected {} request {} ({})", priority, request.getRequestURI(), ticket.getOutcome());
+            reject(response, priority, ticket.getOutcome());
+            return;
+        }
+        response.setHeader(PRIORITY_RESPONSE_HEADER, priority.name().toLowerCase(Locale.ROOT));
+        FirstByteResponseWrapper wrapped = new FirstByteResponseWrapper(response);
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, wrapped);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(ticket));
+                wrapped.onFirstByte(ticket::responseStartedAt);
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                ticket.queueWaitOnly();
+                ticket.release();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, PriorityClass priority, AdmissionScheduler.Outcome outcome)
+            throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        response.setHeader(PRIORITY_RESPONSE_HEADER, priority.name().toLowerCase(Locale.ROOT));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":503,\"error\":\"Service Unavailable\",\"class\":\""
+                + priority.name().toLowerCase(Locale.ROOT) + "\",\"reason\":\""
+                + outcome.name().toLowerCase(Locale.ROOT) + "\"}");
+    }
+
+    /**
+     * 异步请求结束时释放槽位；complete / error / timeout 可能先后触发，Ticket 保证只释放一次。
+     * 一个字节都没写出就结束的流，以结束时刻计入延迟（已记录过首字节时为空操作）
+     */
+    private record ReleaseListener(AdmissionScheduler.Ticket ticket) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            finish();
+        }
+
+        private void finish() {
+            ticket.responseStarted();
+            ticket.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 异步上下文被重新启动时继续监听
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.admission;
+
+import java.util.Locale;
+
+/**
+ * 请求优先级，数值越小越重要；过载时从最低级开始拒绝
+ */
+public enum PriorityClass {
+
+    /**
+     * 交互式请求（流式对话等），只在排队超时或队列满时拒绝，不因 SLO 主动丢弃
+     */
+    INTERACTIVE,
+
+    /**
+     * 普通请求
+     */
+    STANDARD,
+
+    /**
+     * 批量请求（翻译、图片分析、批量提示词等），最先被丢弃
+     */
+    BULK;
+
+    /**
+     * 按名称解析（忽略大小写），无法识别返回 null
+     */
+    public static PriorityClass parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.List;
+
+/**
+ * 按路径与请求头给请求分级
+ *
+ * 先匹配豁免路径（健康检查、状态查询等，不参与准入），再依次匹配交互式与批量路径，其余为 STANDARD。
+ * 客户端可用 {@link #PRIORITY_HEADER} 声明优先级：降级总是允许；升级默认不允许，避免批量调用方把自己标成交互式。
+ */
+public class RequestClassifier {
+
+    public static final String PRIORITY_HEADER = "X-Request-Priority";
+
+    private final PathMatcher matcher = new AntPathMatcher();
+    private final List<String> exemptPaths;
+    private final List<String> interactivePaths;
+    private final List<String> bulkPaths;
+    private final boolean allowUpgrade;
+
+    public RequestClassifier(List<String> exemptPaths, List<String> interactivePaths, List<String> bulkPaths,
+                             boolean allowUpgrade) {
+        this.exemptPaths = List.copyOf(exemptPaths);
+        this.interactivePaths = List.copyOf(interactivePaths);
+        this.bulkPaths = List.copyOf(bulkPaths);
+        this.allowUpgrade = allowUpgrade;
+    }
+
+    /**
+     * @return 请求优先级，豁免的请求返回 null
+     */
+    public PriorityClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (matches(exemptPaths, path)) {
+            return null;
+        }
+        PriorityClass byPath = matches(interactivePaths, path) ? PriorityClass.INTERACTIVE
+                : matches(bulkPaths, path) ? PriorityClass.BULK
+                : PriorityClass.STANDARD;
+        PriorityClass declared = PriorityClass.parse(request.getHeader(PRIORITY_HEADER));
+        if (declared == null || declared.ordinal() < byPath.ordinal() && !allowUpgrade) {
+            return byPath;
+        }
+        return declared;
+    }
+
+    private boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (matcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
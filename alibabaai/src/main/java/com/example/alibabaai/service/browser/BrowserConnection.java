@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.browser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 到单个浏览器页面的 DevTools 协议连接
+ *
+ * 约定：连接断开、进程退出、命令超时抛出 {@link IOException}（会话随之作废）；
+ * 协议层面的错误响应（参数不合法等）抛出 {@link IllegalArgumentException}，会话仍可继续使用。
+ */
+public interface BrowserConnection extends AutoCloseable {
+
+    /**
+     * 发送命令并等待结果（返回响应中的 result 节点）
+     */
+    JsonNode send(String method, Map<String, Object> params, Duration timeout) throws IOException;
+
+    boolean isAlive();
+
+    /**
+     * 关闭连接并终止浏览器进程
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.browser;
+
+import java.io.IOException;
+
+/**
+ * 浏览器启动器
+ *
+ * 负责启动一个可通过 DevTools 协议驱动的浏览器实例并返回连接；
+ * 生产环境使用 {@link ChromeLauncher}，测试中可替换为不启动真实进程的实现。
+ */
+public interface BrowserLauncher {
+
+    /**
+     * 启动浏览器并建立 DevTools 连接
+     */
+    BrowserConnection launch() throws IOException;
+
+    /**
+     * 当前环境能否启动浏览器（例如可执行文件是否存在）
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.browser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 池化的浏览器会话（一个浏览器实例 + 一个页面）
+ *
+ * 同一时刻只属于一个租用方，因此内部状态不需要同步。
+ */
+public class BrowserSession {
+
+    static final int DEFAULT_WIDTH = 1280;
+    static final int DEFAULT_HEIGHT = 800;
+
+    private final long id;
+    private final BrowserConnection connection;
+    private final Duration commandTimeout;
+    private final long createdAt = System.currentTimeMillis();
+    private volatile long idleSince = createdAt;
+    private volatile int navigations;
+    private Viewport viewport;
+
+    BrowserSession(long id, BrowserConnection connection, Duration commandTimeout) {
+        this.id = id;
+        this.connection = connection;
+        this.commandTimeout = commandTimeout;
+    }
+
+    /**
+     * 导航结果；errorText 非空表示页面加载失败（如域名无法解析），会话本身仍然可用
+     */
+    public record NavigationResult(long sessionId, String url, String frameId, String errorText,
+                                   Integer width, Integer height, long elapsedMillis) {
+    }
+
+    private record Viewport(int width, int height) {
+    }
+
+    /**
+     * 在当前页面打开 URL；给定宽高时设置视口，未给定时恢复默认视口
+     */
+    public NavigationResult navigate(String url, Integer width, Integer height) throws IOException {
+        long start = System.nanoTime();
+        Viewport requested = width != null || height != null
+                ? new Viewport(width != null ? width : DEFAULT_WIDTH, height != null ? height : DEFAULT_HEIGHT)
+                : null;
+        if (requested != null && !requested.equals(viewport)) {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("width", requested.width());
+            metrics.put("height", requested.height());
+            metrics.put("deviceScaleFactor", 1);
+            metrics.put("mobile", false);
+            connection.send("Emulation.setDeviceMetricsOverride", metrics, commandTimeout);
+            viewport = requested;
+        } else if (requested == null && viewport != null) {
+            connection.send("Emulation.clearDeviceMetricsOverride", Map.of(), commandTimeout);
+            viewport = null;
+        }
+        JsonNode result = connection.send("Page.navigate", Map.of("url", url), commandTimeout);
+        navigations++;
+        String errorText = result.hasNonNull("errorText") ? result.get("errorText").asText() : null;
+        return new NavigationResult(id, url, result.path("frameId").asText(null), errorText,
+                viewport != null ? viewport.width() : null, viewport != null ? viewport.height() : null,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 直接发送 DevTools 命令
+     */
+    public JsonNode send(String method, Map<String, Object> params) throws IOException {
+        return connection.send(method, params, commandTimeout);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean isAlive() {
+        return connection.isAlive();
+    }
+
+    long getIdleSince() {
+        return idleSince;
+    }
+
+    void markIdle() {
+        idleSince = System.currentTimeMillis();
+    }
+
+    void close() {
+        connection.close();
+    }
+
+    Map<String, Object> snapshot() {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("id", id);
+        res.put("alive", isAlive());
+        res.put("navigations", navigations);
+        res.put("ageSeconds", (System.currentTimeMillis() - createdAt) / 1000);
+        return res;
+    }
+}
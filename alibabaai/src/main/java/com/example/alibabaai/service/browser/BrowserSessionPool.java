@@ -0,0 +1,249 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.browser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 长期存活的浏览器会话池
+ *
+ * <ul>
+ *   <li>租用/归还：优先复用最近归还的空闲会话（后进先出，页面缓存更热），没有空闲会话时才启动新浏览器；</li>
+ *   <li>上限：同时存在的会话数（租出 + 空闲）不超过 maxSessions，超出时等待 leaseTimeout；</li>
+ *   <li>空闲回收：后台定期关闭空闲超过 idleTimeout 的会话；</li>
+ *   <li>崩溃恢复：租用时跳过已退出的会话，使用中连接断开则作废该会话并在新会话上重试一次。</li>
+ * </ul>
+ */
+public class BrowserSessionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrowserSessionPool.class);
+
+    /**
+     * 在租用的会话上执行的操作
+     */
+    @FunctionalInterface
+    public interface SessionCallback<T> {
+        T apply(BrowserSession session) throws IOException;
+    }
+
+    private final BrowserLauncher launcher;
+    private final int maxSessions;
+    private final Duration idleTimeout;
+    private final Duration leaseTimeout;
+    private final Duration commandTimeout;
+    private final Semaphore permits;
+    private final Deque<BrowserSession> idle = new ArrayDeque<>();
+    private final Set<BrowserSession> leased = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService evictor;
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong launched = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong crashed = new AtomicLong();
+    private volatile boolean closed;
+
+    public BrowserSessionPool(BrowserLauncher launcher, int maxSessions, Duration idleTimeout, Duration leaseTimeout,
+                              Duration commandTimeout) {
+        this.launcher = launcher;
+        this.maxSessions = Math.max(1, maxSessions);
+        this.idleTimeout = idleTimeout;
+        this.leaseTimeout = leaseTimeout;
+        this.commandTimeout = commandTimeout;
+        this.permits = new Semaphore(this.maxSessions, true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "browser-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(idleTimeout.toMillis() / 2, 30_000));
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isAvailable() {
+        return !closed && launcher.isAvailable();
+    }
+
+    /**
+     * 租用会话，必须通过 {@link #release(BrowserSession, boolean)} 归还
+     */
+    public BrowserSession lease() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Browser session pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(leaseTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No browser session available within " + leaseTimeout.toMillis()
+                        + " ms (max " + maxSessions + " sessions)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a browser session", e);
+        }
+        try {
+            BrowserSession session;
+            while ((session = pollIdle()) != null) {
+                if (session.isAlive()) {
+                    reused.incrementAndGet();
+                    leased.add(session);
+                    return session;
+                }
+                crashed.incrementAndGet();
+                logger.warn("Discarding crashed idle browser session {}", session.getId());
+                session.close();
+            }
+            BrowserSession fresh = new BrowserSession(ids.incrementAndGet(), launcher.launch(), commandTimeout);
+            launched.incrementAndGet();
+            leased.add(fresh);
+            return fresh;
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 归还会话；broken 为 true 或浏览器已退出时直接关闭，不再复用
+     */
+    public void release(BrowserSession session, boolean broken) {
+        if (!leased.remove(session)) {
+            return;
+        }
+        try {
+            if (broken || !session.isAlive()) {
+                crashed.incrementAndGet();
+                session.close();
+            } else if (closed) {
+                session.close();
+            } else {
+                session.markIdle();
+                synchronized (idle) {
+                    idle.addFirst(session);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 租用会话执行操作并自动归还；连接层失败（浏览器崩溃、断连、超时）时在新会话上重试一次
+     */
+    public <T> T withSession(SessionCallback<T> action) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            BrowserSession session = lease();
+            try {
+                T result = action.apply(session);
+                release(session, false);
+                return result;
+            } catch (IOException e) {
+                release(session, true);
+                if (attempt >= 2 || closed) {
+                    throw e;
+                }
+                logger.warn("Browser session {} failed ({}), retrying on a fresh session", session.getId(), e.getMessage());
+            } catch (RuntimeException e) {
+                release(session, false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 关闭空闲超时或已退出的会话
+     */
+    public int evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeout.toMillis();
+        List<BrowserSession> expired = new ArrayList<>();
+        synchronized (idle) {
+            Iterator<BrowserSession> it = idle.iterator();
+            while (it.hasNext()) {
+                BrowserSession session = it.next();
+                if (session.getIdleSince() <= cutoff || !session.isAlive()) {
+                    it.remove();
+                    expired.add(session);
+                }
+            }
+        }
+        for (BrowserSession session : expired) {
+            if (session.isAlive()) {
+                evicted.incrementAndGet();
+            } else {
+                crashed.incrementAndGet();
+            }
+            session.close();
+        }
+        if (!expired.isEmpty()) {
+            logger.debug("Evicted {} idle browser sessions", expired.size());
+        }
+        return expired.size();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> res = new LinkedHashMap<>();
+        List<Map<String, Object>> idleSessions = new ArrayList<>();
+        synchronized (idle) {
+            idle.forEach(session -> idleSessions.add(session.snapshot()));
+        }
+        res.put("available", isAvailable());
+        res.put("maxSessions", maxSessions);
+        res.put("leased", leased.size());
+        res.put("idle", idleSessions.size());
+        res.put("launched", launched.get());
+        res.put("reused", reused.get());
+        res.put("evicted", evicted.get());
+        res.put("crashed", crashed.get());
+        res.put("idleSessions", idleSessions);
+        return res;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        List<BrowserSession> sessions;
+        synchronized (idle) {
+            sessions = new ArrayList<>(idle);
+            idle.clear();
+        }
+        sessions.addAll(leased);
+        leased.clear();
+        sessions.forEach(BrowserSession::close);
+    }
+
+    private BrowserSession pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.browser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于 JDK WebSocket 的 Chrome DevTools 协议连接
+ *
+ * 命令按自增 id 与响应配对；事件消息目前不需要，直接丢弃。
+ */
+final class CdpConnection implements WebSocket.Listener {
+
+    private final ObjectMapper objectMapper;
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+    private final StringBuilder frame = new StringBuilder();
+    private volatile WebSocket webSocket;
+    private volatile boolean open;
+
+    private CdpConnection(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    static CdpConnection connect(HttpClient httpClient, URI endpoint, ObjectMapper objectMapper, Duration timeout)
+            throws IOException {
+        CdpConnection connection = new CdpConnection(objectMapper);
+        try {
+            connection.webSocket = httpClient.newWebSocketBuilder()
+                    .connectTimeout(timeout)
+                    .buildAsync(endpoint, connection)
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            connection.open = true;
+            return connection;
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IOException("Failed to connect to DevTools endpoint " + endpoint, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while connecting to " + endpoint, e);
+        }
+    }
+
+    JsonNode send(String method, Map<String, Object> params, Duration timeout) throws IOException {
+        if (!open) {
+            throw new IOException("DevTools connection is closed");
+        }
+        long id = ids.incrementAndGet();
+        CompletableFuture<JsonNode> response = new CompletableFuture<>();
+        pending.put(id, response);
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("id", id);
+        message.put("method", method);
+        message.put("params", params != null ? params : Map.of());
+        try {
+            String payload = objectMapper.writeValueAsString(message);
+            // WebSocket 不允许并发发送，发送本身很快，串行化即可
+            synchronized (this) {
+                webSocket.sendText(payload, true).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            return response.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException(method + " timed out after " + timeout.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalArgumentException protocolError) {
+                throw protocolError;
+            }
+            throw cause instanceof IOException io ? io : new IOException(method + " failed: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + method, e);
+        } finally {
+            pending.remove(id);
+        }
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+
+    void close() {
+        open = false;
+        WebSocket current = webSocket;
+        if (current != null) {
+            current.abort();
+        }
+        failPending("DevTools connection closed");
+    }
+
+    // ==================== WebSocket.Listener ====================
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        frame.append(data);
+        if (last) {
+            String text = frame.toString();
+            frame.setLength(0);
+            dispatch(text);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        open = false;
+        failPending("DevTools connection closed (" + statusCode + (reason.isEmpty() ? "" : ": " + reason) + ")");
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        open = false;
+        failPending("DevTools connection failed: " + error.getMessage());
+    }
+
+    private void dispatch(String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (IOException e) {
+            return;
+        }
+        if (!node.has("id")) {
+            return;
+        }
+        CompletableFuture<JsonNode> response = pending.get(node.get("id").asLong());
+        if (response == null) {
+            return;
+        }
+        JsonNode error = node.get("error");
+        if (error != null) {
+            response.completeExceptionally(new IllegalArgumentException(
+                    "DevTools error " + error.path("code").asInt() + ": " + error.path("message").asText()));
+        } else {
+            response.complete(node.path("result"));
+        }
+    }
+
+    private void failPending(String message) {
+        IOException failure = new IOException(message);
+        pending.values().forEach(response -> response.completeExceptionally(failure));
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.browser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 启动本机 Chrome/Chromium（默认无头模式），通过 DevTools 协议连接其初始页面
+ *
+ * 每个实例使用独立的临时用户目录，关闭时终止进程并删除该目录。
+ * 未配置可执行文件路径时按常见安装位置和 PATH 查找。
+ */
+public class ChromeLauncher implements BrowserLauncher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChromeLauncher.class);
+
+    private static final Pattern DEVTOOLS_URL = Pattern.compile("DevTools listening on (ws://\\S+)");
+    private static final List<String> CANDIDATES = List.of(
+            "google-chrome", "google-chrome-stable", "chromium", "chromium-browser", "chrome",
+            "/Applications/Google Chrome.app/Contents/MacOS/Google Chrome",
+            "/Applications/Chromium.app/Contents/MacOS/Chromium",
+            "C:\\Program Files\\Google\\Chrome\\Application\\chrome.exe",
+            "C:\\Program Files (x86)\\Google\\Chrome\\Application\\chrome.exe");
+
+    private final String executable;
+    private final boolean headless;
+    private final List<String> extraArguments;
+    private final Duration startupTimeout;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    public ChromeLauncher(String executable, boolean headless, List<String> extraArguments, Duration startupTimeout,
+                          ObjectMapper objectMapper) {
+        this.executable = executable != null && !executable.isBlank() ? executable : detectExecutable();
+        this.headless = headless;
+        this.extraArguments = extraArguments;
+        this.startupTimeout = startupTimeout;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(startupTimeout).build();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return executable != null;
+    }
+
+    @Override
+    public BrowserConnection launch() throws IOException {
+        if (executable == null) {
+            throw new IOException("No Chrome/Chromium executable found; set browser.executable");
+        }
+        Path profile = Files.createTempDirectory("browser-session-");
+        List<String> command = new ArrayList<>();
+        command.add(executable);
+        if (headless) {
+            command.add("--headless=new");
+        }
+        command.add("--remote-debugging-port=0");
+        command.add("--user-data-dir=" + profile);
+        command.add("--no-first-run");
+        command.add("--no-default-browser-check");
+        command.add("--disable-extensions");
+        command.add("--disable-background-networking");
+        command.add("--disable-gpu");
+        command.addAll(extraArguments);
+        command.add("about:blank");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try {
+            URI browserEndpoint = awaitDevToolsEndpoint(process);
+            URI pageEndpoint = findPageEndpoint(browserEndpoint);
+            CdpConnection connection = CdpConnection.connect(httpClient, pageEndpoint, objectMapper, startupTimeout);
+            logger.info("Launched browser pid {} in {} ms", process.pid(), (System.nanoTime() - start) / 1_000_000);
+            return new ChromeConnection(process, profile, connection);
+        } catch (IOException | RuntimeException e) {
+            terminate(process);
+            deleteRecursively(profile);
+            throw e;
+        }
+    }
+
+    // ==================== 内部实现 ====================
+
+    private URI awaitDevToolsEndpoint(Process process) throws IOException {
+        CompletableFuture<URI> endpoint = new CompletableFuture<>();
+        // 持续读取输出，既用来获取 DevTools 地址，也避免管道写满阻塞浏览器进程
+        Thread reader = new Thread(() -> {
+            try (BufferedReader lines = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    Matcher matcher = DEVTOOLS_URL.matcher(line);
+                    if (!endpoint.isDone() && matcher.find()) {
+                        endpoint.complete(URI.create(matcher.group(1)));
+                    }
+                }
+            } catch (IOException ignored) {
+                // 进程退出
+            }
+            endpoint.completeExceptionally(new IOException("Browser exited before DevTools became available"));
+        }, "browser-output-" + process.pid());
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            return endpoint.get(startupTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Browser did not expose DevTools within " + startupTimeout.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while launching browser", e);
+        }
+    }
+
+    private URI findPageEndpoint(URI browserEndpoint) throws IOException {
+        String base = "http://" + browserEndpoint.getHost() + ":" + browserEndpoint.getPort();
+        JsonNode targets = getJson(HttpRequest.newBuilder(URI.create(base + "/json/list")).GET());
+        for (JsonNode target : targets) {
+            if ("page".equals(target.path("type").asText()) && target.hasNonNull("webSocketDebuggerUrl")) {
+                return URI.create(target.get("webSocketDebuggerUrl").asText());
+            }
+        }
+        JsonNode created = getJson(HttpRequest.newBuilder(URI.create(base + "/json/new?about:blank"))
+                .PUT(HttpRequest.BodyPublishers.noBody()));
+        return URI.create(created.path("webSocketDebuggerUrl").asText());
+    }
+
+    private JsonNode getJson(HttpRequest.Builder request) throws IOException {
+        try {
+            HttpResponse<String> response = httpClient.send(request.timeout(startupTimeout).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return objectMapper.readTree(response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while querying DevTools targets", e);
+        }
+    }
+
+    private static String detectExecutable() {
+        String path = System.getenv("PATH");
+        for (String candidate : CANDIDATES) {
+            Path direct = Path.of(candidate);
+            if (direct.isAbsolute()) {
+                if (Files.isExecutable(direct)) {
+                    return candidate;
+                }
+                continue;
+            }
+            if (path == null) {
+                continue;
+            }
+            for (String dir : path.split(File.pathSeparator)) {
+                Path resolved = Path.of(dir, candidate);
+                if (Files.isExecutable(resolved)) {
+                    return resolved.toString();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void terminate(Process process) {
+        process.destroy();
+        try {
+            if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor(2, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignored) {
+                    // 浏览器刚退出时个别文件可能仍被占用
+                }
+            });
+        } catch (IOException e) {
+            logger.debug("Failed to delete browser profile {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * 浏览器进程 + 页面连接
+     */
+    private static final class ChromeConnection implements BrowserConnection {
+        private final Process process;
+        private final Path profile;
+        private final CdpConnection connection;
+
+        ChromeConnection(Process process, Path profile, CdpConnection connection) {
+            this.process = process;
+            this.profile = profile;
+            this.connection = connection;
+        }
+
+        @Override
+        public JsonNode send(String method, Map<String, Object> params, Duration timeout) throws IOException {
+            if (!process.isAlive()) {
+                throw new IOException("Browser process " + process.pid() + " has exited");
+            }
+            return connection.send(method, params, timeout);
+        }
+
+        @Override
+        public boolean isAlive() {
+            return process.isAlive() && connection.isOpen();
+        }
+
+        @Override
+        public void close() {
+            connection.close();
+            terminate(process);
+            deleteRecursively(profile);
+        }
+    }
+}
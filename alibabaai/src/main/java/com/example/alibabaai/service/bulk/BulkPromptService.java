@@ -0,0 +1,183 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.bulk;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.util.List;
+
+/**
+ * 批量提示词处理
+ *
+ * 输入为 NDJSON 行流，每行一个 {@link BulkPromptRequest}；以有界并发调用模型，结果按完成顺序输出，
+ * 每条结果带输入行号（index）与 token 用量。模型调用走流式接口再聚合，在途请求不占用线程，
+ * 并发度只受 flatMap 上限约束；上游按需读取请求体，慢消费者不会导致整批请求堆积在内存中。
+ * 每个输入行恰好对应一条结果：空行、无法解析的行在对应行号上输出错误；超过 maxLines 的部分不再读取，
+ * 在第 maxLines 行（从 0 开始）输出一条错误结果。
+ */
+public class BulkPromptService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkPromptService.class);
+
+    private final ChatClient chatClient;
+    private final ObjectMapper objectMapper;
+    private final int defaultConcurrency;
+    private final int maxConcurrency;
+    private final long maxLines;
+
+    public BulkPromptService(ChatModel chatModel, ObjectMapper objectMapper, int defaultConcurrency, int maxConcurrency,
+                             long maxLines) {
+        if (maxLines < 1) {
+            throw new IllegalArgumentException("maxLines must be >= 1, got " + maxLines);
+        }
+        this.chatClient = ChatClient.builder(chatModel).build();
+        this.objectMapper = objectMapper;
+        this.defaultConcurrency = defaultConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.maxLines = maxLines;
+    }
+
+    /**
+     * 处理 NDJSON 行流
+     *
+     * @param lines       请求体的行（空行输出错误结果，行号即结果的 index，便于调用方对照输入）
+     * @param concurrency 并发度，为空时使用默认值，超过上限时截断
+     */
+    public Flux<BulkPromptResult> process(Flux<String> lines, Integer concurrency) {
+        int effective = Math.max(1, Math.min(concurrency != null ? concurrency : defaultConcurrency, maxConcurrency));
+        // 多取一行用于判断是否超限，之后取消上游，不再读取剩余请求体
+        return lines.index()
+                .take(maxLines + 1)
+                .flatMap(line -> line.getT1() < maxLines ? processLine(line)
+                        : Mono.just(BulkPromptResult.failed(line.getT1(), null,
+                                "Too many lines (max " + maxLines + "), remaining input ignored", 0)), effective);
+    }
+
+    private Mono<BulkPromptResult> processLine(Tuple2<Long, String> line) {
+        long index = line.getT1();
+        if (line.getT2().isBlank()) {
+            return Mono.just(BulkPromptResult.failed(index, null, "Empty line", 0));
+        }
+        BulkPromptRequest request;
+        try {
+            request = objectMapper.readValue(line.getT2(), BulkPromptRequest.class);
+        } catch (JsonProcessingException e) {
+            return Mono.just(BulkPromptResult.failed(index, null, "Invalid NDJSON line: " + e.getOriginalMessage(), 0));
+        }
+        if (request.prompt() == null || request.prompt().isBlank()) {
+            return Mono.just(BulkPromptResult.failed(index, request.id(), "prompt is required", 0));
+        }
+
+        long start = System.nanoTime();
+        ChatClient.ChatClientRequestSpec spec = chatClient.prompt().user(request.prompt());
+        if (request.system() != null) {
+            spec = spec.system(request.system());
+        }
+        DashScopeChatOptions options = options(request);
+        if (options != null) {
+            spec = spec.options(options);
+        }
+        if (request.tools() != null && !request.tools().isEmpty()) {
+            spec = spec.toolNames(request.tools().toArray(String[]::new));
+        }
+
+        Aggregate aggregate = new Aggregate();
+        return spec.stream()
+                .chatResponse()
+                .doOnNext(aggregate::accept)
+                .then(Mono.fromSupplier(() -> BulkPromptResult.completed(index, request.id(), aggregate.output.toString(),
+                        aggregate.model, aggregate.usage, elapsedMillis(start))))
+                .onErrorResume(e -> {
+                    String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    logger.debug("Bulk prompt {} failed: {}", index, message);
+                    return Mono.just(BulkPromptResult.failed(index, request.id(), message, elapsedMillis(start)));
+                });
+    }
+
+    private static DashScopeChatOptions options(BulkPromptRequest request) {
+        if (request.model() == null && request.temperature() == null && request.topP() == null && request.maxTokens() == null) {
+            return null;
+        }
+        return DashScopeChatOptions.builder()
+                .withModel(request.model())
+                .withTemperature(request.temperature())
+                .withTopP(request.topP())
+                .withMaxToken(request.maxTokens())
+                .build();
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 单条请求，options 字段均可选，未设置时使用模型默认值
+     */
+    public record BulkPromptRequest(String id, String prompt, String system, String model, Double temperature,
+                                    Double topP, Integer maxTokens, List<String> tools) {
+    }
+
+    public record BulkPromptResult(long index, String id, String output, String model, Long promptTokens,
+                                   Long completionTokens, Long totalTokens, long latencyMillis, String error) {
+
+        static BulkPromptResult completed(long index, String id, String output, String model, Usage usage, long latencyMillis) {
+            return new BulkPromptResult(index, id, output, model,
+                    usage != null && usage.getPromptTokens() != null ? usage.getPromptTokens().longValue() : null,
+                    usage != null && usage.getCompletionTokens() != null ? usage.getCompletionTokens().longValue() : null,
+                    usage != null && usage.getTotalTokens() != null ? usage.getTotalTokens().longValue() : null,
+                    latencyMillis, null);
+        }
+
+        static BulkPromptResult failed(long index, String id, String error, long latencyMillis) {
+            return new BulkPromptResult(index, id, null, null, null, null, null, latencyMillis, error);
+        }
+    }
+
+    /**
+     * 流式分片聚合：拼接文本，用量与模型名取最后一次出现的值
+     */
+    private static final class Aggregate {
+        private final StringBuilder output = new StringBuilder();
+        private Usage usage;
+        private String model;
+
+        void accept(ChatResponse response) {
+            if (response.getResult() != null && response.getResult().getOutput().getText() != null) {
+                output.append(response.getResult().getOutput().getText());
+            }
+            if (response.getMetadata() != null) {
+                Usage chunkUsage = response.getMetadata().getUsage();
+                if (chunkUsage != null && chunkUsage.getTotalTokens() != null && chunkUsage.getTotalTokens() > 0) {
+                    usage = chunkUsage;
+                }
+                if (response.getMetadata().getModel() != null && !response.getMetadata().getModel().isEmpty()) {
+                    model = response.getMetadata().getModel();
+                }
+            }
+        }
+    }
+}
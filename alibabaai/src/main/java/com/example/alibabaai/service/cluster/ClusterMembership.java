@@ -0,0 +1,115 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 集群成员与会话归属
+ *
+ * 采用 rendezvous（最高随机权重）哈希：对每个成员计算 hash(member, conversationId)，得分最高者为归属节点。
+ * 成员增减时只有归属发生变化的会话需要迁移（约 1/N），且各节点在成员列表一致时无需协调即可得出相同结果。
+ */
+public class ClusterMembership {
+
+    private final String self;
+    private volatile List<String> members;
+
+    public ClusterMembership(String self, Collection<String> members) {
+        this.self = normalize(self);
+        this.members = normalizeAll(members);
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public List<String> getMembers() {
+        return members;
+    }
+
+    /**
+     * 替换成员列表，返回旧列表
+     */
+    public synchronized List<String> update(Collection<String> newMembers) {
+        List<String> previous = members;
+        members = normalizeAll(newMembers);
+        return previous;
+    }
+
+    /**
+     * 会话归属节点；成员列表为空时返回 null
+     */
+    public String owner(String conversationId) {
+        return owner(conversationId, members);
+    }
+
+    public boolean isLocal(String conversationId) {
+        String owner = owner(conversationId);
+        return owner == null || owner.equals(self);
+    }
+
+    public boolean isSelf(String member) {
+        return self.equals(normalize(member));
+    }
+
+    static String owner(String key, List<String> members) {
+        String best = null;
+        long bestScore = Long.MIN_VALUE;
+        for (String member : members) {
+            long score = score(member, key);
+            if (best == null || score > bestScore || (score == bestScore && member.compareTo(best) < 0)) {
+                best = member;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    static long score(String member, String key) {
+        // FNV-1a 64 位，再经 murmur3 fmix64 打散，保证各成员得分相互独立
+        long h = 0xcbf29ce484222325L;
+        for (byte b : member.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        h = (h ^ 0x1f) * 0x100000001b3L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static String normalize(String member) {
+        String trimmed = member.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    private static List<String> normalizeAll(Collection<String> members) {
+        return members.stream()
+                .filter(m -> m != null && !m.isBlank())
+                .map(ClusterMembership::normalize)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 集群节点间共享密钥（cluster.secret），比较时使用常量时间算法
+ */
+public final class ClusterSecret {
+
+    private final byte[] value;
+
+    public ClusterSecret(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("cluster.secret must be set when cluster.sharding.enabled=true");
+        }
+        this.value = value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean matches(String candidate) {
+        return candidate != null && MessageDigest.isEqual(value, candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String value() {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterSecret[****]";
+    }
+}
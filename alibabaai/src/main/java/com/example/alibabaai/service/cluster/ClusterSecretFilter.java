@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 集群内部接口的共享密钥校验
+ *
+ * 变更成员（PUT /cluster/members）与接收会话迁移（POST /cluster/handoff）只允许携带正确
+ * {@link ConversationShardingService#SECRET_HEADER} 的节点调用，否则任何客户端都能改写哈希环或读写会话历史。
+ * 只读的查询接口（GET）不受限制。
+ */
+public class ClusterSecretFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterSecretFilter.class);
+
+    private final ClusterSecret secret;
+
+    public ClusterSecretFilter(ClusterSecret secret) {
+        this.secret = secret;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (HttpMethod.GET.matches(request.getMethod())
+                || secret.matches(request.getHeader(ConversationShardingService.SECRET_HEADER))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        logger.warn("Rejected unauthenticated cluster call {} {} from {}", request.getMethod(), request.getRequestURI(),
+                request.getRemoteAddr());
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Missing or invalid cluster secret");
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.cluster;
+
+import com.example.alibabaai.controller.memory.InMemoryController;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * 按 conversation_id 路由记忆类请求
+ *
+ * 归属本节点的请求直接处理；否则转发给归属节点并原样返回结果。
+ * 已被其他节点转发过的请求（带 {@link ConversationShardingService#FORWARDED_HEADER} 与正确的共享密钥）一律本地处理，
+ * 避免成员列表短暂不一致时来回转发。转发时透传客户端请求头，用量归属（X-API-Key）在归属节点上依然有效。
+ * 归属节点不可达时退化为本地处理（该会话此次会丢失上下文，但请求仍可完成）。
+ */
+public class ConversationRoutingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationRoutingFilter.class);
+
+    private final ConversationShardingService shardingService;
+
+    public ConversationRoutingFilter(ConversationShardingService shardingService) {
+        this.shardingService = shardingService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (shardingService.isForwardedByPeer(request.getHeader(ConversationShardingService.FORWARDED_HEADER),
+                request.getHeader(ConversationShardingService.SECRET_HEADER))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String conversationId = request.getParameter("conversation_id");
+        if (conversationId == null) {
+            conversationId = InMemoryController.DEFAULT_CONVERSATION_ID;
+        }
+        ClusterMembership membership = shardingService.getMembership();
+        String owner = membership.owner(conversationId);
+        if (owner == null || membership.isSelf(owner)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String pathAndQuery = request.getRequestURI() + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        ResponseEntity<byte[]> forwarded;
+        try {
+            forwarded = shardingService.forward(owner, HttpMethod.valueOf(request.getMethod()), pathAndQuery,
+                    clientHeaders(request), request.getContentType(), request.getInputStream().readAllBytes());
+        } catch (RestClientException e) {
+            logger.warn("Owner {} of conversation {} unreachable, serving locally: {}", owner, conversationId, e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+        response.setStatus(forwarded.getStatusCode().value());
+        response.setHeader("X-Conversation-Owner", owner);
+        if (forwarded.getHeaders().getContentType() != null) {
+            response.setContentType(forwarded.getHeaders().getContentType().toString());
+        }
+        byte[] body = forwarded.getBody();
+        if (body != null) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private static HttpHeaders clientHeaders(HttpServletRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            headers.addAll(name, Collections.list(request.getHeaders(name)));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 会话分片服务
+ *
+ * 负责三件事：
+ * 1. 将非本节点归属的请求转发到归属节点（见 {@link ConversationRoutingFilter}）
+ * 2. 成员变化时把不再归属本节点的会话记忆推送给新归属节点，成功后删除本地副本
+ * 3. 将成员变更广播给新旧成员，各节点各自完成迁移
+ */
+public class ConversationShardingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationShardingService.class);
+
+    public static final String FORWARDED_HEADER = "X-Conversation-Forwarded-By";
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    /**
+     * 转发时不透传的头：逐跳头、由 HTTP 客户端重新生成的头，以及集群内部头（由本节点重新设置）
+     */
+    private static final Set<String> NON_FORWARDED_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "host", "content-length",
+            "expect", FORWARDED_HEADER.toLowerCase(Locale.ROOT), SECRET_HEADER.toLowerCase(Locale.ROOT));
+
+    private final ClusterMembership membership;
+    private final ChatMemoryRepository chatMemoryRepository;
+    private final ClusterSecret secret;
+    private final RestClient restClient;
+
+    public ConversationShardingService(ClusterMembership membership, ChatMemoryRepository chatMemoryRepository,
+                                       ClientHttpRequestFactory requestFactory, ClusterSecret secret) {
+        this.membership = membership;
+        this.chatMemoryRepository = chatMemoryRepository;
+        this.secret = secret;
+        // 节点间的所有调用（转发、成员广播、会话迁移）都带上共享密钥
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .defaultHeader(SECRET_HEADER, secret.value())
+                .build();
+    }
+
+    /**
+     * 请求是否由其他节点转发而来（必须同时携带正确的共享密钥，客户端自行添加的转发头不被信任）
+     */
+    public boolean isForwardedByPeer(String forwardedBy, String presentedSecret) {
+        return forwardedBy != null && secret.matches(presentedSecret);
+    }
+
+    public ClusterMembership getMembership() {
+        return membership;
+    }
+
+    /**
+     * 转发请求到归属节点，原样返回状态码、内容类型与响应体
+     *
+     * 客户端请求头（X-API-Key 等）除逐跳头外原样透传，归属节点据此完成用量归属与鉴权
+     */
+    public ResponseEntity<byte[]> forward(String owner, HttpMethod method, String pathAndQuery,
+                                          HttpHeaders clientHeaders, String contentType, byte[] body) {
+        RestClient.RequestBodySpec spec = restClient.method(method)
+                .uri(URI.create(owner + pathAndQuery))
+                .headers(headers -> clientHeaders.forEach((name, values) -> {
+                    if (!NON_FORWARDED_HEADERS.contains(name.toLowerCase(Locale.ROOT))
+                            && !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                        headers.addAll(name, values);
+                    }
+                }))
+                .header(FORWARDED_HEADER, membership.getSelf());
+        if (body.length > 0) {
+            spec.contentType(contentType != null ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_OCTET_STREAM)
+                    .body(body);
+        }
+        return spec.exchange((request, response) -> ResponseEntity.status(response.getStatusCode())
+                .contentType(response.getHeaders().getContentType() != null
+                        ? response.getHeaders().getContentType() : MediaType.APPLICATION_OCTET_STREAM)
+                .body(response.getBody().readAllBytes()));
+    }
+
+    /**
+     * 应用新的成员列表：广播给新旧成员（propagate=true 时），然后迁移本地不再归属的会话
+     */
+    public Map<String, Object> applyMembership(List<String> members, boolean propagate) {
+        List<String> previous = membership.update(members);
+        logger.info("Cluster membership changed from {} to {}", previous, membership.getMembers());
+
+        List<String> notified = new ArrayList<>();
+        if (propagate) {
+            Set<String> peers = new LinkedHashSet<>(previous);
+            peers.addAll(membership.getMembers());
+            for (String peer : peers) {
+                if (membership.isSelf(peer)) {
+                    continue;
+                }
+                try {
+                    restClient.put()
+                            .uri(URI.create(peer + "/cluster/members?propagate=false"))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(new MembershipRequest(membership.getMembers()))
+                            .retrieve()
+                            .toBodilessEntity();
+                    notified.add(peer);
+                } catch (RestClientException e) {
+                    logger.warn("Failed to propagate membership to {}: {}", peer, e.getMessage());
+                }
+            }
+        }
+
+        Map<String, Object> res = new LinkedHashMap<>(rebalance());
+        res.put("members", membership.getMembers());
+        res.put("notified", notified);
+        return res;
+    }
+
+    /**
+     * 把不再归属本节点的会话推送给归属节点；推送失败的会话保留在本地，下次成员变更时重试
+     */
+    public synchronized Map<String, Object> rebalance() {
+        Map<String, List<HandoffConversation>> byOwner = new HashMap<>();
+        for (String conversationId : chatMemoryRepository.findConversationIds()) {
+            if (membership.isLocal(conversationId)) {
+                continue;
+            }
+            List<HandoffMessage> messages = chatMemoryRepository.findByConversationId(conversationId).stream()
+                    .map(HandoffMessage::from)
+                    .toList();
+            byOwner.computeIfAbsent(membership.owner(conversationId), k -> new ArrayList<>())
+                    .add(new HandoffConversation(conversationId, messages));
+        }
+
+        int handedOff = 0;
+        int failed = 0;
+        for (Map.Entry<String, List<HandoffConversation>> entry : byOwner.entrySet()) {
+            try {
+                restClient.post()
+                        .uri(URI.create(entry.getKey() + "/cluster/handoff"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(entry.getValue())
+                        .retrieve()
+                        .toBodilessEntity();
+                entry.getValue().forEach(c -> chatMemoryRepository.deleteByConversationId(c.conversationId()));
+                handedOff += entry.getValue().size();
+            } catch (RestClientException e) {
+                failed += entry.getValue().size();
+                logger.warn("Failed to hand off {} conversations to {}: {}", entry.getValue().size(), entry.getKey(), e.getMessage());
+            }
+        }
+        if (handedOff > 0 || failed > 0) {
+            logger.info("Conversation handoff finished: {} moved, {} kept locally after failure", handedOff, failed);
+        }
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("handedOff", handedOff);
+        res.put("failed", failed);
+        return res;
+    }
+
+    /**
+     * 接收其他节点迁移过来的会话；本地已有同一会话时，迁移来的（更早的）消息排在前面
+     */
+    public int acceptHandoff(List<HandoffConversation> conversations) {
+        for (HandoffConversation conversation : conversations) {
+            List<Message> merged = new ArrayList<>();
+            conversation.messages().stream()
+                    .map(HandoffMessage::toMessage)
+                    .filter(m -> m != null)
+                    .forEach(merged::add);
+            merged.addAll(chatMemoryRepository.findByConversationId(conversation.conversationId()));
+            chatMemoryRepository.saveAll(conversation.conversationId(), merged);
+        }
+        return conversations.size();
+    }
+
+    public record MembershipRequest(List<String> members) {
+    }
+
+    public record HandoffConversation(String conversationId, List<HandoffMessage> messages) {
+    }
+
+    public record HandoffMessage(String type, String text, Map<String, Object> metadata) {
+
+        static HandoffMessage from(Message message) {
+            return new HandoffMessage(message.getMessageType().name(), message.getText(), message.getMetadata());
+        }
+
+        Message toMessage() {
+            Map<String, Object> meta = metadata != null ? metadata : Map.of();
+            return switch (type) {
+                case "USER" -> UserMessage.builder().text(text).metadata(meta).build();
+                case "ASSISTANT" -> new AssistantMessage(text, meta);
+                case "SYSTEM" -> SystemMessage.builder().text(text).metadata(meta).build();
+                // 工具消息不进入会话记忆（MessageChatMemoryAdvisor 只保存用户与助手消息）
+                default -> null;
+            };
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.http;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 非阻塞的计数许可，用于限制到同一主机的并发连接数
+ *
+ * 许可不足时订阅方排队等待而不是阻塞线程；等待中的订阅被取消或超时会从队列移除，
+ * 与授予同时发生的取消会把许可还回去。已授予的许可由调用方释放。
+ */
+public class HostPermits {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int ABANDONED = 2;
+
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private int available;
+
+    public HostPermits(int permits) {
+        this.available = permits;
+    }
+
+    public Mono<Void> acquire() {
+        return acquire(null);
+    }
+
+    /**
+     * 获取一个许可，排队超过 timeout 以 {@link TimeoutException} 结束（null 表示一直等待）
+     */
+    public Mono<Void> acquire(Duration timeout) {
+        return Mono.create(sink -> {
+            Waiter waiter = null;
+            synchronized (this) {
+                if (available > 0) {
+                    available--;
+                } else {
+                    waiter = new Waiter(sink);
+                    waiters.add(waiter);
+                }
+            }
+            if (waiter == null) {
+                sink.success();
+                return;
+            }
+            Waiter queued = waiter;
+            if (timeout != null) {
+                queued.timer = Schedulers.parallel().schedule(() -> {
+                    if (queued.state.compareAndSet(WAITING, ABANDONED)) {
+                        remove(queued);
+                        sink.error(new TimeoutException("No permit within " + timeout.toMillis() + " ms"));
+                    }
+                }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            sink.onCancel(() -> {
+                if (queued.state.compareAndSet(WAITING, ABANDONED)) {
+                    remove(queued);
+                } else if (queued.state.get() == GRANTED) {
+                    // 许可已授予但订阅方已取消，信号不会再被消费
+                    release();
+                }
+            });
+        });
+    }
+
+    public void release() {
+        while (true) {
+            Waiter next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    available++;
+                    return;
+                }
+            }
+            if (next.state.compareAndSet(WAITING, GRANTED)) {
+                if (next.timer != null) {
+                    next.timer.dispose();
+                }
+                next.sink.success();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 当前空闲许可数
+     */
+    public synchronized int available() {
+        return available;
+    }
+
+    /**
+     * 当前排队等待的订阅数
+     */
+    public synchronized int waiting() {
+        return waiters.size();
+    }
+
+    private synchronized void remove(Waiter waiter) {
+        waiters.remove(waiter);
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Void> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private volatile Disposable timer;
+
+        Waiter(MonoSink<Void> sink) {
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.http;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpResponseDecorator;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 命名的出站连接池
+ *
+ * 每个上游（模型服务、MCP 服务、网页抓取、集群转发）一个池，各自一个 JDK {@link HttpClient}：
+ * <ul>
+ *   <li>HttpClient 内部按主机复用连接（HTTP/1.1 keep-alive，HTTP/2 单连接多路复用），协议版本与建连超时按池配置；</li>
+ *   <li>同一主机的并发请求数受 maxPerHost 限制，超出的请求非阻塞地排队，排队超过 acquireTimeout 失败，
+ *       避免突发流量把上游连接数推高后又在空闲时批量断开；</li>
+ *   <li>许可在响应体读完（或被丢弃）时才释放，流式响应整个持续期间都计为占用；</li>
+ *   <li>按池、按主机统计请求数、并发、排队与等待时间，见 {@link #stats()}。</li>
+ * </ul>
+ * 响应式调用方使用 {@link #connector()}，阻塞调用方（RestClient）使用 {@link #requestFactory()}。
+ */
+public class HttpClientPool {
+
+    private static final int MAX_TRACKED_HOSTS = 1024;
+
+    private final String name;
+    private final HttpClient httpClient;
+    private final Settings settings;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong active = new AtomicLong();
+    private final AtomicLong peakActive = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong acquireTimeouts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public HttpClientPool(String name, HttpClient httpClient, Settings settings) {
+        this.name = name;
+        this.httpClient = httpClient;
+        this.settings = settings;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * 响应式连接器（WebClient 使用），读超时为池配置
+     */
+    public ClientHttpConnector connector() {
+        return connector(settings.readTimeout());
+    }
+
+    /**
+     * 响应式连接器，读超时由调用方指定（null 表示不限）
+     */
+    public ClientHttpConnector connector(Duration readTimeout) {
+        JdkClientHttpConnector delegate = new JdkClientHttpConnector(httpClient);
+        if (readTimeout != null) {
+            delegate.setReadTimeout(readTimeout);
+        }
+        return new PermitConnector(delegate);
+    }
+
+    /**
+     * 阻塞请求工厂（RestClient 使用），读超时为池配置
+     */
+    public ClientHttpRequestFactory requestFactory() {
+        return requestFactory(settings.readTimeout());
+    }
+
+    /**
+     * 阻塞请求工厂，读超时由调用方指定（null 表示不限）
+     */
+    public ClientHttpRequestFactory requestFactory(Duration readTimeout) {
+        JdkClientHttpRequestFactory delegate = new JdkClientHttpRequestFactory(httpClient);
+        if (readTimeout != null) {
+            delegate.setReadTimeout(readTimeout);
+        }
+        return new InterceptingClientHttpRequestFactory(delegate, List.of(new PermitInterceptor()));
+    }
+
+    /**
+     * 池统计：累计请求、当前并发与峰值、排队数、等待耗时、获取超时与失败次数，以及各主机的并发
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long total = requests.get();
+        stats.put("name", name);
+        stats.put("version", settings.version().name());
+        stats.put("maxPerHost", settings.maxPerHost());
+        stats.put("requests", total);
+        stats.put("active", active.get());
+        stats.put("peakActive", peakActive.get());
+        stats.put("pending", pending.get());
+        stats.put("acquireTimeouts", acquireTimeouts.get());
+        stats.put("failures", failures.get());
+        stats.put("avgWaitMillis", total > 0 ? Math.round(waitNanos.get() / 1_000.0 / total) / 1_000.0 : 0.0);
+        stats.put("maxWaitMillis", Math.round(maxWaitNanos.get() / 1_000.0) / 1_000.0);
+        Map<String, Object> perHost = new LinkedHashMap<>();
+        hosts.forEach((key, host) -> perHost.put(key, Map.of(
+                "requests", host.requests.get(),
+                "active", host.active.get(),
+                "pending", host.permits.waiting())));
+        stats.put("hosts", perHost);
+        return stats;
+    }
+
+    // ==================== 内部实现 ====================
+
+    private Host host(URI uri) {
+        String key = hostKey(uri);
+        Host host = hosts.get(key);
+        if (host != null) {
+            return host;
+        }
+        if (hosts.size() >= MAX_TRACKED_HOSTS) {
+            // 只回收空闲主机的条目，占用中的许可不受影响
+            hosts.values().removeIf(Host::idle);
+        }
+        return hosts.computeIfAbsent(key, k -> new Host(settings.maxPerHost()));
+    }
+
+    private Mono<Lease> acquire(URI uri) {
+        Host host = host(uri);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            pending.incrementAndGet();
+            return host.permits.acquire(settings.acquireTimeout())
+                    .then(Mono.fromSupplier(() -> new Lease(host, start)))
+                    .doFinally(signal -> pending.decrementAndGet())
+                    .onErrorMap(TimeoutException.class, e -> {
+                        acquireTimeouts.incrementAndGet();
+                        return new PoolAcquireTimeoutException(name, hostKey(uri), settings.acquireTimeout());
+                    });
+        });
+    }
+
+    private static String hostKey(URI uri) {
+        String scheme = uri.getScheme() == null ? "http" : uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(scheme) ? 443 : 80);
+        return scheme + "://" + (uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT)) + ":" + port;
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // 重试
+        }
+    }
+
+    /**
+     * 一次请求占用的主机许可，只释放一次
+     */
+    private final class Lease {
+        private final Host host;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Lease(Host host, long start) {
+            this.host = host;
+            long waited = System.nanoTime() - start;
+            requests.incrementAndGet();
+            host.requests.incrementAndGet();
+            host.active.incrementAndGet();
+            updateMax(peakActive, active.incrementAndGet());
+            waitNanos.addAndGet(waited);
+            updateMax(maxWaitNanos, waited);
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                active.decrementAndGet();
+                host.active.decrementAndGet();
+                host.permits.release();
+            }
+        }
+
+        void fail() {
+            failures.incrementAndGet();
+            release();
+        }
+    }
+
+    private static final class Host {
+        private final HostPermits permits;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong active = new AtomicLong();
+
+        Host(int maxPerHost) {
+            this.permits = new HostPermits(maxPerHost);
+        }
+
+        boolean idle() {
+            return active.get() == 0 && permits.waiting() == 0;
+        }
+    }
+
+    private final class PermitConnector implements ClientHttpConnector {
+
+        private final ClientHttpConnector delegate;
+
+        PermitConnector(ClientHttpConnector delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Mono<org.springframework.http.client.reactive.ClientHttpResponse> connect(
+                HttpMethod method, URI uri, Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+            // 拿到响应后许可随响应体释放，建连失败或取消时立即释放
+            return acquire(uri).flatMap(lease -> delegate.connect(method, uri, requestCallback)
+                    .<org.springframework.http.client.reactive.ClientHttpResponse>map(
+                            response -> new ReleasingResponse(response, lease))
+                    .doOnError(e -> lease.fail())
+                    .doOnCancel(lease::release));
+        }
+    }
+
+    private static final class ReleasingResponse extends ClientHttpResponseDecorator {
+
+        private final Lease lease;
+
+        ReleasingResponse(org.springframework.http.client.reactive.ClientHttpResponse delegate, Lease lease) {
+            super(delegate);
+            this.lease = lease;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return getDelegate().getBody().doFinally(signal -> lease.release());
+        }
+    }
+
+    private final class PermitInterceptor implements ClientHttpRequestInterceptor {
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                            ClientHttpRequestExecution execution)
+                throws IOException {
+            Lease lease;
+            CompletableFuture<Lease> acquiring = acquire(request.getURI()).toFuture();
+            try {
+                lease = acquiring.get();
+            } catch (InterruptedException e) {
+                // 取消订阅：仍在排队时从队列移除，与授予同时发生的取消由 HostPermits 还回许可；
+                // 许可已经交到 future 上时取消失败，由这里释放
+                if (!acquiring.cancel(true) && !acquiring.isCompletedExceptionally()) {
+                    acquiring.join().release();
+                }
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for a connection to " + request.getURI().getHost(), e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+            try {
+                return new ReleasingBlockingResponse(execution.execute(request, body), lease);
+            } catch (IOException | RuntimeException e) {
+                lease.fail();
+                throw e;
+            }
+        }
+    }
+
+    private static final class ReleasingBlockingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Lease lease;
+
+        ReleasingBlockingResponse(ClientHttpResponse delegate, Lease lease) {
+            this.delegate = delegate;
+            this.lease = lease;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                lease.release();
+            }
+        }
+    }
+
+    /**
+     * 池配置
+     *
+     * @param version HTTP 协议版本（HTTP/2 在 https 上经 ALPN 协商，不支持时回落到 HTTP/1.1）
+     * @param connectTimeout 建连超时
+     * @param readTimeout 读超时（null 表示不限）
+     * @param maxPerHost 同一主机的最大并发请求数
+     * @param acquireTimeout 排队等待许可的最长时间
+     */
+    public record Settings(HttpClient.Version version, Duration connectTimeout, Duration readTimeout,
+                           int maxPerHost, Duration acquireTimeout) {
+
+        public Settings {
+            maxPerHost = Math.max(1, maxPerHost);
+        }
+    }
+
+    /**
+     * 排队等待主机许可超时
+     */
+    public static class PoolAcquireTimeoutException extends IOException {
+
+        public PoolAcquireTimeoutException(String pool, String host, Duration timeout) {
+            super("Connection pool '" + pool + "' has no free slot for " + host + " within " + timeout.toMillis() + " ms");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 出站连接池注册表
+ *
+ * 按名称创建并缓存 {@link HttpClientPool}。所有池共用同一个 {@link SSLContext}（TLS 会话缓存因此跨池复用，
+ * 重连同一主机时可以走会话恢复而不是完整握手）和同一个回调线程池；各池的协议版本、超时与每主机上限
+ * 由 settings 函数按名称给出。回调线程池归注册表所有，{@link #close()} 时关闭。
+ */
+public class HttpClientPools implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientPools.class);
+
+    public static final String MODEL = "model";
+    public static final String MCP = "mcp";
+    public static final String FETCH = "fetch";
+    public static final String CLUSTER = "cluster";
+
+    private final Function<String, HttpClientPool.Settings> settings;
+    private final SSLContext sslContext;
+    private final Executor executor;
+    private final Map<String, HttpClientPool> pools = new ConcurrentHashMap<>();
+
+    public HttpClientPools(Function<String, HttpClientPool.Settings> settings, SSLContext sslContext, Executor executor) {
+        this.settings = settings;
+        this.sslContext = sslContext;
+        this.executor = executor;
+    }
+
+    /**
+     * 获取（首次使用时创建）指定名称的池
+     */
+    public HttpClientPool pool(String name) {
+        return pools.computeIfAbsent(name, this::create);
+    }
+
+    /**
+     * 所有已创建池的统计
+     */
+    public List<Map<String, Object>> stats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        pools.values().forEach(pool -> stats.add(pool.stats()));
+        return stats;
+    }
+
+    /**
+     * 关闭共用的回调线程池；调用方传入的不是 ExecutorService 时为空操作
+     */
+    @Override
+    public void close() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+            try {
+                if (!service.awaitTermination(5, TimeUnit.SECONDS)) {
+                    service.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                service.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private HttpClientPool create(String name) {
+        HttpClientPool.Settings poolSettings = settings.apply(name);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(poolSettings.version())
+                .connectTimeout(poolSettings.connectTimeout())
+                // 抓取池的地址来自模型/客户端，重定向由 OutboundUrlGuard 逐跳校验后手动跟随
+                .followRedirects(FETCH.equals(name) ? HttpClient.Redirect.NEVER : HttpClient.Redirect.NORMAL)
+                .sslContext(sslContext)
+                .executor(executor)
+                .build();
+        logger.info("HTTP pool '{}': {}, connect timeout {}, read timeout {}, max {} per host", name,
+                poolSettings.version(), poolSettings.connectTimeout(), poolSettings.readTimeout(), poolSettings.maxPerHost());
+        return new HttpClientPool(name, httpClient, poolSettings);
+    }
+}
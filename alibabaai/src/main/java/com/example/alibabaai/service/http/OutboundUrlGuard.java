@@ -0,0 +1,152 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 抓取类出站请求（URL 由模型或客户端给出）的目标地址校验
+ *
+ * <ul>
+ *   <li>只允许 http(s) 绝对地址；</li>
+ *   <li>解析主机名，任一地址为回环、链路本地、站点本地（含 IPv6 唯一本地 fc00::/7）、运营商级 NAT、通配或组播地址即拒绝，
+ *       防止借抓取工具访问本机管理接口、云厂商元数据服务或内网；</li>
+ *   <li>fetch 池不自动跟随重定向，由 {@link #exchange} 逐跳校验 Location 后再发起下一跳。</li>
+ * </ul>
+ * 校验与实际建连各自解析一次 DNS，无法防御 TTL 极短的 DNS 重绑定；需要更强隔离时应通过出口代理限制。
+ * chrome_navigate 只校验初始地址，页面在浏览器内部的重定向（HTTP 3xx、meta refresh、脚本跳转）不经过本类，
+ * 同样依赖出口代理兜底。
+ */
+public class OutboundUrlGuard {
+
+    private final Predicate<InetAddress> blocked;
+    private final int maxRedirects;
+
+    public OutboundUrlGuard(boolean allowPrivateAddresses, int maxRedirects) {
+        this(allowPrivateAddresses ? address -> false : OutboundUrlGuard::isInternal, maxRedirects);
+    }
+
+    OutboundUrlGuard(Predicate<InetAddress> blocked, int maxRedirects) {
+        this.blocked = blocked;
+        this.maxRedirects = Math.max(0, maxRedirects);
+    }
+
+    /**
+     * 校验目标地址，不允许时以 {@link IllegalArgumentException} 结束；DNS 解析在 boundedElastic 上执行
+     */
+    public Mono<URI> check(URI uri) {
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) {
+            return Mono.error(new IllegalArgumentException("Only absolute http(s) URLs are supported"));
+        }
+        return Mono.fromCallable(() -> {
+            InetAddress[] addresses;
+            try {
+                addresses = InetAddress.getAllByName(uri.getHost());
+            } catch (UnknownHostException e) {
+                throw new IllegalArgumentException("Unknown host: " + uri.getHost());
+            }
+            for (InetAddress address : addresses) {
+                if (blocked.test(address)) {
+                    throw new IllegalArgumentException("Refusing to fetch " + uri.getHost()
+                            + ": resolves to non-public address " + address.getHostAddress());
+                }
+            }
+            return uri;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 发起 GET 请求：每一跳（含重定向目标）先经 {@link #check} 校验，3xx 且带 Location 时丢弃响应体并跳转，
+     * 超过 maxRedirects 跳以 {@link IllegalArgumentException} 结束；最终响应交给 handler 处理
+     */
+    public <T> Mono<T> exchange(WebClient webClient, URI uri, Function<URI, WebClient.RequestHeadersSpec<?>> request,
+                                Function<ClientResponse, Mono<T>> handler) {
+        return exchange(webClient, uri, request, handler, 0);
+    }
+
+    private <T> Mono<T> exchange(WebClient webClient, URI uri, Function<URI, WebClient.RequestHeadersSpec<?>> request,
+                                 Function<ClientResponse, Mono<T>> handler, int hop) {
+        return check(uri).flatMap(target -> request.apply(target).exchangeToMono(response -> {
+            URI location = redirectTarget(target, response);
+            if (location == null) {
+                return handler.apply(response).map(Hop::done);
+            }
+            return response.releaseBody().thenReturn(Hop.<T>redirect(location));
+        })).flatMap(result -> {
+            if (result.location() == null) {
+                return Mono.justOrEmpty(result.value());
+            }
+            if (hop >= maxRedirects) {
+                return Mono.error(new IllegalArgumentException("Too many redirects (max " + maxRedirects + ")"));
+            }
+            return exchange(webClient, result.location(), request, handler, hop + 1);
+        });
+    }
+
+    static boolean isInternal(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            // 0.0.0.0/8，以及运营商级 NAT 段 100.64.0.0/10（阿里云元数据服务 100.100.100.200 在此段内）
+            return bytes[0] == 0 || (bytes[0] & 0xFF) == 100 && (bytes[1] & 0xC0) == 64;
+        }
+        // isSiteLocalAddress 只识别已废弃的 fec0::/10，唯一本地地址 fc00::/7 需要单独判断
+        return address instanceof Inet6Address && (bytes[0] & 0xFE) == 0xFC;
+    }
+
+    private static URI redirectTarget(URI base, ClientResponse response) {
+        if (!response.statusCode().is3xxRedirection()) {
+            return null;
+        }
+        String location = response.headers().asHttpHeaders().getFirst(HttpHeaders.LOCATION);
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        try {
+            return base.resolve(location.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private record Hop<T>(T value, URI location) {
+
+        static <T> Hop<T> done(T value) {
+            return new Hop<>(value, null);
+        }
+
+        static <T> Hop<T> redirect(URI location) {
+            return new Hop<>(null, location);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次会话记忆读写
+ */
+@Name("com.example.alibabaai.ChatMemory")
+@Label("Chat Memory Operation")
+@Category({"AlibabaAI", "Memory"})
+@Description("Chat memory repository read, write, delete or list")
+@StackTrace(false)
+public class ChatMemoryEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Conversation Id")
+    public String conversationId;
+
+    @Label("Messages")
+    public int messages;
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.jfr;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.tool.observation.ToolCallingObservationContext;
+
+/**
+ * 把已有的观测（模型调用、工具调用、会话记忆）转成 JFR 事件
+ *
+ * 事件类型未被任何录制启用时 supportsContext 返回 false，观测链路上不创建事件对象；
+ * 启用时在观测开始处 begin、结束处补齐字段并 commit，耗时与 JFR 中的 GC、分配、锁事件在同一时间轴上。
+ */
+public class JfrObservationHandler implements ObservationHandler<Observation.Context> {
+
+    static final String MEMORY_OBSERVATION = "chat.memory";
+
+    private static final EventType MODEL_CALL = EventType.getEventType(ModelCallEvent.class);
+    private static final EventType TOOL_CALL = EventType.getEventType(ToolCallEvent.class);
+    private static final EventType CHAT_MEMORY = EventType.getEventType(ChatMemoryEvent.class);
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        if (context instanceof ChatModelObservationContext) {
+            return MODEL_CALL.isEnabled();
+        }
+        if (context instanceof ToolCallingObservationContext) {
+            return TOOL_CALL.isEnabled();
+        }
+        return MEMORY_OBSERVATION.equals(context.getName()) && CHAT_MEMORY.isEnabled();
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        Event event;
+        if (context instanceof ChatModelObservationContext) {
+            event = new ModelCallEvent();
+        } else if (context instanceof ToolCallingObservationContext) {
+            event = new ToolCallEvent();
+        } else {
+            event = new ChatMemoryEvent();
+        }
+        event.begin();
+        context.put(Event.class, event);
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        Event event = context.get(Event.class);
+        if (event == null) {
+            return;
+        }
+        context.remove(Event.class);
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        String error = context.getError() != null ? context.getError().getClass().getSimpleName() : null;
+        if (event instanceof ModelCallEvent model && context instanceof ChatModelObservationContext chat) {
+            fill(model, chat);
+            model.error = error;
+        } else if (event instanceof ToolCallEvent tool && context instanceof ToolCallingObservationContext call) {
+            tool.tool = call.getToolDefinition().name();
+            tool.argumentsSize = call.getToolCallArguments() != null ? call.getToolCallArguments().length() : 0;
+            tool.resultSize = call.getToolCallResult() != null ? call.getToolCallResult().length() : 0;
+            tool.error = error;
+        } else if (event instanceof ChatMemoryEvent memory) {
+            memory.operation = value(context.getLowCardinalityKeyValue("operation"));
+            memory.conversationId = value(context.getHighCardinalityKeyValue("conversation.id"));
+            String messages = value(context.getHighCardinalityKeyValue("messages"));
+            memory.messages = messages != null ? Integer.parseInt(messages) : 0;
+        }
+        event.commit();
+    }
+
+    private static void fill(ModelCallEvent event, ChatModelObservationContext context) {
+        event.operation = context.getOperationMetadata().operationType();
+        if (context.getRequest().getOptions() != null) {
+            event.model = context.getRequest().getOptions().getModel();
+        }
+        ChatResponse response = context.getResponse();
+        if (response == null || response.getMetadata() == null) {
+            return;
+        }
+        if (response.getMetadata().getModel() != null && !response.getMetadata().getModel().isEmpty()) {
+            event.model = response.getMetadata().getModel();
+        }
+        Usage usage = response.getMetadata().getUsage();
+        if (usage != null) {
+            event.promptTokens = usage.getPromptTokens() != null ? usage.getPromptTokens() : 0;
+            event.completionTokens = usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0;
+            event.totalTokens = usage.getTotalTokens() != null ? usage.getTotalTokens() : 0;
+        }
+    }
+
+    private static String value(KeyValue keyValue) {
+        return keyValue != null ? keyValue.getValue() : null;
+    }
+}
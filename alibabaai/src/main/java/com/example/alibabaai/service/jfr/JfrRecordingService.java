@@ -0,0 +1,205 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 按需 JFR 录制
+ *
+ * 每次录制都有时长上限，到时自动停止并写入文件；同一时间只允许一个录制在进行。
+ * 录制基于 JDK 自带的 default / profile 配置，外加本应用的自定义事件；
+ * 初始环境变量与系统属性事件被关闭，录制文件中不会带出 API Key 等敏感配置。
+ * 只保留最近 maxRecordings 个录制文件。
+ */
+public class JfrRecordingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingService.class);
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation");
+    private static final List<Class<? extends jdk.jfr.Event>> APP_EVENTS = List.of(
+            ModelCallEvent.class, ToolCallEvent.class, ChatMemoryEvent.class, SseEmitEvent.class);
+
+    private final Path directory;
+    private final Duration maxDuration;
+    private final long maxSize;
+    private final int maxRecordings;
+    private final Map<Long, Recording> recordings = new ConcurrentSkipListMap<>();
+
+    public JfrRecordingService(Path directory, Duration maxDuration, long maxSize, int maxRecordings) {
+        this.directory = directory;
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+        this.maxRecordings = Math.max(1, maxRecordings);
+    }
+
+    /**
+     * 开始录制
+     *
+     * @param duration 录制时长，超过上限时截断
+     * @param settings JDK 录制配置（default 开销约 1%，profile 约 2%，采样更密）
+     */
+    public synchronized Map<String, Object> start(Duration duration, String settings) {
+        if (recordings.values().stream().anyMatch(r -> r.getState() == RecordingState.RUNNING
+                || r.getState() == RecordingState.DELAYED)) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings);
+        }
+        Duration effective = duration.compareTo(maxDuration) > 0 || duration.isNegative() || duration.isZero()
+                ? maxDuration : duration;
+        Recording recording = new Recording(configuration);
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        APP_EVENTS.forEach(type -> recording.enable(type).withThreshold(Duration.ZERO));
+        recording.setName("alibabaai-" + LocalDateTime.now().format(FILE_TIME));
+        recording.setDuration(effective);
+        recording.setMaxSize(maxSize);
+        recording.setToDisk(true);
+        try {
+            Files.createDirectories(directory);
+            recording.setDestination(directory.resolve(recording.getName() + "-" + settings + ".jfr"));
+        } catch (IOException e) {
+            recording.close();
+            throw new UncheckedIOException(e);
+        }
+        recording.start();
+        recordings.put(recording.getId(), recording);
+        prune();
+        logger.info("Started JFR recording {} ({}, {})", recording.getId(), settings, effective);
+        return describe(recording);
+    }
+
+    /**
+     * 提前停止录制；已停止的录制原样返回
+     */
+    public Map<String, Object> stop(long id) {
+        Recording recording = find(id);
+        if (recording.getState() == RecordingState.RUNNING || recording.getState() == RecordingState.DELAYED) {
+            recording.stop();
+            logger.info("Stopped JFR recording {}", id);
+        }
+        return describe(recording);
+    }
+
+    /**
+     * 已完成录制的文件；录制尚未结束时报错
+     */
+    public Path file(long id) {
+        Recording recording = find(id);
+        if (recording.getState() != RecordingState.STOPPED && recording.getState() != RecordingState.CLOSED) {
+            throw new IllegalStateException("Recording " + id + " is still " + recording.getState().name().toLowerCase());
+        }
+        Path path = recording.getDestination();
+        if (path == null || !Files.exists(path)) {
+            throw new IllegalStateException("Recording " + id + " has no file");
+        }
+        return path;
+    }
+
+    public Map<String, Object> describe(long id) {
+        return describe(find(id));
+    }
+
+    public List<Map<String, Object>> list() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Recording recording : recordings.values()) {
+            list.add(describe(recording));
+        }
+        return list;
+    }
+
+    public void close() {
+        recordings.values().forEach(Recording::close);
+        recordings.clear();
+    }
+
+    // ==================== 内部实现 ====================
+
+    private Recording find(long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            throw new IllegalArgumentException("Unknown recording: " + id);
+        }
+        return recording;
+    }
+
+    /**
+     * 超出保留数量时关闭最旧的已结束录制并删除文件
+     */
+    private void prune() {
+        List<Recording> finished = recordings.values().stream()
+                .filter(r -> r.getState() == RecordingState.STOPPED || r.getState() == RecordingState.CLOSED)
+                .sorted(Comparator.comparingLong(Recording::getId))
+                .toList();
+        int excess = recordings.size() - maxRecordings;
+        for (int i = 0; i < excess && i < finished.size(); i++) {
+            Recording recording = finished.get(i);
+            recordings.remove(recording.getId());
+            Path path = recording.getDestination();
+            recording.close();
+            try {
+                if (path != null) {
+                    Files.deleteIfExists(path);
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to delete old recording {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("id", recording.getId());
+        res.put("name", recording.getName());
+        res.put("state", recording.getState().name().toLowerCase());
+        res.put("startTime", recording.getStartTime());
+        res.put("stopTime", recording.getStopTime());
+        res.put("duration", recording.getDuration() != null ? recording.getDuration().toString() : null);
+        Path path = recording.getDestination();
+        res.put("file", path != null ? path.toString() : null);
+        try {
+            res.put("size", path != null && Files.exists(path) ? Files.size(path) : recording.getSize());
+        } catch (IOException e) {
+            res.put("size", null);
+        }
+        return res;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次模型调用（流式调用的持续时间到最后一个分片为止）
+ */
+@Name("com.example.alibabaai.ModelCall")
+@Label("Model Call")
+@Category({"AlibabaAI", "Model"})
+@Description("Chat model call with model name and token usage")
+@StackTrace(false)
+public class ModelCallEvent extends Event {
+
+    @Label("Model")
+    public String model;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Prompt Tokens")
+    public long promptTokens;
+
+    @Label("Completion Tokens")
+    public long completionTokens;
+
+    @Label("Total Tokens")
+    public long totalTokens;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.jfr;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jdk.jfr.EventType;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 为 SSE 响应的每次 flush 记录 {@link SseEmitEvent}
+ *
+ * 只有事件被录制启用时才包装响应，未录制时请求照常通过，没有额外开销。
+ * 异步写出发生在其他线程上，但使用的仍是这里包装过的响应对象。
+ */
+public class SseEmissionFilter extends OncePerRequestFilter {
+
+    private static final EventType SSE_EMIT = EventType.getEventType(SseEmitEvent.class);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!SSE_EMIT.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        filterChain.doFilter(request, new RecordingResponse(response, request.getRequestURI()));
+    }
+
+    private static final class RecordingResponse extends HttpServletResponseWrapper {
+
+        private final String path;
+        private final long startNanos = System.nanoTime();
+        private RecordingOutputStream outputStream;
+
+        RecordingResponse(HttpServletResponse response, String path) {
+            super(response);
+            this.path = path;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new RecordingOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+
+        boolean isEventStream() {
+            String contentType = getContentType();
+            return contentType != null && contentType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        }
+    }
+
+    private static final class RecordingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final RecordingResponse response;
+        private SseEmitEvent event;
+        private long bytes;
+        private long sequence;
+
+        RecordingOutputStream(ServletOutputStream delegate, RecordingResponse response) {
+            this.delegate = delegate;
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            beforeWrite(1);
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            beforeWrite(len);
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+            SseEmitEvent current = event;
+            if (current != null) {
+                event = null;
+                current.end();
+                if (current.shouldCommit()) {
+                    current.path = response.path;
+                    current.sequence = ++sequence;
+                    current.bytes = bytes;
+                    current.sinceRequestStart = (System.nanoTime() - response.startNanos) / 1_000_000;
+                    current.commit();
+                }
+                bytes = 0;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+
+        private void beforeWrite(int len) {
+            if (event == null && response.isEventStream()) {
+                event = new SseEmitEvent();
+                event.begin();
+            }
+            bytes += len;
+        }
+    }
+}
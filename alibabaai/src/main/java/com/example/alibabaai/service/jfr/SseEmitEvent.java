@@ -0,0 +1,50 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 一次 SSE 推送（一次 flush）；持续时间为写出并刷新到客户端的耗时，客户端读得慢时会变长
+ */
+@Name("com.example.alibabaai.SseEmit")
+@Label("SSE Emit")
+@Category({"AlibabaAI", "HTTP"})
+@Description("Server-sent event chunk written and flushed to the client")
+@StackTrace(false)
+public class SseEmitEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Sequence")
+    public long sequence;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Since Request Start")
+    @Timespan(Timespan.MILLISECONDS)
+    public long sinceRequestStart;
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次工具调用；只记录参数与结果的长度，不记录内容
+ */
+@Name("com.example.alibabaai.ToolCall")
+@Label("Tool Call")
+@Category({"AlibabaAI", "Tool"})
+@Description("Tool invocation made during a model call")
+@StackTrace(false)
+public class ToolCallEvent extends Event {
+
+    @Label("Tool")
+    public String tool;
+
+    @Label("Arguments Size")
+    @DataAmount
+    public long argumentsSize;
+
+    @Label("Result Size")
+    @DataAmount
+    public long resultSize;
+
+    @Label("Error")
+    public String error;
+}
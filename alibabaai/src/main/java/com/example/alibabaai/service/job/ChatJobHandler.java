@@ -0,0 +1,49 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.job;
+
+import org.springframework.ai.chat.client.ChatClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * 对话类任务：把 payload 中的提示词交给指定的 ChatClient（例如挂载了 MCP 工具的客户端）
+ */
+public class ChatJobHandler implements JobHandler {
+
+    private final String type;
+    private final ChatClient chatClient;
+    private final String promptKey;
+
+    public ChatJobHandler(String type, ChatClient chatClient, String promptKey) {
+        this.type = type;
+        this.chatClient = chatClient;
+        this.promptKey = promptKey;
+    }
+
+    @Override
+    public String type() {
+        return type;
+    }
+
+    @Override
+    public Flux<String> execute(JobSpec spec) {
+        Object prompt = spec.payload().get(promptKey);
+        if (prompt == null || prompt.toString().isBlank()) {
+            return Flux.error(new IllegalArgumentException("payload." + promptKey + " is required"));
+        }
+        return chatClient.prompt().user(prompt.toString()).stream().content();
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于本地预写日志的持久化任务队列
+ *
+ * <ul>
+ *   <li>提交：先写 SUBMIT 记录（fsync）再入队，返回即代表任务不会丢失</li>
+ *   <li>执行：固定大小的工作线程池按优先级取任务，耗时的模型调用与工具链不再占用 HTTP 请求</li>
+ *   <li>恢复：启动时回放日志，未完成（含执行到一半）的任务重新入队；超过最大尝试次数的任务标记失败，避免毒任务反复拖垮进程</li>
+ *   <li>过期：终态任务的结果保留 resultTtl，之后清除并压缩日志</li>
+ * </ul>
+ * 所有状态变化都在日志锁内“先写日志、后改内存”，压缩时基于同一把锁拍快照，不会丢记录。
+ */
+public class DurableJobQueue implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DurableJobQueue.class);
+
+    private static final long COMPACT_MIN_RECORDS = 1000;
+
+    private final JobWriteAheadLog wal;
+    private final Map<String, JobHandler> handlers;
+    private final Path blobDirectory;
+    private final int workers;
+    private final Duration resultTtl;
+    private final Duration jobTimeout;
+    private final int maxAttempts;
+    private final int maxPending;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<Queued> queue = new PriorityBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private ExecutorService workerPool;
+    private ScheduledExecutorService sweeper;
+    private volatile boolean closing;
+
+    public DurableJobQueue(JobWriteAheadLog wal, List<JobHandler> handlers, Path blobDirectory, int workers,
+                           Duration resultTtl, Duration jobTimeout, int maxAttempts, int maxPending) {
+        this.wal = wal;
+        this.handlers = new HashMap<>();
+        handlers.forEach(handler -> this.handlers.put(handler.type(), handler));
+        this.blobDirectory = blobDirectory;
+        this.workers = workers;
+        this.resultTtl = resultTtl;
+        this.jobTimeout = jobTimeout;
+        this.maxAttempts = maxAttempts;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * 回放日志、恢复未完成任务、压缩日志并启动工作线程
+     */
+    public void open() throws IOException {
+        Map<String, Job> replayed = new LinkedHashMap<>();
+        wal.replay(record -> apply(replayed, record));
+
+        long now = System.currentTimeMillis();
+        int resumed = 0;
+        for (Job job : replayed.values()) {
+            if (job.getStatus().isTerminal()) {
+                if (job.getFinishedAt() + resultTtl.toMillis() < now) {
+                    deleteBlob(job);
+                    continue;
+                }
+            } else if (job.getStatus() == Job.Status.RUNNING && job.getAttempts() >= maxAttempts) {
+                job.finish(Job.Status.FAILED, null, "Interrupted " + job.getAttempts() + " times by restarts, giving up", now);
+            } else {
+                job.requeue();
+                resumed++;
+            }
+            jobs.put(job.getSpec().id(), job);
+        }
+        compact();
+        jobs.values().stream()
+                .filter(job -> job.getStatus() == Job.Status.PENDING)
+                .sorted((a, b) -> Long.compare(a.getSpec().submittedAt(), b.getSpec().submittedAt()))
+                .forEach(this::enqueue);
+        logger.info("Job queue opened with {} jobs ({} resumed), {} workers, handlers: {}",
+                jobs.size(), resumed, workers, handlers.keySet());
+
+        workerPool = Executors.newFixedThreadPool(workers, new NamedDaemonFactory("job-worker"));
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::workLoop);
+        }
+        long sweepMillis = Math.max(1000, Math.min(resultTtl.toMillis() / 4, 60_000));
+        sweeper = Executors.newSingleThreadScheduledExecutor(new NamedDaemonFactory("job-sweeper"));
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 提交任务；图片分析任务引用服务端落盘的文件，只能通过 {@link #submitImage} 提交，客户端不能指定 blob
+     */
+    public Job submit(String type, Integer priority, Map<String, Object> payload) {
+        if (ImageAnalysisJobHandler.TYPE.equals(type)) {
+            throw new IllegalArgumentException("Image jobs must be submitted via POST /jobs/image");
+        }
+        return submitChecked(type, priority, payload);
+    }
+
+    private Job submitChecked(String type, Integer priority, Map<String, Object> payload) {
+        if (type == null || !handlers.containsKey(type)) {
+            throw new IllegalArgumentException("Unknown job type: " + type + ", supported: " + handlers.keySet());
+        }
+        if (pending.get() >= maxPending) {
+            throw new IllegalStateException("Job queue is full (" + maxPending + " pending jobs)");
+        }
+        JobSpec spec = new JobSpec(UUID.randomUUID().toString(), type, priority != null ? priority : 0,
+                payload != null ? payload : Map.of(), System.currentTimeMillis());
+        return submit(spec);
+    }
+
+    /**
+     * 提交图片分析任务：图片先落盘到 blob 目录，任务参数中只记录 blob 文件名（执行时相对 blob 目录解析）
+     */
+    public Job submitImage(String prompt, String contentType, byte[] image, Integer priority) {
+        String blobId = UUID.randomUUID().toString();
+        Path blob = blobDirectory.resolve(blobId + ".bin");
+        try {
+            Files.createDirectories(blobDirectory);
+            try (FileChannel channel = FileChannel.open(blob, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(image);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store image for job", e);
+        }
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("prompt", prompt);
+        payload.put("contentType", contentType);
+        payload.put("blob", blob.getFileName().toString());
+        try {
+            return submitChecked(ImageAnalysisJobHandler.TYPE, priority, payload);
+        } catch (RuntimeException e) {
+            deleteQuietly(blob);
+            throw e;
+        }
+    }
+
+    public Job get(String id) {
+        return jobs.get(id);
+    }
+
+    public Collection<Job> list() {
+        return jobs.values();
+    }
+
+    /**
+     * 取消尚未开始执行的任务
+     */
+    public boolean cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        synchronized (wal) {
+            if (job.getStatus() != Job.Status.PENDING) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            appendOrLog(JobWriteAheadLog.Record.of(JobWriteAheadLog.Op.CANCEL, id, now), true);
+            job.finish(Job.Status.CANCELLED, null, null, now);
+            pending.decrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * 运行中任务的增量输出（从头回放）；任务已结束时为空
+     */
+    public Flux<String> liveOutput(Job job) {
+        Sinks.Many<String> output = job.getOutput();
+        return output != null ? output.asFlux() : Flux.empty();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> res = new LinkedHashMap<>();
+        Map<Job.Status, Long> byStatus = new LinkedHashMap<>();
+        for (Job job : jobs.values()) {
+            byStatus.merge(job.getStatus(), 1L, Long::sum);
+        }
+        res.put("jobs", jobs.size());
+        res.put("byStatus", byStatus);
+        res.put("queued", queue.size());
+        res.put("workers", workers);
+        res.put("walRecordsSinceCompaction", wal.appendedSinceRewrite());
+        return res;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // 运行中的任务被中断后不记失败，保留 START 记录，下次启动时续跑
+        closing = true;
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+        }
+        wal.close();
+    }
+
+    // ==================== 内部实现 ====================
+
+    private Job submit(JobSpec spec) {
+        Job job = new Job(spec);
+        synchronized (wal) {
+            append(new JobWriteAheadLog.Record(JobWriteAheadLog.Op.SUBMIT, spec.id(), spec.submittedAt(), spec,
+                    null, null, null), true);
+            jobs.put(spec.id(), job);
+        }
+        enqueue(job);
+        return job;
+    }
+
+    private void enqueue(Job job) {
+        pending.incrementAndGet();
+        queue.add(new Queued(job.getSpec().id(), job.getSpec().priority(), sequence.incrementAndGet()));
+    }
+
+    private void workLoop() {
+        while (!closing) {
+            Queued next;
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Job job = jobs.get(next.id());
+            if (job != null) {
+                run(job);
+            }
+        }
+    }
+
+    private void run(Job job) {
+        JobSpec spec = job.getSpec();
+        int attempt;
+        // PENDING→RUNNING 的检查与推进和 cancel() 在同一把锁内完成，已取消的任务不会再写 START 或被执行
+        synchronized (wal) {
+            if (job.getStatus() != Job.Status.PENDING) {
+                return;
+            }
+            pending.decrementAndGet();
+            attempt = job.getAttempts() + 1;
+            long now = System.currentTimeMillis();
+            appendOrLog(new JobWriteAheadLog.Record(JobWriteAheadLog.Op.START, spec.id(), now, null, attempt, null, null), false);
+            job.start(attempt, now);
+        }
+
+        Sinks.Many<String> output = job.getOutput();
+        StringBuilder result = new StringBuilder();
+        try {
+            handlers.get(spec.type()).execute(spec)
+                    .doOnNext(chunk -> {
+                        result.append(chunk);
+                        if (output != null) {
+                            output.tryEmitNext(chunk);
+                        }
+                    })
+                    .timeout(jobTimeout)
+                    .blockLast();
+            finish(job, Job.Status.COMPLETED, result.toString(), null);
+        } catch (Exception e) {
+            if (closing) {
+                return;
+            }
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            logger.warn("Job {} ({}) failed on attempt {}: {}", spec.id(), spec.type(), attempt, message);
+            finish(job, Job.Status.FAILED, null, message);
+        }
+    }
+
+    private void finish(Job job, Job.Status status, String result, String error) {
+        synchronized (wal) {
+            long now = System.currentTimeMillis();
+            JobWriteAheadLog.Op op = status == Job.Status.COMPLETED ? JobWriteAheadLog.Op.COMPLETE : JobWriteAheadLog.Op.FAIL;
+            appendOrLog(new JobWriteAheadLog.Record(op, job.getSpec().id(), now, null, null, result, error), true);
+            job.finish(status, result, error, now);
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            long expiredBefore = System.currentTimeMillis() - resultTtl.toMillis();
+            for (Job job : List.copyOf(jobs.values())) {
+                if (job.getStatus().isTerminal() && job.getFinishedAt() < expiredBefore) {
+                    synchronized (wal) {
+                        appendOrLog(JobWriteAheadLog.Record.of(JobWriteAheadLog.Op.PURGE, job.getSpec().id(),
+                                System.currentTimeMillis()), false);
+                        jobs.remove(job.getSpec().id());
+                    }
+                    deleteBlob(job);
+                }
+            }
+            if (wal.appendedSinceRewrite() > Math.max(COMPACT_MIN_RECORDS, 4L * jobs.size())) {
+                compact();
+            }
+        } catch (Exception e) {
+            logger.warn("Job queue sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 只保留存活任务的记录重写日志
+     */
+    private void compact() throws IOException {
+        synchronized (wal) {
+            List<JobWriteAheadLog.Record> records = new ArrayList<>(jobs.size() * 2);
+            for (Job job : jobs.values()) {
+                JobSpec spec = job.getSpec();
+                records.add(new JobWriteAheadLog.Record(JobWriteAheadLog.Op.SUBMIT, spec.id(), spec.submittedAt(), spec,
+                        null, null, null));
+                if (job.getAttempts() > 0) {
+                    records.add(new JobWriteAheadLog.Record(JobWriteAheadLog.Op.START, spec.id(), spec.submittedAt(), null,
+                            job.getAttempts(), null, null));
+                }
+                switch (job.getStatus()) {
+                    case COMPLETED -> records.add(new JobWriteAheadLog.Record(JobWriteAheadLog.Op.COMPLETE, spec.id(),
+                            job.getFinishedAt(), null, null, job.getResult(), null));
+                    case FAILED -> records.add(new JobWriteAheadLog.Record(JobWriteAheadLog.Op.FAIL, spec.id(),
+                            job.getFinishedAt(), null, null, null, job.getError()));
+                    case CANCELLED -> records.add(JobWriteAheadLog.Record.of(JobWriteAheadLog.Op.CANCEL, spec.id(),
+                            job.getFinishedAt()));
+                    default -> {
+                        // PENDING 只需要 SUBMIT；RUNNING 保留 START（重启后据此计数）
+                    }
+                }
+            }
+            wal.rewrite(records);
+        }
+    }
+
+    private static void apply(Map<String, Job> replayed, JobWriteAheadLog.Record record) {
+        if (record.op() == JobWriteAheadLog.Op.SUBMIT) {
+            replayed.put(record.id(), new Job(record.spec()));
+            return;
+        }
+        Job job = replayed.get(record.id());
+        if (job == null) {
+            return;
+        }
+        switch (record.op()) {
+            case START -> job.start(record.attempt() != null ? record.attempt() : job.getAttempts() + 1, record.ts());
+            case COMPLETE -> job.finish(Job.Status.COMPLETED, record.result(), null, record.ts());
+            case FAIL -> job.finish(Job.Status.FAILED, null, record.error(), record.ts());
+            case CANCEL -> job.finish(Job.Status.CANCELLED, null, null, record.ts());
+            case PURGE -> replayed.remove(record.id());
+            default -> {
+            }
+        }
+    }
+
+    private void append(JobWriteAheadLog.Record record, boolean durable) {
+        try {
+            wal.append(record, durable);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write job WAL", e);
+        }
+    }
+
+    /**
+     * 状态推进时写日志失败只记录错误：内存状态照常推进，最坏情况是重启后该任务被重跑
+     */
+    private void appendOrLog(JobWriteAheadLog.Record record, boolean durable) {
+        try {
+            wal.append(record, durable);
+        } catch (IOException e) {
+            logger.error("Failed to write job WAL record {} for {}: {}", record.op(), record.id(), e.getMessage());
+        }
+    }
+
+    private void deleteBlob(Job job) {
+        Object blob = job.getSpec().payload().get("blob");
+        if (blob != null) {
+            Path path = ImageAnalysisJobHandler.resolveBlob(blobDirectory, blob.toString());
+            if (path != null) {
+                deleteQuietly(path);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete job blob {}: {}", path, e.getMessage());
+        }
+    }
+
+    private record Queued(String id, int priority, long seq) implements Comparable<Queued> {
+        @Override
+        public int compareTo(Queued other) {
+            int byPriority = Integer.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+
+    private static final class NamedDaemonFactory implements java.util.concurrent.ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedDaemonFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.job;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import com.alibaba.cloud.ai.dashscope.chat.MessageFormat;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeApiConstants;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.content.Media;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+
+/**
+ * 图片分析任务：图片在提交时落盘（payload.blob 为 blob 目录下的文件名），执行时再读取，重启后同样可以续跑
+ */
+public class ImageAnalysisJobHandler implements JobHandler {
+
+    public static final String TYPE = "image-analyze";
+
+    private final ChatClient chatClient;
+    private final Path blobDirectory;
+
+    public ImageAnalysisJobHandler(ChatClient chatClient, Path blobDirectory) {
+        this.chatClient = chatClient;
+        this.blobDirectory = blobDirectory;
+    }
+
+    /**
+     * 将 blob 引用解析为 blob 目录下的路径；规范化后落在目录之外（../、绝对路径等）时返回 null
+     */
+    static Path resolveBlob(Path blobDirectory, String reference) {
+        Path base = blobDirectory.toAbsolutePath().normalize();
+        Path resolved = base.resolve(reference).normalize();
+        return resolved.startsWith(base) && !resolved.equals(base) ? resolved : null;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Flux<String> execute(JobSpec spec) {
+        Object reference = spec.payload().get("blob");
+        Path blob = reference != null ? resolveBlob(blobDirectory, reference.toString()) : null;
+        if (blob == null) {
+            return Flux.error(new IllegalArgumentException("Image blob must be a file under the job blob directory"));
+        }
+        if (!Files.isRegularFile(blob, LinkOption.NOFOLLOW_LINKS)) {
+            return Flux.error(new IllegalStateException("Image blob missing: " + blob));
+        }
+        String prompt = String.valueOf(spec.payload().getOrDefault("prompt", "请分析这张图片的内容"));
+        String contentType = String.valueOf(spec.payload().getOrDefault("contentType", "image/png"));
+
+        UserMessage message = UserMessage.builder()
+                .text(prompt)
+                .media(new Media(MimeTypeUtils.parseMimeType(contentType), new FileSystemResource(blob)))
+                .build();
+        message.getMetadata().put(DashScopeApiConstants.MESSAGE_FORMAT, MessageFormat.IMAGE);
+
+        Prompt chatPrompt = new Prompt(message,
+                DashScopeChatOptions.builder()
+                        .withModel("qwen-vl-max-latest")
+                        .withMultiModel(true)
+                        .withVlHighResolutionImages(true)
+                        .withTemperature(0.7)
+                        .build());
+        return chatClient.prompt(chatPrompt).stream().content();
+    }
+}
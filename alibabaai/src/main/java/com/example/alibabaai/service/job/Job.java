@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.job;
+
+import reactor.core.publisher.Sinks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 队列中的任务及其运行状态
+ */
+public class Job {
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final JobSpec spec;
+    private volatile Status status = Status.PENDING;
+    private volatile int attempts;
+    private volatile String result;
+    private volatile String error;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    /** 运行中的增量输出，供 SSE 订阅方回放；任务结束后释放 */
+    private volatile Sinks.Many<String> output = Sinks.many().replay().all();
+
+    public Job(JobSpec spec) {
+        this.spec = spec;
+    }
+
+    public JobSpec getSpec() {
+        return spec;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    Sinks.Many<String> getOutput() {
+        return output;
+    }
+
+    void start(int attempt, long at) {
+        this.attempts = attempt;
+        this.startedAt = at;
+        this.status = Status.RUNNING;
+    }
+
+    void requeue() {
+        this.status = Status.PENDING;
+    }
+
+    void finish(Status status, String result, String error, long at) {
+        this.result = result;
+        this.error = error;
+        this.finishedAt = at;
+        this.status = status;
+        Sinks.Many<String> current = output;
+        output = null;
+        if (current != null) {
+            current.tryEmitComplete();
+        }
+    }
+
+    public Map<String, Object> snapshot(boolean includeResult) {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("id", spec.id());
+        res.put("type", spec.type());
+        res.put("priority", spec.priority());
+        res.put("status", status);
+        res.put("attempts", attempts);
+        res.put("submittedAt", spec.submittedAt());
+        res.put("startedAt", startedAt > 0 ? startedAt : null);
+        res.put("finishedAt", finishedAt > 0 ? finishedAt : null);
+        if (includeResult && result != null) {
+            res.put("result", result);
+        }
+        if (error != null) {
+            res.put("error", error);
+        }
+        return res;
+    }
+}
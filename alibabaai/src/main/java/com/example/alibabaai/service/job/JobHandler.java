@@ -0,0 +1,30 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.job;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * 任务处理器，按 {@link JobSpec#type()} 分派
+ *
+ * 输出以分片流的形式返回，订阅方（SSE）可以实时看到增量结果，任务完成后拼接为最终结果保存。
+ */
+public interface JobHandler {
+
+    String type();
+
+    Flux<String> execute(JobSpec spec);
+}
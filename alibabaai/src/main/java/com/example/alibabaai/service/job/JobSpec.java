@@ -0,0 +1,27 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.job;
+
+import java.util.Map;
+
+/**
+ * 任务规格（写入预写日志，重启后据此重新入队）
+ *
+ * @param priority 数值越大越先执行，同优先级按提交顺序
+ * @param payload  交给对应 {@link JobHandler} 的参数
+ */
+public record JobSpec(String id, String type, int priority, Map<String, Object> payload, long submittedAt) {
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.job;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 任务队列的预写日志（JSON Lines，只追加）
+ *
+ * 状态变化先落日志再生效；提交与完成记录会 fsync，保证已确认的任务和结果不因进程崩溃丢失。
+ * 日志通过 {@link #rewrite(List)} 压缩：只保留存活任务的记录，写临时文件后原子替换。
+ */
+public class JobWriteAheadLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobWriteAheadLog.class);
+
+    public enum Op {
+        SUBMIT, START, COMPLETE, FAIL, CANCEL, PURGE
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Record(Op op, String id, long ts, JobSpec spec, Integer attempt, String result, String error) {
+
+        static Record of(Op op, String id, long ts) {
+            return new Record(op, id, ts, null, null, null, null);
+        }
+    }
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private FileChannel channel;
+    private long appendedSinceRewrite;
+
+    public JobWriteAheadLog(Path path, ObjectMapper objectMapper, boolean fsync) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+    }
+
+    /**
+     * 按顺序回放日志，末尾不完整的行（崩溃时写了一半）会被跳过
+     */
+    public synchronized void replay(Consumer<Record> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    consumer.accept(objectMapper.readValue(line, Record.class));
+                } catch (IOException e) {
+                    logger.warn("Skipping corrupt job WAL line in {}: {}", path, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @param durable 为 true 且开启 fsync 时，返回前确保记录已落盘
+     */
+    public synchronized void append(Record record, boolean durable) throws IOException {
+        ensureOpen();
+        ByteBuffer buffer = ByteBuffer.wrap((objectMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (durable && fsync) {
+            channel.force(false);
+        }
+        appendedSinceRewrite++;
+    }
+
+    /**
+     * 用给定记录原子替换整个日志（压缩）
+     */
+    public synchronized void rewrite(List<Record> records) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = parent.resolve(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            StringBuilder batch = new StringBuilder(records.size() * 256);
+            for (Record record : records) {
+                batch.append(objectMapper.writeValueAsString(record)).append('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        closeChannel();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appendedSinceRewrite = 0;
+    }
+
+    /**
+     * 上次压缩以来追加的记录数，用于判断是否需要再次压缩
+     */
+    public synchronized long appendedSinceRewrite() {
+        return appendedSinceRewrite;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.force(true);
+            channel.close();
+            channel = null;
+        }
+    }
+}
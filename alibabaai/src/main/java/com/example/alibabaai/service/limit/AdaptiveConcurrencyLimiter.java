@@ -0,0 +1,207 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.limit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自适应并发限制器（Gradient2 / Vegas 思路）
+ *
+ * 不预设固定并发数，而是根据观测到的往返时间持续调整在途上限：
+ * <ul>
+ *   <li>长期 RTT 取指数移动平均，作为上游"正常"延迟的基线；</li>
+ *   <li>每个样本计算梯度 {@code tolerance * longRtt / rtt}（限制在 [0.5, 1]），延迟升高时上限按比例收缩，
+ *       延迟平稳时每次额外放宽 sqrt(limit) 个许可以探测更多容量；</li>
+ *   <li>上游过载（限流、超时）时立即按 {@code backoffRatio} 乘性收缩；</li>
+ *   <li>在途数不足上限一半时不放宽，避免空闲期把上限推高。</li>
+ * </ul>
+ * 超过上限的请求直接拒绝而不是排队，让调用方尽快得到 503。
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final int longWindow;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private long lastRttNanos;
+    private int samples;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double smoothing,
+                                      double rttTolerance, int longWindow, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limit range [" + minLimit + ", " + maxLimit + "]");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = Math.max(1.0, rttTolerance);
+        this.longWindow = Math.max(WARMUP_SAMPLES, longWindow);
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * 尝试获取许可；超过当前上限返回 null
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.incrementAndGet();
+                return new Permit(current + 1, System.nanoTime());
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("name", name);
+        res.put("limit", getLimit());
+        res.put("inFlight", inFlight.get());
+        synchronized (this) {
+            res.put("longRttMillis", longRttNanos / 1_000_000.0);
+            res.put("lastRttMillis", lastRttNanos / 1_000_000.0);
+        }
+        res.put("accepted", accepted.get());
+        res.put("rejected", rejected.get());
+        res.put("dropped", dropped.get());
+        res.put("minLimit", minLimit);
+        res.put("maxLimit", maxLimit);
+        return res;
+    }
+
+    // ==================== 内部实现 ====================
+
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        lastRttNanos = rttNanos;
+        samples++;
+        if (samples <= WARMUP_SAMPLES) {
+            // 预热期取算术平均，避免第一个样本决定基线
+            longRttNanos += (rttNanos - longRttNanos) / samples;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / longWindow;
+        }
+        // 短期延迟明显低于基线说明上游已恢复，加快基线回落
+        if (longRttNanos > 2.0 * rttNanos) {
+            longRttNanos *= 0.95;
+        }
+        double current = limit;
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / Math.max(1, rttNanos)));
+        double target = current * gradient + Math.sqrt(current);
+        setLimit(current * (1 - smoothing) + target * smoothing);
+    }
+
+    synchronized void onDropped() {
+        dropped.incrementAndGet();
+        setLimit(limit * backoffRatio);
+    }
+
+    private void setLimit(double value) {
+        limit = Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    /**
+     * 一次调用持有的许可，必须且只能以 success / dropped / ignore 之一释放
+     */
+    public final class Permit {
+
+        private final int inFlightAtStart;
+        private final long startNanos;
+        private boolean released;
+
+        private Permit(int inFlightAtStart, long startNanos) {
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 调用成功，以从获取许可到现在的耗时作为 RTT 样本
+         */
+        public void success() {
+            success(System.nanoTime() - startNanos);
+        }
+
+        /**
+         * 调用成功，使用调用方测得的 RTT（如流式调用的首包时间）
+         */
+        public void success(long rttNanos) {
+            if (release()) {
+                onSample(rttNanos, inFlightAtStart);
+            }
+        }
+
+        /**
+         * 上游过载（限流、超时），收缩上限
+         */
+        public void dropped() {
+            if (release()) {
+                onDropped();
+            }
+        }
+
+        /**
+         * 与上游容量无关的结束（客户端取消、参数错误），不影响上限
+         */
+        public void ignore() {
+            release();
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        private synchronized boolean release() {
+            if (released) {
+                return false;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            return true;
+        }
+    }
+}
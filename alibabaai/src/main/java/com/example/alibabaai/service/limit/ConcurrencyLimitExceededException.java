@@ -0,0 +1,48 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.limit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * 上游在途请求已达自适应上限，请求被直接拒绝
+ *
+ * 作为 ResponseStatusException 由 Web 层直接转成 503，并带上 Retry-After。
+ */
+public class ConcurrencyLimitExceededException extends ResponseStatusException {
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(String limiterName, int limit, Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent " + limiterName + " requests (limit " + limit + ")");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        return headers;
+    }
+}
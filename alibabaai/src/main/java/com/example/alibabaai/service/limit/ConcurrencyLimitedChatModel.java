@@ -0,0 +1,140 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.limit;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 带自适应并发限制的 ChatModel 装饰器
+ *
+ * 所有经由 ChatModel 的调用（各聊天接口、ChatClient 以及挂载 MCP 工具的客户端）共享同一个限制器。
+ * 同步调用以整次调用耗时作为 RTT 样本；流式调用在订阅时获取许可、终止时释放，
+ * 以首个响应块的到达时间作为 RTT 样本，避免输出长度影响延迟判断。
+ */
+public class ConcurrencyLimitedChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitedChatModel(ChatModel delegate, AdaptiveConcurrencyLimiter limiter, Duration retryAfter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        AdaptiveConcurrencyLimiter.Permit permit = acquire();
+        try {
+            ChatResponse response = delegate.call(prompt);
+            permit.success();
+            return response;
+        } catch (RuntimeException e) {
+            release(permit, e);
+            throw e;
+        } catch (Error e) {
+            permit.ignore();
+            throw e;
+        }
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            AdaptiveConcurrencyLimiter.Permit permit = acquire();
+            AtomicLong firstChunkNanos = new AtomicLong();
+            return delegate.stream(prompt)
+                    .doOnNext(response -> firstChunkNanos.compareAndSet(0, System.nanoTime() - permit.getStartNanos()))
+                    .doOnError(e -> release(permit, e))
+                    .doFinally(signal -> {
+                        if (signal == SignalType.ON_COMPLETE) {
+                            long rtt = firstChunkNanos.get();
+                            if (rtt > 0) {
+                                permit.success(rtt);
+                            } else {
+                                permit.success();
+                            }
+                        } else {
+                            permit.ignore();
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    public ChatModel getDelegate() {
+        return delegate;
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    private AdaptiveConcurrencyLimiter.Permit acquire() {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            throw new ConcurrencyLimitExceededException("model", limiter.getLimit(), retryAfter);
+        }
+        return permit;
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter.Permit permit, Throwable error) {
+        if (isOverload(error)) {
+            permit.dropped();
+        } else {
+            permit.ignore();
+        }
+    }
+
+    /**
+     * 上游过载的信号：5xx/429、超时与连接失败；参数错误等其他异常与容量无关
+     */
+    static boolean isOverload(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof TransientAiException || e instanceof TimeoutException
+                    || e instanceof ResourceAccessException || e instanceof WebClientRequestException) {
+                return true;
+            }
+            if (e instanceof WebClientResponseException response) {
+                int status = response.getStatusCode().value();
+                return status == 429 || status >= 500;
+            }
+            if (e instanceof NonTransientAiException && e.getMessage() != null && e.getMessage().startsWith("429")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
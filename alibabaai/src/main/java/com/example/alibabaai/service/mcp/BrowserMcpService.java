@@ -17,31 +17,76 @@
  */
 package com.example.alibabaai.service.mcp;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.alibabaai.service.browser.BrowserSessionPool;
+import com.example.alibabaai.service.http.OutboundUrlGuard;
+import com.example.alibabaai.service.mcp.extract.MainContentExtractor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.IOException;
-import java.util.HashMap;
+import java.net.URI;
+import java.time.Duration;
 import java.util.Map;
 
 @Service
 public class BrowserMcpService {
     
     private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    private final OutboundUrlGuard urlGuard;
+    private final ObjectProvider<BrowserSessionPool> browserSessionPool;
+    private final int defaultMaxTokens;
     
-    public BrowserMcpService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
-        this.webClient = webClientBuilder.build();
-        this.objectMapper = objectMapper;
+    public BrowserMcpService(WebClient pooledWebClient, OutboundUrlGuard urlGuard,
+                             ObjectProvider<BrowserSessionPool> browserSessionPool,
+                             @Value("${mcp.extract.default-max-tokens:1500}") int defaultMaxTokens) {
+        this.webClient = pooledWebClient;
+        this.urlGuard = urlGuard;
+        this.browserSessionPool = browserSessionPool;
+        this.defaultMaxTokens = defaultMaxTokens;
     }
     
     /**
      * Execute chrome navigate operation
+     * 
+     * 优先在会话池的无头浏览器中打开（复用已启动的浏览器，宽高映射为视口）；
+     * 会话池未启用或本机没有 Chrome 时，退回到用系统默认浏览器打开。
+     * 打开前与抓取工具一样经 {@link OutboundUrlGuard#check} 校验，只允许指向公网的 http(s) 地址，
+     * 不允许时以 {@link IllegalArgumentException} 结束；页面加载后在浏览器内部发生的重定向不经过校验
      */
     public Mono<String> chromeNavigate(String url, Boolean newWindow, Integer width, Integer height) {
+        if (url == null || url.isBlank()) {
+            return Mono.error(new IllegalArgumentException("No URL provided for navigation"));
+        }
+        return Mono.defer(() -> urlGuard.check(URI.create(url.trim())))
+                .flatMap(target -> navigate(target.toString(), width, height));
+    }
+    
+    private Mono<String> navigate(String url, Integer width, Integer height) {
+        BrowserSessionPool pool = browserSessionPool.getIfAvailable();
+        if (pool != null && pool.isAvailable()) {
+            return Mono.fromCallable(() -> pool.withSession(session -> session.navigate(url, width, height)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .map(result -> result.errorText() != null
+                            ? String.format("Failed to navigate to %s: %s", url, result.errorText())
+                            : String.format("Navigated to %s in %d ms (browser session %d%s)", url,
+                                    result.elapsedMillis(), result.sessionId(),
+                                    result.width() != null ? ", viewport " + result.width() + "x" + result.height() : ""));
+        }
+        return openDesktopBrowser(url);
+    }
+    
+    /**
+     * 浏览器会话池状态
+     */
+    public Map<String, Object> browserPoolStatus() {
+        BrowserSessionPool pool = browserSessionPool.getIfAvailable();
+        return pool != null ? pool.stats() : Map.of("available", false);
+    }
+    
+    private Mono<String> openDesktopBrowser(String url) {
         return Mono.fromCallable(() -> {
             try {
                 // 根据操作系统类型选择合适的命令（按照记忆中的跨平台浏览器调用模式）
@@ -60,77 +105,81 @@ public class BrowserMcpService {
                     pb = new ProcessBuilder("xdg-open", url);
                 }
                 
-                // 设置进程属性
+                // 设置进程属性；启动器很快退出，丢弃输出并在退出时回收
                 pb.redirectErrorStream(true);
-                Process process = pb.start();
-                
-                // 等待一小段时间确保进程启动
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+                pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+                pb.start().onExit();
                 
                 return String.format("Successfully opened browser and navigated to: %s", url);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to open browser: " + e.getMessage(), e);
             }
-        });
+        }).subscribeOn(Schedulers.boundedElastic());
     }
     
     /**
      * Execute chrome get web content operation
+     * 
+     * textContent=true 时按选择器或正文检测抽取文本，否则（默认）返回 HTML：有选择器时为命中元素的源码，
+     * 没有时为整页源码；输出均按 token 预算裁剪
      */
-    public Mono<String> chromeGetWebContent(String url, Boolean textContent, Boolean htmlContent, String selector) {
-        return Mono.fromCallable(() -> {
-            // 获取网页内容
-            try {
-                if (url == null || url.trim().isEmpty()) {
-                    return "No URL provided for content retrieval";
-                }
-                
-                // 使用WebClient获取网页内容
-                String content = webClient.get()
-                        .uri(url.trim())
-                        .retrieve()
-                        .bodyToMono(String.class)
-                        .timeout(java.time.Duration.ofSeconds(10)) // 添加超时设置
-                        .block();
-                
-                if (content == null || content.isEmpty()) {
-                    return "No content retrieved from " + url;
-                }
-                
-                if (Boolean.TRUE.equals(textContent)) {
-                    // 简单提取文本内容（移除HTML标签）
-                    String textOnly = content.replaceAll("<[^>]*>", " ")
-                                            .replaceAll("\\s+", " ")
-                                            .trim();
-                    int maxLength = Math.min(textOnly.length(), 500);
-                    return "Text content from " + url + ": " + textOnly.substring(0, maxLength) + 
-                           (textOnly.length() > maxLength ? "..." : "");
-                } else {
-                    // 返回HTML内容
-                    int maxLength = Math.min(content.length(), 1000);
-                    return "HTML content from " + url + ": " + content.substring(0, maxLength) + 
-                           (content.length() > maxLength ? "..." : "");
-                }
-            } catch (Exception e) {
-                return "Failed to retrieve content from " + url + ": " + e.getMessage();
-            }
-        });
+    public Mono<String> chromeGetWebContent(String url, Boolean textContent, Boolean htmlContent, String selector,
+                                            Integer maxTokens) {
+        if (url == null || url.trim().isEmpty()) {
+            return Mono.just("No URL provided for content retrieval");
+        }
+        int budget = maxTokens != null && maxTokens > 0 ? maxTokens : defaultMaxTokens;
+        // 与原行为一致：只有显式要求 textContent 时才返回文本，默认返回 HTML
+        boolean html = !Boolean.TRUE.equals(textContent);
+        
+        URI uri;
+        try {
+            uri = URI.create(url.trim());
+        } catch (IllegalArgumentException e) {
+            return Mono.just("Failed to retrieve content from " + url + ": invalid URL");
+        }
+        
+        // 使用WebClient获取网页内容（目标地址与重定向逐跳校验，不访问内网与本机）
+        return urlGuard.exchange(webClient, uri, target -> webClient.get().uri(target),
+                        response -> response.statusCode().isError()
+                                ? response.<String>createError() : response.bodyToMono(String.class))
+                .timeout(Duration.ofSeconds(10)) // 添加超时设置
+                .map(content -> describe(url, content, html, selector, budget))
+                .defaultIfEmpty("No content retrieved from " + url)
+                .onErrorResume(e -> Mono.just("Failed to retrieve content from " + url + ": " + e.getMessage()));
+    }
+    
+    private String describe(String url, String content, boolean html, String selector, int budget) {
+        MainContentExtractor.Extraction extraction;
+        try {
+            extraction = html
+                    ? MainContentExtractor.extractHtml(content, selector, budget)
+                    : MainContentExtractor.extract(content, selector, budget);
+        } catch (IllegalArgumentException e) {
+            return "Invalid selector for " + url + ": " + e.getMessage();
+        }
+        StringBuilder sb = new StringBuilder(html ? "HTML content from " : "Text content from ").append(url);
+        sb.append(" (").append(extraction.strategy()).append(", ~").append(extraction.estimatedTokens()).append(" tokens");
+        if (extraction.truncated()) {
+            sb.append(", truncated");
+        }
+        sb.append(')');
+        if (selector != null && !selector.isBlank() && extraction.matched() == 0) {
+            sb.append(" [selector '").append(selector).append("' matched nothing]");
+        }
+        return sb.append(": ").append(html ? extraction.text() : extraction.render()).toString();
     }
+    
     /**
-     * Parse JSON arguments for tool execution
+     * chrome_navigate 参数
      */
-    public Map<String, Object> parseArguments(String jsonArgs) throws IOException {
-        JsonNode node = objectMapper.readTree(jsonArgs);
-        Map<String, Object> result = new HashMap<>();
-        
-        node.fields().forEachRemaining(entry -> {
-            result.put(entry.getKey(), entry.getValue().asText());
-        });
-        
-        return result;
+    public record NavigateRequest(String url, Boolean newWindow, Integer width, Integer height) {
+    }
+    
+    /**
+     * chrome_get_web_content 参数
+     */
+    public record WebContentRequest(String url, Boolean textContent, Boolean htmlContent, String selector,
+                                    Integer maxTokens) {
     }
-}
\ No newline at end of file
+}
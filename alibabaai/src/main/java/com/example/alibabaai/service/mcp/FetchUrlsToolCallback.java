@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp;
+
+import com.example.alibabaai.service.mcp.binding.ToolArgumentBinder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.DefaultToolDefinition;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+
+/**
+ * fetch_urls 本地工具回调，让模型在一次工具调用中并行抓取多个页面
+ *
+ * 参数由预编译的绑定器直接从 JSON 词法流读取；各页面文本按完成顺序拼接返回。
+ */
+public class FetchUrlsToolCallback implements ToolCallback {
+
+    private final MultiUrlFetchService fetchService;
+    private final ToolArgumentBinder<MultiUrlFetchService.FetchRequest> binder;
+    private final ObjectMapper objectMapper;
+    private final ToolDefinition toolDefinition;
+
+    public FetchUrlsToolCallback(MultiUrlFetchService fetchService, McpSchema.Tool tool,
+                                 ToolArgumentBinder<MultiUrlFetchService.FetchRequest> binder, ObjectMapper objectMapper) {
+        this.fetchService = fetchService;
+        this.binder = binder;
+        this.objectMapper = objectMapper;
+        try {
+            this.toolDefinition = DefaultToolDefinition.builder()
+                    .name(tool.name())
+                    .description(tool.description())
+                    .inputSchema(objectMapper.writeValueAsString(tool.inputSchema()))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid input schema for tool " + tool.name(), e);
+        }
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return toolDefinition;
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        MultiUrlFetchService.FetchRequest request;
+        try {
+            request = binder.bind(toolInput, objectMapper.getFactory());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        return fetchService.fetch(request)
+                .map(MultiUrlFetchService.FetchResult::render)
+                .collect(Collectors.joining())
+                .onErrorResume(e -> Mono.just("Failed to fetch URLs: " + e.getMessage()))
+                .block();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.time.Duration;
+
+/**
+ * 等待 MCP 会话就绪后再执行的工具回调
+ *
+ * 工具定义（名称、描述、参数Schema）不依赖会话，可以在启动时直接交给模型；
+ * 只有真正执行工具时才等待后台握手完成，超时返回错误而不是无限阻塞。
+ * 工具执行失败时异步探测一次会话，会话已断开则由 {@link McpSessionManager} 标记未就绪并后台重连。
+ */
+public class GatedMcpToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final McpSessionManager sessionManager;
+    private final Duration readyTimeout;
+
+    public GatedMcpToolCallback(ToolCallback delegate, McpSessionManager sessionManager, Duration readyTimeout) {
+        this.delegate = delegate;
+        this.sessionManager = sessionManager;
+        this.readyTimeout = readyTimeout;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        if (!sessionManager.isReady()) {
+            sessionManager.whenReady(readyTimeout).block();
+        }
+        try {
+            return toolContext != null ? delegate.call(toolInput, toolContext) : delegate.call(toolInput);
+        } catch (RuntimeException e) {
+            sessionManager.check().subscribe();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MCP 服务端通知的多播中心
+ *
+ * MCP 会话的 logging / progress 通知只在客户端构建时注册一次消费者（见 McpConfig），
+ * 由这里转发给任意数量的订阅者（SSE）：
+ * <ul>
+ *   <li>上游只向一个 directBestEffort 多播 Sink 发射一次，订阅者数量不影响 MCP 传输层；</li>
+ *   <li>每个订阅者有自己的有界缓冲，满了按策略丢弃：DROP 丢弃新到的通知，LATEST 挤掉最旧的保留最新的；
+ *       慢消费者只会丢自己的通知，不会反压 MCP 传输层，也不影响其他订阅者；</li>
+ *   <li>通知带全局递增序号（SSE id），订阅者可据此发现丢失的区间。</li>
+ * </ul>
+ */
+public class McpNotificationHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpNotificationHub.class);
+
+    private final Sinks.Many<Notification> sink = Sinks.many().multicast().directBestEffort();
+    private final Map<Long, SubscriberState> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final AtomicLong undelivered = new AtomicLong();
+    private final int defaultBufferSize;
+    private final int maxBufferSize;
+    private final int maxSubscribers;
+
+    public McpNotificationHub(int defaultBufferSize, int maxBufferSize, int maxSubscribers) {
+        this.defaultBufferSize = Math.max(1, defaultBufferSize);
+        this.maxBufferSize = Math.max(this.defaultBufferSize, maxBufferSize);
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * MCP logging 通知消费者（notifications/message）
+     */
+    public Mono<Void> onLogging(McpSchema.LoggingMessageNotification notification) {
+        publish(new Notification(0, "log", System.currentTimeMillis(),
+                notification.level() != null ? notification.level().name().toLowerCase(Locale.ROOT) : null,
+                notification.logger(), notification.data(), null, null, null));
+        return Mono.empty();
+    }
+
+    /**
+     * MCP progress 通知消费者（notifications/progress）
+     */
+    public Mono<Void> onProgress(McpSchema.ProgressNotification notification) {
+        publish(new Notification(0, "progress", System.currentTimeMillis(), null, null, notification.message(),
+                notification.progressToken(), notification.progress(), notification.total()));
+        return Mono.empty();
+    }
+
+    /**
+     * 订阅通知流
+     *
+     * @param policy     缓冲满时的丢弃策略
+     * @param bufferSize 缓冲大小，为空时使用默认值，超过上限时截断
+     * @param type       只接收该类型（log / progress），为空时接收全部
+     */
+    public Flux<Notification> subscribe(OverflowPolicy policy, Integer bufferSize, String type) {
+        int capacity = Math.max(1, Math.min(bufferSize != null ? bufferSize : defaultBufferSize, maxBufferSize));
+        return Flux.defer(() -> {
+            if (subscribers.size() >= maxSubscribers) {
+                return Flux.error(new IllegalStateException("Too many notification subscribers (max " + maxSubscribers + ")"));
+            }
+            SubscriberState state = new SubscriberState(subscriberIds.incrementAndGet(), policy, capacity, type);
+            subscribers.put(state.id, state);
+            Flux<Notification> source = sink.asFlux();
+            if (type != null && !type.isBlank()) {
+                source = source.filter(notification -> notification.type().equalsIgnoreCase(type));
+            }
+            BufferOverflowStrategy strategy = policy == OverflowPolicy.LATEST
+                    ? BufferOverflowStrategy.DROP_OLDEST : BufferOverflowStrategy.DROP_LATEST;
+            // 缓冲在发射线程上入队即返回；投递切换到其他线程，慢订阅者的写出不占用 MCP 传输线程
+            return source.onBackpressureBuffer(capacity, dropped -> state.dropped.incrementAndGet(), strategy)
+                    .publishOn(Schedulers.parallel(), 1)
+                    .doOnNext(notification -> state.delivered.incrementAndGet())
+                    .doFinally(signal -> subscribers.remove(state.id));
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("published", sequence.get());
+        stats.put("publishedWithoutSubscribers", undelivered.get());
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (SubscriberState state : subscribers.values()) {
+            list.add(state.snapshot());
+        }
+        stats.put("subscribers", list);
+        return stats;
+    }
+
+    // ==================== 内部实现 ====================
+
+    /**
+     * Sink 不允许并发发射；MCP 传输层可能在不同线程上回调，这里串行化（临界区只有一次多播）
+     */
+    private synchronized void publish(Notification notification) {
+        Notification numbered = notification.withSequence(sequence.incrementAndGet());
+        Sinks.EmitResult result = sink.tryEmitNext(numbered);
+        if (result == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            undelivered.incrementAndGet();
+        } else if (result.isFailure()) {
+            logger.debug("Dropped MCP notification {}: {}", numbered.sequence(), result);
+        }
+    }
+
+    /**
+     * 订阅者缓冲满时的策略
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * 丢弃新到的通知，保留缓冲中已有的
+         */
+        DROP,
+
+        /**
+         * 挤掉最旧的通知，保留最新的
+         */
+        LATEST;
+
+        public static OverflowPolicy parse(String value) {
+            return value == null || value.isBlank() ? LATEST : valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * 一条通知；log 类型使用 level / logger / data，progress 类型使用 data(message) / progressToken / progress / total
+     */
+    public record Notification(long sequence, String type, long timestamp, String level, String logger, String data,
+                               String progressToken, Double progress, Double total) {
+
+        Notification withSequence(long sequence) {
+            return new Notification(sequence, type, timestamp, level, logger, data, progressToken, progress, total);
+        }
+    }
+
+    private static final class SubscriberState {
+        private final long id;
+        private final OverflowPolicy policy;
+        private final int capacity;
+        private final String type;
+        private final long connectedAt = System.currentTimeMillis();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        SubscriberState(long id, OverflowPolicy policy, int capacity, String type) {
+            this.id = id;
+            this.policy = policy;
+            this.capacity = capacity;
+            this.type = type;
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("id", id);
+            snapshot.put("policy", policy.name().toLowerCase(Locale.ROOT));
+            snapshot.put("bufferSize", capacity);
+            snapshot.put("type", type);
+            snapshot.put("connectedAt", connectedAt);
+            snapshot.put("delivered", delivered.get());
+            snapshot.put("dropped", dropped.get());
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * MCP会话管理 - 后台懒连接与断线重连
+ *
+ * 应用启动时不再同步连接 MCP 服务（openConnectionOnStartup=false），
+ * 而是在容器刷新完成后于后台发起 initialize 握手，失败时指数退避重试。
+ * 只有工具调用需要等待会话就绪（见 {@link GatedMcpToolCallback}），其余请求与启动过程不受 MCP 服务可用性影响。
+ *
+ * 就绪后按 health-check-interval 发送 ping；ping 失败或工具调用报错后 ping 失败，会话标记为未就绪并在后台重新握手，
+ * 期间的工具调用重新等待就绪，{@link #isReady()} 与 {@link #status()} 反映当前状态而不只是首次连接。
+ */
+public class McpSessionManager implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpSessionManager.class);
+
+    private final McpAsyncClient client;
+    private final Supplier<Mono<McpSchema.InitializeResult>> initializer;
+    private final Supplier<Mono<?>> ping;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final Duration healthCheckInterval;
+    private final AtomicBoolean connecting = new AtomicBoolean();
+
+    private volatile Sinks.One<McpSchema.InitializeResult> readySink = Sinks.one();
+    private volatile boolean ready;
+    private volatile Disposable connection;
+    private volatile Disposable healthCheck;
+    private volatile boolean running;
+    private volatile long startedAt;
+    private volatile long connectedAt;
+    private volatile long firstConnectMillis = -1;
+    private volatile long disconnectedAt;
+    private volatile int attempts;
+    private volatile int reconnects;
+    private volatile String lastError;
+
+    public McpSessionManager(McpAsyncClient client, Duration minBackoff, Duration maxBackoff,
+                             Duration healthCheckInterval) {
+        this(client, client::initialize, client::ping, minBackoff, maxBackoff, healthCheckInterval);
+    }
+
+    McpSessionManager(McpAsyncClient client, Supplier<Mono<McpSchema.InitializeResult>> initializer,
+                      Supplier<Mono<?>> ping, Duration minBackoff, Duration maxBackoff, Duration healthCheckInterval) {
+        this.client = client;
+        this.initializer = initializer;
+        this.ping = ping;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        startedAt = System.currentTimeMillis();
+        connect();
+        if (!healthCheckInterval.isZero() && !healthCheckInterval.isNegative()) {
+            healthCheck = Flux.interval(healthCheckInterval, healthCheckInterval)
+                    .filter(tick -> ready)
+                    .concatMap(tick -> check(), 1)
+                    .subscribe();
+        }
+        logger.info("MCP session will connect lazily in the background");
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        dispose(healthCheck);
+        dispose(connection);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 会话就绪后返回客户端；超时未就绪则报错
+     */
+    public Mono<McpAsyncClient> whenReady(Duration timeout) {
+        return Mono.defer(() -> ready
+                ? Mono.just(client)
+                : readySink.asMono()
+                        .timeout(timeout, Mono.error(() -> new IllegalStateException("MCP session not ready after "
+                                + timeout.toMillis() + " ms" + (lastError != null ? ": " + lastError : ""))))
+                        .thenReturn(client));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 立即探测会话（工具调用失败后调用）；ping 失败则标记断开并后台重连
+     */
+    public Mono<Boolean> check() {
+        if (!ready) {
+            return Mono.just(false);
+        }
+        return Mono.defer(ping)
+                .timeout(maxBackoff)
+                .map(pong -> true)
+                .onErrorResume(e -> {
+                    markDisconnected(e);
+                    return Mono.just(false);
+                });
+    }
+
+    public McpAsyncClient getClient() {
+        return client;
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", ready);
+        status.put("attempts", attempts);
+        status.put("connectMillis", firstConnectMillis >= 0 ? firstConnectMillis : null);
+        status.put("reconnects", reconnects);
+        status.put("connectedAt", connectedAt > 0 ? connectedAt : null);
+        status.put("disconnectedAt", disconnectedAt > 0 ? disconnectedAt : null);
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    private void markDisconnected(Throwable error) {
+        synchronized (this) {
+            if (!ready) {
+                return;
+            }
+            ready = false;
+            readySink = Sinks.one();
+            disconnectedAt = System.currentTimeMillis();
+            lastError = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+            reconnects++;
+        }
+        logger.warn("MCP session lost ({}), reconnecting in the background", lastError);
+        connect();
+    }
+
+    private void connect() {
+        if (!running || !connecting.compareAndSet(false, true)) {
+            return;
+        }
+        connection = Mono.defer(() -> {
+                    attempts++;
+                    return initializer.get();
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, minBackoff)
+                        .maxBackoff(maxBackoff)
+                        .doBeforeRetry(signal -> {
+                            lastError = signal.failure().getMessage();
+                            logger.debug("MCP session not ready (attempt {}): {}", attempts, lastError);
+                        }))
+                .doFinally(signal -> connecting.set(false))
+                .subscribe(result -> {
+                    Sinks.One<McpSchema.InitializeResult> sink;
+                    synchronized (this) {
+                        connectedAt = System.currentTimeMillis();
+                        if (firstConnectMillis < 0) {
+                            firstConnectMillis = connectedAt - startedAt;
+                        }
+                        lastError = null;
+                        ready = true;
+                        sink = readySink;
+                    }
+                    logger.info("MCP session initialized in background after {} ms ({} attempts, {} reconnects), server: {}",
+                            connectedAt - startedAt, attempts, reconnects, result.serverInfo());
+                    sink.tryEmitValue(result);
+                }, error -> logger.error("MCP session initialization aborted", error));
+    }
+
+    private static void dispose(Disposable disposable) {
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+}
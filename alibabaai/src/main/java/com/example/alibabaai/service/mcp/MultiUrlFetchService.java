@@ -0,0 +1,280 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp;
+
+import com.example.alibabaai.service.http.HostPermits;
+import com.example.alibabaai.service.http.OutboundUrlGuard;
+import com.example.alibabaai.service.mcp.extract.MainContentExtractor;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多URL并行抓取
+ *
+ * 一次工具调用抓取多个页面，减少研究类提示词的模型往返次数：
+ * <ul>
+ *   <li>所有请求复用共享连接池的 WebClient；目标地址与每一跳重定向都经 {@link OutboundUrlGuard} 校验，不访问内网与本机；</li>
+ *   <li>同一主机（scheme://host:port）的并发连接数受进程级许可限制，跨工具调用共享；</li>
+ *   <li>每次调用有总字节预算，响应体按块读取，超出单页上限或总预算立即断开连接而不是读完再截断；</li>
+ *   <li>结果按完成先后顺序发出，先返回的页面不必等待慢页面。</li>
+ * </ul>
+ */
+@Service
+public class MultiUrlFetchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiUrlFetchService.class);
+
+    private static final int MAX_TRACKED_HOSTS = 1024;
+
+    private final WebClient webClient;
+    private final OutboundUrlGuard urlGuard;
+    private final int maxUrls;
+    private final int perHostConnections;
+    private final int maxConcurrency;
+    private final long maxBytesPerUrl;
+    private final long totalByteBudget;
+    private final int maxTokensPerUrl;
+    private final Duration timeout;
+    private final Map<String, HostPermits> hostPermits = new ConcurrentHashMap<>();
+
+    public MultiUrlFetchService(
+            WebClient pooledWebClient,
+            OutboundUrlGuard urlGuard,
+            @Value("${mcp.fetch.max-urls:20}") int maxUrls,
+            @Value("${mcp.fetch.per-host-connections:4}") int perHostConnections,
+            @Value("${mcp.fetch.max-concurrency:16}") int maxConcurrency,
+            @Value("${mcp.fetch.max-bytes-per-url:512KB}") DataSize maxBytesPerUrl,
+            @Value("${mcp.fetch.total-byte-budget:4MB}") DataSize totalByteBudget,
+            @Value("${mcp.fetch.max-tokens-per-url:1000}") int maxTokensPerUrl,
+            @Value("${mcp.fetch.timeout:15s}") Duration timeout) {
+        this.webClient = pooledWebClient;
+        this.urlGuard = urlGuard;
+        this.maxUrls = maxUrls;
+        this.perHostConnections = Math.max(1, perHostConnections);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxBytesPerUrl = maxBytesPerUrl.toBytes();
+        this.totalByteBudget = totalByteBudget.toBytes();
+        this.maxTokensPerUrl = maxTokensPerUrl;
+        this.timeout = timeout;
+    }
+
+    /**
+     * 并行抓取，结果按完成顺序发出；单个URL失败不影响其他URL
+     */
+    public Flux<FetchResult> fetch(FetchRequest request) {
+        List<String> urls = request.urls();
+        if (urls == null || urls.isEmpty()) {
+            return Flux.error(new IllegalArgumentException("At least one URL is required"));
+        }
+        if (urls.size() > maxUrls) {
+            return Flux.error(new IllegalArgumentException("At most " + maxUrls + " URLs per call, got " + urls.size()));
+        }
+        long perUrl = request.maxBytesPerUrl() != null ? Math.min(request.maxBytesPerUrl(), maxBytesPerUrl) : maxBytesPerUrl;
+        long total = request.totalBytes() != null ? Math.min(request.totalBytes(), totalByteBudget) : totalByteBudget;
+        boolean text = !Boolean.FALSE.equals(request.textContent());
+        int tokens = request.maxTokensPerUrl() != null && request.maxTokensPerUrl() > 0
+                ? Math.min(request.maxTokensPerUrl(), maxTokensPerUrl) : maxTokensPerUrl;
+        AtomicLong budget = new AtomicLong(total);
+        return Flux.range(0, urls.size())
+                .flatMap(i -> fetchOne(i, urls.get(i), perUrl, budget, text, tokens), maxConcurrency);
+    }
+
+    // ==================== 内部实现 ====================
+
+    private Mono<FetchResult> fetchOne(int index, String url, long perUrl, AtomicLong budget, boolean text, int tokens) {
+        long start = System.nanoTime();
+        URI uri;
+        try {
+            uri = URI.create(url == null ? "" : url.trim());
+        } catch (IllegalArgumentException e) {
+            return Mono.just(FetchResult.failed(index, url, "Invalid URL: " + e.getMessage(), start));
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) {
+            return Mono.just(FetchResult.failed(index, url, "Only absolute http(s) URLs are supported", start));
+        }
+        HostPermits permits = permits(uri);
+        return Mono.usingWhen(urlGuard.check(uri).then(permits.acquire()).thenReturn(permits),
+                        held -> budget.get() > 0
+                                ? download(index, uri, perUrl, budget, text, tokens, start)
+                                : Mono.just(FetchResult.failed(index, url, "Byte budget exhausted", start)),
+                        held -> Mono.fromRunnable(held::release),
+                        (held, error) -> Mono.fromRunnable(held::release),
+                        held -> Mono.fromRunnable(held::release))
+                .onErrorResume(e -> Mono.just(FetchResult.failed(index, url,
+                        e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), start)));
+    }
+
+    private Mono<FetchResult> download(int index, URI uri, long perUrl, AtomicLong budget, boolean text, int tokens, long start) {
+        BoundedBody body = new BoundedBody(perUrl, budget);
+        return urlGuard.exchange(webClient, uri,
+                target -> webClient.get().uri(target).accept(MediaType.TEXT_HTML, MediaType.TEXT_PLAIN, MediaType.ALL),
+                response -> {
+                    MediaType contentType = response.headers().contentType().orElse(null);
+                    return response.bodyToFlux(DataBuffer.class)
+                            .doOnNext(body::accept)
+                            // 达到上限即取消订阅，连接随之关闭，不再读取剩余响应体
+                            .takeUntil(buffer -> body.full)
+                            .then(Mono.fromSupplier(() -> toResult(index, uri, response.statusCode().value(),
+                                    contentType, body, text, tokens, start)));
+                })
+                .timeout(timeout);
+    }
+
+    /**
+     * 主机许可：条目数超过上限时回收空闲主机（无占用、无排队）的条目，避免抓过的主机无限累积
+     */
+    private HostPermits permits(URI uri) {
+        String key = hostKey(uri);
+        HostPermits permits = hostPermits.get(key);
+        if (permits != null) {
+            return permits;
+        }
+        if (hostPermits.size() >= MAX_TRACKED_HOSTS) {
+            hostPermits.values().removeIf(p -> p.available() == perHostConnections && p.waiting() == 0);
+        }
+        return hostPermits.computeIfAbsent(key, k -> new HostPermits(perHostConnections));
+    }
+
+    private FetchResult toResult(int index, URI uri, int status, MediaType contentType, BoundedBody body,
+                                 boolean text, int tokens, long start) {
+        Charset charset = contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset() : StandardCharsets.UTF_8;
+        String content = body.out.toString(charset);
+        boolean html = contentType == null || contentType.isCompatibleWith(MediaType.TEXT_HTML)
+                || contentType.getSubtype().contains("xml");
+        MainContentExtractor.Extraction extraction = text && html
+                ? MainContentExtractor.extract(content, null, tokens)
+                : MainContentExtractor.fromText(content, tokens);
+        content = extraction.render();
+        boolean clipped = extraction.truncated();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        logger.debug("Fetched {} ({} bytes, status {}) in {} ms", uri, body.out.size(), status, elapsed);
+        return new FetchResult(index, uri.toString(), status, contentType != null ? contentType.toString() : null,
+                body.out.size(), body.truncated || clipped, body.budgetExhausted, elapsed, content,
+                status >= 400 ? "HTTP " + status : null);
+    }
+
+    private static String hostKey(URI uri) {
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(scheme) ? 443 : 80);
+        return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    /**
+     * 响应体累加器：同时受单页上限与整次调用的共享预算约束
+     */
+    private static final class BoundedBody {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final long limit;
+        private final AtomicLong budget;
+        private volatile boolean full;
+        private boolean truncated;
+        private boolean budgetExhausted;
+
+        BoundedBody(long limit, AtomicLong budget) {
+            this.limit = limit;
+            this.budget = budget;
+        }
+
+        void accept(DataBuffer buffer) {
+            try {
+                int available = buffer.readableByteCount();
+                long wanted = Math.min(available, limit - out.size());
+                long granted = reserve(wanted);
+                if (granted > 0) {
+                    byte[] bytes = new byte[(int) granted];
+                    buffer.read(bytes);
+                    out.write(bytes, 0, bytes.length);
+                }
+                if (granted < available) {
+                    truncated = true;
+                    budgetExhausted = granted < wanted;
+                    full = true;
+                }
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        private long reserve(long wanted) {
+            while (true) {
+                long remaining = budget.get();
+                long granted = Math.min(wanted, remaining);
+                if (granted <= 0 || budget.compareAndSet(remaining, remaining - granted)) {
+                    return Math.max(0, granted);
+                }
+            }
+        }
+    }
+
+    /**
+     * 抓取参数（MCP 工具参数与 HTTP 请求体共用）
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record FetchRequest(List<String> urls, Long maxBytesPerUrl, Long totalBytes, Integer maxTokensPerUrl,
+                               Boolean textContent) {
+    }
+
+    /**
+     * 单个URL的抓取结果，index 为请求中的位置（结果按完成顺序发出）
+     */
+    public record FetchResult(int index, String url, int status, String contentType, long bytes, boolean truncated,
+                              boolean budgetExhausted, long elapsedMillis, String content, String error) {
+
+        static FetchResult failed(int index, String url, String error, long start) {
+            return new FetchResult(index, url, 0, null, 0, false, false,
+                    (System.nanoTime() - start) / 1_000_000, null, error);
+        }
+
+        /**
+         * 渲染为交给模型的文本片段
+         */
+        public String render() {
+            StringBuilder sb = new StringBuilder("[").append(index).append("] ").append(url);
+            if (error != null) {
+                sb.append(" (error: ").append(error).append(')');
+            } else {
+                sb.append(" (").append(bytes).append(" bytes").append(truncated ? ", truncated" : "").append(')');
+            }
+            if (content != null && !content.isEmpty()) {
+                sb.append('\n').append(content);
+            }
+            return sb.append("\n\n").toString();
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp.binding;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import io.modelcontextprotocol.spec.McpSchema;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 由工具 inputSchema 预编译的参数绑定器
+ *
+ * 启动时按 Schema 与参数记录类型逐字段生成读取器并校验二者一致（属性名、类型、必填项），
+ * 调用时直接从 JSON 词法流读取到构造参数数组再调用记录的规范构造器，
+ * 不经过 JsonNode 树或中间 Map，也不做反射查找。
+ *
+ * 支持的 Schema 类型：string、boolean、number/integer（Integer、Long、Double）以及元素为 string 的 array；
+ * 数值支持 minimum/maximum 约束。整数字段接受小数部分为零的数值（如 1024.0），
+ * 模型常见的带引号标量（"true"、"800"）也按 Schema 类型转换。
+ *
+ * @param <T> 参数记录类型
+ */
+public final class ToolArgumentBinder<T extends Record> {
+
+    private final String toolName;
+    private final Class<T> type;
+    private final Map<String, Slot> slots;
+    private final Slot[] ordered;
+    private final boolean allowUnknown;
+    private final MethodHandle constructor;
+
+    private ToolArgumentBinder(String toolName, Class<T> type, Map<String, Slot> slots, Slot[] ordered,
+                               boolean allowUnknown, MethodHandle constructor) {
+        this.toolName = toolName;
+        this.type = type;
+        this.slots = slots;
+        this.ordered = ordered;
+        this.allowUnknown = allowUnknown;
+        this.constructor = constructor;
+    }
+
+    /**
+     * 编译绑定器；Schema 与记录类型不一致时抛出 IllegalStateException
+     */
+    public static <T extends Record> ToolArgumentBinder<T> compile(McpSchema.Tool tool, Class<T> type) {
+        McpSchema.JsonSchema schema = tool.inputSchema();
+        Map<String, Object> properties = schema != null && schema.properties() != null ? schema.properties() : Map.of();
+        Set<String> required = schema != null && schema.required() != null ? Set.copyOf(schema.required()) : Set.of();
+        RecordComponent[] components = type.getRecordComponents();
+        Map<String, Slot> slots = new HashMap<>();
+        Slot[] ordered = new Slot[components.length];
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            RecordComponent component = components[i];
+            String name = component.getName();
+            if (!(properties.get(name) instanceof Map<?, ?> property)) {
+                throw new IllegalStateException("Tool " + tool.name() + ": record component '" + name
+                        + "' of " + type.getSimpleName() + " is not declared in inputSchema");
+            }
+            Slot slot = new Slot(name, i, reader(tool.name(), name, property, component.getGenericType()),
+                    required.contains(name));
+            slots.put(name, slot);
+            ordered[i] = slot;
+            parameterTypes[i] = component.getType();
+        }
+        for (String name : properties.keySet()) {
+            if (!slots.containsKey(name)) {
+                throw new IllegalStateException("Tool " + tool.name() + ": inputSchema property '" + name
+                        + "' has no matching component in " + type.getSimpleName());
+            }
+        }
+        boolean allowUnknown = schema == null || !Boolean.FALSE.equals(schema.additionalProperties());
+        try {
+            Constructor<T> canonical = type.getDeclaredConstructor(parameterTypes);
+            canonical.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(canonical)
+                    .asSpreader(Object[].class, components.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return new ToolArgumentBinder<>(tool.name(), type, Collections.unmodifiableMap(slots), ordered,
+                    allowUnknown, handle);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Tool " + tool.name() + ": cannot access canonical constructor of "
+                    + type.getName(), e);
+        }
+    }
+
+    public String getToolName() {
+        return toolName;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * 从 JSON 文本绑定
+     */
+    public T bind(String json, JsonFactory jsonFactory) {
+        if (json == null || json.isBlank()) {
+            return bindEmpty();
+        }
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            parser.nextToken();
+            T value = bind(parser);
+            if (parser.nextToken() != null) {
+                throw new ToolArgumentException(toolName, "unexpected content after arguments object");
+            }
+            return value;
+        } catch (JsonProcessingException e) {
+            throw new ToolArgumentException(toolName, e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new ToolArgumentException(toolName, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从解析器当前位置（START_OBJECT 或 null）绑定一个参数对象，结束时停在对应的 END_OBJECT
+     */
+    public T bind(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == null || token == JsonToken.VALUE_NULL) {
+            return bindEmpty();
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new ToolArgumentException(toolName, "arguments must be a JSON object");
+        }
+        Object[] values = new Object[ordered.length];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            Slot slot = slots.get(name);
+            parser.nextToken();
+            if (slot == null) {
+                if (!allowUnknown) {
+                    throw new ToolArgumentException(toolName, "unknown argument '" + name + "'");
+                }
+                parser.skipChildren();
+                continue;
+            }
+            values[slot.index] = slot.reader.read(parser);
+        }
+        return construct(values);
+    }
+
+    // ==================== 内部实现 ====================
+
+    private T bindEmpty() {
+        return construct(new Object[ordered.length]);
+    }
+
+    private T construct(Object[] values) {
+        for (Slot slot : ordered) {
+            if (slot.required && values[slot.index] == null) {
+                throw new ToolArgumentException(toolName, "missing required argument '" + slot.name + "'");
+            }
+        }
+        try {
+            return type.cast((Object) constructor.invokeExact(values));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ValueReader reader(String tool, String name, Map<?, ?> property, Type javaType) {
+        Object schemaType = property.get("type");
+        Number minimum = property.get("minimum") instanceof Number n ? n : null;
+        Number maximum = property.get("maximum") instanceof Number n ? n : null;
+        if ("string".equals(schemaType) && javaType == String.class) {
+            return parser -> readString(tool, name, parser);
+        }
+        if ("boolean".equals(schemaType) && javaType == Boolean.class) {
+            return parser -> readBoolean(tool, name, parser);
+        }
+        if (("number".equals(schemaType) || "integer".equals(schemaType))
+                && (javaType == Integer.class || javaType == Long.class || javaType == Double.class)) {
+            NumberKind kind = javaType == Integer.class ? NumberKind.INT
+                    : javaType == Long.class ? NumberKind.LONG : NumberKind.DOUBLE;
+            if (kind == NumberKind.DOUBLE && "integer".equals(schemaType)) {
+                throw new IllegalStateException("Tool " + tool + ": integer property '" + name + "' bound to Double");
+            }
+            return parser -> readNumber(tool, name, parser, kind, minimum, maximum);
+        }
+        if ("array".equals(schemaType) && javaType instanceof ParameterizedType list
+                && list.getRawType() == List.class && list.getActualTypeArguments()[0] == String.class
+                && property.get("items") instanceof Map<?, ?> items && "string".equals(items.get("type"))) {
+            return parser -> readStringList(tool, name, parser);
+        }
+        throw new IllegalStateException("Tool " + tool + ": unsupported binding of '" + name + "' (schema type "
+                + schemaType + " to " + javaType.getTypeName() + ")");
+    }
+
+    private static String readString(String tool, String name, JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        throw mismatch(tool, name, "a string", token);
+    }
+
+    private static Boolean readBoolean(String tool, String name, JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_STRING:
+                String text = parser.getText().trim();
+                if ("true".equalsIgnoreCase(text)) {
+                    return Boolean.TRUE;
+                }
+                if ("false".equalsIgnoreCase(text)) {
+                    return Boolean.FALSE;
+                }
+                break;
+            default:
+                break;
+        }
+        throw mismatch(tool, name, "a boolean", token);
+    }
+
+    private static Object readNumber(String tool, String name, JsonParser parser, NumberKind kind,
+                                     Number minimum, Number maximum) throws IOException {
+        JsonToken token = parser.currentToken();
+        BigDecimal value;
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_NUMBER_INT:
+                if (kind == NumberKind.INT && parser.getNumberType() == JsonParser.NumberType.INT) {
+                    return checkRange(tool, name, parser.getIntValue(), minimum, maximum);
+                }
+                if (kind == NumberKind.LONG && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+                    return checkRange(tool, name, parser.getLongValue(), minimum, maximum);
+                }
+                value = parser.getDecimalValue();
+                break;
+            case VALUE_NUMBER_FLOAT:
+                value = parser.getDecimalValue();
+                break;
+            case VALUE_STRING:
+                try {
+                    value = new BigDecimal(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw mismatch(tool, name, "a number", token);
+                }
+                break;
+            default:
+                throw mismatch(tool, name, "a number", token);
+        }
+        // 整数位数超过 long 的上限时直接拒绝，避免对 1e999999999 这类值做精确转换
+        if (kind != NumberKind.DOUBLE && (long) value.precision() - value.scale() > 19) {
+            throw outOfRange(tool, name, kind, value);
+        }
+        Number number;
+        try {
+            number = switch (kind) {
+                case INT -> value.intValueExact();
+                case LONG -> value.longValueExact();
+                case DOUBLE -> value.doubleValue();
+            };
+        } catch (ArithmeticException e) {
+            throw outOfRange(tool, name, kind, value);
+        }
+        return checkRange(tool, name, number, minimum, maximum);
+    }
+
+    /**
+     * 错误信息使用科学计数法输出原值，toPlainString 会把巨大的指数展开成同样长度的字符串
+     */
+    private static ToolArgumentException outOfRange(String tool, String name, NumberKind kind, BigDecimal value) {
+        return new ToolArgumentException(tool, "'" + name + "' must be " + (kind == NumberKind.INT ? "a 32-bit" : "a 64-bit")
+                + " integer, got " + value);
+    }
+
+    private static <N extends Number> N checkRange(String tool, String name, N value, Number minimum, Number maximum) {
+        double v = value.doubleValue();
+        if (minimum != null && v < minimum.doubleValue()) {
+            throw new ToolArgumentException(tool, "'" + name + "' must be >= " + minimum + ", got " + value);
+        }
+        if (maximum != null && v > maximum.doubleValue()) {
+            throw new ToolArgumentException(tool, "'" + name + "' must be <= " + maximum + ", got " + value);
+        }
+        return value;
+    }
+
+    private static List<String> readStringList(String tool, String name, JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw mismatch(tool, name, "an array of strings", token);
+        }
+        List<String> values = new ArrayList<>();
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.VALUE_STRING) {
+                throw mismatch(tool, name + "[" + values.size() + "]", "a string", token);
+            }
+            values.add(parser.getText());
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private static ToolArgumentException mismatch(String tool, String name, String expected, JsonToken actual) {
+        return new ToolArgumentException(tool, "'" + name + "' must be " + expected + ", got " + describe(actual));
+    }
+
+    private static String describe(JsonToken token) {
+        if (token == null) {
+            return "end of input";
+        }
+        return switch (token) {
+            case START_OBJECT -> "an object";
+            case START_ARRAY -> "an array";
+            case VALUE_STRING -> "a string";
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> "a number";
+            case VALUE_TRUE, VALUE_FALSE -> "a boolean";
+            default -> token.asString() != null ? token.asString() : token.name();
+        };
+    }
+
+    private enum NumberKind { INT, LONG, DOUBLE }
+
+    @FunctionalInterface
+    private interface ValueReader {
+        Object read(JsonParser parser) throws IOException;
+    }
+
+    private record Slot(String name, int index, ValueReader reader, boolean required) {
+    }
+}
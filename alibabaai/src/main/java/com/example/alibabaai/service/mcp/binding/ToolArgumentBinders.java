@@ -0,0 +1,157 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp.binding;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.modelcontextprotocol.spec.McpSchema;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 本地工具的参数绑定器注册表，按工具名分发
+ *
+ * 绑定器在注册时编译，Schema 与参数记录不一致会在启动时失败，而不是在模型第一次调用工具时才暴露。
+ */
+public class ToolArgumentBinders {
+
+    private final JsonFactory jsonFactory;
+    private final Map<String, ToolArgumentBinder<?>> binders = new LinkedHashMap<>();
+    private final Map<String, McpSchema.Tool> tools = new LinkedHashMap<>();
+
+    public ToolArgumentBinders(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * 注册工具并编译其参数绑定器
+     */
+    public <T extends Record> ToolArgumentBinders register(McpSchema.Tool tool, Class<T> type) {
+        binders.put(tool.name(), ToolArgumentBinder.compile(tool, type));
+        tools.put(tool.name(), tool);
+        return this;
+    }
+
+    /**
+     * 已注册的工具定义（注册顺序）
+     */
+    public List<McpSchema.Tool> tools() {
+        return new ArrayList<>(tools.values());
+    }
+
+    public boolean contains(String toolName) {
+        return binders.containsKey(toolName);
+    }
+
+    /**
+     * 按工具名取绑定器，类型与注册时不一致时抛出 IllegalStateException
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Record> ToolArgumentBinder<T> binder(String toolName, Class<T> type) {
+        ToolArgumentBinder<?> binder = binders.get(toolName);
+        if (binder == null) {
+            throw new IllegalArgumentException("Unknown tool: " + toolName);
+        }
+        if (binder.getType() != type) {
+            throw new IllegalStateException("Tool " + toolName + " binds " + binder.getType().getSimpleName()
+                    + ", not " + type.getSimpleName());
+        }
+        return (ToolArgumentBinder<T>) binder;
+    }
+
+    /**
+     * 绑定单个工具的参数 JSON（模型工具调用的 toolInput）
+     */
+    public <T extends Record> T bind(String toolName, Class<T> type, String json) {
+        return binder(toolName, type).bind(json, jsonFactory);
+    }
+
+    /**
+     * 解析 {"name": ..., "arguments": {...}} 形式的调用请求
+     *
+     * 参数对象若先于 name 出现，先按词法单元缓存（TokenBuffer，不构建树），读到 name 后再绑定。
+     * 未注册的工具名抛出 IllegalArgumentException，参数不合法抛出 {@link ToolArgumentException}。
+     */
+    public ToolCall parseCall(String json) {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Tool call must be a JSON object");
+            }
+            String name = null;
+            Record arguments = null;
+            boolean hasArguments = false;
+            TokenBuffer pending = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("name".equals(field)) {
+                    name = parser.getValueAsString();
+                    if (name == null) {
+                        throw new IllegalArgumentException("Tool name must be a string");
+                    }
+                } else if ("arguments".equals(field)) {
+                    hasArguments = true;
+                    if (name != null) {
+                        arguments = lookup(name).bind(parser);
+                    } else {
+                        pending = new TokenBuffer(parser);
+                        pending.copyCurrentStructure(parser);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (name == null) {
+                throw new IllegalArgumentException("Tool name is required");
+            }
+            ToolArgumentBinder<?> binder = lookup(name);
+            if (pending != null) {
+                try (JsonParser buffered = pending.asParser()) {
+                    buffered.nextToken();
+                    arguments = binder.bind(buffered);
+                }
+            } else if (!hasArguments) {
+                arguments = binder.bind((String) null, jsonFactory);
+            }
+            return new ToolCall(name, arguments);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed tool call: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed tool call: " + e.getMessage(), e);
+        }
+    }
+
+    private ToolArgumentBinder<?> lookup(String name) {
+        ToolArgumentBinder<?> binder = binders.get(name);
+        if (binder == null) {
+            throw new IllegalArgumentException("Unknown tool: " + name);
+        }
+        return binder;
+    }
+
+    /**
+     * 已绑定参数的工具调用
+     */
+    public record ToolCall(String name, Record arguments) {
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp.binding;
+
+/**
+ * 工具参数不符合 inputSchema（类型不符、缺少必填参数、超出范围或 JSON 语法错误）
+ */
+public class ToolArgumentException extends IllegalArgumentException {
+
+    private final String toolName;
+
+    public ToolArgumentException(String toolName, String message) {
+        super("Invalid arguments for " + toolName + ": " + message);
+        this.toolName = toolName;
+    }
+
+    public ToolArgumentException(String toolName, String message, Throwable cause) {
+        super("Invalid arguments for " + toolName + ": " + message, cause);
+        this.toolName = toolName;
+    }
+
+    public String getToolName() {
+        return toolName;
+    }
+}
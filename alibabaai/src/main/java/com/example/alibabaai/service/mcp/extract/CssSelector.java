@@ -0,0 +1,352 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp.extract;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CSS 选择器子集
+ *
+ * 支持：类型选择器与 *、#id、.class、属性选择器（[a]、[a=v]、[a~=v]、[a^=v]、[a$=v]、[a*=v]、[a|=v]），
+ * 后代与子代组合符，以及逗号分组。伪类和兄弟组合符不支持，解析时直接报错而不是静默忽略。
+ * 每个复合选择器最多 {@value #MAX_STEPS} 步、最多 {@value #MAX_GROUPS} 个分组。
+ */
+final class CssSelector {
+
+    static final int MAX_STEPS = 32;
+    static final int MAX_GROUPS = 32;
+
+    private final List<List<Step>> groups;
+
+    private CssSelector(List<List<Step>> groups) {
+        this.groups = groups;
+    }
+
+    /**
+     * 按文档顺序返回匹配的后代元素
+     */
+    List<HtmlDocument.Element> select(HtmlDocument.Element scope) {
+        List<Matcher> matchers = new ArrayList<>();
+        for (List<Step> steps : groups) {
+            matchers.add(new Matcher(steps));
+        }
+        List<HtmlDocument.Element> matches = new ArrayList<>();
+        for (HtmlDocument.Element element : scope.descendants()) {
+            for (Matcher matcher : matchers) {
+                if (matcher.matches(element, matcher.steps.size() - 1)) {
+                    matches.add(element);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * 一个复合选择器在一次 select 中的匹配状态
+     *
+     * 选择器和页面都可能来自不可信的一方，朴素的回溯在"多个后代组合符 + 深层嵌套"时是指数级的。
+     * 这里按 (元素, 步骤) 记忆两类结果，每个组合只计算一次：
+     * matched - 元素满足第 0..index 步；hasAncestor - 元素的某个祖先满足第 0..index 步。
+     * 祖先链沿 parent 迭代向上求值，递归深度只与选择器步数有关，与页面嵌套深度无关。
+     */
+    private static final class Matcher {
+
+        private static final byte UNKNOWN = 0;
+        private static final byte TRUE = 1;
+        private static final byte FALSE = 2;
+
+        private final List<Step> steps;
+        private final Map<HtmlDocument.Element, byte[]> matched = new IdentityHashMap<>();
+        private final Map<HtmlDocument.Element, byte[]> hasAncestor = new IdentityHashMap<>();
+
+        Matcher(List<Step> steps) {
+            this.steps = steps;
+        }
+
+        boolean matches(HtmlDocument.Element element, int index) {
+            byte[] memo = matched.computeIfAbsent(element, e -> new byte[steps.size()]);
+            if (memo[index] != UNKNOWN) {
+                return memo[index] == TRUE;
+            }
+            Step step = steps.get(index);
+            boolean result;
+            if (!step.compound().matches(element)) {
+                result = false;
+            } else if (index == 0) {
+                result = true;
+            } else if (step.combinator() == '>') {
+                result = element.parent() != null && matches(element.parent(), index - 1);
+            } else {
+                result = ancestorMatches(element, index - 1);
+            }
+            memo[index] = result ? TRUE : FALSE;
+            return result;
+        }
+
+        private boolean ancestorMatches(HtmlDocument.Element element, int index) {
+            List<byte[]> chain = new ArrayList<>();
+            HtmlDocument.Element current = element;
+            boolean result;
+            while (true) {
+                byte[] memo = hasAncestor.computeIfAbsent(current, e -> new byte[steps.size()]);
+                if (memo[index] != UNKNOWN) {
+                    result = memo[index] == TRUE;
+                    break;
+                }
+                chain.add(memo);
+                HtmlDocument.Element parent = current.parent();
+                if (parent == null) {
+                    result = false;
+                    break;
+                }
+                if (matches(parent, index)) {
+                    result = true;
+                    break;
+                }
+                current = parent;
+            }
+            // 链上每个元素的结论相同：中间的父元素都不匹配，结论取决于链顶
+            for (byte[] memo : chain) {
+                memo[index] = result ? TRUE : FALSE;
+            }
+            return result;
+        }
+    }
+
+    // ==================== 解析 ====================
+
+    static CssSelector parse(String css) {
+        if (css == null || css.isBlank()) {
+            throw new IllegalArgumentException("Empty CSS selector");
+        }
+        Parser parser = new Parser(css.trim());
+        List<List<Step>> groups = new ArrayList<>();
+        groups.add(parser.complex());
+        while (parser.consume(',')) {
+            if (groups.size() >= MAX_GROUPS) {
+                throw parser.error("Too many selector groups (max " + MAX_GROUPS + ")");
+            }
+            groups.add(parser.complex());
+        }
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected character '" + parser.peek() + "'");
+        }
+        return new CssSelector(groups);
+    }
+
+    private record Step(Compound compound, char combinator) {
+    }
+
+    private record Compound(String tag, String id, List<String> classes, List<AttributeTest> attributes) {
+
+        boolean matches(HtmlDocument.Element element) {
+            if (element.tag().startsWith("#")) {
+                return false;
+            }
+            if (tag != null && !tag.equals(element.tag())) {
+                return false;
+            }
+            if (id != null && !id.equals(element.id())) {
+                return false;
+            }
+            if (!classes.isEmpty() && !element.classNames().containsAll(classes)) {
+                return false;
+            }
+            for (AttributeTest test : attributes) {
+                if (!test.matches(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record AttributeTest(String name, String operator, String value) {
+
+        boolean matches(HtmlDocument.Element element) {
+            String actual = element.attr(name);
+            if (actual == null) {
+                return false;
+            }
+            if (operator == null) {
+                return true;
+            }
+            return switch (operator) {
+                case "=" -> actual.equals(value);
+                case "~=" -> List.of(actual.trim().split("\\s+")).contains(value);
+                case "^=" -> !value.isEmpty() && actual.startsWith(value);
+                case "$=" -> !value.isEmpty() && actual.endsWith(value);
+                case "*=" -> !value.isEmpty() && actual.contains(value);
+                case "|=" -> actual.equals(value) || actual.startsWith(value + "-");
+                default -> false;
+            };
+        }
+    }
+
+    private static final class Parser {
+        private final String css;
+        private int pos;
+
+        Parser(String css) {
+            this.css = css;
+        }
+
+        List<Step> complex() {
+            List<Step> steps = new ArrayList<>();
+            char combinator = ' ';
+            while (true) {
+                skipWhitespace();
+                if (steps.size() >= MAX_STEPS) {
+                    throw error("Too many selector steps (max " + MAX_STEPS + ")");
+                }
+                steps.add(new Step(compound(), combinator));
+                boolean whitespace = skipWhitespace();
+                if (atEnd() || peek() == ',') {
+                    return steps;
+                }
+                if (peek() == '>') {
+                    pos++;
+                    combinator = '>';
+                } else if (peek() == '+' || peek() == '~') {
+                    throw error("Sibling combinators are not supported");
+                } else if (whitespace) {
+                    combinator = ' ';
+                } else {
+                    throw error("Unexpected character '" + peek() + "'");
+                }
+            }
+        }
+
+        Compound compound() {
+            String tag = null;
+            String id = null;
+            List<String> classes = new ArrayList<>();
+            List<AttributeTest> attributes = new ArrayList<>();
+            int start = pos;
+            if (!atEnd() && peek() == '*') {
+                pos++;
+            } else if (!atEnd() && isIdentChar(peek())) {
+                tag = identifier().toLowerCase(Locale.ROOT);
+            }
+            while (!atEnd()) {
+                char c = peek();
+                if (c == '#') {
+                    pos++;
+                    id = identifier();
+                } else if (c == '.') {
+                    pos++;
+                    classes.add(identifier());
+                } else if (c == '[') {
+                    pos++;
+                    attributes.add(attribute());
+                } else if (c == ':') {
+                    throw error("Pseudo-classes are not supported");
+                } else {
+                    break;
+                }
+            }
+            if (pos == start) {
+                throw error(atEnd() ? "Selector ends unexpectedly" : "Unexpected character '" + peek() + "'");
+            }
+            return new Compound(tag, id, List.copyOf(classes), List.copyOf(attributes));
+        }
+
+        AttributeTest attribute() {
+            skipWhitespace();
+            String name = identifier().toLowerCase(Locale.ROOT);
+            skipWhitespace();
+            String operator = null;
+            String value = null;
+            if (!atEnd() && peek() != ']') {
+                int opStart = pos;
+                if ("~^$*|".indexOf(peek()) >= 0) {
+                    pos++;
+                }
+                if (!consume('=')) {
+                    throw error("Expected attribute operator");
+                }
+                operator = css.substring(opStart, pos);
+                skipWhitespace();
+                value = atEnd() || (peek() != '"' && peek() != '\'') ? identifier() : quoted();
+                skipWhitespace();
+            }
+            if (!consume(']')) {
+                throw error("Expected ']'");
+            }
+            return new AttributeTest(name, operator, value);
+        }
+
+        String identifier() {
+            int start = pos;
+            while (!atEnd() && isIdentChar(peek())) {
+                pos++;
+            }
+            if (pos == start) {
+                throw error("Expected identifier");
+            }
+            return css.substring(start, pos);
+        }
+
+        String quoted() {
+            char quote = css.charAt(pos++);
+            int end = css.indexOf(quote, pos);
+            if (end < 0) {
+                throw error("Unterminated string");
+            }
+            String value = css.substring(pos, end);
+            pos = end + 1;
+            return value;
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (!atEnd() && peek() == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean skipWhitespace() {
+            int start = pos;
+            while (!atEnd() && Character.isWhitespace(peek())) {
+                pos++;
+            }
+            return pos > start;
+        }
+
+        boolean atEnd() {
+            return pos >= css.length();
+        }
+
+        char peek() {
+            return css.charAt(pos);
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " in selector: " + css);
+        }
+
+        private static boolean isIdentChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c > 0x7f;
+        }
+    }
+}
@@ -0,0 +1,593 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp.extract;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 宽松的 HTML 解析器与文档树
+ *
+ * 面向网页正文抽取，而不是完整实现 HTML5 解析算法：能容忍未闭合标签、缺失引号的属性和错误嵌套，
+ * 处理常见的隐式闭合（p/li/dt/dd/tr/td/option），script/style 等按原始文本读取。
+ */
+public final class HtmlDocument {
+
+    static final Set<String> VOID_TAGS = Set.of("area", "base", "br", "col", "embed", "hr", "img", "input",
+            "link", "meta", "param", "source", "track", "wbr");
+    static final Set<String> RAW_TEXT_TAGS = Set.of("script", "style", "textarea", "title", "noscript", "iframe",
+            "noembed", "noframes", "xmp");
+    /** 不可见内容，抽取文本时整体跳过 */
+    static final Set<String> HIDDEN_TAGS = Set.of("head", "script", "style", "noscript", "template", "iframe",
+            "noembed", "noframes", "svg", "canvas", "object");
+    static final Set<String> BLOCK_TAGS = Set.of("address", "article", "aside", "blockquote", "body", "caption",
+            "dd", "details", "dialog", "div", "dl", "dt", "fieldset", "figcaption", "figure", "footer", "form",
+            "h1", "h2", "h3", "h4", "h5", "h6", "header", "hr", "li", "main", "nav", "ol", "p", "pre", "section",
+            "summary", "table", "tbody", "td", "tfoot", "th", "thead", "tr", "ul");
+    private static final Set<String> CLOSES_P = Set.of("address", "article", "aside", "blockquote", "dd", "details",
+            "div", "dl", "dt", "fieldset", "figcaption", "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5",
+            "h6", "header", "hr", "li", "main", "nav", "ol", "p", "pre", "section", "table", "ul");
+    private static final Set<String> SCOPE_BOUNDARY = Set.of("#root", "html", "body", "table", "td", "th",
+            "caption", "button", "template");
+
+    private static final Map<String, String> ENTITIES = Map.ofEntries(
+            Map.entry("amp", "&"), Map.entry("lt", "<"), Map.entry("gt", ">"), Map.entry("quot", "\""),
+            Map.entry("apos", "'"), Map.entry("nbsp", "\u00a0"), Map.entry("copy", "©"),
+            Map.entry("reg", "®"), Map.entry("mdash", "—"), Map.entry("ndash", "–"),
+            Map.entry("hellip", "…"), Map.entry("lsquo", "‘"), Map.entry("rsquo", "’"),
+            Map.entry("ldquo", "“"), Map.entry("rdquo", "”"), Map.entry("middot", "·"),
+            Map.entry("bull", "•"), Map.entry("laquo", "«"), Map.entry("raquo", "»"),
+            Map.entry("times", "×"), Map.entry("trade", "™"), Map.entry("euro", "€"));
+
+    private final Element root;
+
+    private HtmlDocument(Element root) {
+        this.root = root;
+    }
+
+    public Element root() {
+        return root;
+    }
+
+    /**
+     * body 元素；没有 body 标签时返回根节点
+     */
+    public Element body() {
+        List<Element> bodies = root.select("body");
+        return bodies.isEmpty() ? root : bodies.get(0);
+    }
+
+    public String title() {
+        List<Element> titles = root.select("title");
+        return titles.isEmpty() ? "" : titles.get(0).text();
+    }
+
+    public List<Element> select(String cssSelector) {
+        return root.select(cssSelector);
+    }
+
+    // ==================== 解析 ====================
+
+    public static HtmlDocument parse(String html) {
+        Element root = new Element("#root", Map.of());
+        Deque<Element> stack = new ArrayDeque<>();
+        stack.push(root);
+        StringBuilder text = new StringBuilder();
+        int n = html.length();
+        int i = 0;
+        while (i < n) {
+            char c = html.charAt(i);
+            if (c == '<' && i + 1 < n) {
+                char next = html.charAt(i + 1);
+                if (html.startsWith("<!--", i)) {
+                    flushText(text, stack.peek());
+                    int end = html.indexOf("-->", i + 4);
+                    i = end < 0 ? n : end + 3;
+                    continue;
+                }
+                if (next == '!' || next == '?') {
+                    flushText(text, stack.peek());
+                    int end = html.indexOf('>', i);
+                    i = end < 0 ? n : end + 1;
+                    continue;
+                }
+                if (next == '/' && i + 2 < n && Character.isLetter(html.charAt(i + 2))) {
+                    flushText(text, stack.peek());
+                    int end = html.indexOf('>', i);
+                    int stop = end < 0 ? n : end;
+                    closeElement(stack, readName(html, i + 2, stop));
+                    i = end < 0 ? n : end + 1;
+                    continue;
+                }
+                if (Character.isLetter(next)) {
+                    flushText(text, stack.peek());
+                    i = parseStartTag(html, i + 1, stack);
+                    continue;
+                }
+            }
+            text.append(c);
+            i++;
+        }
+        flushText(text, stack.peek());
+        return new HtmlDocument(root);
+    }
+
+    private static int parseStartTag(String html, int start, Deque<Element> stack) {
+        int n = html.length();
+        int i = start;
+        while (i < n && isNameChar(html.charAt(i))) {
+            i++;
+        }
+        String tag = html.substring(start, i).toLowerCase(Locale.ROOT);
+        Map<String, String> attributes = new LinkedHashMap<>();
+        boolean selfClosing = false;
+        while (i < n) {
+            char c = html.charAt(i);
+            if (c == '>') {
+                i++;
+                break;
+            }
+            if (c == '/' && i + 1 < n && html.charAt(i + 1) == '>') {
+                selfClosing = true;
+                i += 2;
+                break;
+            }
+            if (Character.isWhitespace(c) || c == '/') {
+                i++;
+                continue;
+            }
+            int nameStart = i;
+            while (i < n && !Character.isWhitespace(html.charAt(i)) && "=>/".indexOf(html.charAt(i)) < 0) {
+                i++;
+            }
+            String name = html.substring(nameStart, i).toLowerCase(Locale.ROOT);
+            while (i < n && Character.isWhitespace(html.charAt(i))) {
+                i++;
+            }
+            String value = "";
+            if (i < n && html.charAt(i) == '=') {
+                i++;
+                while (i < n && Character.isWhitespace(html.charAt(i))) {
+                    i++;
+                }
+                if (i < n && (html.charAt(i) == '"' || html.charAt(i) == '\'')) {
+                    char quote = html.charAt(i);
+                    int end = html.indexOf(quote, i + 1);
+                    end = end < 0 ? n : end;
+                    value = html.substring(i + 1, end);
+                    i = Math.min(n, end + 1);
+                } else {
+                    int valueStart = i;
+                    while (i < n && !Character.isWhitespace(html.charAt(i)) && html.charAt(i) != '>') {
+                        i++;
+                    }
+                    value = html.substring(valueStart, i);
+                }
+            }
+            if (!name.isEmpty()) {
+                attributes.putIfAbsent(name, decodeEntities(value));
+            }
+        }
+
+        applyImplicitCloses(stack, tag);
+        Element element = new Element(tag, attributes);
+        stack.peek().appendChild(element);
+        if (RAW_TEXT_TAGS.contains(tag) && !selfClosing) {
+            int close = indexOfIgnoreCase(html, "</" + tag, i);
+            int contentEnd = close < 0 ? n : close;
+            String raw = html.substring(i, contentEnd);
+            if (!raw.isEmpty()) {
+                boolean decode = tag.equals("title") || tag.equals("textarea");
+                element.appendChild(new TextNode(decode ? decodeEntities(raw) : raw));
+            }
+            if (close < 0) {
+                return n;
+            }
+            int end = html.indexOf('>', close);
+            return end < 0 ? n : end + 1;
+        }
+        if (!selfClosing && !VOID_TAGS.contains(tag)) {
+            stack.push(element);
+        }
+        return i;
+    }
+
+    private static void applyImplicitCloses(Deque<Element> stack, String tag) {
+        if (CLOSES_P.contains(tag)) {
+            closeOpen(stack, Set.of("p"), SCOPE_BOUNDARY);
+        }
+        switch (tag) {
+            case "li" -> closeOpen(stack, Set.of("li"), Set.of("ul", "ol", "#root"));
+            case "dt", "dd" -> closeOpen(stack, Set.of("dt", "dd"), Set.of("dl", "#root"));
+            case "tr" -> closeOpen(stack, Set.of("tr"), Set.of("table", "tbody", "thead", "tfoot", "#root"));
+            case "td", "th" -> closeOpen(stack, Set.of("td", "th"), Set.of("tr", "table", "#root"));
+            case "option" -> closeOpen(stack, Set.of("option"), Set.of("select", "datalist", "#root"));
+            default -> {
+            }
+        }
+    }
+
+    private static void closeOpen(Deque<Element> stack, Set<String> targets, Set<String> boundaries) {
+        for (Element open : stack) {
+            if (targets.contains(open.tag)) {
+                popTo(stack, open);
+                return;
+            }
+            if (boundaries.contains(open.tag)) {
+                return;
+            }
+        }
+    }
+
+    private static void closeElement(Deque<Element> stack, String tag) {
+        for (Element open : stack) {
+            if (open.tag.equals("#root")) {
+                return;
+            }
+            if (open.tag.equals(tag)) {
+                popTo(stack, open);
+                return;
+            }
+        }
+    }
+
+    private static void popTo(Deque<Element> stack, Element target) {
+        while (stack.size() > 1) {
+            if (stack.pop() == target) {
+                return;
+            }
+        }
+    }
+
+    private static void flushText(StringBuilder text, Element parent) {
+        if (text.length() > 0) {
+            parent.appendChild(new TextNode(decodeEntities(text.toString())));
+            text.setLength(0);
+        }
+    }
+
+    private static String readName(String html, int start, int end) {
+        int i = start;
+        while (i < end && isNameChar(html.charAt(i))) {
+            i++;
+        }
+        return html.substring(start, i).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == ':' || c == '_';
+    }
+
+    private static int indexOfIgnoreCase(String s, String target, int from) {
+        for (int i = from; i <= s.length() - target.length(); i++) {
+            if (s.regionMatches(true, i, target, 0, target.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static String decodeEntities(String s) {
+        int amp = s.indexOf('&');
+        if (amp < 0) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        sb.append(s, 0, amp);
+        int i = amp;
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (c == '&') {
+                int semi = s.indexOf(';', i + 1);
+                if (semi > i + 1 && semi - i <= 12) {
+                    String name = s.substring(i + 1, semi);
+                    String decoded = decodeEntity(name);
+                    if (decoded != null) {
+                        sb.append(decoded);
+                        i = semi + 1;
+                        continue;
+                    }
+                }
+            }
+            sb.append(c);
+            i++;
+        }
+        return sb.toString();
+    }
+
+    private static String decodeEntity(String name) {
+        if (name.startsWith("#")) {
+            try {
+                int codePoint = name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X')
+                        ? Integer.parseInt(name.substring(2), 16)
+                        : Integer.parseInt(name.substring(1));
+                return Character.isValidCodePoint(codePoint) ? new String(Character.toChars(codePoint)) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return ENTITIES.get(name);
+    }
+
+    // ==================== 节点 ====================
+
+    /**
+     * 文档树节点
+     */
+    public abstract static sealed class Node permits Element, TextNode {
+        Element parent;
+
+        public Element parent() {
+            return parent;
+        }
+    }
+
+    /**
+     * 文本节点（实体已解码）
+     */
+    public static final class TextNode extends Node {
+        private final String text;
+
+        TextNode(String text) {
+            this.text = text;
+        }
+
+        public String text() {
+            return text;
+        }
+    }
+
+    /**
+     * 元素节点
+     */
+    public static final class Element extends Node {
+        private final String tag;
+        private final Map<String, String> attributes;
+        private final List<Node> children = new ArrayList<>();
+
+        Element(String tag, Map<String, String> attributes) {
+            this.tag = tag;
+            this.attributes = attributes;
+        }
+
+        void appendChild(Node child) {
+            child.parent = this;
+            children.add(child);
+        }
+
+        public String tag() {
+            return tag;
+        }
+
+        public String attr(String name) {
+            return attributes.get(name);
+        }
+
+        public boolean hasAttr(String name) {
+            return attributes.containsKey(name);
+        }
+
+        public String id() {
+            return attributes.getOrDefault("id", "");
+        }
+
+        public Set<String> classNames() {
+            String value = attributes.get("class");
+            if (value == null || value.isBlank()) {
+                return Set.of();
+            }
+            Set<String> names = new LinkedHashSet<>();
+            for (String name : value.trim().split("\\s+")) {
+                names.add(name);
+            }
+            return names;
+        }
+
+        public List<Node> childNodes() {
+            return Collections.unmodifiableList(children);
+        }
+
+        public List<Element> children() {
+            List<Element> elements = new ArrayList<>();
+            for (Node child : children) {
+                if (child instanceof Element element) {
+                    elements.add(element);
+                }
+            }
+            return elements;
+        }
+
+        /**
+         * 文档顺序的所有后代元素
+         */
+        public List<Element> descendants() {
+            List<Element> result = new ArrayList<>();
+            Deque<Element> pending = new ArrayDeque<>();
+            pending.push(this);
+            while (!pending.isEmpty()) {
+                Element current = pending.pop();
+                if (current != this) {
+                    result.add(current);
+                }
+                List<Node> nodes = current.children;
+                for (int i = nodes.size() - 1; i >= 0; i--) {
+                    if (nodes.get(i) instanceof Element element) {
+                        pending.push(element);
+                    }
+                }
+            }
+            return result;
+        }
+
+        public boolean isBlock() {
+            return BLOCK_TAGS.contains(tag);
+        }
+
+        public List<Element> select(String cssSelector) {
+            return CssSelector.parse(cssSelector).select(this);
+        }
+
+        /**
+         * 可见文本：跳过脚本样式等不可见内容，块级元素之间换行，行内空白折叠
+         */
+        public String text() {
+            StringBuilder raw = new StringBuilder();
+            appendText(this, raw);
+            return normalize(raw);
+        }
+
+        /**
+         * 可见文本长度（不含空白），用于评分时避免反复拼接字符串
+         */
+        public int textLength() {
+            int length = 0;
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(this);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                if (node instanceof TextNode textNode) {
+                    String t = textNode.text;
+                    for (int i = 0; i < t.length(); i++) {
+                        if (!Character.isWhitespace(t.charAt(i))) {
+                            length++;
+                        }
+                    }
+                } else if (node instanceof Element element && (element == this || !HIDDEN_TAGS.contains(element.tag))) {
+                    for (Node child : element.children) {
+                        pending.push(child);
+                    }
+                }
+            }
+            return length;
+        }
+
+        public String outerHtml() {
+            StringBuilder sb = new StringBuilder();
+            appendHtml(this, sb);
+            return sb.toString();
+        }
+
+        /**
+         * 用显式栈遍历（与 {@link #descendants()} 相同），深层嵌套的恶意页面不会导致栈溢出；
+         * 栈中的 String 为块级元素结束时追加的换行
+         */
+        private static void appendText(Element element, StringBuilder out) {
+            Deque<Object> pending = new ArrayDeque<>();
+            pushChildren(element, pending);
+            while (!pending.isEmpty()) {
+                Object next = pending.pop();
+                if (next instanceof String literal) {
+                    out.append(literal);
+                } else if (next instanceof TextNode textNode) {
+                    out.append(textNode.text);
+                } else if (next instanceof Element e) {
+                    if (HIDDEN_TAGS.contains(e.tag)) {
+                        continue;
+                    }
+                    if (e.tag.equals("br")) {
+                        out.append('\n');
+                        continue;
+                    }
+                    if (e.isBlock()) {
+                        out.append('\n');
+                        pending.push("\n");
+                    } else if (e.tag.equals("td") || e.tag.equals("th")) {
+                        out.append(' ');
+                    }
+                    pushChildren(e, pending);
+                }
+            }
+        }
+
+        private static void pushChildren(Element element, Deque<Object> pending) {
+            for (int i = element.children.size() - 1; i >= 0; i--) {
+                pending.push(element.children.get(i));
+            }
+        }
+
+        private static String normalize(CharSequence raw) {
+            StringBuilder out = new StringBuilder(raw.length());
+            boolean pendingSpace = false;
+            boolean pendingNewline = false;
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (c == '\n') {
+                    pendingNewline = true;
+                } else if (Character.isWhitespace(c) || c == '\u00a0') {
+                    pendingSpace = true;
+                } else {
+                    if (out.length() > 0) {
+                        if (pendingNewline) {
+                            out.append('\n');
+                        } else if (pendingSpace) {
+                            out.append(' ');
+                        }
+                    }
+                    pendingSpace = false;
+                    pendingNewline = false;
+                    out.append(c);
+                }
+            }
+            return out.toString();
+        }
+
+        /**
+         * 显式栈遍历；栈中的 String（已转义的文本、结束标签）原样追加
+         */
+        private static void appendHtml(Element element, StringBuilder sb) {
+            Deque<Object> pending = new ArrayDeque<>();
+            pending.push(element);
+            while (!pending.isEmpty()) {
+                Object next = pending.pop();
+                if (next instanceof String literal) {
+                    sb.append(literal);
+                    continue;
+                }
+                Element current = (Element) next;
+                boolean root = current.tag.equals("#root");
+                if (!root) {
+                    sb.append('<').append(current.tag);
+                    current.attributes.forEach((name, value) -> sb.append(' ').append(name).append("=\"")
+                            .append(value.replace("&", "&amp;").replace("\"", "&quot;")).append('"'));
+                    sb.append('>');
+                    if (VOID_TAGS.contains(current.tag)) {
+                        continue;
+                    }
+                    pending.push("</" + current.tag + ">");
+                }
+                boolean raw = RAW_TEXT_TAGS.contains(current.tag) && !current.tag.equals("title")
+                        && !current.tag.equals("textarea");
+                for (int i = current.children.size() - 1; i >= 0; i--) {
+                    Node child = current.children.get(i);
+                    if (child instanceof TextNode textNode) {
+                        pending.push(raw ? textNode.text : textNode.text.replace("&", "&amp;").replace("<", "&lt;")
+                                .replace(">", "&gt;"));
+                    } else {
+                        pending.push(child);
+                    }
+                }
+            }
+        }
+    }
+}
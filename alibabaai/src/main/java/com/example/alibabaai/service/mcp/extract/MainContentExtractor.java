@@ -0,0 +1,382 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp.extract;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 网页正文抽取，输出按 token 预算裁剪
+ *
+ * <ul>
+ *   <li>指定 CSS 选择器时只取匹配元素的文本（嵌套匹配去重）；未匹配时回退到正文检测并在结果中标明；</li>
+ *   <li>否则按 Readability 的思路评分：段落文本长度与逗号数累加到父节点（祖父节点减半），
+ *       再按 class/id 关键词加减分、按链接密度折减，取得分最高的容器及其高分兄弟节点；</li>
+ *   <li>最后按段落累加估算 token，超出预算的段落在字符级截断，保证输出不超过调用方给定的预算。</li>
+ * </ul>
+ */
+public final class MainContentExtractor {
+
+    private static final Set<String> PARAGRAPH_TAGS = Set.of("p", "pre", "td", "blockquote", "li");
+    private static final Set<String> SKIPPED_TAGS = Set.of("nav", "footer", "aside", "form", "button", "select",
+            "header", "menu", "dialog");
+    private static final Pattern UNLIKELY = Pattern.compile("(?i)banner|breadcrumb|combx|comment|community|cookie|"
+            + "disqus|extra|footer|gdpr|header|legends|menu|related|remark|replies|rss|shoutbox|sidebar|skyscraper|"
+            + "social|sponsor|supplemental|ad-break|agegate|pagination|pager|popup|share|subscribe|navbar|topbar");
+    private static final Pattern MAYBE = Pattern.compile("(?i)and|article|body|column|content|main|shadow");
+    private static final Pattern POSITIVE = Pattern.compile("(?i)article|body|content|entry|hentry|h-entry|main|"
+            + "page|post|text|blog|story");
+    private static final Pattern NEGATIVE = Pattern.compile("(?i)-ad-|hidden|banner|combx|comment|com-|contact|"
+            + "foot|footnote|gdpr|masthead|media|meta|outbrain|promo|related|scroll|share|shoutbox|sidebar|"
+            + "skyscraper|sponsor|shopping|tags|tool|widget|nav|menu");
+
+    private static final int MIN_PARAGRAPH_CHARS = 25;
+
+    private MainContentExtractor() {
+    }
+
+    /**
+     * 抽取结果
+     *
+     * @param strategy selector（选择器命中）、main-content（正文检测）、body（整页文本兜底）
+     * @param matched  选择器命中的元素数
+     */
+    public record Extraction(String title, String text, String strategy, int matched, int estimatedTokens,
+                             boolean truncated) {
+
+        /**
+         * 渲染为交给模型的文本：标题 + 正文
+         */
+        public String render() {
+            return title == null || title.isEmpty() ? text : title + "\n\n" + text;
+        }
+    }
+
+    /**
+     * 从 HTML 抽取文本
+     *
+     * @param html      页面源码
+     * @param selector  CSS 选择器，可为空
+     * @param maxTokens token 预算（含标题），小于等于0表示不限制
+     */
+    public static Extraction extract(String html, String selector, int maxTokens) {
+        HtmlDocument document = HtmlDocument.parse(html);
+        String title = document.title();
+        int budget = maxTokens > 0 ? Math.max(1, maxTokens - estimateTokens(title)) : 0;
+
+        if (selector != null && !selector.isBlank()) {
+            List<HtmlDocument.Element> matches = outermost(document.select(selector));
+            if (!matches.isEmpty()) {
+                List<String> parts = new ArrayList<>(matches.size());
+                for (HtmlDocument.Element match : matches) {
+                    String text = match.text();
+                    if (!text.isEmpty()) {
+                        parts.add(text);
+                    }
+                }
+                return fit(title, String.join("\n", parts), "selector", matches.size(), budget);
+            }
+        }
+
+        HtmlDocument.Element body = document.body();
+        String main = mainContent(body);
+        if (main != null) {
+            return fit(title, main, "main-content", 0, budget);
+        }
+        return fit(title, body.text(), "body", 0, budget);
+    }
+
+    /**
+     * 返回选择器命中元素的 HTML 源码；未指定选择器或未命中时返回 body
+     */
+    public static Extraction extractHtml(String html, String selector, int maxTokens) {
+        HtmlDocument document = HtmlDocument.parse(html);
+        List<HtmlDocument.Element> matches = selector != null && !selector.isBlank()
+                ? outermost(document.select(selector)) : List.of();
+        if (matches.isEmpty()) {
+            return fit("", document.body().outerHtml(), "body", 0, maxTokens);
+        }
+        List<String> parts = new ArrayList<>(matches.size());
+        for (HtmlDocument.Element match : matches) {
+            parts.add(match.outerHtml());
+        }
+        return fit("", String.join("\n", parts), "selector", matches.size(), maxTokens);
+    }
+
+    /**
+     * 纯文本按预算裁剪（非 HTML 响应）
+     */
+    public static Extraction fromText(String text, int maxTokens) {
+        return fit("", text.strip(), "text", 0, maxTokens);
+    }
+
+    /**
+     * 估算 token 数：中日韩字符按每字 1 个 token，其余字符按约 4 个字符 1 个 token
+     */
+    public static int estimateTokens(CharSequence text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = Character.codePointAt(text, i);
+            if (isCjk(codePoint)) {
+                cjk++;
+            } else {
+                other++;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return cjk + (other + 3) / 4;
+    }
+
+    // ==================== 正文检测 ====================
+
+    private static String mainContent(HtmlDocument.Element body) {
+        Map<HtmlDocument.Element, Double> scores = new IdentityHashMap<>();
+        for (HtmlDocument.Element element : body.descendants()) {
+            if (!isParagraph(element) || isUnlikely(element)) {
+                continue;
+            }
+            String text = element.text();
+            if (text.length() < MIN_PARAGRAPH_CHARS) {
+                continue;
+            }
+            double score = 1 + countCommas(text) + Math.min(text.length() / 100, 3);
+            HtmlDocument.Element parent = element.parent();
+            if (parent != null) {
+                addScore(scores, parent, score);
+                HtmlDocument.Element grandparent = parent.parent();
+                if (grandparent != null) {
+                    addScore(scores, grandparent, score / 2);
+                }
+            }
+        }
+        if (scores.isEmpty()) {
+            return null;
+        }
+
+        HtmlDocument.Element top = null;
+        double topScore = Double.NEGATIVE_INFINITY;
+        for (Map.Entry<HtmlDocument.Element, Double> entry : scores.entrySet()) {
+            double adjusted = entry.getValue() * (1 - linkDensity(entry.getKey()));
+            entry.setValue(adjusted);
+            if (adjusted > topScore) {
+                topScore = adjusted;
+                top = entry.getKey();
+            }
+        }
+
+        // 正文常被拆成多个相邻容器，得分接近的兄弟节点一并保留
+        HtmlDocument.Element parent = top.parent();
+        if (parent == null || top.tag().equals("body")) {
+            return top.text();
+        }
+        double threshold = Math.max(10, topScore * 0.2);
+        List<String> parts = new ArrayList<>();
+        for (HtmlDocument.Element sibling : parent.children()) {
+            boolean include = sibling == top;
+            if (!include) {
+                Double score = scores.get(sibling);
+                if (score != null && score >= threshold) {
+                    include = true;
+                } else if (sibling.tag().equals("p")) {
+                    int length = sibling.textLength();
+                    double density = linkDensity(sibling);
+                    include = length > 80 && density < 0.25;
+                }
+            }
+            if (include) {
+                String text = sibling.text();
+                if (!text.isEmpty()) {
+                    parts.add(text);
+                }
+            }
+        }
+        return String.join("\n", parts);
+    }
+
+    private static boolean isParagraph(HtmlDocument.Element element) {
+        if (PARAGRAPH_TAGS.contains(element.tag())) {
+            return true;
+        }
+        // 没有块级子元素的 div 视为段落
+        if (element.tag().equals("div")) {
+            for (HtmlDocument.Element child : element.children()) {
+                if (child.isBlock()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isUnlikely(HtmlDocument.Element element) {
+        for (HtmlDocument.Element current = element; current != null; current = current.parent()) {
+            String tag = current.tag();
+            if (tag.equals("body") || tag.equals("article") || tag.equals("main")) {
+                return false;
+            }
+            if (SKIPPED_TAGS.contains(tag) || HtmlDocument.HIDDEN_TAGS.contains(tag)) {
+                return true;
+            }
+            String signature = current.id() + " " + String.join(" ", current.classNames());
+            if (!signature.isBlank() && UNLIKELY.matcher(signature).find() && !MAYBE.matcher(signature).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addScore(Map<HtmlDocument.Element, Double> scores, HtmlDocument.Element element, double score) {
+        Double current = scores.get(element);
+        scores.put(element, (current != null ? current : initialScore(element)) + score);
+    }
+
+    private static double initialScore(HtmlDocument.Element element) {
+        double score = switch (element.tag()) {
+            case "div", "article", "main", "section" -> 5;
+            case "pre", "td", "blockquote" -> 3;
+            case "address", "ol", "ul", "dl", "dd", "dt", "li", "form" -> -3;
+            case "h1", "h2", "h3", "h4", "h5", "h6", "th" -> -5;
+            default -> 0;
+        };
+        String signature = element.id() + " " + String.join(" ", element.classNames());
+        if (!signature.isBlank()) {
+            if (NEGATIVE.matcher(signature).find()) {
+                score -= 25;
+            }
+            if (POSITIVE.matcher(signature).find()) {
+                score += 25;
+            }
+        }
+        return score;
+    }
+
+    private static double linkDensity(HtmlDocument.Element element) {
+        int total = element.textLength();
+        if (total == 0) {
+            return 0;
+        }
+        int links = 0;
+        for (HtmlDocument.Element link : element.select("a")) {
+            links += link.textLength();
+        }
+        return Math.min(1, (double) links / total);
+    }
+
+    private static int countCommas(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '，' || c == '、' || c == '；') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static List<HtmlDocument.Element> outermost(List<HtmlDocument.Element> matches) {
+        Set<HtmlDocument.Element> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+        selected.addAll(matches);
+        List<HtmlDocument.Element> result = new ArrayList<>();
+        for (HtmlDocument.Element match : matches) {
+            boolean nested = false;
+            for (HtmlDocument.Element ancestor = match.parent(); ancestor != null; ancestor = ancestor.parent()) {
+                if (selected.contains(ancestor)) {
+                    nested = true;
+                    break;
+                }
+            }
+            if (!nested) {
+                result.add(match);
+            }
+        }
+        return result;
+    }
+
+    // ==================== 预算裁剪 ====================
+
+    private static Extraction fit(String title, String text, String strategy, int matched, int maxTokens) {
+        int total = estimateTokens(text);
+        if (maxTokens <= 0 || total <= maxTokens) {
+            return new Extraction(title, text, strategy, matched, total + estimateTokens(title), false);
+        }
+        StringBuilder out = new StringBuilder();
+        int used = 0;
+        for (String paragraph : text.split("\n")) {
+            int separator = out.length() > 0 ? 1 : 0;
+            int tokens = estimateTokens(paragraph) + separator;
+            if (used + tokens <= maxTokens) {
+                if (separator > 0) {
+                    out.append('\n');
+                }
+                out.append(paragraph);
+                used += tokens;
+                continue;
+            }
+            // 段落放不下：在字符级截断，预留省略号
+            int remaining = maxTokens - used - separator - 1;
+            String head = headWithinTokens(paragraph, remaining);
+            if (!head.isEmpty()) {
+                if (separator > 0) {
+                    out.append('\n');
+                }
+                out.append(head).append('…');
+            }
+            break;
+        }
+        String clipped = out.toString();
+        return new Extraction(title, clipped, strategy, matched, estimateTokens(clipped) + estimateTokens(title), true);
+    }
+
+    private static String headWithinTokens(String text, int maxTokens) {
+        if (maxTokens <= 0) {
+            return "";
+        }
+        int cjk = 0;
+        int other = 0;
+        int end = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            if (isCjk(codePoint)) {
+                cjk++;
+            } else {
+                other++;
+            }
+            if (cjk + (other + 3) / 4 > maxTokens) {
+                break;
+            }
+            i += Character.charCount(codePoint);
+            end = i;
+        }
+        return text.substring(0, end);
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL
+                || (codePoint >= 0x3000 && codePoint <= 0x303f) || (codePoint >= 0xff00 && codePoint <= 0xffef);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp.selection;
+
+import com.example.alibabaai.service.mcp.extract.MainContentExtractor;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工具定义的 BM25 索引
+ *
+ * 每个工具是一篇文档：工具名（按下划线、连字符、驼峰拆词，权重 3）、描述、inputSchema 文本与额外关键词。
+ * 工具描述多为英文，额外关键词用于补充中文等说法（如 chrome_navigate 补充“打开 网页 浏览器”）；
+ * 查询中含 http(s) 链接时追加 url 一词，便于匹配以 URL 为参数的工具。
+ * 分词与 {@link com.example.alibabaai.service.rag.HashingEmbeddingModel} 一致：英文按词小写，中文按单字加相邻二元组，
+ * 不依赖外部分词器或 embedding 调用。索引在构建后只读，可被多个请求并发使用。
+ */
+public class Bm25ToolIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 3;
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Integer> documentFrequency = new HashMap<>();
+    private final double averageLength;
+
+    public Bm25ToolIndex(List<ToolCallback> callbacks, Map<String, String> keywords) {
+        long totalLength = 0;
+        for (ToolCallback callback : callbacks) {
+            ToolDefinition definition = callback.getToolDefinition();
+            Map<String, Integer> termFrequency = new HashMap<>();
+            for (int i = 0; i < NAME_WEIGHT; i++) {
+                tokenize(splitIdentifier(definition.name()), termFrequency);
+            }
+            tokenize(definition.description(), termFrequency);
+            tokenize(definition.inputSchema(), termFrequency);
+            tokenize(keywords.get(definition.name()), termFrequency);
+            int length = termFrequency.values().stream().mapToInt(Integer::intValue).sum();
+            totalLength += length;
+            termFrequency.keySet().forEach(term -> documentFrequency.merge(term, 1, Integer::sum));
+            entries.add(new Entry(callback, termFrequency, length, schemaTokens(definition)));
+        }
+        this.averageLength = entries.isEmpty() ? 1 : Math.max(1, (double) totalLength / entries.size());
+    }
+
+    /**
+     * 按与查询的相关度排序的工具，只返回得分大于 0 的
+     */
+    public List<Scored> rank(String query) {
+        Map<String, Integer> queryTerms = new HashMap<>();
+        tokenize(query, queryTerms);
+        if (query != null && (query.contains("http://") || query.contains("https://"))) {
+            queryTerms.merge("url", 1, Integer::sum);
+        }
+        int n = entries.size();
+        List<Scored> scored = new ArrayList<>();
+        for (Entry entry : entries) {
+            double score = 0;
+            for (String term : queryTerms.keySet()) {
+                Integer tf = entry.termFrequency.get(term);
+                if (tf == null) {
+                    continue;
+                }
+                int df = documentFrequency.get(term);
+                double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+                score += idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * entry.length / averageLength));
+            }
+            if (score > 0) {
+                scored.add(new Scored(entry.callback, score, entry.schemaTokens));
+            }
+        }
+        scored.sort(Comparator.comparingDouble(Scored::score).reversed());
+        return scored;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 工具定义占用的提示词 token 估算（名称、描述与 schema）
+     */
+    public static int schemaTokens(ToolDefinition definition) {
+        return MainContentExtractor.estimateTokens(definition.name())
+                + MainContentExtractor.estimateTokens(definition.description())
+                + MainContentExtractor.estimateTokens(definition.inputSchema());
+    }
+
+    // ==================== 内部实现 ====================
+
+    static void tokenize(String text, Map<String, Integer> sink) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int wordStart = -1;
+        char previousCjk = 0;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (isCjk(c)) {
+                if (wordStart >= 0) {
+                    sink.merge(text.substring(wordStart, i).toLowerCase(), 1, Integer::sum);
+                    wordStart = -1;
+                }
+                sink.merge(String.valueOf(c), 1, Integer::sum);
+                if (previousCjk != 0) {
+                    sink.merge(new String(new char[]{previousCjk, c}), 1, Integer::sum);
+                }
+                previousCjk = c;
+            } else if (Character.isLetterOrDigit(c)) {
+                previousCjk = 0;
+                if (wordStart < 0) {
+                    wordStart = i;
+                }
+            } else {
+                previousCjk = 0;
+                if (wordStart >= 0) {
+                    sink.merge(text.substring(wordStart, i).toLowerCase(), 1, Integer::sum);
+                    wordStart = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * fetchUrls / fetch_urls / fetch-urls 都拆成 "fetch urls"
+     */
+    private static String splitIdentifier(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(name.charAt(i - 1))) {
+                sb.append(' ');
+            }
+            sb.append(c == '_' || c == '-' ? ' ' : c);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private record Entry(ToolCallback callback, Map<String, Integer> termFrequency, int length, int schemaTokens) {
+    }
+
+    public record Scored(ToolCallback callback, double score, int schemaTokens) {
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.mcp.selection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.AdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.BaseAdvisor;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.core.Ordered;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按相关度挑选工具的 Advisor
+ *
+ * ChatClient 默认把所有工具回调都挂到每个请求上，每个提示词都带着全部工具的 schema。
+ * 这里在请求发出前用用户消息对已挂载的工具做 BM25 排序（{@link Bm25ToolIndex}），只保留得分最高的 topK 个，
+ * 再加上 alwaysInclude 中的工具；没有任何工具相关时不带工具。工具数不超过 topK 时原样放行。
+ *
+ * 索引按工具集合缓存，同一个 ChatClient 的请求共用一份。被省掉的 schema 按字符估算 token 数并累计，
+ * 见 {@link #stats()}；本次的选择结果放在请求上下文与响应元数据的 {@link #SELECTED_TOOLS} 键中。
+ */
+public class ToolSelectionAdvisor implements BaseAdvisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolSelectionAdvisor.class);
+
+    public static final String SELECTED_TOOLS = "tool_selection";
+
+    private static final int MAX_INDEXES = 64;
+
+    private final int topK;
+    private final double minScore;
+    private final Set<String> alwaysInclude;
+    private final Map<String, String> keywords;
+    private final int order;
+    private final Map<String, Bm25ToolIndex> indexes = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong narrowedRequests = new AtomicLong();
+    private final AtomicLong toolsOffered = new AtomicLong();
+    private final AtomicLong toolsAttached = new AtomicLong();
+    private final AtomicLong schemaTokensOffered = new AtomicLong();
+    private final AtomicLong schemaTokensAttached = new AtomicLong();
+
+    public ToolSelectionAdvisor(int topK, double minScore, Set<String> alwaysInclude, Map<String, String> keywords) {
+        this(topK, minScore, alwaysInclude, keywords, Ordered.HIGHEST_PRECEDENCE + 500);
+    }
+
+    public ToolSelectionAdvisor(int topK, double minScore, Set<String> alwaysInclude, Map<String, String> keywords,
+                                int order) {
+        this.topK = Math.max(1, topK);
+        this.minScore = minScore;
+        this.alwaysInclude = Set.copyOf(alwaysInclude);
+        this.keywords = Map.copyOf(keywords);
+        this.order = order;
+    }
+
+    @Override
+    public ChatClientRequest before(ChatClientRequest request, AdvisorChain advisorChain) {
+        if (!(request.prompt().getOptions() instanceof ToolCallingChatOptions options)
+                || options.getToolCallbacks() == null || options.getToolCallbacks().isEmpty()) {
+            return request;
+        }
+        List<ToolCallback> callbacks = options.getToolCallbacks();
+        requests.incrementAndGet();
+        if (indexes.size() > MAX_INDEXES) {
+            indexes.clear();
+        }
+        Bm25ToolIndex index = indexes.computeIfAbsent(key(callbacks), key -> new Bm25ToolIndex(callbacks, keywords));
+        int offeredTokens = callbacks.stream().mapToInt(c -> Bm25ToolIndex.schemaTokens(c.getToolDefinition())).sum();
+        toolsOffered.addAndGet(callbacks.size());
+        schemaTokensOffered.addAndGet(offeredTokens);
+        if (callbacks.size() <= topK) {
+            toolsAttached.addAndGet(callbacks.size());
+            schemaTokensAttached.addAndGet(offeredTokens);
+            return request;
+        }
+
+        UserMessage userMessage = request.prompt().getUserMessage();
+        String query = userMessage != null ? userMessage.getText() : null;
+        // 索引按工具名缓存，挂载的是本次请求中的回调实例
+        Map<String, ToolCallback> byName = new HashMap<>();
+        callbacks.forEach(callback -> byName.put(callback.getToolDefinition().name(), callback));
+        Map<String, ToolCallback> selected = new LinkedHashMap<>();
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (Bm25ToolIndex.Scored scored : index.rank(query)) {
+            if (selected.size() >= topK || scored.score() < minScore) {
+                break;
+            }
+            String name = scored.callback().getToolDefinition().name();
+            selected.put(name, byName.get(name));
+            scores.put(name, Math.round(scored.score() * 1000) / 1000.0);
+        }
+        for (ToolCallback callback : callbacks) {
+            String name = callback.getToolDefinition().name();
+            if (alwaysInclude.contains(name)) {
+                selected.putIfAbsent(name, callback);
+            }
+        }
+        int attachedTokens = selected.values().stream().mapToInt(c -> Bm25ToolIndex.schemaTokens(c.getToolDefinition())).sum();
+        narrowedRequests.incrementAndGet();
+        toolsAttached.addAndGet(selected.size());
+        schemaTokensAttached.addAndGet(attachedTokens);
+        logger.debug("Attached {} of {} tools {} (~{} schema tokens saved)", selected.size(), callbacks.size(),
+                scores, offeredTokens - attachedTokens);
+
+        ToolCallingChatOptions narrowed = options.copy();
+        narrowed.setToolCallbacks(new ArrayList<>(selected.values()));
+        Map<String, Object> selection = new LinkedHashMap<>();
+        selection.put("tools", new ArrayList<>(selected.keySet()));
+        selection.put("scores", scores);
+        selection.put("offered", callbacks.size());
+        selection.put("estimatedTokensSaved", offeredTokens - attachedTokens);
+        Map<String, Object> advisedContext = new HashMap<>(request.context());
+        advisedContext.put(SELECTED_TOOLS, selection);
+        return request.mutate()
+                .prompt(request.prompt().mutate().chatOptions(narrowed).build())
+                .context(advisedContext)
+                .build();
+    }
+
+    @Override
+    public ChatClientResponse after(ChatClientResponse response, AdvisorChain advisorChain) {
+        Object selection = response.context().get(SELECTED_TOOLS);
+        if (selection == null || response.chatResponse() == null) {
+            return response;
+        }
+        return response.mutate()
+                .chatResponse(ChatResponse.builder()
+                        .from(response.chatResponse())
+                        .metadata(SELECTED_TOOLS, selection)
+                        .build())
+                .build();
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * 累计挂载的工具数与 schema token 估算，estimatedTokensSaved 为每次请求少带的 schema token 之和
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long offered = schemaTokensOffered.get();
+        long attached = schemaTokensAttached.get();
+        stats.put("topK", topK);
+        stats.put("requests", requests.get());
+        stats.put("narrowedRequests", narrowedRequests.get());
+        stats.put("toolsOffered", toolsOffered.get());
+        stats.put("toolsAttached", toolsAttached.get());
+        stats.put("schemaTokensOffered", offered);
+        stats.put("schemaTokensAttached", attached);
+        stats.put("estimatedTokensSaved", offered - attached);
+        stats.put("savedRatio", offered > 0 ? Math.round((offered - attached) * 1000.0 / offered) / 1000.0 : 0.0);
+        return stats;
+    }
+
+    private static String key(List<ToolCallback> callbacks) {
+        Set<String> names = new LinkedHashSet<>();
+        for (ToolCallback callback : callbacks) {
+            names.add(callback.getToolDefinition().name());
+        }
+        return String.join(",", names);
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.memory;
+
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AbstractMessage;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.content.Media;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 紧凑编码的会话记忆存储
+ *
+ * 每个会话的消息编码进一块只读字节数组（arena），不再常驻 Message 对象与元数据 HashMap：
+ * <ul>
+ *   <li>用户/助手文本与工具调用参数以 UTF-8 内联存储，长度用变长整数；</li>
+ *   <li>系统提示词、工具名、工具返回与元数据键放入跨会话的 {@link SharedTextPool}，重复内容只存一份；</li>
+ *   <li>框架自动写入的 messageType 元数据不存储，重建消息时由构造器补回；</li>
+ *   <li>字符串、整数、浮点、布尔以外的元数据值和媒体附件无法紧凑编码，以原对象保存在会话的旁路表中。</li>
+ * </ul>
+ * 只有读取（MessageChatMemoryAdvisor 取历史）时才重建 Message 对象。
+ * saveAll 与 MessageWindowChatMemory 的语义一致：整体替换会话内容，新 arena 构建完成后才替换旧的。
+ */
+public class CompactChatMemoryRepository implements ChatMemoryRepository {
+
+    private static final int RAW = 0;
+    private static final int USER = 1;
+    private static final int ASSISTANT = 2;
+    private static final int SYSTEM = 3;
+    private static final int TOOL = 4;
+
+    private static final int V_NULL = 0;
+    private static final int V_STRING = 1;
+    private static final int V_INT = 2;
+    private static final int V_LONG = 3;
+    private static final int V_DOUBLE = 4;
+    private static final int V_TRUE = 5;
+    private static final int V_FALSE = 6;
+    private static final int V_OBJECT = 7;
+
+    private final ConcurrentHashMap<String, Arena> conversations = new ConcurrentHashMap<>();
+    private final SharedTextPool sharedText = new SharedTextPool();
+
+    @Override
+    public List<String> findConversationIds() {
+        return new ArrayList<>(conversations.keySet());
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        Arena arena = conversations.get(conversationId);
+        return arena != null ? arena.decode() : new ArrayList<>();
+    }
+
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        Arena arena = new Encoder(sharedText).encode(messages);
+        Arena previous = conversations.put(conversationId, arena);
+        if (previous != null) {
+            previous.release(sharedText);
+        }
+    }
+
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        Arena previous = conversations.remove(conversationId);
+        if (previous != null) {
+            previous.release(sharedText);
+        }
+    }
+
+    /**
+     * 占用统计：arenaBytes 为各会话独占的编码字节（含偏移表与引用表），sharedBytes 为共享文本池
+     */
+    public Map<String, Object> stats() {
+        long arenaBytes = 0;
+        long messages = 0;
+        for (Arena arena : conversations.values()) {
+            arenaBytes += arena.footprint();
+            messages += arena.offsets.length;
+        }
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("conversations", conversations.size());
+        res.put("messages", messages);
+        res.put("arenaBytes", arenaBytes);
+        res.put("sharedTexts", sharedText.size());
+        res.put("sharedBytes", sharedText.bytes());
+        return res;
+    }
+
+    // ==================== 编码 ====================
+
+    /**
+     * 单个会话的编码结果：data 为全部消息的字节，offsets 为每条消息的起点，
+     * shared 为引用到的共享文本（释放时逐个归还），side 为无法编码的原对象
+     */
+    private record Arena(byte[] data, int[] offsets, SharedTextPool.Entry[] shared, Object[] side) {
+
+        List<Message> decode() {
+            Decoder decoder = new Decoder(this);
+            List<Message> messages = new ArrayList<>(offsets.length);
+            for (int offset : offsets) {
+                messages.add(decoder.message(offset));
+            }
+            return messages;
+        }
+
+        void release(SharedTextPool pool) {
+            for (SharedTextPool.Entry entry : shared) {
+                pool.release(entry);
+            }
+        }
+
+        long footprint() {
+            // 对象头与数组头按 16 字节估算，引用按 4 字节（压缩指针）
+            return 16L * 4 + data.length + 4L * offsets.length + 4L * shared.length + 4L * side.length;
+        }
+    }
+
+    private static final class Encoder {
+
+        private final SharedTextPool pool;
+        private final Map<SharedTextPool.Entry, Integer> sharedIndex = new IdentityHashMap<>();
+        private final List<SharedTextPool.Entry> shared = new ArrayList<>();
+        private final List<Object> side = new ArrayList<>();
+        private byte[] buf = new byte[256];
+        private int pos;
+
+        Encoder(SharedTextPool pool) {
+            this.pool = pool;
+        }
+
+        Arena encode(List<Message> messages) {
+            int[] offsets = new int[messages.size()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = pos;
+                message(messages.get(i));
+            }
+            return new Arena(Arrays.copyOf(buf, pos), offsets, shared.toArray(SharedTextPool.Entry[]::new),
+                    side.isEmpty() ? new Object[0] : side.toArray());
+        }
+
+        private void message(Message message) {
+            if (message instanceof UserMessage user && user.getClass() == UserMessage.class) {
+                write(USER);
+                inline(user.getText());
+                metadata(user.getMetadata());
+                sideList(user.getMedia());
+            } else if (message instanceof AssistantMessage assistant && assistant.getClass() == AssistantMessage.class) {
+                write(ASSISTANT);
+                inline(assistant.getText());
+                metadata(assistant.getMetadata());
+                List<AssistantMessage.ToolCall> calls = assistant.getToolCalls();
+                varint(calls.size());
+                for (AssistantMessage.ToolCall call : calls) {
+                    inline(call.id());
+                    shared(call.type());
+                    shared(call.name());
+                    inline(call.arguments());
+                }
+                sideList(assistant.getMedia());
+            } else if (message instanceof SystemMessage system && system.getClass() == SystemMessage.class) {
+                write(SYSTEM);
+                shared(system.getText());
+                metadata(system.getMetadata());
+            } else if (message instanceof ToolResponseMessage tool && tool.getClass() == ToolResponseMessage.class) {
+                write(TOOL);
+                metadata(tool.getMetadata());
+                varint(tool.getResponses().size());
+                for (ToolResponseMessage.ToolResponse response : tool.getResponses()) {
+                    inline(response.id());
+                    shared(response.name());
+                    shared(response.responseData());
+                }
+            } else {
+                // 自定义 Message 实现原样保存
+                write(RAW);
+                varint(side.size());
+                side.add(message);
+            }
+        }
+
+        private void metadata(Map<String, Object> metadata) {
+            int count = 0;
+            for (String key : metadata.keySet()) {
+                if (!AbstractMessage.MESSAGE_TYPE.equals(key)) {
+                    count++;
+                }
+            }
+            varint(count);
+            for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+                if (AbstractMessage.MESSAGE_TYPE.equals(entry.getKey())) {
+                    continue;
+                }
+                shared(entry.getKey());
+                Object value = entry.getValue();
+                if (value == null) {
+                    write(V_NULL);
+                } else if (value instanceof String s) {
+                    write(V_STRING);
+                    inline(s);
+                } else if (value instanceof Integer i) {
+                    write(V_INT);
+                    varint(zigzag(i));
+                } else if (value instanceof Long l) {
+                    write(V_LONG);
+                    varint(zigzag(l));
+                } else if (value instanceof Double d) {
+                    write(V_DOUBLE);
+                    fixed64(Double.doubleToRawLongBits(d));
+                } else if (value instanceof Boolean b) {
+                    write(b ? V_TRUE : V_FALSE);
+                } else {
+                    write(V_OBJECT);
+                    varint(side.size());
+                    side.add(value);
+                }
+            }
+        }
+
+        private void sideList(List<Media> media) {
+            if (media == null || media.isEmpty()) {
+                varint(0);
+            } else {
+                side.add(List.copyOf(media));
+                varint(side.size());
+            }
+        }
+
+        /**
+         * 内联字符串：0 表示 null，否则为 长度+1 与 UTF-8 字节
+         */
+        private void inline(String text) {
+            if (text == null) {
+                varint(0);
+                return;
+            }
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length + 1L);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buf, pos, utf8.length);
+            pos += utf8.length;
+        }
+
+        /**
+         * 共享字符串：0 表示 null，否则为会话引用表下标+1
+         */
+        private void shared(String text) {
+            if (text == null) {
+                varint(0);
+                return;
+            }
+            SharedTextPool.Entry entry = pool.acquire(text);
+            Integer index = sharedIndex.get(entry);
+            if (index != null) {
+                // 同一会话内重复引用只计一次
+                pool.release(entry);
+            } else {
+                index = shared.size();
+                shared.add(entry);
+                sharedIndex.put(entry, index);
+            }
+            varint(index + 1L);
+        }
+
+        private void write(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        private void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        private void fixed64(long value) {
+            ensure(8);
+            for (int i = 0; i < 8; i++) {
+                buf[pos++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    // ==================== 解码 ====================
+
+    private static final class Decoder {
+
+        private final Arena arena;
+        private final byte[] data;
+        private final String[] sharedCache;
+        private int pos;
+
+        Decoder(Arena arena) {
+            this.arena = arena;
+            this.data = arena.data;
+            this.sharedCache = new String[arena.shared.length];
+        }
+
+        Message message(int offset) {
+            pos = offset;
+            int tag = data[pos++];
+            switch (tag) {
+                case USER: {
+                    String text = inline();
+                    Map<String, Object> metadata = metadata();
+                    List<Media> media = sideList();
+                    return UserMessage.builder().text(text).metadata(metadata).media(media).build();
+                }
+                case ASSISTANT: {
+                    String text = inline();
+                    Map<String, Object> metadata = metadata();
+                    int count = (int) varint();
+                    List<AssistantMessage.ToolCall> calls = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        calls.add(new AssistantMessage.ToolCall(inline(), shared(), shared(), inline()));
+                    }
+                    return new AssistantMessage(text, metadata, calls, sideList());
+                }
+                case SYSTEM: {
+                    String text = shared();
+                    return SystemMessage.builder().text(text).metadata(metadata()).build();
+                }
+                case TOOL: {
+                    Map<String, Object> metadata = metadata();
+                    int count = (int) varint();
+                    List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        responses.add(new ToolResponseMessage.ToolResponse(inline(), shared(), shared()));
+                    }
+                    return new ToolResponseMessage(responses, metadata);
+                }
+                case RAW:
+                    return (Message) arena.side[(int) varint()];
+                default:
+                    throw new IllegalStateException("Corrupt chat memory arena: unknown tag " + tag);
+            }
+        }
+
+        private Map<String, Object> metadata() {
+            int count = (int) varint();
+            Map<String, Object> metadata = new HashMap<>(Math.max(4, count * 2));
+            for (int i = 0; i < count; i++) {
+                String key = shared();
+                int type = data[pos++];
+                Object value = switch (type) {
+                    case V_NULL -> null;
+                    case V_STRING -> inline();
+                    case V_INT -> (int) unzigzag(varint());
+                    case V_LONG -> unzigzag(varint());
+                    case V_DOUBLE -> Double.longBitsToDouble(fixed64());
+                    case V_TRUE -> Boolean.TRUE;
+                    case V_FALSE -> Boolean.FALSE;
+                    case V_OBJECT -> arena.side[(int) varint()];
+                    default -> throw new IllegalStateException("Corrupt chat memory arena: unknown value type " + type);
+                };
+                metadata.put(key, value);
+            }
+            return metadata;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Media> sideList() {
+            int ref = (int) varint();
+            return ref == 0 ? new ArrayList<>() : new ArrayList<>((List<Media>) arena.side[ref - 1]);
+        }
+
+        private String inline() {
+            long len = varint();
+            if (len == 0) {
+                return null;
+            }
+            int length = (int) (len - 1);
+            String text = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return text;
+        }
+
+        private String shared() {
+            int ref = (int) varint();
+            if (ref == 0) {
+                return null;
+            }
+            String text = sharedCache[ref - 1];
+            if (text == null) {
+                text = arena.shared[ref - 1].text();
+                sharedCache[ref - 1] = text;
+            }
+            return text;
+        }
+
+        private long varint() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+
+        private long fixed64() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value |= (data[pos++] & 0xFFL) << (i * 8);
+            }
+            return value;
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
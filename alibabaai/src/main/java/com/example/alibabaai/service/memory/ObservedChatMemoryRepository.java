@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.memory;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.List;
+
+/**
+ * 为会话记忆的读写产生观测，使记忆访问在请求追踪中显示为独立的 span
+ *
+ * 只是装饰器，不改变底层存储的行为；注册表为 NOOP 时开销可以忽略。
+ */
+public class ObservedChatMemoryRepository implements ChatMemoryRepository {
+
+    private static final String OBSERVATION_NAME = "chat.memory";
+
+    private final ChatMemoryRepository delegate;
+    private final ObservationRegistry registry;
+
+    public ObservedChatMemoryRepository(ChatMemoryRepository delegate, ObservationRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+    }
+
+    public ChatMemoryRepository getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public List<String> findConversationIds() {
+        return observation("list", null).observe(delegate::findConversationIds);
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        Observation observation = observation("read", conversationId);
+        return observation.observe(() -> {
+            List<Message> messages = delegate.findByConversationId(conversationId);
+            observation.highCardinalityKeyValue("messages", String.valueOf(messages.size()));
+            return messages;
+        });
+    }
+
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        observation("write", conversationId)
+                .highCardinalityKeyValue("messages", String.valueOf(messages.size()))
+                .observe(() -> delegate.saveAll(conversationId, messages));
+    }
+
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        observation("delete", conversationId).observe(() -> delegate.deleteByConversationId(conversationId));
+    }
+
+    private Observation observation(String operation, String conversationId) {
+        Observation observation = Observation.createNotStarted(OBSERVATION_NAME, registry)
+                .contextualName("chat_memory " + operation)
+                .lowCardinalityKeyValue("operation", operation);
+        if (conversationId != null) {
+            observation.highCardinalityKeyValue("conversation.id", conversationId);
+        }
+        return observation;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.memory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 跨会话共享的文本池（系统提示词、工具名、工具返回等重复出现的文本）
+ *
+ * 每段文本只保存一份 UTF-8 字节（池以字节内容为键，不额外持有 String），按引用计数管理：
+ * 会话删除或被覆盖时释放引用，计数归零即移出池，不会因为只出现过一次的大段工具输出而无限增长。
+ */
+final class SharedTextPool {
+
+    private final ConcurrentHashMap<Entry, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * 取得文本对应的条目并增加一次引用
+     */
+    Entry acquire(String text) {
+        Entry probe = new Entry(text.getBytes(StandardCharsets.UTF_8));
+        return entries.compute(probe, (key, existing) -> {
+            if (existing != null) {
+                existing.refs++;
+                return existing;
+            }
+            bytes.addAndGet(probe.utf8.length);
+            return probe;
+        });
+    }
+
+    /**
+     * 释放一次引用，计数归零时移出池
+     */
+    void release(Entry entry) {
+        entries.computeIfPresent(entry, (key, existing) -> {
+            if (existing != entry || --existing.refs > 0) {
+                return existing;
+            }
+            bytes.addAndGet(-existing.utf8.length);
+            return null;
+        });
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long bytes() {
+        return bytes.get();
+    }
+
+    /**
+     * 池中条目，以 UTF-8 字节内容判等；引用计数只在 ConcurrentHashMap 的 compute 回调内修改
+     */
+    static final class Entry {
+
+        private final byte[] utf8;
+        private final int hash;
+        private int refs = 1;
+
+        private Entry(byte[] utf8) {
+            this.utf8 = utf8;
+            this.hash = Arrays.hashCode(utf8);
+        }
+
+        String text() {
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry other && hash == other.hash && Arrays.equals(utf8, other.utf8);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
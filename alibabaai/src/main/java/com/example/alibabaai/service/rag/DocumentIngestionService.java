@@ -0,0 +1,335 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.rag;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 文档批量摄取服务
+ *
+ * 流水线：文件列表 → 内存映射 + fork/join 并行切块 → 跳过已写入的块 → 按批调用 embedding（限制在途批次数）
+ * → 增量写入向量库。每个任务的规格写入检查点文件，进程崩溃重启后自动续传；
+ * 由于块ID是确定性的，续传时已经写入向量库的块会被直接跳过，不会重复计费。
+ *
+ * 只允许摄取基础目录（rag.ingest.base-dir）下的文件：相对路径按基础目录解析，
+ * 所有路径（包括目录遍历得到的文件）都按 toRealPath 解析符号链接后校验，越界的路径直接拒绝。
+ */
+public class DocumentIngestionService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentIngestionService.class);
+
+    private static final Set<String> TEXT_EXTENSIONS = Set.of("txt", "md", "markdown", "csv", "json", "jsonl", "log", "html", "htm", "xml");
+    private static final int FLUSH_EVERY_BATCHES = 32;
+
+    private final HnswVectorStore vectorStore;
+    private final ObjectMapper objectMapper;
+    private final Path checkpointDirectory;
+    private final Path baseDirectory;
+    private final int defaultChunkChars;
+    private final int defaultBatchSize;
+    private final int defaultMaxInFlight;
+
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+    private final ForkJoinPool chunkPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ingestion-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Scheduler embeddingScheduler = Schedulers.newBoundedElastic(
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2), 1024, "ingestion-embed");
+
+    public DocumentIngestionService(HnswVectorStore vectorStore, ObjectMapper objectMapper, Path checkpointDirectory,
+                                    Path baseDirectory, int defaultChunkChars, int defaultBatchSize,
+                                    int defaultMaxInFlight) {
+        this.vectorStore = vectorStore;
+        this.objectMapper = objectMapper;
+        this.checkpointDirectory = checkpointDirectory;
+        this.baseDirectory = baseDirectory.toAbsolutePath().normalize();
+        this.defaultChunkChars = defaultChunkChars;
+        this.defaultBatchSize = defaultBatchSize;
+        this.defaultMaxInFlight = defaultMaxInFlight;
+    }
+
+    /**
+     * 提交摄取任务（异步执行），参数为空时使用默认值
+     *
+     * @throws IllegalArgumentException 路径为空、不存在或不在基础目录下，或分块/批次参数过小时
+     */
+    public IngestionJob submit(List<String> paths, Integer chunkChars, Integer batchSize, Integer maxInFlightBatches) {
+        if (paths == null || paths.isEmpty()) {
+            throw new IllegalArgumentException("At least one path is required");
+        }
+        requireAtLeast("chunkChars", chunkChars, 2);
+        requireAtLeast("batchSize", batchSize, 1);
+        requireAtLeast("maxInFlightBatches", maxInFlightBatches, 1);
+        for (String raw : paths) {
+            try {
+                resolve(raw);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Path does not exist: " + raw);
+            }
+        }
+        IngestionJob.Spec spec = new IngestionJob.Spec(
+                UUID.randomUUID().toString(),
+                List.copyOf(paths),
+                chunkChars != null ? chunkChars : defaultChunkChars,
+                batchSize != null ? batchSize : defaultBatchSize,
+                maxInFlightBatches != null ? maxInFlightBatches : defaultMaxInFlight);
+        return enqueue(spec);
+    }
+
+    public IngestionJob get(String id) {
+        return jobs.get(id);
+    }
+
+    public Collection<IngestionJob> list() {
+        return jobs.values();
+    }
+
+    /**
+     * 续传上次未完成的任务
+     */
+    public void resumePending() {
+        if (!Files.isDirectory(checkpointDirectory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(checkpointDirectory)) {
+            files.filter(p -> p.getFileName().toString().endsWith(".json")).forEach(file -> {
+                try {
+                    Checkpoint checkpoint = objectMapper.readValue(file.toFile(), Checkpoint.class);
+                    if (checkpoint.status() == IngestionJob.Status.PENDING || checkpoint.status() == IngestionJob.Status.RUNNING) {
+                        logger.info("Resuming interrupted ingestion job {}", checkpoint.spec().id());
+                        enqueue(checkpoint.spec());
+                    }
+                } catch (IOException e) {
+                    logger.warn("Ignoring unreadable ingestion checkpoint {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to scan ingestion checkpoints in {}: {}", checkpointDirectory, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        jobExecutor.shutdownNow();
+        embeddingScheduler.dispose();
+        chunkPool.shutdownNow();
+        // 等待任务线程写完最后一次检查点，避免关闭后目录仍在被写入
+        try {
+            jobExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== 内部实现 ====================
+
+    private static void requireAtLeast(String name, Integer value, int min) {
+        if (value != null && value < min) {
+            throw new IllegalArgumentException(name + " must be at least " + min);
+        }
+    }
+
+    private IngestionJob enqueue(IngestionJob.Spec spec) {
+        IngestionJob job = new IngestionJob(spec);
+        jobs.put(spec.id(), job);
+        writeCheckpoint(job);
+        jobExecutor.execute(() -> run(job));
+        return job;
+    }
+
+    private void run(IngestionJob job) {
+        IngestionJob.Spec spec = job.getSpec();
+        MappedFileChunker chunker = new MappedFileChunker(chunkPool, spec.chunkChars());
+        AtomicInteger batches = new AtomicInteger();
+        try {
+            List<Path> files = expand(spec.paths());
+            job.start(files.size());
+            writeCheckpoint(job);
+
+            Flux.fromIterable(files)
+                    .concatMap(file -> chunker.chunk(file)
+                            .doOnNext(chunk -> job.chunkProduced())
+                            .concatWith(Mono.fromRunnable(() -> fileChunked(job, file))), 1)
+                    .filter(chunk -> {
+                        if (vectorStore.contains(chunk.id())) {
+                            job.chunkSkipped();
+                            return false;
+                        }
+                        return true;
+                    })
+                    .buffer(spec.batchSize())
+                    // flatMap 的并发度即在途批次上限，上游按需拉取，内存占用有界
+                    .flatMap(batch -> Mono.fromCallable(() -> embedAndWrite(job, batch))
+                            .subscribeOn(embeddingScheduler), spec.maxInFlightBatches())
+                    .doOnNext(written -> {
+                        if (batches.incrementAndGet() % FLUSH_EVERY_BATCHES == 0) {
+                            flushStore();
+                        }
+                    })
+                    .then()
+                    .block();
+
+            flushStore();
+            job.complete();
+            logger.info("Ingestion job {} completed: {}", spec.id(), job.snapshot());
+        } catch (Exception e) {
+            flushStoreQuietly();
+            job.fail(e);
+            logger.error("Ingestion job {} failed", spec.id(), e);
+        }
+        writeCheckpoint(job);
+    }
+
+    private int embedAndWrite(IngestionJob job, List<MappedFileChunker.Chunk> batch) {
+        job.batchStarted();
+        int written = 0;
+        try {
+            List<float[]> embeddings = vectorStore.getEmbeddingModel()
+                    .embed(batch.stream().map(MappedFileChunker.Chunk::text).toList());
+            List<Document> documents = new ArrayList<>(batch.size());
+            for (MappedFileChunker.Chunk chunk : batch) {
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put("source", chunk.source());
+                metadata.put("byteOffset", chunk.byteOffset());
+                metadata.put("ingestionJob", job.getSpec().id());
+                documents.add(new Document(chunk.id(), chunk.text(), metadata));
+            }
+            vectorStore.addEmbedded(documents, embeddings);
+            written = documents.size();
+            return written;
+        } finally {
+            job.batchFinished(written);
+        }
+    }
+
+    private void fileChunked(IngestionJob job, Path file) {
+        try {
+            job.fileChunked(Files.size(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> expand(List<String> paths) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String raw : paths) {
+            Path path = resolve(raw);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> walk = Files.walk(path)) {
+                    for (Path file : walk.filter(Files::isRegularFile).filter(this::isText).sorted().toList()) {
+                        // 目录中的符号链接可能指向基础目录之外
+                        if (isAllowed(file.toRealPath())) {
+                            files.add(file);
+                        } else {
+                            logger.warn("Skipping {}: resolves outside ingestion base directory", file);
+                        }
+                    }
+                }
+            } else if (Files.isRegularFile(path)) {
+                files.add(path);
+            } else {
+                throw new IOException("Path does not exist: " + raw);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 按基础目录解析并校验路径（解析符号链接后必须仍在基础目录下）
+     *
+     * @throws IllegalArgumentException 路径在基础目录之外时
+     * @throws IOException 路径不存在时
+     */
+    private Path resolve(String raw) throws IOException {
+        Path real = baseDirectory.resolve(raw).normalize().toRealPath();
+        if (!isAllowed(real)) {
+            throw new IllegalArgumentException("Path is outside the ingestion base directory: " + raw);
+        }
+        return real;
+    }
+
+    private boolean isAllowed(Path real) throws IOException {
+        Path base = Files.exists(baseDirectory) ? baseDirectory.toRealPath() : baseDirectory;
+        return real.startsWith(base);
+    }
+
+    private boolean isText(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && TEXT_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
+    }
+
+    private void flushStore() {
+        try {
+            vectorStore.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushStoreQuietly() {
+        try {
+            vectorStore.flush();
+        } catch (Exception e) {
+            logger.warn("Failed to flush vector store after ingestion failure: {}", e.getMessage());
+        }
+    }
+
+    private void writeCheckpoint(IngestionJob job) {
+        try {
+            Files.createDirectories(checkpointDirectory);
+            Path target = checkpointDirectory.resolve(job.getSpec().id() + ".json");
+            Path tmp = checkpointDirectory.resolve(job.getSpec().id() + ".json.tmp");
+            objectMapper.writeValue(tmp.toFile(), new Checkpoint(job.getSpec(), job.getStatus()));
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write ingestion checkpoint for job {}: {}", job.getSpec().id(), e.getMessage());
+        }
+    }
+
+    private record Checkpoint(IngestionJob.Spec spec, IngestionJob.Status status) {
+    }
+}
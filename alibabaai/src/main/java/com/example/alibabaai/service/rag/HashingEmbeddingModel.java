@@ -0,0 +1,116 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.rag;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 本地特征哈希向量模型（离线/压测用的 embedding 替身）
+ *
+ * 英文按单词、中日韩文字按二元组切分，经哈希映射到固定维度并带符号累加。
+ * 不调用任何远程服务，适合在没有 DashScope 配额时测试摄取吞吐与检索链路。
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private final int dimensions;
+
+    public HashingEmbeddingModel(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<String> texts = request.getInstructions();
+        List<Embedding> embeddings = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            embeddings.add(new Embedding(embed(texts.get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        if (text == null) {
+            return vector;
+        }
+        int length = text.length();
+        int wordStart = -1;
+        char previousCjk = 0;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (isCjk(c)) {
+                if (wordStart >= 0) {
+                    accumulate(vector, hashLowerCase(text, wordStart, i));
+                    wordStart = -1;
+                }
+                accumulate(vector, previousCjk != 0 ? previousCjk * 31 + c : c);
+                previousCjk = c;
+            } else if (Character.isLetterOrDigit(c)) {
+                previousCjk = 0;
+                if (wordStart < 0) {
+                    wordStart = i;
+                }
+            } else {
+                previousCjk = 0;
+                if (wordStart >= 0) {
+                    accumulate(vector, hashLowerCase(text, wordStart, i));
+                    wordStart = -1;
+                }
+            }
+        }
+        return vector;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    private void accumulate(float[] vector, int hash) {
+        int mixed = hash * 0x9E3779B9;
+        int bucket = Math.floorMod(mixed >>> 1, dimensions);
+        vector[bucket] += (mixed & 1) == 0 ? 1f : -1f;
+    }
+
+    private static int hashLowerCase(String text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(text.charAt(i));
+        }
+        return h;
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,533 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.rag;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * HNSW（Hierarchical Navigable Small World）近似最近邻索引
+ *
+ * 向量保存在 {@link MappedVectorStorage} 中（堆外、内存映射），图结构只用 int 数组表示，
+ * 写入时归一化向量，使用点积作为余弦相似度。查询持读锁可并发执行，插入持写锁串行执行。
+ */
+public class HnswIndex {
+
+    private static final int GRAPH_MAGIC = 0x48475246; // "HGRF"
+
+    private final MappedVectorStorage vectors;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<VisitedSet> visited = ThreadLocal.withInitial(VisitedSet::new);
+
+    /** links[node][level] = [count, neighbor...] */
+    private int[][][] links = new int[0][][];
+    private final BitSet deleted = new BitSet();
+    private int nodeCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(MappedVectorStorage vectors, int m, int efConstruction) {
+        this.vectors = vectors;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1.0 / Math.log(Math.max(2, m));
+    }
+
+    /**
+     * 追加向量并接入图，返回节点序号
+     */
+    public int add(float[] vector) throws IOException {
+        float[] normalized = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            int node = vectors.append(normalized);
+            link(node, normalized);
+            return node;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询与 query 最相似的 k 个未删除节点
+     *
+     * @param ef 搜索宽度，越大召回越高
+     * @return 结果数组，按相似度降序；ids 与 scores 一一对应
+     */
+    public Result search(float[] query, int k, int ef) {
+        float[] q = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return new Result(new int[0], new float[0]);
+            }
+            int ep = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                ep = greedyClosest(q, ep, level);
+            }
+            ScoredHeap found = searchLayer(q, ep, Math.max(ef, k), 0);
+            int[] ids = new int[found.size()];
+            float[] scores = new float[found.size()];
+            int n = 0;
+            // 最小堆出堆为升序，倒序填充得到降序结果
+            for (int i = found.size() - 1; i >= 0; i--) {
+                int id = found.topId();
+                float score = found.topScore();
+                found.pop();
+                ids[i] = id;
+                scores[i] = score;
+            }
+            int[] topIds = new int[Math.min(k, ids.length)];
+            float[] topScores = new float[topIds.length];
+            for (int i = 0; i < ids.length && n < topIds.length; i++) {
+                if (!deleted.get(ids[i])) {
+                    topIds[n] = ids[i];
+                    topScores[n] = scores[i];
+                    n++;
+                }
+            }
+            return new Result(Arrays.copyOf(topIds, n), Arrays.copyOf(topScores, n));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 逻辑删除：节点仍参与图导航，但不会出现在结果中
+     */
+    public void markDeleted(int node) {
+        lock.writeLock().lock();
+        try {
+            deleted.set(node);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isDeleted(int node) {
+        lock.readLock().lock();
+        try {
+            return deleted.get(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeCount - deleted.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 将图结构写入文件（先写临时文件再原子替换），向量本身由映射文件保存
+     */
+    public void save(Path graphFile) throws IOException {
+        lock.readLock().lock();
+        try {
+            vectors.force();
+            Path tmp = graphFile.resolveSibling(graphFile.getFileName() + ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+                // DataOutputStream 为大端序，读取时按大端序解析
+                out.writeInt(GRAPH_MAGIC);
+                out.writeInt(nodeCount);
+                out.writeInt(entryPoint);
+                out.writeInt(maxLevel);
+                for (int node = 0; node < nodeCount; node++) {
+                    int[][] nodeLinks = links[node];
+                    out.writeInt(nodeLinks.length);
+                    out.writeInt(deleted.get(node) ? 1 : 0);
+                    for (int[] levelLinks : nodeLinks) {
+                        int count = levelLinks[0];
+                        out.writeInt(count);
+                        for (int i = 1; i <= count; i++) {
+                            out.writeInt(levelLinks[i]);
+                        }
+                    }
+                }
+            }
+            Files.move(tmp, graphFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 从文件加载图结构；若向量文件比图更新（上次保存后崩溃），补建缺失的节点
+     *
+     * @return 补建的节点数
+     */
+    public int load(Path graphFile) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (Files.exists(graphFile) && Files.size(graphFile) >= 16) {
+                try (FileChannel channel = FileChannel.open(graphFile, StandardOpenOption.READ)) {
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    mapped.order(ByteOrder.BIG_ENDIAN);
+                    IntBuffer in = mapped.asIntBuffer();
+                    if (in.get() != GRAPH_MAGIC) {
+                        throw new IOException("Not an HNSW graph file: " + graphFile);
+                    }
+                    int storedCount = in.get();
+                    entryPoint = in.get();
+                    maxLevel = in.get();
+                    ensureNodeCapacity(storedCount);
+                    for (int node = 0; node < storedCount; node++) {
+                        int levels = in.get();
+                        if (in.get() == 1) {
+                            deleted.set(node);
+                        }
+                        int[][] nodeLinks = new int[levels][];
+                        for (int level = 0; level < levels; level++) {
+                            int count = in.get();
+                            int[] levelLinks = new int[(level == 0 ? maxM0 : m) + 1];
+                            levelLinks[0] = count;
+                            in.get(levelLinks, 1, count);
+                            nodeLinks[level] = levelLinks;
+                        }
+                        links[node] = nodeLinks;
+                    }
+                    nodeCount = storedCount;
+                }
+            }
+            int recovered = 0;
+            for (int node = nodeCount; node < vectors.size(); node++) {
+                link(node, vectors.get(node));
+                recovered++;
+            }
+            return recovered;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== 图构建 ====================
+
+    private void link(int node, float[] vector) {
+        int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+        ensureNodeCapacity(node + 1);
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[(l == 0 ? maxM0 : m) + 1];
+        }
+        links[node] = nodeLinks;
+        nodeCount = Math.max(nodeCount, node + 1);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedyClosest(vector, ep, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            ScoredHeap candidates = searchLayer(vector, ep, efConstruction, l);
+            int[] selected = selectNeighbors(candidates, l == 0 ? maxM0 : m);
+            int[] own = links[node][l];
+            own[0] = selected.length;
+            System.arraycopy(selected, 0, own, 1, selected.length);
+            for (int neighbor : selected) {
+                connect(neighbor, node, l);
+            }
+            ep = selected.length > 0 ? selected[0] : ep;
+        }
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+    }
+
+    private void connect(int from, int to, int level) {
+        int[] fromLinks = links[from][level];
+        int capacity = fromLinks.length - 1;
+        int count = fromLinks[0];
+        if (count < capacity) {
+            fromLinks[count + 1] = to;
+            fromLinks[0] = count + 1;
+            return;
+        }
+        // 邻居已满：在原邻居 + 新节点中重新做启发式挑选
+        ScoredHeap pool = new ScoredHeap(capacity + 1);
+        float[] base = vectors.get(from);
+        for (int i = 1; i <= count; i++) {
+            pool.push(fromLinks[i], vectors.dot(fromLinks[i], base));
+        }
+        pool.push(to, vectors.dot(to, base));
+        int[] selected = selectNeighbors(pool, capacity);
+        fromLinks[0] = selected.length;
+        System.arraycopy(selected, 0, fromLinks, 1, selected.length);
+    }
+
+    /**
+     * HNSW 论文中的启发式邻居选择：优先保留彼此方向差异大的邻居，提升图的连通性
+     */
+    private int[] selectNeighbors(ScoredHeap candidates, int max) {
+        int size = candidates.size();
+        int[] ids = new int[size];
+        float[] scores = new float[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ids[i] = candidates.topId();
+            scores[i] = candidates.topScore();
+            candidates.pop();
+        }
+        int[] selected = new int[Math.min(max, size)];
+        int n = 0;
+        for (int i = 0; i < size && n < selected.length; i++) {
+            boolean keep = true;
+            for (int j = 0; j < n; j++) {
+                if (vectors.dot(ids[i], selected[j]) > scores[i]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[n++] = ids[i];
+            }
+        }
+        // 启发式过滤后不足时，用剩余最近的候选补齐
+        for (int i = 0; i < size && n < selected.length; i++) {
+            int id = ids[i];
+            boolean present = false;
+            for (int j = 0; j < n; j++) {
+                if (selected[j] == id) {
+                    present = true;
+                    break;
+                }
+            }
+            if (!present) {
+                selected[n++] = id;
+            }
+        }
+        return Arrays.copyOf(selected, n);
+    }
+
+    // ==================== 图搜索 ====================
+
+    private int greedyClosest(float[] query, int ep, int level) {
+        int best = ep;
+        float bestScore = vectors.dot(ep, query);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[][] nodeLinks = links[best];
+            if (level >= nodeLinks.length) {
+                break;
+            }
+            int[] levelLinks = nodeLinks[level];
+            for (int i = 1; i <= levelLinks[0]; i++) {
+                int candidate = levelLinks[i];
+                float score = vectors.dot(candidate, query);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = candidate;
+                    changed = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 单层 beam search，返回最多 ef 个结果（以相似度为键的最小堆，堆顶为当前最差结果）
+     */
+    private ScoredHeap searchLayer(float[] query, int ep, int ef, int level) {
+        VisitedSet seen = visited.get();
+        seen.reset(nodeCount);
+        ScoredHeap results = new ScoredHeap(ef + 1);
+        ScoredHeap candidates = new ScoredHeap(ef * 2 + 1);
+        float epScore = vectors.dot(ep, query);
+        results.push(ep, epScore);
+        candidates.push(ep, -epScore);
+        seen.add(ep);
+        while (candidates.size() > 0) {
+            int current = candidates.topId();
+            float currentScore = -candidates.topScore();
+            candidates.pop();
+            if (results.size() >= ef && currentScore < results.topScore()) {
+                break;
+            }
+            int[][] nodeLinks = links[current];
+            if (level >= nodeLinks.length) {
+                continue;
+            }
+            int[] levelLinks = nodeLinks[level];
+            for (int i = 1; i <= levelLinks[0]; i++) {
+                int neighbor = levelLinks[i];
+                if (!seen.add(neighbor)) {
+                    continue;
+                }
+                float score = vectors.dot(neighbor, query);
+                if (results.size() < ef || score > results.topScore()) {
+                    candidates.push(neighbor, -score);
+                    results.push(neighbor, score);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (capacity > links.length) {
+            links = Arrays.copyOf(links, Math.max(capacity, Math.max(16, links.length * 2)));
+        }
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        float[] out = new float[vector.length];
+        if (norm == 0) {
+            return out;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            out[i] = (float) (vector[i] / norm);
+        }
+        return out;
+    }
+
+    /**
+     * 查询结果
+     */
+    public record Result(int[] ids, float[] scores) {
+    }
+
+    /**
+     * 基于原始数组的二叉最小堆（按 score），避免装箱与对象分配
+     */
+    static final class ScoredHeap {
+        private int[] ids;
+        private float[] scores;
+        private int size;
+
+        ScoredHeap(int capacity) {
+            this.ids = new int[Math.max(capacity, 4)];
+            this.scores = new float[ids.length];
+        }
+
+        void push(int id, float score) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= score) {
+                    break;
+                }
+                ids[i] = ids[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            ids[i] = id;
+            scores[i] = score;
+        }
+
+        void pop() {
+            int lastId = ids[--size];
+            float lastScore = scores[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && scores[child + 1] < scores[child]) {
+                    child++;
+                }
+                if (lastScore <= scores[child]) {
+                    break;
+                }
+                ids[i] = ids[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            ids[i] = lastId;
+            scores[i] = lastScore;
+        }
+
+        int topId() {
+            return ids[0];
+        }
+
+        float topScore() {
+            return scores[0];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * 按代际计数的访问标记，避免每次查询清空数组
+     */
+    private static final class VisitedSet {
+        private int[] marks = new int[0];
+        private int generation;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        boolean add(int id) {
+            if (marks[id] == generation) {
+                return false;
+            }
+            marks[id] = generation;
+            return true;
+        }
+    }
+}
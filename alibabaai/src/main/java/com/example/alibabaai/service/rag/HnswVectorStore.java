@@ -0,0 +1,336 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.rag;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内 HNSW 向量库
+ *
+ * 数据目录结构：
+ * <pre>
+ *   vectors.f32   内存映射的向量文件（堆外）
+ *   graph.bin     HNSW 图结构快照
+ *   documents.jsonl 文档正文与元数据的追加日志（add/delete）
+ * </pre>
+ * 启动时映射向量文件、整块读取图快照并重放文档日志，不需要重新计算向量；
+ * 若上次退出前未保存图快照，会根据向量文件补建缺失节点。
+ */
+public class HnswVectorStore implements VectorStore, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HnswVectorStore.class);
+
+    private final Path directory;
+    private final EmbeddingModel embeddingModel;
+    private final ObjectMapper objectMapper;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+
+    private final Map<String, Integer> idToNode = new ConcurrentHashMap<>();
+    private volatile StoredDocument[] nodeDocuments = new StoredDocument[0];
+    private volatile HnswIndex index;
+    private MappedVectorStorage storage;
+    private BufferedWriter documentLog;
+
+    public HnswVectorStore(Path directory, EmbeddingModel embeddingModel, ObjectMapper objectMapper,
+                           int m, int efConstruction, int efSearch) {
+        this.directory = directory;
+        this.embeddingModel = embeddingModel;
+        this.objectMapper = objectMapper;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * 打开已有数据目录（若存在）
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        int dimensions = MappedVectorStorage.peekDimensions(vectorFile());
+        if (dimensions > 0) {
+            long start = System.nanoTime();
+            openIndex(dimensions);
+            int recovered = index.load(graphFile());
+            replayDocumentLog();
+            logger.info("Opened HNSW vector store {} with {} documents ({} dims) in {} ms, recovered {} graph nodes",
+                    directory, idToNode.size(), dimensions, (System.nanoTime() - start) / 1_000_000, recovered);
+        }
+        documentLog = Files.newBufferedWriter(documentLogFile(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public String getName() {
+        return "HnswVectorStore";
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        List<float[]> embeddings = embeddingModel.embed(documents.stream().map(Document::getText).toList());
+        addEmbedded(documents, embeddings);
+    }
+
+    /**
+     * 写入已计算好向量的文档（批量摄取时由调用方控制 embedding 批次）
+     */
+    public synchronized void addEmbedded(List<Document> documents, List<float[]> embeddings) {
+        if (documents.size() != embeddings.size()) {
+            throw new IllegalArgumentException("Got " + embeddings.size() + " embeddings for " + documents.size() + " documents");
+        }
+        try {
+            for (int i = 0; i < documents.size(); i++) {
+                Document document = documents.get(i);
+                float[] embedding = embeddings.get(i);
+                if (index == null) {
+                    openIndex(embedding.length);
+                }
+                Integer previous = idToNode.get(document.getId());
+                if (previous != null) {
+                    index.markDeleted(previous);
+                }
+                int node = index.add(embedding);
+                StoredDocument stored = new StoredDocument(document.getId(), document.getText(),
+                        new HashMap<>(document.getMetadata()));
+                setDocument(node, stored);
+                idToNode.put(document.getId(), node);
+                writeLog(new LogRecord("add", node, stored.id(), stored.text(), stored.metadata()));
+            }
+            documentLog.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to add documents to " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void delete(List<String> idList) {
+        try {
+            for (String id : idList) {
+                Integer node = idToNode.remove(id);
+                if (node != null) {
+                    index.markDeleted(node);
+                    writeLog(new LogRecord("delete", node, id, null, null));
+                }
+            }
+            documentLog.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete documents from " + directory, e);
+        }
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        List<String> matching = new ArrayList<>();
+        for (StoredDocument document : nodeDocuments) {
+            if (document != null && idToNode.containsKey(document.id())
+                    && MetadataFilterEvaluator.matches(filterExpression, document.metadata())) {
+                matching.add(document.id());
+            }
+        }
+        delete(matching);
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        HnswIndex current = index;
+        if (current == null || idToNode.isEmpty()) {
+            return List.of();
+        }
+        float[] query = embeddingModel.embed(request.getQuery());
+        return search(query, request.getTopK(), request.getSimilarityThreshold(), request.getFilterExpression());
+    }
+
+    /**
+     * 直接用向量检索（跳过 embedding 调用）
+     */
+    public List<Document> search(float[] query, int topK, double threshold, Filter.Expression filter) {
+        HnswIndex current = index;
+        if (current == null) {
+            return List.of();
+        }
+        // 有过滤条件时扩大候选集，过滤后再截断到 topK
+        int candidates = filter != null ? Math.max(topK * 8, efSearch) : topK;
+        HnswIndex.Result result = current.search(query, candidates, Math.max(efSearch, candidates));
+        StoredDocument[] documents = nodeDocuments;
+        List<Document> hits = new ArrayList<>(Math.min(topK, result.ids().length));
+        for (int i = 0; i < result.ids().length && hits.size() < topK; i++) {
+            int node = result.ids()[i];
+            double score = result.scores()[i];
+            if (score < threshold || node >= documents.length || documents[node] == null) {
+                continue;
+            }
+            StoredDocument stored = documents[node];
+            if (filter != null && !MetadataFilterEvaluator.matches(filter, stored.metadata())) {
+                continue;
+            }
+            hits.add(Document.builder()
+                    .id(stored.id())
+                    .text(stored.text())
+                    .metadata(stored.metadata())
+                    .score(score)
+                    .build());
+        }
+        return hits;
+    }
+
+    public EmbeddingModel getEmbeddingModel() {
+        return embeddingModel;
+    }
+
+    public boolean contains(String id) {
+        return idToNode.containsKey(id);
+    }
+
+    public int size() {
+        return idToNode.size();
+    }
+
+    /**
+     * 保存图快照并刷盘向量文件与文档日志
+     */
+    public synchronized void flush() throws IOException {
+        if (index != null) {
+            index.save(graphFile());
+        }
+        if (documentLog != null) {
+            documentLog.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        if (documentLog != null) {
+            documentLog.close();
+        }
+        if (storage != null) {
+            storage.close();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> getNativeClient() {
+        return Optional.ofNullable((T) index);
+    }
+
+    // ==================== 内部实现 ====================
+
+    private void openIndex(int dimensions) throws IOException {
+        storage = new MappedVectorStorage(vectorFile(), dimensions);
+        index = new HnswIndex(storage, m, efConstruction);
+    }
+
+    private void replayDocumentLog() throws IOException {
+        Path logFile = documentLogFile();
+        if (!Files.exists(logFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                LogRecord record;
+                try {
+                    record = objectMapper.readValue(line, LogRecord.class);
+                } catch (IOException e) {
+                    // 崩溃时可能留下半行，忽略即可
+                    logger.warn("Skipping corrupt document log line in {}", logFile);
+                    continue;
+                }
+                if ("add".equals(record.op())) {
+                    Integer previous = idToNode.put(record.id(), record.node());
+                    if (previous != null && previous != record.node()) {
+                        index.markDeleted(previous);
+                    }
+                    setDocument(record.node(), new StoredDocument(record.id(), record.text(),
+                            record.metadata() != null ? record.metadata() : Map.of()));
+                } else if ("delete".equals(record.op())) {
+                    idToNode.remove(record.id(), record.node());
+                    index.markDeleted(record.node());
+                }
+            }
+        }
+        // 向量已写入但文档日志缺失的节点（崩溃窗口内）不可检索
+        StoredDocument[] documents = nodeDocuments;
+        for (int node = 0; node < storage.size(); node++) {
+            if (node >= documents.length || documents[node] == null) {
+                index.markDeleted(node);
+            }
+        }
+    }
+
+    private void setDocument(int node, StoredDocument document) {
+        StoredDocument[] documents = nodeDocuments;
+        if (node >= documents.length) {
+            documents = Arrays.copyOf(documents, Math.max(node + 1, Math.max(16, documents.length * 2)));
+        }
+        documents[node] = document;
+        nodeDocuments = documents;
+    }
+
+    private void writeLog(LogRecord record) throws IOException {
+        documentLog.write(objectMapper.writeValueAsString(record));
+        documentLog.newLine();
+    }
+
+    private Path vectorFile() {
+        return directory.resolve("vectors.f32");
+    }
+
+    private Path graphFile() {
+        return directory.resolve("graph.bin");
+    }
+
+    private Path documentLogFile() {
+        return directory.resolve("documents.jsonl");
+    }
+
+    private record StoredDocument(String id, String text, Map<String, Object> metadata) {
+    }
+
+    private record LogRecord(String op, int node, String id, String text, Map<String, Object> metadata) {
+    }
+}
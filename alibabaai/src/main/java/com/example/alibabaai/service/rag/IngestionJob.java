@@ -0,0 +1,131 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.rag;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 摄取任务的规格与运行进度
+ */
+public class IngestionJob {
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * 任务规格（会写入检查点文件，重启后据此续传）
+     */
+    public record Spec(String id, List<String> paths, int chunkChars, int batchSize, int maxInFlightBatches) {
+    }
+
+    private final Spec spec;
+    private volatile Status status = Status.PENDING;
+    private volatile String error;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile int filesTotal;
+    private final AtomicLong filesChunked = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong chunksProduced = new AtomicLong();
+    private final AtomicLong chunksSkipped = new AtomicLong();
+    private final AtomicLong chunksEmbedded = new AtomicLong();
+    private final AtomicLong batchesInFlight = new AtomicLong();
+
+    public IngestionJob(Spec spec) {
+        this.spec = spec;
+    }
+
+    public Spec getSpec() {
+        return spec;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    void start(int filesTotal) {
+        this.filesTotal = filesTotal;
+        this.startedAt = System.currentTimeMillis();
+        this.status = Status.RUNNING;
+    }
+
+    void complete() {
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.COMPLETED;
+    }
+
+    void fail(Throwable t) {
+        this.finishedAt = System.currentTimeMillis();
+        this.error = t.getMessage();
+        this.status = Status.FAILED;
+    }
+
+    void fileChunked(long bytes) {
+        filesChunked.incrementAndGet();
+        bytesRead.addAndGet(bytes);
+    }
+
+    void chunkProduced() {
+        chunksProduced.incrementAndGet();
+    }
+
+    void chunkSkipped() {
+        chunksSkipped.incrementAndGet();
+    }
+
+    void batchStarted() {
+        batchesInFlight.incrementAndGet();
+    }
+
+    void batchFinished(int chunks) {
+        batchesInFlight.decrementAndGet();
+        chunksEmbedded.addAndGet(chunks);
+    }
+
+    /**
+     * 进度快照，吞吐分别按已写入块数与已切块文件数计算，每核吞吐为块吞吐 / CPU核数
+     */
+    public Map<String, Object> snapshot() {
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        double seconds = startedAt > 0 ? Math.max(0.001, (end - startedAt) / 1000.0) : 0;
+        long embedded = chunksEmbedded.get();
+        double perSecond = seconds > 0 ? embedded / seconds : 0;
+        double filesPerSecond = seconds > 0 ? filesChunked.get() / seconds : 0;
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("id", spec.id());
+        res.put("status", status);
+        res.put("paths", spec.paths());
+        res.put("filesTotal", filesTotal);
+        res.put("filesChunked", filesChunked.get());
+        res.put("bytesRead", bytesRead.get());
+        res.put("chunksProduced", chunksProduced.get());
+        res.put("chunksSkipped", chunksSkipped.get());
+        res.put("chunksEmbedded", embedded);
+        res.put("batchesInFlight", batchesInFlight.get());
+        res.put("elapsedSeconds", seconds);
+        res.put("chunksPerSecond", perSecond);
+        res.put("chunksPerSecondPerCore", perSecond / Runtime.getRuntime().availableProcessors());
+        res.put("filesPerSecond", filesPerSecond);
+        if (error != null) {
+            res.put("error", error);
+        }
+        return res;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.rag;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 基于内存映射与 fork/join 的大文件并行切块器
+ *
+ * 文件按区域映射（单区域不超过 {@link #MAX_REGION_BYTES}），每个区域递归二分到叶子大小，
+ * 切分点总是落在换行符之后（UTF-8 中 0x0A 不会出现在多字节字符内部，因此可以直接在字节上查找），
+ * 叶子内再按段落/句子切块。切分只依赖文件内容与参数，同一文件重复切块得到相同的块ID，断点续传据此跳过已写入的块。
+ *
+ * 块按需产生：叶子边界先顺序算出（只扫描中点附近的字节），叶子按并行度分组交给 fork/join 切块，
+ * 下游请求下一组时才处理下一组，任一时刻内存中只有一组叶子的块。
+ */
+public class MappedFileChunker {
+
+    static final long MAX_REGION_BYTES = 256L * 1024 * 1024;
+    private static final int LEAF_BYTES = 256 * 1024;
+    private static final int BOUNDARY_SCAN_BYTES = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkChars;
+
+    public MappedFileChunker(ForkJoinPool pool, int chunkChars) {
+        this.pool = pool;
+        this.chunkChars = chunkChars;
+    }
+
+    /**
+     * 切块结果
+     *
+     * @param id 由文件路径、字节偏移与序号生成的确定性ID
+     * @param byteOffset 所在叶子在文件中的起始字节偏移
+     */
+    public record Chunk(String id, String source, long byteOffset, String text) {
+    }
+
+    /**
+     * 按文件顺序惰性产生块；订阅时打开文件，结束或取消时关闭
+     */
+    public Flux<Chunk> chunk(Path file) {
+        String source = file.toAbsolutePath().normalize().toString();
+        int parallelism = Math.max(1, pool.getParallelism());
+        return Flux.using(
+                () -> FileChannel.open(file, StandardOpenOption.READ),
+                channel -> Flux.<Region, Long>generate(() -> 0L, (regionStart, sink) -> {
+                            try {
+                                long size = channel.size();
+                                if (regionStart >= size) {
+                                    sink.complete();
+                                    return regionStart;
+                                }
+                                Region region = map(channel, regionStart, size);
+                                sink.next(region);
+                                return regionStart + region.length();
+                            } catch (IOException e) {
+                                sink.error(e);
+                                return regionStart;
+                            }
+                        })
+                        .concatMap(region -> Flux.fromIterable(region.leaves())
+                                .buffer(parallelism)
+                                .concatMap(group -> Mono.fromCallable(() -> chunkLeaves(source, region, group)), 1)
+                                .concatMapIterable(chunks -> chunks), 1),
+                channel -> {
+                    try {
+                        channel.close();
+                    } catch (IOException ignored) {
+                        // 只读通道，关闭失败不影响结果
+                    }
+                });
+    }
+
+    private Region map(FileChannel channel, long regionStart, long size) throws IOException {
+        long regionLength = Math.min(MAX_REGION_BYTES, size - regionStart);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionLength);
+        int regionEnd = (int) regionLength;
+        if (regionStart + regionLength < size) {
+            // 区域末尾回退到最后一个换行之后，剩余部分留给下一个区域
+            int cut = lastNewlineBefore(buffer, 0, regionEnd);
+            regionEnd = cut > 0 ? cut : regionEnd;
+        }
+        List<int[]> leaves = new ArrayList<>();
+        split(buffer, 0, regionEnd, leaves);
+        return new Region(buffer, regionStart, regionEnd, leaves);
+    }
+
+    /**
+     * 递归二分得到叶子边界（与逐叶切块的结果无关，只依赖字节内容）
+     */
+    private static void split(ByteBuffer region, int from, int to, List<int[]> leaves) {
+        if (to - from > LEAF_BYTES) {
+            int split = boundaryNear(region, from, to, from + (to - from) / 2);
+            if (split > from && split < to) {
+                split(region, from, split, leaves);
+                split(region, split, to, leaves);
+                return;
+            }
+        }
+        leaves.add(new int[]{from, to});
+    }
+
+    private List<Chunk> chunkLeaves(String source, Region region, List<int[]> group) {
+        if (group.size() == 1) {
+            return leaf(source, region, group.get(0));
+        }
+        List<ForkJoinTask<List<Chunk>>> tasks = new ArrayList<>(group.size());
+        for (int[] range : group) {
+            tasks.add(pool.submit(() -> leaf(source, region, range)));
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        for (ForkJoinTask<List<Chunk>> task : tasks) {
+            chunks.addAll(task.join());
+        }
+        return chunks;
+    }
+
+    private List<Chunk> leaf(String source, Region region, int[] range) {
+        int from = range[0];
+        byte[] bytes = new byte[range[1] - from];
+        region.buffer().get(from, bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        long offset = region.offset() + from;
+        List<String> pieces = TextSegmenter.split(text, chunkChars);
+        List<Chunk> chunks = new ArrayList<>(pieces.size());
+        for (int i = 0; i < pieces.size(); i++) {
+            String piece = pieces.get(i).strip();
+            if (piece.isEmpty()) {
+                continue;
+            }
+            String id = UUID.nameUUIDFromBytes((source + '#' + offset + '#' + i).getBytes(StandardCharsets.UTF_8)).toString();
+            chunks.add(new Chunk(id, source, offset, piece));
+        }
+        return chunks;
+    }
+
+    /**
+     * 在中点附近找切分点：优先空行，其次换行，最后退到 UTF-8 字符边界
+     */
+    private static int boundaryNear(ByteBuffer region, int from, int to, int middle) {
+        int limit = Math.min(to, middle + BOUNDARY_SCAN_BYTES);
+        int newline = -1;
+        for (int i = middle; i < limit - 1; i++) {
+            if (region.get(i) == '\n') {
+                if (region.get(i + 1) == '\n') {
+                    return i + 2;
+                }
+                if (newline < 0) {
+                    newline = i + 1;
+                }
+            }
+        }
+        if (newline > 0) {
+            return newline;
+        }
+        int i = middle;
+        while (i < to && (region.get(i) & 0xC0) == 0x80) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 一个映射区域及其叶子边界，length 为本区域实际消费的字节数
+     */
+    private record Region(ByteBuffer buffer, long offset, int length, List<int[]> leaves) {
+    }
+
+    private static int lastNewlineBefore(ByteBuffer buffer, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.rag;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存映射的定长向量存储
+ *
+ * 向量以 float32 小端序连续写入文件，文件按固定大小分段映射（单个 MappedByteBuffer 不能超过2GB），
+ * 数据位于堆外页缓存中：启动时只做 mmap，不需要把向量读入堆，GC 也不会扫描这部分内存。
+ *
+ * 文件格式：[magic:int][dimensions:int][count:int][padding:int] 之后为 count * dimensions 个 float。
+ */
+public class MappedVectorStorage implements AutoCloseable {
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int HEADER_BYTES = 16;
+    private static final long SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final int dimensions;
+    private final int vectorsPerSegment;
+    private final List<FloatBuffer> segments = new ArrayList<>();
+    private final List<MappedByteBuffer> mappings = new ArrayList<>();
+    private final MappedByteBuffer header;
+    private final ThreadLocal<float[]> scratchA;
+    private final ThreadLocal<float[]> scratchB;
+    private int count;
+
+    public MappedVectorStorage(Path file, int dimensions) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        this.header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) == MAGIC) {
+            int stored = header.getInt(4);
+            if (stored != dimensions) {
+                throw new IllegalStateException("Vector file " + file + " has " + stored
+                        + " dimensions but " + dimensions + " were requested");
+            }
+            this.count = header.getInt(8);
+        } else {
+            header.putInt(0, MAGIC);
+            header.putInt(4, dimensions);
+            header.putInt(8, 0);
+            this.count = 0;
+        }
+        this.dimensions = dimensions;
+        this.scratchA = ThreadLocal.withInitial(() -> new float[dimensions]);
+        this.scratchB = ThreadLocal.withInitial(() -> new float[dimensions]);
+        this.vectorsPerSegment = (int) Math.max(1, SEGMENT_BYTES / (4L * dimensions));
+        ensureCapacity(count);
+    }
+
+    /**
+     * 读取文件头中的维度，文件不存在或为空时返回 -1
+     */
+    public static int peekDimensions(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_BYTES) {
+            return -1;
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            head.order(ByteOrder.LITTLE_ENDIAN);
+            return head.getInt(0) == MAGIC ? head.getInt(4) : -1;
+        }
+    }
+
+    /**
+     * 追加一个向量并返回其序号
+     */
+    public int append(float[] vector) throws IOException {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + vector.length);
+        }
+        int id = count;
+        ensureCapacity(id + 1);
+        FloatBuffer segment = segments.get(id / vectorsPerSegment);
+        segment.put((id % vectorsPerSegment) * dimensions, vector);
+        count = id + 1;
+        header.putInt(8, count);
+        return id;
+    }
+
+    /**
+     * 点积：HNSW 距离计算的热点
+     *
+     * 先把映射区中的向量整块拷贝到线程本地的 float[]（一次 memcpy），再在数组上做4路展开累加，
+     * 比逐个调用 FloatBuffer.get(int) 快数倍。
+     */
+    public float dot(int id, float[] query) {
+        float[] a = scratchA.get();
+        copy(id, a);
+        return dot(a, query, dimensions);
+    }
+
+    public float dot(int a, int b) {
+        float[] va = scratchA.get();
+        float[] vb = scratchB.get();
+        copy(a, va);
+        copy(b, vb);
+        return dot(va, vb, dimensions);
+    }
+
+    static float dot(float[] a, float[] b, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        int bound = length & ~3;
+        for (; i < bound; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    public float[] get(int id) {
+        float[] vector = new float[dimensions];
+        copy(id, vector);
+        return vector;
+    }
+
+    private void copy(int id, float[] target) {
+        segments.get(id / vectorsPerSegment).get((id % vectorsPerSegment) * dimensions, target, 0, dimensions);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * 将脏页刷回磁盘
+     */
+    public void force() {
+        header.force();
+        for (MappedByteBuffer mapping : mappings) {
+            mapping.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void ensureCapacity(int vectors) throws IOException {
+        while ((long) segments.size() * vectorsPerSegment < Math.max(vectors, 1)) {
+            long offset = HEADER_BYTES + (long) segments.size() * vectorsPerSegment * dimensions * 4L;
+            long length = (long) vectorsPerSegment * dimensions * 4L;
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, offset, length);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            mappings.add(mapped);
+            segments.add(mapped.asFloatBuffer());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.rag;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 在内存中对文档元数据求值 Spring AI 的过滤表达式
+ */
+final class MetadataFilterEvaluator {
+
+    private MetadataFilterEvaluator() {
+    }
+
+    static boolean matches(Filter.Operand operand, Map<String, Object> metadata) {
+        if (operand instanceof Filter.Group group) {
+            return matches(group.content(), metadata);
+        }
+        if (!(operand instanceof Filter.Expression expression)) {
+            throw new IllegalArgumentException("Unsupported filter operand: " + operand);
+        }
+        return switch (expression.type()) {
+            case AND -> matches(expression.left(), metadata) && matches(expression.right(), metadata);
+            case OR -> matches(expression.left(), metadata) || matches(expression.right(), metadata);
+            case NOT -> !matches(expression.left(), metadata);
+            case EQ -> Objects.equals(normalize(actual(expression, metadata)), normalize(expected(expression)));
+            case NE -> !Objects.equals(normalize(actual(expression, metadata)), normalize(expected(expression)));
+            case GT -> compare(actual(expression, metadata), expected(expression)) > 0;
+            case GTE -> compare(actual(expression, metadata), expected(expression)) >= 0;
+            case LT -> compare(actual(expression, metadata), expected(expression)) < 0;
+            case LTE -> compare(actual(expression, metadata), expected(expression)) <= 0;
+            case IN -> contains(expected(expression), actual(expression, metadata));
+            case NIN -> !contains(expected(expression), actual(expression, metadata));
+        };
+    }
+
+    private static Object actual(Filter.Expression expression, Map<String, Object> metadata) {
+        String key = ((Filter.Key) expression.left()).key();
+        if (key.length() > 1 && (key.startsWith("'") || key.startsWith("\""))) {
+            key = key.substring(1, key.length() - 1);
+        }
+        return metadata.get(key);
+    }
+
+    private static Object expected(Filter.Expression expression) {
+        return ((Filter.Value) expression.right()).value();
+    }
+
+    private static boolean contains(Object expected, Object actual) {
+        if (expected instanceof Collection<?> values) {
+            Object normalized = normalize(actual);
+            for (Object value : values) {
+                if (Objects.equals(normalize(value), normalized)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return Objects.equals(normalize(expected), normalize(actual));
+    }
+
+    private static Object normalize(Object value) {
+        return value instanceof Number number ? number.doubleValue() : value;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object actual, Object expected) {
+        if (actual == null) {
+            return -1;
+        }
+        Object a = normalize(actual);
+        Object b = normalize(expected);
+        if (a instanceof Comparable comparable && a.getClass().isInstance(b)) {
+            return comparable.compareTo(b);
+        }
+        return String.valueOf(a).compareTo(String.valueOf(b));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.rag;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.AdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.BaseAdvisor;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.core.Ordered;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 检索增强 Advisor（与 QuestionAnswerAdvisor 行为一致）
+ *
+ * 在请求发出前用用户问题检索向量库，把命中的文档拼接到用户消息中；
+ * 向量库为空时直接放行，不产生额外的 embedding 调用。
+ * 命中的文档放入请求上下文的 {@link #RETRIEVED_DOCUMENTS} 键中，供后续 Advisor 或调用方使用。
+ */
+public class RetrievalAdvisor implements BaseAdvisor {
+
+    public static final String RETRIEVED_DOCUMENTS = "rag_retrieved_documents";
+
+    private static final String DEFAULT_TEMPLATE = """
+            %s
+
+            下面是与问题相关的上下文信息，用 --------------------- 包围：
+
+            ---------------------
+            %s
+            ---------------------
+
+            请优先依据上述上下文回答问题；如果上下文中没有答案，请直接说明不知道，不要编造。
+            """;
+
+    private final HnswVectorStore vectorStore;
+    private final int topK;
+    private final double similarityThreshold;
+    private final int order;
+
+    public RetrievalAdvisor(HnswVectorStore vectorStore, int topK, double similarityThreshold) {
+        this(vectorStore, topK, similarityThreshold, Ordered.HIGHEST_PRECEDENCE + 1000);
+    }
+
+    public RetrievalAdvisor(HnswVectorStore vectorStore, int topK, double similarityThreshold, int order) {
+        this.vectorStore = vectorStore;
+        this.topK = topK;
+        this.similarityThreshold = similarityThreshold;
+        this.order = order;
+    }
+
+    @Override
+    public ChatClientRequest before(ChatClientRequest request, AdvisorChain advisorChain) {
+        UserMessage userMessage = request.prompt().getUserMessage();
+        String question = userMessage != null ? userMessage.getText() : null;
+        if (question == null || question.isBlank() || vectorStore.size() == 0) {
+            return request;
+        }
+
+        List<Document> documents = vectorStore.similaritySearch(SearchRequest.builder()
+                .query(question)
+                .topK(topK)
+                .similarityThreshold(similarityThreshold)
+                .build());
+        if (documents.isEmpty()) {
+            return request;
+        }
+
+        String context = documents.stream()
+                .map(Document::getText)
+                .collect(Collectors.joining(System.lineSeparator()));
+        Map<String, Object> advisedContext = new HashMap<>(request.context());
+        advisedContext.put(RETRIEVED_DOCUMENTS, documents);
+
+        return request.mutate()
+                .prompt(request.prompt().augmentUserMessage(DEFAULT_TEMPLATE.formatted(question, context)))
+                .context(advisedContext)
+                .build();
+    }
+
+    @Override
+    public ChatClientResponse after(ChatClientResponse response, AdvisorChain advisorChain) {
+        Object documents = response.context().get(RETRIEVED_DOCUMENTS);
+        if (documents == null || response.chatResponse() == null) {
+            return response;
+        }
+        return response.mutate()
+                .chatResponse(ChatResponse.builder()
+                        .from(response.chatResponse())
+                        .metadata(RETRIEVED_DOCUMENTS, documents)
+                        .build())
+                .build();
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    public VectorStore getVectorStore() {
+        return vectorStore;
+    }
+}
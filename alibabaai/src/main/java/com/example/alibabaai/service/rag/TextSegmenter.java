@@ -0,0 +1,149 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.rag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按段落、句子边界切分文本
+ *
+ * 优先在空行（段落）处切分，段落过长时在句末标点（中英文）处切分，
+ * 单句仍超过上限时才按字符硬切，且不会切断代理对（surrogate pair）。
+ */
+public final class TextSegmenter {
+
+    private TextSegmenter() {
+    }
+
+    /**
+     * 切分文本，每段不超过 maxChars 个字符（拼接所有片段可还原原文）；
+     * maxChars 为 1 时代理对仍保持完整，该段为 2 个字符
+     */
+    public static List<String> split(String text, int maxChars) {
+        if (maxChars < 1) {
+            throw new IllegalArgumentException("maxChars must be at least 1");
+        }
+        List<String> segments = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return segments;
+        }
+        StringBuilder current = new StringBuilder(Math.min(maxChars, text.length()));
+        for (String paragraph : splitKeepingDelimiters(text, true)) {
+            if (current.length() + paragraph.length() <= maxChars) {
+                current.append(paragraph);
+                continue;
+            }
+            if (current.length() > 0) {
+                segments.add(current.toString());
+                current.setLength(0);
+            }
+            if (paragraph.length() <= maxChars) {
+                current.append(paragraph);
+                continue;
+            }
+            for (String sentence : splitKeepingDelimiters(paragraph, false)) {
+                if (current.length() + sentence.length() > maxChars && current.length() > 0) {
+                    segments.add(current.toString());
+                    current.setLength(0);
+                }
+                if (sentence.length() <= maxChars) {
+                    current.append(sentence);
+                } else {
+                    hardSplit(sentence, maxChars, segments);
+                }
+            }
+        }
+        if (current.length() > 0) {
+            segments.add(current.toString());
+        }
+        return segments;
+    }
+
+    /**
+     * 段落模式在空行后切分，句子模式在句末标点或换行后切分；分隔符保留在前一段末尾
+     */
+    private static List<String> splitKeepingDelimiters(String text, boolean paragraphs) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            boolean boundary;
+            if (paragraphs) {
+                boundary = c == '\n' && i + 1 < length && isBlankLineAhead(text, i + 1);
+                if (boundary) {
+                    // 吞掉连续的空白行
+                    while (i + 1 < length && Character.isWhitespace(text.charAt(i + 1))) {
+                        i++;
+                    }
+                }
+            } else {
+                boundary = isSentenceEnd(c) && (i + 1 >= length || !isSentenceEnd(text.charAt(i + 1)));
+                if (boundary) {
+                    while (i + 1 < length && (text.charAt(i + 1) == ' ' || isClosingQuote(text.charAt(i + 1)))) {
+                        i++;
+                    }
+                }
+            }
+            if (boundary) {
+                parts.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            parts.add(text.substring(start));
+        }
+        return parts;
+    }
+
+    private static boolean isBlankLineAhead(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                return true;
+            }
+            if (!Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '。' || c == '！' || c == '？' || c == '；' || c == '.' || c == '!' || c == '?' || c == '\n';
+    }
+
+    private static boolean isClosingQuote(char c) {
+        return c == '"' || c == '\'' || c == '”' || c == '’' || c == '」' || c == '）' || c == ')';
+    }
+
+    private static void hardSplit(String text, int maxChars, List<String> sink) {
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + maxChars);
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+                end--;
+            }
+            if (end <= start) {
+                // 至少前进一个码点，避免死循环
+                end = start + Character.charCount(text.codePointAt(start));
+            }
+            sink.add(text.substring(start, end));
+            start = end;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.startup;
+
+import com.example.alibabaai.service.mcp.McpSessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 启动耗时报告 - 记录 JVM 启动、容器刷新、应用就绪各阶段耗时，以及 AOT/CDS/懒连接的启用情况与预热结果
+ */
+@Service
+public class StartupReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupReportService.class);
+
+    private final Environment environment;
+    private final ObjectProvider<McpSessionManager> mcpSessionManager;
+    private final ObjectProvider<StartupWarmup> startupWarmup;
+
+    private volatile long contextStartedMillis = -1;
+    private volatile long readyMillis = -1;
+    private volatile long jvmToReadyMillis = -1;
+
+    public StartupReportService(Environment environment, ObjectProvider<McpSessionManager> mcpSessionManager,
+                                ObjectProvider<StartupWarmup> startupWarmup) {
+        this.environment = environment;
+        this.mcpSessionManager = mcpSessionManager;
+        this.startupWarmup = startupWarmup;
+    }
+
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        contextStartedMillis = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        readyMillis = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        jvmToReadyMillis = System.currentTimeMillis() - runtime.getStartTime();
+        logger.info("Startup report: jvmToReady={} ms, springRun={} ms, contextRefresh={} ms, aot={}, cds={}",
+                jvmToReadyMillis, readyMillis, contextStartedMillis, AotDetector.useGeneratedArtifacts(), cdsArchive());
+    }
+
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("jvmToReadyMillis", jvmToReadyMillis);
+        report.put("springApplicationRunMillis", readyMillis);
+        report.put("contextStartedMillis", contextStartedMillis);
+        report.put("aotEnabled", AotDetector.useGeneratedArtifacts());
+        report.put("cdsArchive", cdsArchive());
+        report.put("lazyInitialization", environment.getProperty("spring.main.lazy-initialization", Boolean.class, false));
+        report.put("activeProfiles", List.of(environment.getActiveProfiles()));
+        McpSessionManager session = mcpSessionManager.getIfAvailable();
+        report.put("mcpSession", session != null ? session.status() : Map.of("enabled", false));
+        StartupWarmup warmup = startupWarmup.getIfAvailable();
+        report.put("warmup", warmup != null ? warmup.report() : Map.of("enabled", false));
+        return report;
+    }
+
+    private static String cdsArchive() {
+        return ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .filter(arg -> arg.startsWith("-XX:SharedArchiveFile="))
+                .map(arg -> arg.substring("-XX:SharedArchiveFile=".length()))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.startup;
+
+import com.example.alibabaai.service.http.HttpClientPools;
+import com.example.alibabaai.service.mcp.McpSessionManager;
+import com.example.alibabaai.service.mcp.binding.ToolArgumentBinders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动预热
+ *
+ * 作为 ApplicationRunner 在容器刷新之后、应用标记为就绪（ReadinessState.ACCEPTING_TRAFFIC）之前同步执行，
+ * 因此预热期间就绪探针保持 DOWN，生产流量不会落在冷实例上：
+ * <ol>
+ *   <li>connections - 经模型连接池的 HttpClient 向模型服务等上游发起 HEAD 请求，提前完成 DNS 解析与 TLS 握手；</li>
+ *   <li>mcp-session - 等待 MCP 会话初始化完成并列出工具；</li>
+ *   <li>chat-pipeline - 用桩模型把同步与流式请求走一遍 Advisor（会话记忆）链与 JSON 序列化，让 JIT 先编译热路径；</li>
+ *   <li>tool-binding - 用示例参数走一遍本地工具参数绑定。</li>
+ * </ol>
+ * 网络相关步骤与本地步骤并行，整体受超时限制；单个步骤失败只记录，不阻止应用就绪。
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<McpSessionManager> mcpSessionManager;
+    private final ObjectProvider<ToolArgumentBinders> toolArgumentBinders;
+    private final List<String> connectUrls;
+    private final int iterations;
+    private final Duration stepTimeout;
+    private final Duration timeout;
+
+    private final Map<String, Map<String, Object>> steps = new LinkedHashMap<>();
+    private volatile long totalMillis = -1;
+
+    public StartupWarmup(
+            HttpClientPools httpClientPools,
+            ObjectMapper objectMapper,
+            ObjectProvider<McpSessionManager> mcpSessionManager,
+            ObjectProvider<ToolArgumentBinders> toolArgumentBinders,
+            @Value("${warmup.connect-urls:${spring.ai.dashscope.base-url:https://dashscope.aliyuncs.com}}") List<String> connectUrls,
+            @Value("${warmup.iterations:20}") int iterations,
+            @Value("${warmup.step-timeout:5s}") Duration stepTimeout,
+            @Value("${warmup.timeout:30s}") Duration timeout) {
+        this.httpClient = httpClientPools.pool(HttpClientPools.MODEL).getHttpClient();
+        this.objectMapper = objectMapper;
+        this.mcpSessionManager = mcpSessionManager;
+        this.toolArgumentBinders = toolArgumentBinders;
+        this.connectUrls = connectUrls;
+        this.iterations = iterations;
+        this.stepTimeout = stepTimeout;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        logger.info("Warming up before accepting traffic (timeout {})", timeout);
+        // 网络步骤会阻塞等待（MCP 初始化、HEAD 请求），放在专用线程上而不是公共 ForkJoinPool；
+        // 超时后中断并丢弃，不拖住应用就绪
+        ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "startup-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Void>> remote = List.of(
+                    CompletableFuture.runAsync(() -> step("connections", this::preconnect), executor),
+                    CompletableFuture.runAsync(() -> step("mcp-session", this::initializeMcpSession), executor));
+            step("chat-pipeline", this::exerciseChatPipeline);
+            step("tool-binding", this::exerciseToolBinding);
+            try {
+                long remaining = timeout.toNanos() - (System.nanoTime() - start);
+                CompletableFuture.allOf(remote.toArray(CompletableFuture[]::new)).get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.warn("Warm-up did not finish within {}, accepting traffic anyway", timeout);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        totalMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Warm-up finished in {} ms: {}", totalMillis, steps);
+    }
+
+    /**
+     * 预热结果：各步骤耗时、是否成功与说明
+     */
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finished", totalMillis >= 0);
+        report.put("totalMillis", totalMillis);
+        synchronized (steps) {
+            report.put("steps", new LinkedHashMap<>(steps));
+        }
+        return report;
+    }
+
+    // ==================== 预热步骤 ====================
+
+    private String preconnect() throws Exception {
+        List<CompletableFuture<String>> requests = new ArrayList<>();
+        AtomicInteger failed = new AtomicInteger();
+        for (String url : connectUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url.trim()))
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(stepTimeout)
+                    .build();
+            // 任何 HTTP 状态都说明连接与 TLS 会话已经建立
+            requests.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> url + " -> " + response.statusCode())
+                    .exceptionally(e -> {
+                        failed.incrementAndGet();
+                        return url + " -> " + rootMessage(e);
+                    }));
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).get(stepTimeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+        String detail = String.join(", ", requests.stream().map(CompletableFuture::join).toList());
+        if (failed.get() > 0) {
+            throw new IllegalStateException(detail);
+        }
+        return detail;
+    }
+
+    private String initializeMcpSession() {
+        McpSessionManager session = mcpSessionManager.getIfAvailable();
+        if (session == null) {
+            return "skipped (MCP client disabled)";
+        }
+        McpSchema.ListToolsResult tools = session.whenReady(stepTimeout)
+                .flatMap(client -> client.listTools())
+                .block(stepTimeout.multipliedBy(2));
+        return tools != null ? tools.tools().size() + " remote tools" : "no tools";
+    }
+
+    private String exerciseChatPipeline() throws Exception {
+        ChatMemory memory = MessageWindowChatMemory.builder()
+                .chatMemoryRepository(new InMemoryChatMemoryRepository())
+                .maxMessages(20)
+                .build();
+        ChatClient client = ChatClient.builder(new StubChatModel())
+                .defaultAdvisors(MessageChatMemoryAdvisor.builder(memory).build())
+                .build();
+        long bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            String conversationId = "warmup-" + (i % 4);
+            ChatResponse response = client.prompt("warm-up " + i)
+                    .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, conversationId))
+                    .call()
+                    .chatResponse();
+            String streamed = String.join("", client.prompt("warm-up stream " + i)
+                    .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, conversationId))
+                    .stream()
+                    .content()
+                    .collectList()
+                    .block(stepTimeout));
+            bytes += objectMapper.writeValueAsBytes(Map.of("content", response.getResult().getOutput().getText(),
+                    "stream", streamed)).length;
+            bytes += objectMapper.writeValueAsBytes(memory.get(conversationId)).length;
+        }
+        return iterations + " call/stream round trips, " + bytes + " bytes serialized";
+    }
+
+    private String exerciseToolBinding() {
+        ToolArgumentBinders binders = toolArgumentBinders.getIfAvailable();
+        if (binders == null) {
+            return "skipped";
+        }
+        for (int i = 0; i < iterations; i++) {
+            binders.parseCall("{\"name\":\"fetch_urls\",\"arguments\":{\"urls\":[\"https://example.com/" + i
+                    + "\"],\"maxTokensPerUrl\":500.0,\"textContent\":true}}");
+            binders.parseCall("{\"arguments\":{\"url\":\"https://example.com\",\"width\":1024,\"height\":768},"
+                    + "\"name\":\"chrome_navigate\"}");
+        }
+        return binders.tools().size() + " tools";
+    }
+
+    // ==================== 内部实现 ====================
+
+    @FunctionalInterface
+    private interface WarmupStep {
+        String run() throws Exception;
+    }
+
+    private void step(String name, WarmupStep step) {
+        long start = System.nanoTime();
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            result.put("detail", step.run());
+            result.put("ok", true);
+        } catch (Exception e) {
+            result.put("detail", rootMessage(e));
+            result.put("ok", false);
+            logger.warn("Warm-up step '{}' failed: {}", name, rootMessage(e));
+        }
+        result.put("millis", (System.nanoTime() - start) / 1_000_000);
+        synchronized (steps) {
+            steps.put(name, result);
+        }
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getClass().getSimpleName() + ": " + root.getMessage()
+                : root.getClass().getSimpleName();
+    }
+
+    /**
+     * 桩模型：不访问网络，返回固定内容
+     */
+    private static final class StubChatModel implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            return new ChatResponse(List.of(new Generation(new AssistantMessage("ok: " + prompt.getContents().length()))));
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.just("o", "k").map(text -> new ChatResponse(List.of(new Generation(new AssistantMessage(text)))));
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.structured;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 增量 JSON 解析
+ *
+ * 模型流式输出的文本分片逐个喂给 Jackson 非阻塞解析器，边解析边构建树；
+ * 深度不超过 emitDepth 的值一旦闭合就作为 {@link FieldEvent} 返回（如根对象的字段、根字段数组中的元素），
+ * 不必等整段输出结束。容器在开始时就挂到父节点上，{@link #root()} 随时可以拿到当前的部分结果。
+ *
+ * 根值出现之前的文本（说明文字、```json 代码块标记）被跳过，根值闭合之后的文本被忽略。
+ * 非线程安全，一个实例对应一次流式输出。
+ */
+public class IncrementalJsonParser {
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final int emitDepth;
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private JsonNode root;
+    private boolean started;
+    private boolean complete;
+    private String pendingField;
+
+    public IncrementalJsonParser(JsonFactory jsonFactory, int emitDepth) {
+        try {
+            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.emitDepth = Math.max(1, emitDepth);
+    }
+
+    /**
+     * 喂入一个文本分片
+     *
+     * @return 本次闭合的值（按闭合顺序）
+     * @throws IllegalStateException 输出不是合法 JSON
+     */
+    public List<FieldEvent> feed(String chunk) {
+        if (complete || chunk == null || chunk.isEmpty()) {
+            return List.of();
+        }
+        if (!started) {
+            int start = indexOfRootStart(chunk);
+            if (start < 0) {
+                return List.of();
+            }
+            started = true;
+            chunk = chunk.substring(start);
+        }
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        List<FieldEvent> events = new ArrayList<>();
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            JsonToken token;
+            while (!complete && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+                onToken(token, events);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed JSON in model output: " + e.getMessage(), e);
+        }
+        return events;
+    }
+
+    /**
+     * 当前已解析出的部分结果，尚未出现根值时为 null
+     */
+    public JsonNode root() {
+        return root;
+    }
+
+    /**
+     * 根值是否已闭合
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    // ==================== 内部实现 ====================
+
+    private void onToken(JsonToken token, List<FieldEvent> events) throws IOException {
+        switch (token) {
+            case FIELD_NAME -> pendingField = parser.currentName();
+            case START_OBJECT -> open(JsonNodeFactory.instance.objectNode());
+            case START_ARRAY -> open(JsonNodeFactory.instance.arrayNode());
+            case END_OBJECT, END_ARRAY -> {
+                Frame frame = stack.pop();
+                if (stack.isEmpty()) {
+                    complete = true;
+                } else {
+                    emit(frame.path, frame.node, events);
+                }
+            }
+            default -> {
+                JsonNode value = scalar(token);
+                if (stack.isEmpty()) {
+                    // 根值是标量
+                    root = value;
+                    complete = true;
+                    return;
+                }
+                String path = attach(value);
+                emit(path, value, events);
+            }
+        }
+    }
+
+    private void open(JsonNode container) {
+        String path = stack.isEmpty() ? "" : attach(container);
+        if (stack.isEmpty()) {
+            root = container;
+        }
+        stack.push(new Frame(container, path, stack.size() + 1));
+    }
+
+    /**
+     * 挂到当前容器上，返回值的路径（如 title、keywords[2]、author.name）
+     */
+    private String attach(JsonNode value) {
+        Frame parent = stack.peek();
+        String path;
+        if (parent.node instanceof ObjectNode object) {
+            object.set(pendingField, value);
+            path = parent.path.isEmpty() ? pendingField : parent.path + "." + pendingField;
+            pendingField = null;
+        } else {
+            ArrayNode array = (ArrayNode) parent.node;
+            path = parent.path + "[" + array.size() + "]";
+            array.add(value);
+        }
+        return path;
+    }
+
+    private void emit(String path, JsonNode value, List<FieldEvent> events) {
+        // 值的深度 = 所在容器的深度
+        int depth = stack.isEmpty() ? 0 : stack.peek().depth;
+        if (depth <= emitDepth) {
+            events.add(new FieldEvent(path, value, depth));
+        }
+    }
+
+    private JsonNode scalar(JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> JsonNodeFactory.instance.textNode(parser.getText());
+            case VALUE_NUMBER_INT -> switch (parser.getNumberType()) {
+                case INT -> JsonNodeFactory.instance.numberNode(parser.getIntValue());
+                case LONG -> JsonNodeFactory.instance.numberNode(parser.getLongValue());
+                default -> JsonNodeFactory.instance.numberNode(parser.getBigIntegerValue());
+            };
+            case VALUE_NUMBER_FLOAT -> JsonNodeFactory.instance.numberNode(parser.getDecimalValue());
+            case VALUE_TRUE -> JsonNodeFactory.instance.booleanNode(true);
+            case VALUE_FALSE -> JsonNodeFactory.instance.booleanNode(false);
+            case VALUE_NULL -> JsonNodeFactory.instance.nullNode();
+            default -> throw new IllegalStateException("Unexpected token " + token);
+        };
+    }
+
+    private static int indexOfRootStart(String chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private record Frame(JsonNode node, String path, int depth) {
+    }
+
+    /**
+     * 一个已闭合的值
+     *
+     * @param path  路径，对象字段用点号连接，数组元素用下标
+     * @param value 值（容器为完整子树）
+     * @param depth 深度，根对象的字段为 1
+     */
+    public record FieldEvent(String path, JsonNode value, int depth) {
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.structured;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.ai.converter.BeanOutputConverter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 流式结构化输出转换
+ *
+ * 与 Spring AI 的 {@link BeanOutputConverter} 配合使用：提示词中的格式说明沿用 {@link #getFormat()}，
+ * 但不等整段输出结束再反序列化，而是把流式文本分片交给 {@link IncrementalJsonParser}，
+ * 每当有字段闭合就把当前的部分树转成一次 {@link Partial}，尚未出现的字段为 null。
+ * 同一分片内闭合的多个字段合并为一次输出。
+ *
+ * @param <T> 目标类型（record 或 Bean）
+ */
+public class StreamingStructuredOutputConverter<T> {
+
+    private final BeanOutputConverter<T> formatConverter;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final int emitDepth;
+
+    public StreamingStructuredOutputConverter(Class<T> type, ObjectMapper objectMapper, int emitDepth) {
+        this.formatConverter = new BeanOutputConverter<>(type, objectMapper);
+        this.objectMapper = objectMapper;
+        // 部分树里缺少的字段保持默认值，模型多输出的字段忽略
+        this.reader = objectMapper.readerFor(type)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .without(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES);
+        this.emitDepth = emitDepth;
+    }
+
+    /**
+     * 提示词中的格式说明（JSON Schema）
+     */
+    public String getFormat() {
+        return formatConverter.getFormat();
+    }
+
+    /**
+     * 把流式文本分片转换为部分对象流；最后一个元素的 complete 为 true
+     *
+     * @throws IllegalStateException 输出不是合法 JSON，或流在 JSON 闭合前结束
+     */
+    public Flux<Partial<T>> convert(Flux<String> chunks) {
+        return Flux.defer(() -> {
+            IncrementalJsonParser parser = new IncrementalJsonParser(objectMapper.getFactory(), emitDepth);
+            return chunks.concatMapIterable(chunk -> {
+                        List<IncrementalJsonParser.FieldEvent> events = parser.feed(chunk);
+                        if (events.isEmpty() && !parser.isComplete()) {
+                            return List.of();
+                        }
+                        List<String> fields = events.stream().map(IncrementalJsonParser.FieldEvent::path).toList();
+                        return List.of(new Partial<>(toValue(parser.root()), fields, parser.isComplete()));
+                    })
+                    .takeUntil(Partial::complete)
+                    .concatWith(Mono.defer(() -> parser.isComplete() ? Mono.empty()
+                            : Mono.error(new IllegalStateException("Model output ended before the JSON value was complete"))));
+        });
+    }
+
+    private T toValue(JsonNode node) {
+        try {
+            return reader.readValue(node);
+        } catch (IOException e) {
+            throw new IllegalStateException("Model output does not match the expected structure: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 一次部分结果
+     *
+     * @param value    当前的部分对象
+     * @param fields   本次新闭合的值的路径
+     * @param complete 整个 JSON 是否已闭合
+     */
+    public record Partial<T>(T value, List<String> fields, boolean complete) {
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OTLP-JSON 文件导出
+ *
+ * 每个追踪写一行 ExportTraceServiceRequest（与 OpenTelemetry Collector 的 file exporter 格式一致，
+ * 可直接用 otlpjsonfile receiver 回放）。写文件在单独线程进行，队列满时丢弃并计数，不阻塞请求线程；
+ * 文件超过上限时滚动为 .1。
+ */
+public class OtlpJsonFileExporter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OtlpJsonFileExporter.class);
+
+    private final Path file;
+    private final long maxFileBytes;
+    private final String serviceName;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor writer;
+    private final AtomicLong exported = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private BufferedWriter out;
+    private long written;
+
+    public OtlpJsonFileExporter(Path file, long maxFileBytes, String serviceName, ObjectMapper objectMapper) {
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.serviceName = serviceName;
+        this.objectMapper = objectMapper;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1024), r -> {
+            Thread thread = new Thread(r, "trace-export");
+            thread.setDaemon(true);
+            return thread;
+        }, (task, executor) -> dropped.incrementAndGet());
+    }
+
+    public void export(TraceRecord trace) {
+        writer.execute(() -> write(trace));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("file", file.toString());
+        res.put("exported", exported.get());
+        res.put("dropped", dropped.get());
+        return res;
+    }
+
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            closeQuietly();
+        }
+    }
+
+    // ==================== 内部实现 ====================
+
+    private synchronized void write(TraceRecord trace) {
+        try {
+            String line = objectMapper.writeValueAsString(toOtlp(trace));
+            if (out == null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                written = Files.exists(file) ? Files.size(file) : 0;
+                out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            if (written > 0 && written + line.length() > maxFileBytes) {
+                closeQuietly();
+                Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+                out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                written = 0;
+            }
+            out.write(line);
+            out.newLine();
+            out.flush();
+            written += line.length() + 1;
+            exported.incrementAndGet();
+        } catch (IOException e) {
+            dropped.incrementAndGet();
+            logger.warn("Failed to export trace {} to {}: {}", trace.getTraceId(), file, e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    private Map<String, Object> toOtlp(TraceRecord trace) {
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (TraceSpan span : trace.getSpans()) {
+            Map<String, Object> otlp = new LinkedHashMap<>();
+            otlp.put("traceId", trace.getTraceId());
+            otlp.put("spanId", span.getSpanId());
+            if (span.getParentSpanId() != null) {
+                otlp.put("parentSpanId", span.getParentSpanId());
+            }
+            otlp.put("name", span.getName());
+            otlp.put("kind", span.getKind().otlpCode());
+            otlp.put("startTimeUnixNano", String.valueOf(span.getStartEpochNanos()));
+            otlp.put("endTimeUnixNano", String.valueOf(span.getEndEpochNanos()));
+            otlp.put("attributes", attributes(span.getAttributes()));
+            otlp.put("status", span.getError() != null ? Map.of("code", 2, "message", span.getError()) : Map.of());
+            spans.add(otlp);
+        }
+        Map<String, Object> scopeSpans = new LinkedHashMap<>();
+        scopeSpans.put("scope", Map.of("name", "com.example.alibabaai.trace"));
+        scopeSpans.put("spans", spans);
+        Map<String, Object> resourceSpans = new LinkedHashMap<>();
+        resourceSpans.put("resource", Map.of("attributes", attributes(Map.of("service.name", serviceName))));
+        resourceSpans.put("scopeSpans", List.of(scopeSpans));
+        return Map.of("resourceSpans", List.of(resourceSpans));
+    }
+
+    private static List<Map<String, Object>> attributes(Map<String, String> values) {
+        List<Map<String, Object>> attributes = new ArrayList<>(values.size());
+        values.forEach((key, value) -> attributes.add(Map.of("key", key, "value", Map.of("stringValue", value))));
+        return attributes;
+    }
+
+    private void closeQuietly() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // 文件已无法写入
+            }
+            out = null;
+        }
+    }
+}
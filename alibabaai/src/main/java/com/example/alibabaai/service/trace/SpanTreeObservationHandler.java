@@ -0,0 +1,133 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.trace;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationView;
+import org.springframework.ai.model.observation.ModelObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 把 Observation 组装成以请求为根的 span 树
+ *
+ * 采样在根观测开始时决定：未采样的根不记录任何 span，其子观测通过父观测上下文中缺失的 span 直接跳过，
+ * 未采样请求的额外开销只有一次上下文查找。根观测结束时整棵树交给 {@code onTraceComplete}。
+ */
+public class SpanTreeObservationHandler implements ObservationHandler<Observation.Context> {
+
+    private static final int MAX_ATTRIBUTE_LENGTH = 256;
+
+    private final double sampleRate;
+    private final Predicate<Observation.Context> forceSample;
+    private final int maxSpansPerTrace;
+    private final Consumer<TraceRecord> onTraceComplete;
+
+    public SpanTreeObservationHandler(double sampleRate, Predicate<Observation.Context> forceSample,
+                                      int maxSpansPerTrace, Consumer<TraceRecord> onTraceComplete) {
+        this.sampleRate = sampleRate;
+        this.forceSample = forceSample;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+        this.onTraceComplete = onTraceComplete;
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        ObservationView parent = context.getParentObservation();
+        TraceRecord trace;
+        String parentSpanId;
+        if (parent != null) {
+            TraceSpan parentSpan = parent.getContextView().get(TraceSpan.class);
+            if (parentSpan == null) {
+                return;
+            }
+            trace = parentSpan.getTrace();
+            parentSpanId = parentSpan.getSpanId();
+        } else {
+            if (!sampled(context)) {
+                return;
+            }
+            trace = new TraceRecord(maxSpansPerTrace);
+            parentSpanId = null;
+        }
+        TraceSpan span = trace.startSpan(parentSpanId, kindOf(context), context.getName());
+        if (span != null) {
+            context.put(TraceSpan.class, span);
+        }
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        TraceSpan span = context.get(TraceSpan.class);
+        if (span == null) {
+            return;
+        }
+        long end = System.nanoTime();
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (KeyValue keyValue : context.getLowCardinalityKeyValues()) {
+            attributes.put(keyValue.getKey(), truncate(keyValue.getValue()));
+        }
+        for (KeyValue keyValue : context.getHighCardinalityKeyValues()) {
+            attributes.put(keyValue.getKey(), truncate(keyValue.getValue()));
+        }
+        Throwable error = context.getError();
+        String name = context.getContextualName() != null ? context.getContextualName() : context.getName();
+        span.finish(name, attributes, error != null ? errorMessage(error) : null, end);
+        if (span.getParentSpanId() == null) {
+            TraceRecord trace = span.getTrace();
+            trace.complete(end);
+            onTraceComplete.accept(trace);
+        }
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return true;
+    }
+
+    private boolean sampled(Observation.Context context) {
+        if (forceSample.test(context)) {
+            return true;
+        }
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private static TraceSpan.Kind kindOf(Observation.Context context) {
+        if (context instanceof ServerRequestObservationContext) {
+            return TraceSpan.Kind.SERVER;
+        }
+        if (context instanceof ModelObservationContext<?, ?>) {
+            return TraceSpan.Kind.CLIENT;
+        }
+        return TraceSpan.Kind.INTERNAL;
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_ATTRIBUTE_LENGTH ? value.substring(0, MAX_ATTRIBUTE_LENGTH) + "…" : value;
+    }
+
+    private static String errorMessage(Throwable error) {
+        return error.getMessage() != null ? error.getClass().getSimpleName() + ": " + error.getMessage()
+                : error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一次请求的 span 树
+ *
+ * 记录单调时钟时间并在导出时换算为墙钟时间，span 之间的相对偏移不受系统时间调整影响。
+ */
+public class TraceRecord {
+
+    private final String traceId = randomHex(16);
+    private final long epochNanosAtStart;
+    private final long nanoTimeAtStart;
+    private final int maxSpans;
+    private final List<TraceSpan> spans = new ArrayList<>();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private volatile TraceSpan root;
+    private volatile long endNanos = -1;
+
+    TraceRecord(int maxSpans) {
+        this.nanoTimeAtStart = System.nanoTime();
+        this.epochNanosAtStart = System.currentTimeMillis() * 1_000_000L;
+        this.maxSpans = maxSpans;
+    }
+
+    /**
+     * 开始一个 span；超过单个追踪的 span 上限时返回 null（仅计数）
+     */
+    TraceSpan startSpan(String parentSpanId, TraceSpan.Kind kind, String name) {
+        TraceSpan span = new TraceSpan(this, randomHex(8), parentSpanId, kind, name, System.nanoTime());
+        synchronized (spans) {
+            if (spans.size() >= maxSpans) {
+                dropped.incrementAndGet();
+                return null;
+            }
+            spans.add(span);
+        }
+        if (parentSpanId == null) {
+            root = span;
+        }
+        return span;
+    }
+
+    void complete(long endNanos) {
+        this.endNanos = endNanos;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public TraceSpan getRoot() {
+        return root;
+    }
+
+    public List<TraceSpan> getSpans() {
+        synchronized (spans) {
+            return new ArrayList<>(spans);
+        }
+    }
+
+    public int getDroppedSpans() {
+        return dropped.get();
+    }
+
+    public long getEndNanos() {
+        return endNanos >= 0 ? endNanos : System.nanoTime();
+    }
+
+    public long getDurationNanos() {
+        return root != null ? getEndNanos() - root.getStartNanos() : 0;
+    }
+
+    public long getStartEpochMillis() {
+        return epochNanosAtStart / 1_000_000L;
+    }
+
+    long toEpochNanos(long nanoTime) {
+        return epochNanosAtStart + (nanoTime - nanoTimeAtStart);
+    }
+
+    private static String randomHex(int bytes) {
+        StringBuilder sb = new StringBuilder(bytes * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < bytes; i++) {
+            int b = random.nextInt(256);
+            sb.append(Character.forDigit(b >> 4, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.trace;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一个观测（Observation）对应的 span
+ *
+ * 名称和属性在观测结束时才由 ObservationConvention 确定，因此在 {@link #finish} 时写入。
+ */
+public class TraceSpan {
+
+    public enum Kind {
+        INTERNAL(1), SERVER(2), CLIENT(3);
+
+        private final int otlpCode;
+
+        Kind(int otlpCode) {
+            this.otlpCode = otlpCode;
+        }
+
+        public int otlpCode() {
+            return otlpCode;
+        }
+    }
+
+    private final TraceRecord trace;
+    private final String spanId;
+    private final String parentSpanId;
+    private final Kind kind;
+    private final long startNanos;
+    private volatile long endNanos = -1;
+    private volatile String name;
+    private volatile Map<String, String> attributes = Map.of();
+    private volatile String error;
+
+    TraceSpan(TraceRecord trace, String spanId, String parentSpanId, Kind kind, String name, long startNanos) {
+        this.trace = trace;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.kind = kind;
+        this.name = name;
+        this.startNanos = startNanos;
+    }
+
+    void finish(String name, Map<String, String> attributes, String error, long endNanos) {
+        this.name = name;
+        this.attributes = new LinkedHashMap<>(attributes);
+        this.error = error;
+        this.endNanos = endNanos;
+    }
+
+    public TraceRecord getTrace() {
+        return trace;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isFinished() {
+        return endNanos >= 0;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * 结束时间；追踪结束时仍未结束的 span 以根 span 的结束时间计
+     */
+    public long getEndNanos() {
+        return endNanos >= 0 ? endNanos : trace.getEndNanos();
+    }
+
+    public long getStartEpochNanos() {
+        return trace.toEpochNanos(startNanos);
+    }
+
+    public long getEndEpochNanos() {
+        return trace.toEpochNanos(getEndNanos());
+    }
+}
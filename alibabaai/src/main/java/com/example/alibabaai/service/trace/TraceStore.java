@@ -0,0 +1,192 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.trace;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 已完成追踪的去向：全部交给导出器，超过慢请求阈值的保留在内存中供瀑布图查看
+ *
+ * 慢请求只保留最近 {@code maxSlowTraces} 条，旧的按先进先出淘汰。
+ */
+public class TraceStore implements Consumer<TraceRecord> {
+
+    private static final int BAR_WIDTH = 50;
+
+    private final long slowThresholdNanos;
+    private final int maxSlowTraces;
+    private final Consumer<TraceRecord> exporter;
+    private final Deque<TraceRecord> slow = new ArrayDeque<>();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong slowCount = new AtomicLong();
+
+    /**
+     * @param exporter 导出器，未启用导出时传 null
+     */
+    public TraceStore(Duration slowThreshold, int maxSlowTraces, Consumer<TraceRecord> exporter) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxSlowTraces = Math.max(1, maxSlowTraces);
+        this.exporter = exporter;
+    }
+
+    @Override
+    public void accept(TraceRecord trace) {
+        completed.incrementAndGet();
+        if (exporter != null) {
+            exporter.accept(trace);
+        }
+        if (trace.getDurationNanos() >= slowThresholdNanos) {
+            slowCount.incrementAndGet();
+            synchronized (slow) {
+                if (slow.size() >= maxSlowTraces) {
+                    slow.pollLast();
+                }
+                slow.addFirst(trace);
+            }
+        }
+    }
+
+    /**
+     * 最近的慢请求摘要，新的在前
+     */
+    public List<Map<String, Object>> listSlow() {
+        List<TraceRecord> traces;
+        synchronized (slow) {
+            traces = new ArrayList<>(slow);
+        }
+        List<Map<String, Object>> res = new ArrayList<>(traces.size());
+        for (TraceRecord trace : traces) {
+            TraceSpan root = trace.getRoot();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("traceId", trace.getTraceId());
+            summary.put("name", root != null ? root.getName() : null);
+            summary.put("uri", root != null ? root.getAttributes().get("uri") : null);
+            summary.put("durationMillis", trace.getDurationNanos() / 1_000_000.0);
+            summary.put("spanCount", trace.getSpans().size());
+            summary.put("start", Instant.ofEpochMilli(trace.getStartEpochMillis()).toString());
+            res.add(summary);
+        }
+        return res;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("completedTraces", completed.get());
+        res.put("slowTraces", slowCount.get());
+        res.put("slowThresholdMillis", slowThresholdNanos / 1_000_000);
+        synchronized (slow) {
+            res.put("retained", slow.size());
+        }
+        return res;
+    }
+
+    /**
+     * 按父子关系深度优先、同级按开始时间排列的瀑布图行；找不到返回 null
+     */
+    public List<WaterfallRow> waterfall(String traceId) {
+        TraceRecord trace = find(traceId);
+        if (trace == null) {
+            return null;
+        }
+        List<TraceSpan> spans = trace.getSpans();
+        Map<String, List<TraceSpan>> children = new HashMap<>();
+        List<TraceSpan> roots = new ArrayList<>();
+        for (TraceSpan span : spans) {
+            if (span.getParentSpanId() == null) {
+                roots.add(span);
+            } else {
+                children.computeIfAbsent(span.getParentSpanId(), k -> new ArrayList<>()).add(span);
+            }
+        }
+        TraceSpan root = trace.getRoot();
+        long origin = root != null ? root.getStartNanos() : 0;
+        long total = Math.max(1, trace.getDurationNanos());
+        List<WaterfallRow> rows = new ArrayList<>(spans.size());
+        roots.sort(Comparator.comparingLong(TraceSpan::getStartNanos));
+        for (TraceSpan span : roots) {
+            appendRows(span, 0, children, origin, total, rows);
+        }
+        return rows;
+    }
+
+    /**
+     * 瀑布图的纯文本形式，便于在终端中查看
+     */
+    public String waterfallText(String traceId) {
+        List<WaterfallRow> rows = waterfall(traceId);
+        if (rows == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (WaterfallRow row : rows) {
+            sb.append(String.format("%9.1fms %9.1fms |%s| %s%s%n", row.offsetMillis(), row.durationMillis(),
+                    row.bar(), "  ".repeat(row.depth()), row.name() + (row.error() != null ? " !" + row.error() : "")));
+        }
+        return sb.toString();
+    }
+
+    // ==================== 内部实现 ====================
+
+    private TraceRecord find(String traceId) {
+        synchronized (slow) {
+            for (TraceRecord trace : slow) {
+                if (trace.getTraceId().equals(traceId)) {
+                    return trace;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void appendRows(TraceSpan span, int depth, Map<String, List<TraceSpan>> children,
+                                   long origin, long total, List<WaterfallRow> rows) {
+        long offset = span.getStartNanos() - origin;
+        long duration = span.getEndNanos() - span.getStartNanos();
+        rows.add(new WaterfallRow(depth, span.getName(), span.getKind().name(), offset / 1_000_000.0,
+                duration / 1_000_000.0, bar(offset, duration, total), span.getAttributes(), span.getError()));
+        List<TraceSpan> list = children.get(span.getSpanId());
+        if (list != null) {
+            list.sort(Comparator.comparingLong(TraceSpan::getStartNanos));
+            for (TraceSpan child : list) {
+                appendRows(child, depth + 1, children, origin, total, rows);
+            }
+        }
+    }
+
+    private static String bar(long offset, long duration, long total) {
+        int from = (int) Math.min(BAR_WIDTH - 1, Math.max(0, offset * BAR_WIDTH / total));
+        int width = (int) Math.max(1, Math.min(BAR_WIDTH - from, duration * BAR_WIDTH / total));
+        return " ".repeat(from) + "█".repeat(width) + " ".repeat(BAR_WIDTH - from - width);
+    }
+
+    /**
+     * 瀑布图中的一行，时间相对根 span 的开始
+     */
+    public record WaterfallRow(int depth, String name, String kind, double offsetMillis, double durationMillis,
+                               String bar, Map<String, String> attributes, String error) {
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.translate;
+
+import com.example.alibabaai.service.limit.ConcurrencyLimitExceededException;
+import com.example.alibabaai.service.rag.TextSegmenter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.retry.TransientAiException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * 长文档分块并行翻译
+ *
+ * 文档先按段落、句子边界切成不超过 chunkChars 的块（{@link TextSegmenter}），各块以有界并发调用模型翻译；
+ * 结果经 flatMapSequential 按原文顺序发出：前缀上的块全部完成后立即输出，不必等整篇文档译完。
+ * 块首尾的空白（段落间空行、换行）不送给模型，原样拼回译文，保持文档结构。
+ * 单块失败（重试后）时输出原文并带上错误信息，文档其余部分照常翻译。
+ */
+public class DocumentTranslationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentTranslationService.class);
+
+    private static final String SYSTEM_PROMPT = """
+            You are a professional translator. Translate the text provided by the user into {target}.
+            Output only the translation. Preserve line breaks, lists, Markdown and code as they are.
+            Do not add explanations, notes or quotation marks.""";
+
+    private final ChatClient chatClient;
+    private final int chunkChars;
+    private final int maxChars;
+    private final int defaultConcurrency;
+    private final int maxConcurrency;
+    private final Duration chunkTimeout;
+
+    public DocumentTranslationService(ChatModel chatModel, int chunkChars, int maxChars, int defaultConcurrency,
+                                      int maxConcurrency, Duration chunkTimeout) {
+        this.chatClient = ChatClient.builder(chatModel).build();
+        this.chunkChars = Math.max(1, chunkChars);
+        this.maxChars = maxChars;
+        this.defaultConcurrency = defaultConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.chunkTimeout = chunkTimeout;
+    }
+
+    /**
+     * 翻译文档，译文块按原文顺序发出
+     *
+     * @param text        原文
+     * @param target      目标语言（如 English、中文）
+     * @param concurrency 并发度，为空时使用默认值，超过上限时截断
+     */
+    public Flux<TranslatedChunk> translate(String text, String target, Integer concurrency) {
+        if (text == null || text.isBlank()) {
+            return Flux.error(new IllegalArgumentException("Document text is required"));
+        }
+        if (text.length() > maxChars) {
+            return Flux.error(new IllegalArgumentException("Document exceeds " + maxChars + " characters: " + text.length()));
+        }
+        int effective = Math.max(1, Math.min(concurrency != null ? concurrency : defaultConcurrency, maxConcurrency));
+        List<String> chunks = TextSegmenter.split(text, chunkChars);
+        int total = chunks.size();
+        logger.debug("Translating {} chars in {} chunks to {} (concurrency {})", text.length(), total, target, effective);
+        // prefetch=1：已发出的块不在内部排队，乱序完成的块只缓存到其前缀完成为止
+        return Flux.range(0, total)
+                .flatMapSequential(i -> translateChunk(i, total, chunks.get(i), target), effective, 1);
+    }
+
+    /**
+     * 翻译文档并拼接为纯文本流
+     */
+    public Flux<String> translateText(String text, String target, Integer concurrency) {
+        return translate(text, target, concurrency).map(TranslatedChunk::text);
+    }
+
+    // ==================== 内部实现 ====================
+
+    private Mono<TranslatedChunk> translateChunk(int index, int total, String chunk, String target) {
+        int start = leadingWhitespace(chunk);
+        int end = chunk.length() - trailingWhitespace(chunk, start);
+        String prefix = chunk.substring(0, start);
+        String core = chunk.substring(start, end);
+        String suffix = chunk.substring(end);
+        if (core.isEmpty()) {
+            return Mono.just(new TranslatedChunk(index, total, chunk, chunk.length(), 0, null));
+        }
+        long begin = System.nanoTime();
+        return chatClient.prompt()
+                .system(system -> system.text(SYSTEM_PROMPT).param("target", target))
+                .user(core)
+                .stream()
+                .content()
+                .collect(Collectors.joining())
+                .timeout(chunkTimeout)
+                .retryWhen(Retry.backoff(2, Duration.ofMillis(500)).filter(DocumentTranslationService::isRetryable))
+                .map(translated -> new TranslatedChunk(index, total, prefix + translated.strip() + suffix,
+                        chunk.length(), elapsedMillis(begin), null))
+                .onErrorResume(e -> {
+                    Throwable cause = e.getCause() != null && Exceptions.isRetryExhausted(e) ? e.getCause() : e;
+                    String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                    logger.debug("Chunk {}/{} failed: {}", index, total, message);
+                    return Mono.just(new TranslatedChunk(index, total, chunk, chunk.length(), elapsedMillis(begin), message));
+                });
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        return e instanceof TransientAiException || e instanceof TimeoutException
+                || e instanceof ConcurrencyLimitExceededException;
+    }
+
+    private static int leadingWhitespace(String s) {
+        int i = 0;
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trailingWhitespace(String s, int floor) {
+        int i = s.length();
+        while (i > floor && Character.isWhitespace(s.charAt(i - 1))) {
+            i--;
+        }
+        return s.length() - i;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 一个译文块；失败时 text 为原文，error 为失败原因
+     */
+    public record TranslatedChunk(int index, int total, String text, int sourceChars, long latencyMillis, String error) {
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.usage;
+
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 带用量计量的 ChatModel 装饰器
+ *
+ * 应用内所有 ChatModel（包括 ChatClient 内部的每一轮工具调用）都会经过这里，
+ * 归属信息在调用线程上解析一次（响应式端点从 Reactor Context 读取），流式调用在终止时按最后一次出现的 Usage 记账，
+ * 包括客户端断开（取消）与上游出错的情况——此前已生成的 token 同样计费。
+ */
+public class MeteredChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final TokenUsageAccountant accountant;
+
+    public MeteredChatModel(ChatModel delegate, TokenUsageAccountant accountant) {
+        this.delegate = delegate;
+        this.accountant = accountant;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        UsageAttribution attribution = UsageAttribution.fromCurrentRequest();
+        ChatResponse response = delegate.call(prompt);
+        accountant.record(attribution, resolveModel(prompt, response), usageOf(response));
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        UsageAttribution requestAttribution = UsageAttribution.fromCurrentRequest();
+        return Flux.deferContextual(context -> {
+            // Servlet 请求在调用线程上解析；响应式请求没有线程绑定，从订阅方的 Reactor Context 中读取
+            UsageAttribution attribution = requestAttribution != UsageAttribution.NONE
+                    ? requestAttribution
+                    : context.getOrDefault(UsageAttribution.class, UsageAttribution.NONE);
+            AtomicReference<ChatResponse> lastWithUsage = new AtomicReference<>();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return delegate.stream(prompt)
+                    .doOnNext(response -> {
+                        if (usageOf(response) != null) {
+                            lastWithUsage.set(response);
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            ChatResponse last = lastWithUsage.get();
+                            accountant.record(attribution, resolveModel(prompt, last), usageOf(last));
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    public ChatModel getDelegate() {
+        return delegate;
+    }
+
+    private String resolveModel(Prompt prompt, ChatResponse response) {
+        if (response != null && response.getMetadata() != null && response.getMetadata().getModel() != null
+                && !response.getMetadata().getModel().isEmpty()) {
+            return response.getMetadata().getModel();
+        }
+        if (prompt.getOptions() != null && prompt.getOptions().getModel() != null) {
+            return prompt.getOptions().getModel();
+        }
+        ChatOptions defaults = delegate.getDefaultOptions();
+        return defaults != null ? defaults.getModel() : null;
+    }
+
+    private static Usage usageOf(ChatResponse response) {
+        if (response == null || response.getMetadata() == null) {
+            return null;
+        }
+        Usage usage = response.getMetadata().getUsage();
+        if (usage == null || usage.getTotalTokens() == null || usage.getTotalTokens() == 0) {
+            return null;
+        }
+        return usage;
+    }
+}
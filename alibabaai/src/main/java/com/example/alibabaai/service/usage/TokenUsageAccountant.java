@@ -0,0 +1,251 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.usage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.metadata.Usage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Token 用量记账器
+ *
+ * 热路径只做一次 ConcurrentHashMap 查找和几次 LongAdder 累加，不加锁、不做IO；
+ * 后台线程按固定周期把增量刷写到 {@link TokenUsageLedger}。
+ *
+ * 为了让高基数的会话维度不在内存中无限增长，每次刷写都会换入一张新的计数表，
+ * 旧表在本周期和下一周期各刷写一次（第二次用于收尾换表瞬间仍在累加的写入），之后丢弃。
+ */
+public class TokenUsageAccountant implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenUsageAccountant.class);
+
+    private static final List<String> GROUP_BY_DIMENSIONS = List.of("endpoint", "model", "conversationId", "apiKey");
+
+    private final TokenUsageLedger ledger;
+    private final AtomicReference<ConcurrentHashMap<UsageKey, UsageCounter>> active =
+            new AtomicReference<>(new ConcurrentHashMap<>());
+    private ConcurrentHashMap<UsageKey, UsageCounter> retiring = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public TokenUsageAccountant(TokenUsageLedger ledger, Duration flushInterval) {
+        this.ledger = ledger;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-usage-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1000, flushInterval.toMillis());
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录一次模型调用（热路径）
+     */
+    public void record(UsageAttribution attribution, String model, Usage usage) {
+        UsageKey key = new UsageKey(attribution.endpoint(), model == null ? UsageAttribution.UNKNOWN : model,
+                attribution.conversationId(), attribution.apiKey());
+        UsageCounter counter = active.get().computeIfAbsent(key, k -> new UsageCounter());
+        counter.calls.increment();
+        if (usage != null) {
+            counter.promptTokens.add(valueOf(usage.getPromptTokens()));
+            counter.completionTokens.add(valueOf(usage.getCompletionTokens()));
+            counter.totalTokens.add(valueOf(usage.getTotalTokens()));
+        }
+    }
+
+    /**
+     * 立即把所有未落盘的增量写入账本
+     */
+    public synchronized void flush() throws IOException {
+        ConcurrentHashMap<UsageKey, UsageCounter> previous = active.getAndSet(new ConcurrentHashMap<>());
+        long now = System.currentTimeMillis();
+        List<TokenUsageLedger.Entry> entries = new ArrayList<>();
+        drain(retiring, now, entries);
+        drain(previous, now, entries);
+        retiring = previous;
+        ledger.append(entries);
+    }
+
+    /**
+     * 按时间窗口聚合账本
+     *
+     * 查询不触发刷写：已落盘部分按时间范围扫描账本，尚未落盘的增量直接从内存计数表读取（时间戳记为当前时间）
+     *
+     * @param fromMillis 起始时间（含）
+     * @param toMillis 结束时间（不含）
+     * @param window 窗口大小，为 null 时整个区间聚合为一个窗口
+     * @param groupBy 分组维度，取值 endpoint/model/conversationId/apiKey
+     * @return 以窗口起始时间为键、分组结果为值的有序映射
+     */
+    public synchronized Map<Long, Map<String, UsageTotals>> aggregate(long fromMillis, long toMillis, Duration window,
+                                                                      List<String> groupBy) throws IOException {
+        validateGroupBy(groupBy);
+        long windowMillis = window == null ? 0 : Math.max(1, window.toMillis());
+        Map<Long, Map<String, UsageTotals>> result = new TreeMap<>();
+        Consumer<TokenUsageLedger.Entry> sink = entry -> {
+            long bucket = windowMillis == 0 ? fromMillis : entry.ts() - Math.floorMod(entry.ts() - fromMillis, windowMillis);
+            String group = groupKey(entry, groupBy);
+            result.computeIfAbsent(bucket, b -> new LinkedHashMap<>())
+                    .computeIfAbsent(group, g -> new UsageTotals())
+                    .add(entry);
+        };
+        ledger.scan(fromMillis, toMillis, sink);
+        long now = System.currentTimeMillis();
+        if (now >= fromMillis && now < toMillis) {
+            // flush 与本方法同步，这里看到的计数表不会被并发清零后又写进账本
+            List<TokenUsageLedger.Entry> unflushed = new ArrayList<>();
+            snapshot(retiring, now, unflushed);
+            snapshot(active.get(), now, unflushed);
+            unflushed.forEach(sink);
+        }
+        return result;
+    }
+
+    /**
+     * 校验分组维度
+     *
+     * @throws IllegalArgumentException 含不支持的维度时
+     */
+    public static void validateGroupBy(List<String> groupBy) {
+        if (groupBy == null) {
+            return;
+        }
+        for (String dimension : groupBy) {
+            if (!GROUP_BY_DIMENSIONS.contains(dimension)) {
+                throw new IllegalArgumentException("Unsupported groupBy dimension: " + dimension
+                        + " (supported: " + String.join(",", GROUP_BY_DIMENSIONS) + ")");
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Failed to flush token usage ledger {}: {}", ledger.getPath(), e.getMessage());
+        }
+    }
+
+    private static void snapshot(Map<UsageKey, UsageCounter> counters, long ts, List<TokenUsageLedger.Entry> sink) {
+        counters.forEach((key, counter) -> {
+            long calls = counter.calls.sum();
+            long total = counter.totalTokens.sum();
+            if (calls != 0 || total != 0) {
+                sink.add(new TokenUsageLedger.Entry(ts, key.endpoint(), key.model(), key.conversationId(),
+                        key.apiKey(), calls, counter.promptTokens.sum(), counter.completionTokens.sum(), total));
+            }
+        });
+    }
+
+    private static void drain(Map<UsageKey, UsageCounter> counters, long ts, List<TokenUsageLedger.Entry> sink) {
+        counters.forEach((key, counter) -> {
+            long calls = counter.calls.sumThenReset();
+            long prompt = counter.promptTokens.sumThenReset();
+            long completion = counter.completionTokens.sumThenReset();
+            long total = counter.totalTokens.sumThenReset();
+            if (calls != 0 || total != 0) {
+                sink.add(new TokenUsageLedger.Entry(ts, key.endpoint(), key.model(), key.conversationId(),
+                        key.apiKey(), calls, prompt, completion, total));
+            }
+        });
+    }
+
+    private static String groupKey(TokenUsageLedger.Entry entry, List<String> groupBy) {
+        if (groupBy == null || groupBy.isEmpty()) {
+            return "all";
+        }
+        String[] parts = new String[groupBy.size()];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = switch (groupBy.get(i)) {
+                case "endpoint" -> entry.endpoint();
+                case "model" -> entry.model();
+                case "conversationId" -> entry.conversationId();
+                case "apiKey" -> entry.apiKey();
+                default -> throw new IllegalArgumentException("Unsupported groupBy dimension: " + groupBy.get(i));
+            };
+        }
+        return parts.length == 1 ? parts[0] : String.join("|", Arrays.asList(parts));
+    }
+
+    private static long valueOf(Integer tokens) {
+        return tokens == null ? 0 : tokens;
+    }
+
+    private record UsageKey(String endpoint, String model, String conversationId, String apiKey) {
+    }
+
+    private static final class UsageCounter {
+        final LongAdder calls = new LongAdder();
+        final LongAdder promptTokens = new LongAdder();
+        final LongAdder completionTokens = new LongAdder();
+        final LongAdder totalTokens = new LongAdder();
+    }
+
+    /**
+     * 聚合结果（仅在查询线程中使用）
+     */
+    public static final class UsageTotals {
+        private long calls;
+        private long promptTokens;
+        private long completionTokens;
+        private long totalTokens;
+
+        void add(TokenUsageLedger.Entry entry) {
+            calls += entry.calls();
+            promptTokens += entry.promptTokens();
+            completionTokens += entry.completionTokens();
+            totalTokens += entry.totalTokens();
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getPromptTokens() {
+            return promptTokens;
+        }
+
+        public long getCompletionTokens() {
+            return completionTokens;
+        }
+
+        public long getTotalTokens() {
+            return totalTokens;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.usage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * 本地只追加（append-only）用量账本
+ *
+ * 每行一条 JSON 记录（JSON Lines），只在后台刷写线程中写入，读取时按行流式扫描。
+ * 记录按时间戳非递减写入，内存中保留一份稀疏的 时间戳 → 文件偏移 索引（约每 {@value #INDEX_STRIDE_BYTES} 字节一项），
+ * 查询从区间起点之前最近的索引项开始读，读到区间终点即停止，扫描量与查询区间成正比而不是与账本大小成正比。
+ */
+public class TokenUsageLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenUsageLedger.class);
+
+    static final int INDEX_STRIDE_BYTES = 64 * 1024;
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final TreeMap<Long, Long> offsetIndex = new TreeMap<>();
+    private boolean indexed;
+    private long size;
+    private long lastIndexedOffset = -INDEX_STRIDE_BYTES;
+    private long lastTs = Long.MIN_VALUE;
+
+    public TokenUsageLedger(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 批量追加记录，一次刷写只产生一次 write 调用
+     */
+    public synchronized void append(List<Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        ensureIndexed();
+        StringBuilder batch = new StringBuilder(entries.size() * 192);
+        long batchTs = Math.max(entries.get(0).ts(), lastTs);
+        for (Entry entry : entries) {
+            // 系统时钟回拨时沿用上一批的时间戳，保持文件内时间戳非递减
+            if (entry.ts() < lastTs) {
+                entry = entry.withTs(lastTs);
+            }
+            lastTs = entry.ts();
+            batch.append(objectMapper.writeValueAsString(entry)).append('\n');
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+            // 同一批次的记录时间戳相同，只需在批次起点建索引
+            index(batchTs, size);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            size = channel.size();
+        }
+    }
+
+    /**
+     * 流式扫描 [fromMillis, toMillis) 区间内的记录，损坏的行会被跳过
+     */
+    public synchronized void scan(long fromMillis, long toMillis, Consumer<Entry> consumer) throws IOException {
+        ensureIndexed();
+        if (size == 0 || fromMillis >= toMillis) {
+            return;
+        }
+        Map.Entry<Long, Long> start = offsetIndex.lowerEntry(fromMillis);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(start != null ? start.getValue() : 0);
+            LineReader reader = new LineReader(Channels.newInputStream(channel));
+            String line;
+            while ((line = reader.next()) != null) {
+                Entry entry = parse(line);
+                if (entry == null || entry.ts() < fromMillis) {
+                    continue;
+                }
+                if (entry.ts() >= toMillis) {
+                    break;
+                }
+                consumer.accept(entry);
+            }
+        }
+    }
+
+    /**
+     * 当前索引项数
+     */
+    synchronized int indexSize() throws IOException {
+        ensureIndexed();
+        return offsetIndex.size();
+    }
+
+    /**
+     * 首次使用时扫描一遍已有账本，重建稀疏索引与写入位置
+     */
+    private void ensureIndexed() throws IOException {
+        if (indexed) {
+            return;
+        }
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                LineReader reader = new LineReader(in);
+                long offset = 0;
+                String line;
+                while ((line = reader.next()) != null) {
+                    Entry entry = parse(line);
+                    if (entry != null) {
+                        index(entry.ts(), offset);
+                        lastTs = Math.max(lastTs, entry.ts());
+                    }
+                    offset = reader.offset();
+                }
+                size = offset;
+            }
+        }
+        indexed = true;
+    }
+
+    private void index(long ts, long offset) {
+        if (offset - lastIndexedOffset >= INDEX_STRIDE_BYTES) {
+            offsetIndex.putIfAbsent(ts, offset);
+            lastIndexedOffset = offset;
+        }
+    }
+
+    private Entry parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(line, Entry.class);
+        } catch (IOException e) {
+            logger.warn("Skipping corrupt usage ledger line: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 账本记录：一个刷写周期内某个维度组合的增量用量
+     */
+    public record Entry(long ts, String endpoint, String model, String conversationId, String apiKey,
+                        long calls, long promptTokens, long completionTokens, long totalTokens) {
+
+        Entry withTs(long newTs) {
+            return new Entry(newTs, endpoint, model, conversationId, apiKey, calls, promptTokens, completionTokens,
+                    totalTokens);
+        }
+    }
+
+    /**
+     * 按字节计数的行读取器（UTF-8），用于定位索引偏移
+     */
+    private static final class LineReader {
+        private final InputStream in;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        private long offset;
+
+        LineReader(InputStream in) {
+            this.in = new BufferedInputStream(in, 64 * 1024);
+        }
+
+        String next() throws IOException {
+            line.reset();
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b == '\n') {
+                    return line.toString(StandardCharsets.UTF_8);
+                }
+                line.write(b);
+            }
+            return line.size() > 0 ? line.toString(StandardCharsets.UTF_8) : null;
+        }
+
+        long offset() {
+            return offset;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.usage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 一次模型调用的计费归属：调用入口、会话ID与API Key指纹
+ *
+ * API Key 只保留 SHA-256 前缀指纹，原文不会写入账本文件。
+ */
+public record UsageAttribution(String endpoint, String conversationId, String apiKey) {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+    public static final String CONVERSATION_PARAM = "conversation_id";
+    public static final String UNKNOWN = "-";
+
+    public static final UsageAttribution NONE = new UsageAttribution(UNKNOWN, UNKNOWN, UNKNOWN);
+
+    /**
+     * 从当前线程绑定的HTTP请求中解析归属信息，非请求线程返回 {@link #NONE}
+     */
+    public static UsageAttribution fromCurrentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return NONE;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        return of(request.getRequestURI(), request.getParameter(CONVERSATION_PARAM), request.getHeader(API_KEY_HEADER));
+    }
+
+    /**
+     * 从 WebFlux 请求中解析归属信息（响应式端点通过 Reactor Context 传递，见 {@link UsageAttributionWebFilter}）
+     */
+    public static UsageAttribution fromRequest(ServerHttpRequest request) {
+        return of(request.getPath().value(), request.getQueryParams().getFirst(CONVERSATION_PARAM),
+                request.getHeaders().getFirst(API_KEY_HEADER));
+    }
+
+    public static UsageAttribution of(String endpoint, String conversationId, String rawApiKey) {
+        return new UsageAttribution(
+                endpoint == null || endpoint.isEmpty() ? UNKNOWN : endpoint,
+                conversationId == null || conversationId.isEmpty() ? UNKNOWN : conversationId,
+                fingerprint(rawApiKey));
+    }
+
+    private static String fingerprint(String rawApiKey) {
+        if (rawApiKey == null || rawApiKey.isBlank()) {
+            return UNKNOWN;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawApiKey.trim().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.vision;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import com.alibaba.cloud.ai.dashscope.chat.MessageFormat;
+import com.alibaba.cloud.ai.dashscope.common.DashScopeApiConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.content.Media;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 流式图片分析
+ *
+ * 图片读入内存后交给视觉模型的流式接口，生成的文本边生成边推送，用户等待的时间从整段生成缩短到首个 token。
+ * 事件依次为：
+ * <ul>
+ *   <li>upload - 图片读取完成：字节数与读取耗时；</li>
+ *   <li>first-token - 收到首个非空文本块：距请求开始与距读取完成的耗时；</li>
+ *   <li>token - 文本块；</li>
+ *   <li>complete - 结束：各阶段耗时、文本块数、字符数与 token 用量；</li>
+ *   <li>error - 失败（流随之结束）。</li>
+ * </ul>
+ * 图片读取与模型调用都不占用请求线程。
+ */
+public class ImageAnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageAnalysisService.class);
+
+    public static final String DEFAULT_PROMPT = "请分析这张图片的内容";
+
+    private final ChatClient chatClient;
+    private final String model;
+    private final boolean highResolution;
+    private final long maxImageBytes;
+
+    public ImageAnalysisService(ChatModel chatModel, String model, boolean highResolution, long maxImageBytes) {
+        this.chatClient = ChatClient.builder(chatModel).build();
+        this.model = model;
+        this.highResolution = highResolution;
+        this.maxImageBytes = maxImageBytes;
+    }
+
+    /**
+     * 单张图片的字节上限（vision.max-image-size），上传端据此限制读取的字节数
+     */
+    public long getMaxImageBytes() {
+        return maxImageBytes;
+    }
+
+    /**
+     * 流式分析
+     *
+     * @param prompt 提示词，为空时使用默认提示词
+     * @param contentType 图片类型
+     * @param image 图片内容（订阅时才开始读取）；upload 事件的 uploadMillis 是从订阅到拿到完整字节的时间，
+     *              是否包含网络接收取决于调用方（Servlet multipart 在进入控制器前已解析完毕，只含一次内存/临时文件拷贝）
+     * @param highResolutionOverride 是否启用高分辨率处理，为空时使用配置值；关闭可明显缩短大图的首 token 时间
+     */
+    public Flux<AnalysisEvent> analyze(String prompt, MimeType contentType, Mono<byte[]> image, Boolean highResolutionOverride) {
+        if (contentType == null || !"image".equals(contentType.getType())) {
+            return Flux.error(new IllegalArgumentException("请上传图片文件"));
+        }
+        String text = prompt != null && !prompt.isBlank() ? prompt : DEFAULT_PROMPT;
+        boolean highRes = highResolutionOverride != null ? highResolutionOverride : highResolution;
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            Timings timings = new Timings(start);
+            return image
+                    .switchIfEmpty(Mono.error(new IllegalArgumentException("图片内容为空")))
+                    .flatMapMany(bytes -> {
+                        if (bytes.length > maxImageBytes) {
+                            return Flux.error(new IllegalArgumentException(
+                                    "图片过大: " + bytes.length + " bytes (max " + maxImageBytes + ")"));
+                        }
+                        timings.uploaded(bytes.length);
+                        return Flux.concat(
+                                Mono.just(new AnalysisEvent("upload", timings.upload())),
+                                stream(prompt(text, contentType, bytes, highRes), timings),
+                                Mono.fromSupplier(() -> new AnalysisEvent("complete", timings.complete(highRes))));
+                    })
+                    .onErrorResume(e -> {
+                        logger.debug("Image analysis failed after {} ms: {}", timings.sinceStart(), e.getMessage());
+                        Map<String, Object> error = new LinkedHashMap<>();
+                        error.put("message", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                        error.put("elapsedMillis", timings.sinceStart());
+                        return Mono.just(new AnalysisEvent("error", error));
+                    });
+        });
+    }
+
+    private Flux<AnalysisEvent> stream(Prompt prompt, Timings timings) {
+        return chatClient.prompt(prompt)
+                .stream()
+                .chatResponse()
+                .concatMap(response -> {
+                    timings.usage(response);
+                    String chunk = response.getResult() != null && response.getResult().getOutput() != null
+                            ? response.getResult().getOutput().getText() : null;
+                    if (chunk == null || chunk.isEmpty()) {
+                        return Flux.empty();
+                    }
+                    AnalysisEvent token = new AnalysisEvent("token", chunk);
+                    return timings.token(chunk)
+                            ? Flux.just(new AnalysisEvent("first-token", timings.firstToken()), token)
+                            : Flux.just(token);
+                });
+    }
+
+    private Prompt prompt(String text, MimeType contentType, byte[] bytes, boolean highRes) {
+        UserMessage message = UserMessage.builder()
+                .text(text)
+                .media(new Media(contentType, new ByteArrayResource(bytes)))
+                .build();
+        message.getMetadata().put(DashScopeApiConstants.MESSAGE_FORMAT, MessageFormat.IMAGE);
+        return new Prompt(message,
+                DashScopeChatOptions.builder()
+                        .withModel(model)
+                        .withMultiModel(true)
+                        .withVlHighResolutionImages(highRes)
+                        .withTemperature(0.7)
+                        .build());
+    }
+
+    /**
+     * SSE 事件：event 为事件名，data 为文本块或耗时信息
+     */
+    public record AnalysisEvent(String event, Object data) {
+    }
+
+    /**
+     * 单次分析的各阶段时间点
+     */
+    private final class Timings {
+        private final long start;
+        private volatile long uploadedAt;
+        private volatile long firstTokenAt;
+        private volatile int bytes;
+        private final AtomicInteger chunks = new AtomicInteger();
+        private final AtomicLong chars = new AtomicLong();
+        private final AtomicReference<Usage> usage = new AtomicReference<>();
+        private final AtomicReference<String> responseModel = new AtomicReference<>();
+
+        Timings(long start) {
+            this.start = start;
+        }
+
+        void uploaded(int size) {
+            bytes = size;
+            uploadedAt = System.nanoTime();
+        }
+
+        /**
+         * 记录文本块，返回是否为首个
+         */
+        boolean token(String chunk) {
+            chars.addAndGet(chunk.length());
+            if (chunks.getAndIncrement() == 0) {
+                firstTokenAt = System.nanoTime();
+                return true;
+            }
+            return false;
+        }
+
+        void usage(ChatResponse response) {
+            if (response.getMetadata() == null) {
+                return;
+            }
+            Usage current = response.getMetadata().getUsage();
+            if (current != null && current.getTotalTokens() != null && current.getTotalTokens() > 0) {
+                usage.set(current);
+            }
+            if (response.getMetadata().getModel() != null && !response.getMetadata().getModel().isEmpty()) {
+                responseModel.set(response.getMetadata().getModel());
+            }
+        }
+
+        long sinceStart() {
+            return millis(start, System.nanoTime());
+        }
+
+        Map<String, Object> upload() {
+            Map<String, Object> res = new LinkedHashMap<>();
+            res.put("bytes", bytes);
+            res.put("uploadMillis", millis(start, uploadedAt));
+            return res;
+        }
+
+        Map<String, Object> firstToken() {
+            Map<String, Object> res = new LinkedHashMap<>();
+            res.put("firstTokenMillis", millis(start, firstTokenAt));
+            res.put("sinceUploadMillis", millis(uploadedAt, firstTokenAt));
+            return res;
+        }
+
+        Map<String, Object> complete(boolean highRes) {
+            long end = System.nanoTime();
+            Map<String, Object> res = new LinkedHashMap<>();
+            res.put("model", responseModel.get() != null ? responseModel.get() : model);
+            res.put("highResolution", highRes);
+            res.put("bytes", bytes);
+            res.put("uploadMillis", millis(start, uploadedAt));
+            res.put("firstTokenMillis", firstTokenAt > 0 ? millis(start, firstTokenAt) : null);
+            res.put("generationMillis", firstTokenAt > 0 ? millis(firstTokenAt, end) : null);
+            res.put("totalMillis", millis(start, end));
+            res.put("chunks", chunks.get());
+            res.put("chars", chars.get());
+            Usage finalUsage = usage.get();
+            if (finalUsage != null) {
+                res.put("promptTokens", finalUsage.getPromptTokens());
+                res.put("completionTokens", finalUsage.getCompletionTokens());
+            }
+            return res;
+        }
+
+        private long millis(long from, long to) {
+            return (to - from) / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.workflow;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 声明式工作流定义（POST /workflows/runs 的请求体）
+ *
+ * 步骤之间的依赖既可以用 dependsOn 显式声明，也可以由模板引用推断：prompt、system 与 arguments 中的字符串值
+ * 可以引用 {{input.key}}（运行输入）和 {{steps.id}}（其他步骤的输出），被引用的步骤自动成为前置步骤。
+ * 示例：
+ * <pre>
+ * {"name":"research","input":{"url":"https://example.com"},
+ *  "steps":[
+ *    {"id":"page","tool":"chrome_get_web_content","arguments":{"url":"{{input.url}}","maxTokens":800}},
+ *    {"id":"english","tool":"baiduTranslate","arguments":{"q":"{{steps.page}}","from":"auto","to":"en"}},
+ *    {"id":"summary","prompt":"用三句话总结：{{steps.page}}","timeout":"30s"},
+ *    {"id":"report","prompt":"合并以下内容：{{steps.english}} / {{steps.summary}}"}],
+ *  "output":"report"}
+ * </pre>
+ *
+ * @param name 名称（仅用于展示）
+ * @param input 运行输入
+ * @param steps 步骤列表
+ * @param output 作为运行结果的步骤 id，为空时取唯一的末端步骤（有多个末端步骤时结果为各末端输出的映射）
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record WorkflowDefinition(String name, Map<String, Object> input, List<Step> steps, String output) {
+
+    /**
+     * 步骤：设置 tool 为工具调用，设置 prompt 为模型调用，二者恰好设置一个
+     *
+     * @param id 步骤 id（字母、数字、下划线与连字符）
+     * @param tool 工具名（如 baiduTranslate、chrome_get_web_content、fetch_urls 或 MCP 工具）
+     * @param arguments 工具参数（JSON 对象）
+     * @param prompt 模型调用的用户提示词
+     * @param system 模型调用的系统提示词
+     * @param model 模型名，为空时使用默认模型
+     * @param tools 模型调用可使用的工具名
+     * @param dependsOn 显式前置步骤
+     * @param timeout 步骤超时，如 30s，为空时使用默认值
+     * @param cache 是否使用步骤结果缓存，为空时模型步骤与只读工具启用、其他工具不启用
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Step(String id, String tool, JsonNode arguments, String prompt, String system, String model,
+                       List<String> tools, List<String> dependsOn, String timeout, Boolean cache) {
+
+        public boolean isTool() {
+            return tool != null && !tool.isBlank();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.workflow;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import com.example.alibabaai.service.usage.UsageAttribution;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 工作流引擎：把模型调用与工具调用组成的 DAG 在进程内执行
+ *
+ * <ul>
+ *   <li>每个步骤在其全部前置步骤成功后立即开始，互不依赖的分支并发执行，整体耗时接近关键路径而不是各步骤之和；</li>
+ *   <li>模型步骤走流式接口再聚合，工具步骤见 {@link WorkflowToolInvoker}；每个步骤有独立超时；</li>
+ *   <li>步骤失败或超时后，依赖它的步骤标记为 SKIPPED，不相关的分支继续执行，运行最终为 FAILED；</li>
+ *   <li>步骤结果按（步骤类型、模型或工具、替换模板后的输入）缓存一段时间，相同输入的步骤直接复用结果；
+ *       默认只缓存模型步骤与 cacheableTools 中的只读工具，其他工具（如 chrome_navigate）有副作用，需步骤显式 "cache": true；</li>
+ *   <li>运行异步执行，状态通过 {@link #get(String)} 查询，结束的运行保留 resultTtl。</li>
+ * </ul>
+ */
+public class WorkflowEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowEngine.class);
+
+    private final ChatClient chatClient;
+    private final WorkflowToolInvoker toolInvoker;
+    private final ObjectMapper objectMapper;
+    private final Settings settings;
+    private final StepCache cache;
+    private final Map<String, WorkflowRun> runs = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    public WorkflowEngine(ChatModel chatModel, WorkflowToolInvoker toolInvoker, ObjectMapper objectMapper, Settings settings) {
+        this.chatClient = ChatClient.builder(chatModel).build();
+        this.toolInvoker = toolInvoker;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.cache = new StepCache(settings.cacheMaxEntries(), settings.cacheTtl());
+    }
+
+    /**
+     * 校验并开始一次运行，立即返回；定义不合法抛出 IllegalArgumentException，运行数已满抛出 IllegalStateException
+     */
+    public WorkflowRun start(WorkflowDefinition definition, UsageAttribution attribution) {
+        WorkflowPlan plan = WorkflowPlan.of(definition, settings.maxSteps(), settings.defaultStepTimeout(),
+                settings.maxStepTimeout(), toolInvoker::exists, toolInvoker::existsForModel);
+        if (running.incrementAndGet() > settings.maxRunning()) {
+            running.decrementAndGet();
+            throw new IllegalStateException("Too many running workflows (max " + settings.maxRunning() + ")");
+        }
+        purgeFinished();
+        WorkflowRun run = new WorkflowRun(UUID.randomUUID().toString(), plan);
+        runs.put(run.getId(), run);
+        started.incrementAndGet();
+
+        Map<String, Sinks.Empty<Void>> completions = new LinkedHashMap<>();
+        plan.order().forEach(step -> completions.put(step.id(), Sinks.empty()));
+        List<Mono<Void>> steps = new ArrayList<>();
+        for (WorkflowDefinition.Step step : plan.order()) {
+            Sinks.Empty<Void> completion = completions.get(step.id());
+            Mono<Void> dependencies = Mono.when(plan.dependencies(step.id()).stream()
+                    .map(dep -> completions.get(dep).asMono())
+                    .toList());
+            steps.add(dependencies
+                    .then(Mono.defer(() -> execute(run, step)))
+                    .doOnSuccess(v -> completion.tryEmitEmpty())
+                    .doOnError(e -> {
+                        run.stepSkipped(step.id(), "A dependency did not succeed");
+                        completion.tryEmitError(e);
+                    })
+                    .onErrorResume(e -> Mono.empty()));
+        }
+        run.subscription(Flux.merge(steps)
+                .then()
+                .doFinally(signal -> finish(run))
+                .contextWrite(context -> context.put(UsageAttribution.class, attribution))
+                .subscribe());
+        logger.debug("Workflow {} ({}) started with {} steps", run.getId(), definition.name(), plan.order().size());
+        return run;
+    }
+
+    public WorkflowRun get(String id) {
+        return runs.get(id);
+    }
+
+    /**
+     * 最近的运行，按提交时间倒序
+     */
+    public List<WorkflowRun> list() {
+        return runs.values().stream()
+                .sorted(Comparator.comparingLong(WorkflowRun::getSubmittedAt).reversed())
+                .toList();
+    }
+
+    /**
+     * 取消运行中的工作流；已结束时返回 false
+     */
+    public boolean cancel(String id) {
+        WorkflowRun run = runs.get(id);
+        return run != null && run.cancel();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("maxRunning", settings.maxRunning());
+        stats.put("retained", runs.size());
+        stats.put("started", started.get());
+        stats.put("succeeded", succeeded.get());
+        stats.put("failed", failed.get());
+        stats.put("cancelled", cancelled.get());
+        stats.put("cacheEntries", cache.size());
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("cacheMisses", cacheMisses.get());
+        return stats;
+    }
+
+    // ==================== 步骤执行 ====================
+
+    private Mono<Void> execute(WorkflowRun run, WorkflowDefinition.Step step) {
+        if (!run.stepStarted(step.id())) {
+            return Mono.error(new IllegalStateException("Run " + run.getId() + " is " + run.getStatus()));
+        }
+        WorkflowPlan plan = run.plan();
+        Map<String, String> outputs = run.outputs();
+        String cacheKey;
+        Mono<String> call;
+        try {
+            if (step.isTool()) {
+                JsonNode arguments = plan.render(step.arguments(), outputs);
+                String json = arguments != null ? objectMapper.writeValueAsString(arguments) : "{}";
+                cacheKey = cacheKey("tool", step.tool(), json);
+                call = toolInvoker.invoke(step.tool(), json);
+            } else {
+                String prompt = plan.render(step.prompt(), outputs);
+                String system = plan.render(step.system(), outputs);
+                cacheKey = cacheKey("model", step.model(), String.valueOf(step.tools()), system, prompt);
+                call = model(prompt, system, step);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            run.stepFailed(step.id(), message(e));
+            return Mono.error(e);
+        }
+
+        boolean useCache = !settings.cacheTtl().isZero() && !settings.cacheTtl().isNegative() && cacheable(step);
+        if (useCache) {
+            String cached = cache.get(cacheKey);
+            if (cached != null) {
+                cacheHits.incrementAndGet();
+                run.stepSucceeded(step.id(), cached, true);
+                return Mono.empty();
+            }
+            cacheMisses.incrementAndGet();
+        }
+        Duration timeout = plan.timeout(step.id());
+        return call
+                .defaultIfEmpty("")
+                .timeout(timeout)
+                .doOnNext(output -> {
+                    if (useCache) {
+                        cache.put(cacheKey, output);
+                    }
+                    run.stepSucceeded(step.id(), output, false);
+                })
+                .doOnError(e -> run.stepFailed(step.id(), e instanceof TimeoutException
+                        ? "Timed out after " + timeout.toMillis() + " ms" : message(e)))
+                .then();
+    }
+
+    /**
+     * 步骤显式指定 cache 时以其为准；未指定时模型步骤与只读工具缓存，其余工具不缓存
+     */
+    private boolean cacheable(WorkflowDefinition.Step step) {
+        if (step.cache() != null) {
+            return step.cache();
+        }
+        return !step.isTool() || settings.cacheableTools().contains(step.tool());
+    }
+
+    private Mono<String> model(String prompt, String system, WorkflowDefinition.Step step) {
+        ChatClient.ChatClientRequestSpec spec = chatClient.prompt().user(prompt);
+        if (system != null && !system.isBlank()) {
+            spec = spec.system(system);
+        }
+        if (step.model() != null && !step.model().isBlank()) {
+            spec = spec.options(DashScopeChatOptions.builder().withModel(step.model()).build());
+        }
+        if (step.tools() != null && !step.tools().isEmpty()) {
+            spec = spec.toolNames(step.tools().toArray(String[]::new));
+        }
+        return spec.stream().content().collect(Collectors.joining());
+    }
+
+    private void finish(WorkflowRun run) {
+        running.decrementAndGet();
+        run.complete();
+        switch (run.getStatus()) {
+            case SUCCEEDED -> succeeded.incrementAndGet();
+            case FAILED -> failed.incrementAndGet();
+            case CANCELLED -> cancelled.incrementAndGet();
+            default -> {
+            }
+        }
+        logger.debug("Workflow {} finished: {}", run.getId(), run.getStatus());
+    }
+
+    private void purgeFinished() {
+        long cutoff = System.currentTimeMillis() - settings.resultTtl().toMillis();
+        runs.values().removeIf(run -> run.isFinished() && run.getFinishedAt() < cutoff);
+        if (runs.size() >= settings.maxRetainedRuns()) {
+            runs.values().stream()
+                    .filter(WorkflowRun::isFinished)
+                    .sorted(Comparator.comparingLong(WorkflowRun::getFinishedAt))
+                    .limit(runs.size() - settings.maxRetainedRuns() + 1L)
+                    .toList()
+                    .forEach(run -> runs.remove(run.getId()));
+        }
+    }
+
+    private static String cacheKey(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String message(Throwable e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    /**
+     * 步骤结果缓存：按最近使用淘汰，条目过期后视为未命中
+     */
+    private static final class StepCache {
+
+        private final int maxEntries;
+        private final long ttlMillis;
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        StepCache(int maxEntries, Duration ttl) {
+            this.maxEntries = Math.max(1, maxEntries);
+            this.ttlMillis = ttl.toMillis();
+        }
+
+        synchronized String get(String key) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized void put(String key, String value) {
+            entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+            if (entries.size() > maxEntries) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        private record Entry(String value, long expiresAt) {
+        }
+    }
+
+    /**
+     * 引擎配置
+     *
+     * @param maxSteps 单个工作流的最大步骤数
+     * @param defaultStepTimeout 步骤未指定 timeout 时的超时
+     * @param maxStepTimeout 步骤允许的最大超时
+     * @param maxRunning 同时运行的最大工作流数
+     * @param resultTtl 结束的运行保留多久
+     * @param maxRetainedRuns 最多保留的运行数
+     * @param cacheTtl 步骤结果缓存有效期（0 表示不缓存）
+     * @param cacheMaxEntries 步骤结果缓存最大条目数
+     * @param cacheableTools 默认缓存结果的只读工具，其余工具步骤需显式 "cache": true
+     */
+    public record Settings(int maxSteps, Duration defaultStepTimeout, Duration maxStepTimeout, int maxRunning,
+                           Duration resultTtl, int maxRetainedRuns, Duration cacheTtl, int cacheMaxEntries,
+                           Set<String> cacheableTools) {
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.workflow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 校验后的执行计划：步骤按拓扑序排列，依赖为显式 dependsOn 与模板引用之并集
+ *
+ * 校验失败（重复或非法 id、引用不存在的步骤或输入、环、未知工具、超时越界）抛出 {@link IllegalArgumentException}。
+ */
+final class WorkflowPlan {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*(input|steps)\\.([A-Za-z0-9_-]+)(?:\\.output)?\\s*}}");
+    private static final Pattern STEP_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final WorkflowDefinition definition;
+    private final List<WorkflowDefinition.Step> order;
+    private final Map<String, List<String>> dependencies;
+    private final Map<String, Duration> timeouts;
+    private final List<String> outputs;
+
+    private WorkflowPlan(WorkflowDefinition definition, List<WorkflowDefinition.Step> order,
+                         Map<String, List<String>> dependencies, Map<String, Duration> timeouts, List<String> outputs) {
+        this.definition = definition;
+        this.order = order;
+        this.dependencies = dependencies;
+        this.timeouts = timeouts;
+        this.outputs = outputs;
+    }
+
+    static WorkflowPlan of(WorkflowDefinition definition, int maxSteps, Duration defaultTimeout, Duration maxTimeout,
+                           Predicate<String> toolExists, Predicate<String> modelToolExists) {
+        if (definition == null || definition.steps() == null || definition.steps().isEmpty()) {
+            throw new IllegalArgumentException("At least one step is required");
+        }
+        if (definition.steps().size() > maxSteps) {
+            throw new IllegalArgumentException("At most " + maxSteps + " steps per workflow, got " + definition.steps().size());
+        }
+        Map<String, Object> input = definition.input() != null ? definition.input() : Map.of();
+        Map<String, WorkflowDefinition.Step> steps = new LinkedHashMap<>();
+        for (WorkflowDefinition.Step step : definition.steps()) {
+            if (step == null || step.id() == null || !STEP_ID.matcher(step.id()).matches()) {
+                throw new IllegalArgumentException("Step id must match " + STEP_ID.pattern() + ": " + (step != null ? step.id() : null));
+            }
+            if (steps.putIfAbsent(step.id(), step) != null) {
+                throw new IllegalArgumentException("Duplicate step id: " + step.id());
+            }
+            boolean model = step.prompt() != null && !step.prompt().isBlank();
+            if (step.isTool() == model) {
+                throw new IllegalArgumentException("Step " + step.id() + " must set exactly one of tool or prompt");
+            }
+            if (step.isTool() && !toolExists.test(step.tool())) {
+                throw new IllegalArgumentException("Step " + step.id() + " uses unknown tool: " + step.tool());
+            }
+            if (!step.isTool() && step.tools() != null) {
+                for (String tool : step.tools()) {
+                    if (!modelToolExists.test(tool)) {
+                        throw new IllegalArgumentException("Step " + step.id() + " offers unknown tool to the model: " + tool);
+                    }
+                }
+            }
+            if (step.isTool() && step.arguments() != null && !step.arguments().isObject()) {
+                throw new IllegalArgumentException("Step " + step.id() + " arguments must be a JSON object");
+            }
+        }
+
+        Map<String, List<String>> dependencies = new HashMap<>();
+        Map<String, Duration> timeouts = new HashMap<>();
+        for (WorkflowDefinition.Step step : steps.values()) {
+            Set<String> deps = new LinkedHashSet<>(step.dependsOn() != null ? step.dependsOn() : List.of());
+            List<String> texts = new ArrayList<>();
+            texts.add(step.prompt());
+            texts.add(step.system());
+            collectText(step.arguments(), texts);
+            for (String text : texts) {
+                if (text == null) {
+                    continue;
+                }
+                Matcher matcher = PLACEHOLDER.matcher(text);
+                while (matcher.find()) {
+                    if ("steps".equals(matcher.group(1))) {
+                        deps.add(matcher.group(2));
+                    } else if (!input.containsKey(matcher.group(2))) {
+                        throw new IllegalArgumentException("Step " + step.id() + " references missing input: " + matcher.group(2));
+                    }
+                }
+            }
+            for (String dep : deps) {
+                if (!steps.containsKey(dep)) {
+                    throw new IllegalArgumentException("Step " + step.id() + " depends on unknown step: " + dep);
+                }
+            }
+            dependencies.put(step.id(), List.copyOf(deps));
+            timeouts.put(step.id(), timeout(step, defaultTimeout, maxTimeout));
+        }
+
+        List<WorkflowDefinition.Step> order = topologicalOrder(steps, dependencies);
+        List<String> outputs;
+        if (definition.output() != null && !definition.output().isBlank()) {
+            if (!steps.containsKey(definition.output())) {
+                throw new IllegalArgumentException("Unknown output step: " + definition.output());
+            }
+            outputs = List.of(definition.output());
+        } else {
+            Set<String> referenced = new LinkedHashSet<>();
+            dependencies.values().forEach(referenced::addAll);
+            outputs = steps.keySet().stream().filter(id -> !referenced.contains(id)).toList();
+        }
+        return new WorkflowPlan(definition, order, dependencies, timeouts, outputs);
+    }
+
+    WorkflowDefinition definition() {
+        return definition;
+    }
+
+    List<WorkflowDefinition.Step> order() {
+        return order;
+    }
+
+    List<String> dependencies(String stepId) {
+        return dependencies.get(stepId);
+    }
+
+    Duration timeout(String stepId) {
+        return timeouts.get(stepId);
+    }
+
+    List<String> outputs() {
+        return outputs;
+    }
+
+    /**
+     * 用运行输入与已完成步骤的输出替换模板中的引用
+     */
+    String render(String template, Map<String, String> stepOutputs) {
+        if (template == null) {
+            return null;
+        }
+        Map<String, Object> input = definition.input() != null ? definition.input() : Map.of();
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            Object value = "steps".equals(matcher.group(1)) ? stepOutputs.get(matcher.group(2)) : input.get(matcher.group(2));
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(value != null ? value.toString() : ""));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * 对工具参数中的所有字符串值做模板替换，返回新的 JSON 节点
+     */
+    JsonNode render(JsonNode arguments, Map<String, String> stepOutputs) {
+        if (arguments == null) {
+            return null;
+        }
+        JsonNode copy = arguments.deepCopy();
+        return renderNode(copy, stepOutputs);
+    }
+
+    private JsonNode renderNode(JsonNode node, Map<String, String> stepOutputs) {
+        if (node.isTextual()) {
+            return TextNode.valueOf(render(node.asText(), stepOutputs));
+        }
+        if (node instanceof ObjectNode object) {
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                field.setValue(renderNode(field.getValue(), stepOutputs));
+            }
+        } else if (node instanceof ArrayNode array) {
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, renderNode(array.get(i), stepOutputs));
+            }
+        }
+        return node;
+    }
+
+    private static void collectText(JsonNode node, List<String> texts) {
+        if (node == null) {
+            return;
+        }
+        if (node.isTextual()) {
+            texts.add(node.asText());
+        } else if (node.isContainerNode()) {
+            node.forEach(child -> collectText(child, texts));
+        }
+    }
+
+    private static Duration timeout(WorkflowDefinition.Step step, Duration defaultTimeout, Duration maxTimeout) {
+        if (step.timeout() == null || step.timeout().isBlank()) {
+            return defaultTimeout;
+        }
+        Duration timeout;
+        try {
+            timeout = DurationStyle.detectAndParse(step.timeout());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Step " + step.id() + " has invalid timeout: " + step.timeout());
+        }
+        if (timeout.isNegative() || timeout.isZero() || timeout.compareTo(maxTimeout) > 0) {
+            throw new IllegalArgumentException("Step " + step.id() + " timeout must be between 0 and " + maxTimeout);
+        }
+        return timeout;
+    }
+
+    /**
+     * Kahn 算法，入度相同时保持声明顺序；剩余步骤即构成环
+     */
+    private static List<WorkflowDefinition.Step> topologicalOrder(Map<String, WorkflowDefinition.Step> steps,
+                                                                  Map<String, List<String>> dependencies) {
+        Map<String, Integer> inDegree = new LinkedHashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (String id : steps.keySet()) {
+            inDegree.put(id, dependencies.get(id).size());
+            for (String dep : dependencies.get(id)) {
+                dependents.computeIfAbsent(dep, k -> new ArrayList<>()).add(id);
+            }
+        }
+        Deque<String> ready = new ArrayDeque<>();
+        inDegree.forEach((id, degree) -> {
+            if (degree == 0) {
+                ready.add(id);
+            }
+        });
+        List<WorkflowDefinition.Step> order = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            String id = ready.poll();
+            order.add(steps.get(id));
+            for (String dependent : dependents.getOrDefault(id, List.of())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (order.size() < steps.size()) {
+            List<String> cyclic = inDegree.entrySet().stream().filter(e -> e.getValue() > 0).map(Map.Entry::getKey).toList();
+            throw new IllegalArgumentException("Workflow has a dependency cycle among steps: " + cyclic);
+        }
+        return order;
+    }
+}
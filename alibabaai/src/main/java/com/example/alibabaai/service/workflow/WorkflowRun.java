@@ -0,0 +1,280 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.workflow;
+
+import reactor.core.Disposable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次工作流运行的状态
+ *
+ * 除整体耗时外还给出 sumMillis（各步骤耗时之和，即串行执行所需时间）与 criticalPathMillis
+ * （依赖链上耗时最长的一条路径），二者之差即并行执行省下的时间。
+ */
+public class WorkflowRun {
+
+    public enum Status {
+        RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    public enum StepStatus {
+        PENDING, RUNNING, SUCCEEDED, FAILED, SKIPPED, CANCELLED
+    }
+
+    private final String id;
+    private final WorkflowPlan plan;
+    private final long submittedAt = System.currentTimeMillis();
+    private final Map<String, StepState> steps = new LinkedHashMap<>();
+    private volatile Status status = Status.RUNNING;
+    private volatile long finishedAt;
+    private volatile Object output;
+    private volatile String error;
+    private volatile Disposable subscription;
+
+    WorkflowRun(String id, WorkflowPlan plan) {
+        this.id = id;
+        this.plan = plan;
+        for (WorkflowDefinition.Step step : plan.order()) {
+            steps.put(step.id(), new StepState(step, plan.dependencies(step.id())));
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+
+    WorkflowPlan plan() {
+        return plan;
+    }
+
+    StepState step(String stepId) {
+        return steps.get(stepId);
+    }
+
+    void subscription(Disposable subscription) {
+        this.subscription = subscription;
+    }
+
+    /**
+     * 已成功步骤的输出（用于模板替换）
+     */
+    synchronized Map<String, String> outputs() {
+        Map<String, String> outputs = new HashMap<>();
+        steps.forEach((id, step) -> {
+            if (step.status == StepStatus.SUCCEEDED) {
+                outputs.put(id, step.output);
+            }
+        });
+        return outputs;
+    }
+
+    synchronized boolean stepStarted(String stepId) {
+        StepState step = steps.get(stepId);
+        if (step.status != StepStatus.PENDING) {
+            return false;
+        }
+        step.status = StepStatus.RUNNING;
+        step.startedAt = System.currentTimeMillis();
+        step.startNanos = System.nanoTime();
+        return true;
+    }
+
+    synchronized void stepSucceeded(String stepId, String output, boolean cached) {
+        StepState step = steps.get(stepId);
+        if (step.status != StepStatus.RUNNING) {
+            return;
+        }
+        step.finish(StepStatus.SUCCEEDED);
+        step.output = output;
+        step.cached = cached;
+    }
+
+    synchronized void stepFailed(String stepId, String error) {
+        StepState step = steps.get(stepId);
+        if (step.status != StepStatus.RUNNING) {
+            return;
+        }
+        step.finish(StepStatus.FAILED);
+        step.error = error;
+    }
+
+    synchronized void stepSkipped(String stepId, String reason) {
+        StepState step = steps.get(stepId);
+        if (step.status == StepStatus.PENDING) {
+            step.status = StepStatus.SKIPPED;
+            step.error = reason;
+        }
+    }
+
+    /**
+     * 所有步骤结束后调用：汇总结果并设置最终状态
+     */
+    synchronized void complete() {
+        if (status != Status.RUNNING) {
+            return;
+        }
+        List<String> failed = steps.values().stream()
+                .filter(step -> step.status != StepStatus.SUCCEEDED)
+                .map(step -> step.id)
+                .toList();
+        if (failed.isEmpty()) {
+            List<String> outputSteps = plan.outputs();
+            if (outputSteps.size() == 1) {
+                output = steps.get(outputSteps.get(0)).output;
+            } else {
+                Map<String, String> outputs = new LinkedHashMap<>();
+                outputSteps.forEach(stepId -> outputs.put(stepId, steps.get(stepId).output));
+                output = outputs;
+            }
+            status = Status.SUCCEEDED;
+        } else {
+            error = "Steps did not succeed: " + failed;
+            status = Status.FAILED;
+        }
+        finishedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 取消运行：未结束的步骤标记为 CANCELLED，在途调用被取消订阅
+     */
+    boolean cancel() {
+        synchronized (this) {
+            if (status != Status.RUNNING) {
+                return false;
+            }
+            steps.values().forEach(step -> {
+                if (step.status == StepStatus.PENDING || step.status == StepStatus.RUNNING) {
+                    step.finish(StepStatus.CANCELLED);
+                }
+            });
+            status = Status.CANCELLED;
+            finishedAt = System.currentTimeMillis();
+        }
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        return true;
+    }
+
+    public synchronized Map<String, Object> snapshot(boolean includeOutputs) {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("id", id);
+        res.put("name", plan.definition().name());
+        res.put("status", status);
+        res.put("submittedAt", submittedAt);
+        res.put("finishedAt", finishedAt > 0 ? finishedAt : null);
+        res.put("elapsedMillis", (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - submittedAt);
+        long sum = steps.values().stream().mapToLong(step -> step.elapsedMillis).sum();
+        res.put("sumMillis", sum);
+        res.put("criticalPathMillis", criticalPathMillis());
+        if (includeOutputs && output != null) {
+            res.put("output", output);
+        }
+        if (error != null) {
+            res.put("error", error);
+        }
+        List<Map<String, Object>> stepSnapshots = steps.values().stream().map(step -> step.snapshot(includeOutputs)).toList();
+        res.put("steps", stepSnapshots);
+        return res;
+    }
+
+    private long criticalPathMillis() {
+        // steps 按拓扑序排列，前置步骤总在之前计算
+        Map<String, Long> finish = new HashMap<>();
+        long longest = 0;
+        for (StepState step : steps.values()) {
+            long start = step.dependsOn.stream().mapToLong(dep -> finish.getOrDefault(dep, 0L)).max().orElse(0);
+            long end = start + step.elapsedMillis;
+            finish.put(step.id, end);
+            longest = Math.max(longest, end);
+        }
+        return longest;
+    }
+
+    static final class StepState {
+        private final String id;
+        private final String kind;
+        private final String target;
+        private final List<String> dependsOn;
+        private volatile StepStatus status = StepStatus.PENDING;
+        private long startedAt;
+        private long startNanos;
+        private long elapsedMillis;
+        private boolean cached;
+        private String output;
+        private String error;
+
+        StepState(WorkflowDefinition.Step step, List<String> dependsOn) {
+            this.id = step.id();
+            this.kind = step.isTool() ? "tool" : "model";
+            this.target = step.isTool() ? step.tool() : step.model();
+            this.dependsOn = dependsOn;
+        }
+
+        StepStatus status() {
+            return status;
+        }
+
+        private void finish(StepStatus finalStatus) {
+            if (status == StepStatus.RUNNING) {
+                elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            }
+            status = finalStatus;
+        }
+
+        private Map<String, Object> snapshot(boolean includeOutput) {
+            Map<String, Object> res = new LinkedHashMap<>();
+            res.put("id", id);
+            res.put("kind", kind);
+            if (target != null) {
+                res.put(kind.equals("tool") ? "tool" : "model", target);
+            }
+            res.put("dependsOn", dependsOn);
+            res.put("status", status);
+            res.put("startedAt", startedAt > 0 ? startedAt : null);
+            res.put("elapsedMillis", elapsedMillis);
+            res.put("cached", cached);
+            if (includeOutput && output != null) {
+                res.put("output", output);
+            }
+            if (error != null) {
+                res.put("error", error);
+            }
+            return res;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.alibabaai.service.workflow;
+
+import com.example.alibabaai.service.mcp.BrowserMcpService;
+import com.example.alibabaai.service.mcp.binding.ToolArgumentBinders;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 工作流工具步骤的调用器
+ *
+ * chrome_navigate 与 chrome_get_web_content 由本地 {@link BrowserMcpService} 处理（与 /mcp/tools/call 相同，
+ * 参数经 {@link ToolArgumentBinders} 绑定，调用不占线程）；其余工具（baiduTranslate 等函数工具、fetch_urls、
+ * MCP 工具）按名称从 {@link ToolCallbackResolver} 解析，同步回调放到 boundedElastic 上执行。
+ */
+public class WorkflowToolInvoker {
+
+    private static final String CHROME_NAVIGATE = "chrome_navigate";
+    private static final String CHROME_GET_WEB_CONTENT = "chrome_get_web_content";
+
+    private final ToolCallbackResolver toolCallbackResolver;
+    private final ToolArgumentBinders toolArgumentBinders;
+    private final BrowserMcpService browserMcpService;
+
+    public WorkflowToolInvoker(ToolCallbackResolver toolCallbackResolver, ToolArgumentBinders toolArgumentBinders,
+                               BrowserMcpService browserMcpService) {
+        this.toolCallbackResolver = toolCallbackResolver;
+        this.toolArgumentBinders = toolArgumentBinders;
+        this.browserMcpService = browserMcpService;
+    }
+
+    /**
+     * 工具步骤可用的工具
+     */
+    public boolean exists(String toolName) {
+        return isBrowserTool(toolName) || toolCallbackResolver.resolve(toolName) != null;
+    }
+
+    /**
+     * 可以交给模型调用的工具（只有注册为 ToolCallback 的工具）
+     */
+    public boolean existsForModel(String toolName) {
+        return toolCallbackResolver.resolve(toolName) != null;
+    }
+
+    /**
+     * 调用工具，参数为 JSON 对象字符串
+     */
+    public Mono<String> invoke(String toolName, String arguments) {
+        if (isBrowserTool(toolName)) {
+            return Mono.defer(() -> invokeBrowserTool(toolName, arguments));
+        }
+        ToolCallback callback = toolCallbackResolver.resolve(toolName);
+        if (callback == null) {
+            return Mono.error(new IllegalArgumentException("Unknown tool: " + toolName));
+        }
+        return Mono.fromCallable(() -> callback.call(arguments)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private boolean isBrowserTool(String toolName) {
+        return browserMcpService != null && toolArgumentBinders != null
+                && (CHROME_NAVIGATE.equals(toolName) || CHROME_GET_WEB_CONTENT.equals(toolName));
+    }
+
+    private Mono<String> invokeBrowserTool(String toolName, String arguments) {
+        if (CHROME_NAVIGATE.equals(toolName)) {
+            BrowserMcpService.NavigateRequest request = toolArgumentBinders.bind(toolName,
+                    BrowserMcpService.NavigateRequest.class, arguments);
+            return browserMcpService.chromeNavigate(request.url(), request.newWindow(), request.width(), request.height());
+        }
+        BrowserMcpService.WebContentRequest request = toolArgumentBinders.bind(toolName,
+                BrowserMcpService.WebContentRequest.class, arguments);
+        return browserMcpService.chromeGetWebContent(request.url(), request.textContent(), request.htmlContent(),
+                request.selector(), request.maxTokens());
+    }
+}
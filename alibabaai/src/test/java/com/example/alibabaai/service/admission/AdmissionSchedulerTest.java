@@ -0,0 +1,119 @@
+package com.example.alibabaai.service.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionSchedulerTest {
+
+    @Test
+    void grantsQueuedSlotsByWeight() throws Exception {
+        AdmissionScheduler scheduler = new AdmissionScheduler(1, 10, new int[]{3, 1, 1},
+                Duration.ofSeconds(10), Duration.ofSeconds(1));
+        AdmissionScheduler.Ticket held = scheduler.admit(PriorityClass.STANDARD, Duration.ZERO);
+        assertTrue(held.isAdmitted());
+
+        List<PriorityClass> granted = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (PriorityClass priority : List.of(PriorityClass.INTERACTIVE, PriorityClass.BULK)) {
+            for (int i = 0; i < 3; i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        AdmissionScheduler.Ticket ticket = scheduler.admit(priority, Duration.ofSeconds(10));
+                        granted.add(priority);
+                        ticket.release();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+        }
+        while (waiting(scheduler, "interactive") < 3 || waiting(scheduler, "bulk") < 3) {
+            Thread.sleep(5);
+        }
+
+        held.release();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        assertEquals(List.of(PriorityClass.INTERACTIVE, PriorityClass.INTERACTIVE, PriorityClass.BULK,
+                PriorityClass.INTERACTIVE, PriorityClass.BULK, PriorityClass.BULK), granted);
+        assertEquals(0, scheduler.stats().get("inUse"));
+    }
+
+    @Test
+    void shedsLowestClassesFirstWhenInteractiveLatencyBreachesSlo() throws Exception {
+        AdmissionScheduler scheduler = new AdmissionScheduler(100, 10, new int[]{8, 3, 1},
+                Duration.ofMillis(10), Duration.ZERO);
+        slowInteractive(scheduler);
+        assertEquals(1, scheduler.getShedLevel());
+        assertEquals(AdmissionScheduler.Outcome.SHED, scheduler.admit(PriorityClass.BULK, Duration.ZERO).getOutcome());
+        assertTrue(scheduler.admit(PriorityClass.STANDARD, Duration.ZERO).isAdmitted());
+
+        slowInteractive(scheduler);
+        assertEquals(2, scheduler.getShedLevel());
+        assertFalse(scheduler.admit(PriorityClass.STANDARD, Duration.ZERO).isAdmitted());
+        assertTrue(scheduler.admit(PriorityClass.INTERACTIVE, Duration.ZERO).isAdmitted());
+
+        for (int i = 0; i < 100 && scheduler.getShedLevel() > 0; i++) {
+            AdmissionScheduler.Ticket ticket = scheduler.admit(PriorityClass.INTERACTIVE, Duration.ZERO);
+            ticket.responseStarted();
+            ticket.release();
+        }
+        assertEquals(0, scheduler.getShedLevel());
+        assertTrue(scheduler.admit(PriorityClass.BULK, Duration.ZERO).isAdmitted());
+    }
+
+    @Test
+    void shedLevelDecaysWithoutInteractiveSamples() throws Exception {
+        AdmissionScheduler scheduler = new AdmissionScheduler(100, 10, new int[]{8, 3, 1},
+                Duration.ofMillis(10), Duration.ZERO);
+        slowInteractive(scheduler);
+        slowInteractive(scheduler);
+        assertEquals(2, scheduler.getShedLevel());
+
+        // 交互式流量消失后没有新样本，只能靠调整周期把等级降下来
+        scheduler.decayIfIdle();
+        assertEquals(1, scheduler.getShedLevel());
+        assertTrue(scheduler.admit(PriorityClass.STANDARD, Duration.ZERO).isAdmitted());
+        scheduler.decayIfIdle();
+        assertEquals(0, scheduler.getShedLevel());
+        assertTrue(scheduler.admit(PriorityClass.BULK, Duration.ZERO).isAdmitted());
+    }
+
+    @Test
+    void synchronousTicketsOnlyCountQueueWait() throws Exception {
+        AdmissionScheduler scheduler = new AdmissionScheduler(100, 10, new int[]{8, 3, 1},
+                Duration.ofMillis(10), Duration.ZERO);
+        AdmissionScheduler.Ticket ticket = scheduler.admit(PriorityClass.INTERACTIVE, Duration.ZERO);
+        Thread.sleep(30);
+        ticket.queueWaitOnly();
+        // 每个 Ticket 只计一次延迟
+        ticket.responseStarted();
+        ticket.release();
+        assertEquals(0, scheduler.getShedLevel());
+    }
+
+    private static void slowInteractive(AdmissionScheduler scheduler) throws Exception {
+        AdmissionScheduler.Ticket ticket = scheduler.admit(PriorityClass.INTERACTIVE, Duration.ZERO);
+        Thread.sleep(30);
+        ticket.responseStarted();
+        ticket.release();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int waiting(AdmissionScheduler scheduler, String priority) {
+        Map<String, Object> classes = (Map<String, Object>) scheduler.stats().get("classes");
+        return (int) ((Map<String, Object>) classes.get(priority)).get("waiting");
+    }
+}
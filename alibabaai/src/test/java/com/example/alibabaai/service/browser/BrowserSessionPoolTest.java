@@ -0,0 +1,126 @@
+package com.example.alibabaai.service.browser;
+
+import com.example.alibabaai.service.http.OutboundUrlGuard;
+import com.example.alibabaai.service.mcp.BrowserMcpService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BrowserSessionPoolTest {
+
+    @Test
+    void reusesSessionsAndMapsViewport() throws Exception {
+        FakeBrowserLauncher launcher = new FakeBrowserLauncher();
+        try (BrowserSessionPool pool = pool(launcher, 2, Duration.ofMinutes(5))) {
+            BrowserSession.NavigationResult first = pool.withSession(s -> s.navigate("https://a.example", 800, 600));
+            BrowserSession.NavigationResult second = pool.withSession(s -> s.navigate("https://b.example", 800, 600));
+            BrowserSession.NavigationResult third = pool.withSession(s -> s.navigate("https://c.example", null, null));
+            BrowserSession.NavigationResult failed = pool.withSession(s -> s.navigate("https://unresolvable.example", null, null));
+
+            assertEquals(1, launcher.launches.get());
+            assertEquals(first.sessionId(), second.sessionId());
+            assertEquals(800, first.width());
+            assertEquals(600, first.height());
+            assertEquals(null, third.width());
+            assertEquals("net::ERR_NAME_NOT_RESOLVED", failed.errorText());
+            // 视口只在变化时设置，恢复默认时清除
+            assertEquals(List.of(
+                    "Emulation.setDeviceMetricsOverride {width=800, height=600, deviceScaleFactor=1, mobile=false}",
+                    "Page.navigate {url=https://a.example}",
+                    "Page.navigate {url=https://b.example}",
+                    "Emulation.clearDeviceMetricsOverride",
+                    "Page.navigate {url=https://c.example}",
+                    "Page.navigate {url=https://unresolvable.example}"), launcher.browsers.get(0).commands);
+        }
+    }
+
+    @Test
+    void capsConcurrentSessions() throws Exception {
+        FakeBrowserLauncher launcher = new FakeBrowserLauncher();
+        try (BrowserSessionPool pool = pool(launcher, 2, Duration.ofMinutes(5))) {
+            BrowserSession a = pool.lease();
+            BrowserSession b = pool.lease();
+            assertNotSame(a, b);
+            assertThrows(IllegalStateException.class, pool::lease);
+
+            pool.release(a, false);
+            assertSame(a, pool.lease());
+            assertEquals(2, launcher.launches.get());
+        }
+    }
+
+    @Test
+    void evictsIdleSessions() throws Exception {
+        FakeBrowserLauncher launcher = new FakeBrowserLauncher();
+        try (BrowserSessionPool pool = pool(launcher, 2, Duration.ZERO)) {
+            pool.withSession(s -> s.navigate("https://a.example", null, null));
+            assertEquals(1, pool.evictIdle());
+            assertTrue(launcher.browsers.get(0).closed);
+
+            pool.withSession(s -> s.navigate("https://b.example", null, null));
+            assertEquals(2, launcher.launches.get());
+            assertEquals(1L, pool.stats().get("evicted"));
+        }
+    }
+
+    @Test
+    void recoversFromCrashedBrowsers() throws Exception {
+        FakeBrowserLauncher launcher = new FakeBrowserLauncher();
+        try (BrowserSessionPool pool = pool(launcher, 1, Duration.ofMinutes(5))) {
+            pool.withSession(s -> s.navigate("https://a.example", null, null));
+
+            // 空闲期间崩溃：租用时跳过
+            launcher.browsers.get(0).crash();
+            BrowserSession.NavigationResult afterIdleCrash = pool.withSession(s -> s.navigate("https://b.example", null, null));
+            assertEquals(2, afterIdleCrash.sessionId());
+
+            // 使用中崩溃：作废并在新会话上重试
+            BrowserSession.NavigationResult retried = pool.withSession(s -> {
+                if (s.getId() == 2) {
+                    launcher.browsers.get(1).crash();
+                }
+                return s.navigate("https://c.example", null, null);
+            });
+            assertEquals(3, retried.sessionId());
+            assertEquals(3, launcher.launches.get());
+
+            Map<String, Object> stats = pool.stats();
+            assertEquals(2L, stats.get("crashed"));
+            assertEquals(0, stats.get("leased"));
+            assertEquals(1, stats.get("idle"));
+        }
+    }
+
+    @Test
+    void navigateToolChecksTargetBeforeLeasingSession() throws Exception {
+        FakeBrowserLauncher launcher = new FakeBrowserLauncher();
+        try (BrowserSessionPool pool = pool(launcher, 1, Duration.ofMinutes(5))) {
+            BrowserMcpService service = new BrowserMcpService(WebClient.create(), new OutboundUrlGuard(false, 5),
+                    new StaticListableBeanFactory(Map.of("pool", pool)).getBeanProvider(BrowserSessionPool.class), 1500);
+            for (String url : new String[]{"http://127.0.0.1:8080/actuator", "http://169.254.169.254/latest/meta-data/",
+                    "file:///etc/passwd", "chrome://settings", "javascript:alert(1)", "not a url", " "}) {
+                assertThrows(IllegalArgumentException.class,
+                        () -> service.chromeNavigate(url, null, null, null).block(), url);
+            }
+            assertEquals(0, launcher.launches.get(), "rejected targets must not reach the browser");
+
+            String reply = service.chromeNavigate("https://93.184.216.34/", null, null, null).block();
+            assertTrue(reply.startsWith("Navigated to https://93.184.216.34/"), reply);
+            assertEquals(List.of("Page.navigate {url=https://93.184.216.34/}"), launcher.browsers.get(0).commands);
+        }
+    }
+
+    private static BrowserSessionPool pool(FakeBrowserLauncher launcher, int maxSessions, Duration idleTimeout) {
+        return new BrowserSessionPool(launcher, maxSessions, idleTimeout, Duration.ofMillis(100), Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.alibabaai.service.browser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 不启动真实进程的浏览器启动器，记录收到的 DevTools 命令，可模拟浏览器崩溃
+ */
+class FakeBrowserLauncher implements BrowserLauncher {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    final List<FakeBrowser> browsers = new CopyOnWriteArrayList<>();
+    final AtomicInteger launches = new AtomicInteger();
+
+    @Override
+    public BrowserConnection launch() {
+        launches.incrementAndGet();
+        FakeBrowser browser = new FakeBrowser(browsers.size() + 1);
+        browsers.add(browser);
+        return browser;
+    }
+
+    static final class FakeBrowser implements BrowserConnection {
+        final int number;
+        final List<String> commands = new CopyOnWriteArrayList<>();
+        volatile boolean alive = true;
+        volatile boolean closed;
+
+        FakeBrowser(int number) {
+            this.number = number;
+        }
+
+        void crash() {
+            alive = false;
+        }
+
+        @Override
+        public JsonNode send(String method, Map<String, Object> params, Duration timeout) throws IOException {
+            if (!alive || closed) {
+                throw new IOException("Browser " + number + " has exited");
+            }
+            commands.add(method + (params.isEmpty() ? "" : " " + params));
+            ObjectNode result = MAPPER.createObjectNode();
+            if (method.equals("Page.navigate")) {
+                String url = String.valueOf(params.get("url"));
+                result.put("frameId", "frame-" + number);
+                if (url.contains("unresolvable")) {
+                    result.put("errorText", "net::ERR_NAME_NOT_RESOLVED");
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive && !closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
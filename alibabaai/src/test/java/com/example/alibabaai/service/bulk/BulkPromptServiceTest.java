@@ -0,0 +1,131 @@
+package com.example.alibabaai.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkPromptServiceTest {
+
+    private final StubModel model = new StubModel();
+
+    @Test
+    void capsConcurrencyAndTagsResultsWithInputLineNumbers() {
+        BulkPromptService service = new BulkPromptService(model, new ObjectMapper(), 2, 3, 100);
+        // 越靠前的行越慢，结果按完成顺序输出
+        Flux<String> lines = Flux.range(0, 9)
+                .map(i -> "{\"id\":\"r" + i + "\",\"prompt\":\"p" + i + "\",\"system\":\"" + (9 - i) * 20 + "\"}");
+
+        List<BulkPromptService.BulkPromptResult> results = service.process(lines, 100)
+                .collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(9, results.size());
+        assertEquals(3, model.maxInFlight.get(), "requested concurrency should be capped at maxConcurrency");
+        assertTrue(results.get(0).index() != 0, "results should be emitted in completion order");
+        Map<Long, BulkPromptService.BulkPromptResult> byIndex = results.stream()
+                .collect(Collectors.toMap(BulkPromptService.BulkPromptResult::index, Function.identity()));
+        for (long i = 0; i < 9; i++) {
+            BulkPromptService.BulkPromptResult result = byIndex.get(i);
+            assertEquals("r" + i, result.id());
+            assertEquals("echo p" + i, result.output());
+            assertEquals("stub", result.model());
+            assertEquals(7L, result.totalTokens());
+            assertNull(result.error());
+        }
+
+        model.maxInFlight.set(0);
+        service.process(lines, null).collectList().block(Duration.ofSeconds(10));
+        assertEquals(2, model.maxInFlight.get(), "default concurrency applies when none is requested");
+    }
+
+    @Test
+    void blankAndMalformedLinesYieldPerLineErrors() {
+        BulkPromptService service = new BulkPromptService(model, new ObjectMapper(), 4, 4, 100);
+        Flux<String> lines = Flux.just("{\"id\":\"a\",\"prompt\":\"hi\"}", "", "{not json", "  ",
+                "{\"id\":\"b\",\"prompt\":\" \"}", "{\"id\":\"c\",\"prompt\":\"bye\"}");
+
+        Map<Long, BulkPromptService.BulkPromptResult> byIndex = service.process(lines, null)
+                .collectMap(BulkPromptService.BulkPromptResult::index).block(Duration.ofSeconds(10));
+
+        assertEquals(6, byIndex.size());
+        assertEquals("echo hi", byIndex.get(0L).output());
+        assertEquals("Empty line", byIndex.get(1L).error());
+        assertTrue(byIndex.get(2L).error().startsWith("Invalid NDJSON line"), byIndex.get(2L).error());
+        assertEquals("Empty line", byIndex.get(3L).error());
+        assertEquals("prompt is required", byIndex.get(4L).error());
+        assertEquals("b", byIndex.get(4L).id());
+        assertEquals("echo bye", byIndex.get(5L).output());
+        assertEquals(2, model.calls.get(), "only valid lines should reach the model");
+    }
+
+    @Test
+    void stopsReadingAfterMaxLines() {
+        BulkPromptService service = new BulkPromptService(model, new ObjectMapper(), 4, 4, 5);
+        AtomicLong produced = new AtomicLong();
+        Flux<String> endless = Flux.<String>generate(sink -> sink.next("{\"prompt\":\"x\"}"))
+                .doOnNext(line -> produced.incrementAndGet());
+
+        List<BulkPromptService.BulkPromptResult> results = service.process(endless, null)
+                .collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(6, results.size());
+        BulkPromptService.BulkPromptResult overflow = results.stream().filter(r -> r.error() != null)
+                .findFirst().orElseThrow();
+        assertEquals(5, overflow.index());
+        assertEquals("Too many lines (max 5), remaining input ignored", overflow.error());
+        assertEquals(5, model.calls.get());
+        assertEquals(6, produced.get(), "input beyond the limit should not be read");
+
+        assertThrows(IllegalArgumentException.class, () -> new BulkPromptService(model, new ObjectMapper(), 1, 1, 0));
+    }
+
+    /**
+     * 回显用户提示词；系统提示词为数字时作为延迟毫秒数，记录并发峰值
+     */
+    private static final class StubModel implements ChatModel {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            String system = prompt.getSystemMessage().getText();
+            long delay = system != null && system.matches("\\d+") ? Long.parseLong(system) : 10;
+            return Flux.defer(() -> {
+                calls.incrementAndGet();
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return Flux.just(
+                                new ChatResponse(List.of(new Generation(new AssistantMessage("echo ")))),
+                                new ChatResponse(List.of(new Generation(new AssistantMessage(prompt.getUserMessage().getText()))),
+                                        ChatResponseMetadata.builder().model("stub").usage(new DefaultUsage(3, 4)).build()))
+                        .delayElements(Duration.ofMillis(delay / 2))
+                        .doOnTerminate(inFlight::decrementAndGet);
+            });
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.alibabaai.service.cluster;
+
+import com.example.alibabaai.config.cluster.ClusterShardingConfig;
+import com.example.alibabaai.config.http.HttpClientConfig;
+import com.example.alibabaai.config.memory.ChatMemoryConfig;
+import com.example.alibabaai.controller.cluster.ClusterController;
+import com.example.alibabaai.controller.memory.InMemoryController;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.PortInUseException;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在同一进程内启动三个只包含 Web 层与记忆接口的实例，验证路由与成员变更后的会话迁移
+ */
+class ConversationShardingTest {
+
+    private static final String SECRET = "test-cluster-secret";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final List<String> urls = new ArrayList<>();
+
+    @BeforeEach
+    void startNodes() throws IOException {
+        // 成员地址必须在启动前确定，探测到的空闲端口可能在启动前被占用，换一组端口重试
+        for (int attempt = 1; ; attempt++) {
+            try {
+                tryStartNodes();
+                return;
+            } catch (RuntimeException e) {
+                stopNodes();
+                if (attempt == 3 || !portInUse(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean portInUse(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PortInUseException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void tryStartNodes() throws IOException {
+        nodes.clear();
+        urls.clear();
+        for (int i = 0; i < 3; i++) {
+            urls.add("http://localhost:" + freePort());
+        }
+        for (String url : urls) {
+            nodes.add(new SpringApplicationBuilder(NodeConfig.class)
+                    .run("--server.port=" + URI.create(url).getPort(),
+                            "--cluster.sharding.enabled=true",
+                            "--cluster.self-url=" + url,
+                            "--cluster.secret=" + SECRET,
+                            "--cluster.members=" + String.join(",", urls)));
+        }
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void routesEachConversationToOneOwnerAndHandsOffOnLeave() throws Exception {
+        List<String> conversations = new ArrayList<>();
+        for (int c = 0; c < 12; c++) {
+            String conversationId = "conv-" + c;
+            conversations.add(conversationId);
+            // 依次从三个节点发起调用，模型看到的历史消息数应连续增长
+            for (int i = 0; i < 3; i++) {
+                String reply = get(urls.get(i), "/advisor/memory/in/call?query=hi&conversation_id=" + conversationId);
+                assertEquals("seen:" + (2 * i + 1), reply);
+            }
+        }
+        for (String conversationId : conversations) {
+            assertEquals(1, holders(conversationId).size(), conversationId + " should live on exactly one node");
+        }
+        assertTrue(conversations.stream().map(c -> holders(c).get(0)).distinct().count() > 1,
+                "conversations should spread over several nodes");
+
+        // 移除 conv-0 的归属节点，其会话应迁移到剩余节点之一
+        int leaving = holders("conv-0").get(0);
+        List<String> remaining = new ArrayList<>(urls);
+        remaining.remove(leaving);
+        String membersJson = "{\"members\":[\"" + String.join("\",\"", remaining) + "\"]}";
+        assertEquals(401, put(urls.get((leaving + 1) % 3), "/cluster/members", membersJson, null));
+        assertEquals(401, put(urls.get((leaving + 1) % 3), "/cluster/members", membersJson, "wrong"));
+        assertEquals(401, post(urls.get(0), "/cluster/handoff", "[]", null));
+        assertEquals(200, put(urls.get((leaving + 1) % 3), "/cluster/members", membersJson, SECRET));
+
+        assertTrue(repository(leaving).findConversationIds().isEmpty(), "leaving node should hand off everything");
+        for (String conversationId : conversations) {
+            List<Integer> holders = holders(conversationId);
+            assertEquals(1, holders.size());
+            assertNotEquals(leaving, holders.get(0));
+            assertEquals(6, repository(holders.get(0)).findByConversationId(conversationId).size());
+        }
+        String reply = get(remaining.get(0), "/advisor/memory/in/call?query=again&conversation_id=conv-0");
+        assertEquals("seen:7", reply);
+    }
+
+    @Test
+    void forwardsClientHeadersToOwner() throws Exception {
+        String conversationId = "conv-headers";
+        get(urls.get(0), "/advisor/memory/in/call?query=hi&conversation_id=" + conversationId);
+        int owner = holders(conversationId).get(0);
+        for (int i = 0; i < 3; i++) {
+            if (i == owner) {
+                continue;
+            }
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(urls.get(i)
+                                    + "/advisor/memory/in/call?query=hi&conversation_id=" + conversationId))
+                            .header("X-API-Key", "tenant-" + i)
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode(), response.body());
+            // 经其他节点转发后，归属节点看到的仍是客户端原始的 X-API-Key
+            assertEquals("tenant-" + i, nodes.get(owner).getBean(ApiKeyRecorder.class).last);
+        }
+    }
+
+    private List<Integer> holders(String conversationId) {
+        List<Integer> holders = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            if (repository(i).findConversationIds().contains(conversationId)) {
+                holders.add(i);
+            }
+        }
+        return holders;
+    }
+
+    private ChatMemoryRepository repository(int node) {
+        return nodes.get(node).getBean(ChatMemoryRepository.class);
+    }
+
+    private String get(String base, String path) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return response.body();
+    }
+
+    private int put(String base, String path, String json, String secret) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(base + path)).PUT(HttpRequest.BodyPublishers.ofString(json)), secret);
+    }
+
+    private int post(String base, String path, String json, String secret) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(base + path)).POST(HttpRequest.BodyPublishers.ofString(json)), secret);
+    }
+
+    private int send(HttpRequest.Builder builder, String secret) throws Exception {
+        builder.header("Content-Type", "application/json");
+        if (secret != null) {
+            builder.header(ConversationShardingService.SECRET_HEADER, secret);
+        }
+        return http.send(builder.build(), HttpResponse.BodyHandlers.ofString()).statusCode();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class})
+    @Import({ChatMemoryConfig.class, HttpClientConfig.class, ClusterShardingConfig.class, ClusterController.class,
+            InMemoryController.class})
+    static class NodeConfig {
+
+        /**
+         * 回显模型：返回本次提示中的消息条数，用于判断历史是否完整
+         */
+        @Bean
+        ChatClient.Builder chatClientBuilder() {
+            ChatModel model = new ChatModel() {
+                @Override
+                public ChatResponse call(Prompt prompt) {
+                    return new ChatResponse(List.of(new Generation(
+                            new AssistantMessage("seen:" + prompt.getInstructions().size()))));
+                }
+            };
+            return ChatClient.builder(model);
+        }
+
+        @Bean
+        ApiKeyRecorder apiKeyRecorder() {
+            return new ApiKeyRecorder();
+        }
+    }
+
+    /**
+     * 记录本节点处理的最后一个 X-API-Key（转发请求在归属节点上也会经过该过滤器）
+     */
+    static class ApiKeyRecorder extends OncePerRequestFilter {
+
+        volatile String last;
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            if (request.getHeader(ConversationShardingService.FORWARDED_HEADER) != null) {
+                last = request.getHeader("X-API-Key");
+            }
+            chain.doFilter(request, response);
+        }
+    }
+}
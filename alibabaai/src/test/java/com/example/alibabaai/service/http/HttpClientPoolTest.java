@@ -0,0 +1,144 @@
+package com.example.alibabaai.service.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpClientPoolTest {
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/slow", exchange -> {
+            try {
+                unblock.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "slow");
+        });
+        server.createContext("/fast", exchange -> respond(exchange, "fast"));
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        unblock.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void queuedRequestTimesOutWhileHostIsAtLimit() throws Exception {
+        HttpClientPool pool = pool(Duration.ofMillis(200));
+        WebClient webClient = WebClient.builder().clientConnector(pool.connector()).build();
+
+        Mono<String> slow = webClient.get().uri(baseUrl + "/slow").retrieve().bodyToMono(String.class).cache();
+        slow.subscribe();
+        waitFor(() -> (long) pool.stats().get("active") == 1);
+
+        Exception error = assertThrows(Exception.class,
+                () -> webClient.get().uri(baseUrl + "/fast").retrieve().bodyToMono(String.class).block());
+        assertInstanceOf(HttpClientPool.PoolAcquireTimeoutException.class, error.getCause());
+
+        unblock.countDown();
+        assertEquals("slow", slow.block(Duration.ofSeconds(5)));
+        assertEquals("fast", webClient.get().uri(baseUrl + "/fast").retrieve().bodyToMono(String.class)
+                .block(Duration.ofSeconds(5)));
+
+        Map<String, Object> stats = pool.stats();
+        assertEquals(2L, stats.get("requests"));
+        assertEquals(1L, stats.get("acquireTimeouts"));
+        waitFor(() -> (long) pool.stats().get("active") == 0);
+    }
+
+    @Test
+    void blockingClientReleasesPermitWhenResponseIsClosed() {
+        HttpClientPool pool = pool(Duration.ofMillis(500));
+        RestClient restClient = RestClient.builder().requestFactory(pool.requestFactory()).build();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("fast", restClient.get().uri(baseUrl + "/fast").retrieve().body(String.class));
+        }
+        Map<String, Object> stats = pool.stats();
+        assertEquals(3L, stats.get("requests"));
+        assertEquals(0L, stats.get("active"));
+        assertEquals(1L, stats.get("peakActive"));
+    }
+
+    @Test
+    void interruptedBlockingWaiterLeavesTheQueue() throws Exception {
+        HttpClientPool pool = pool(Duration.ofSeconds(10));
+        WebClient webClient = WebClient.builder().clientConnector(pool.connector()).build();
+        RestClient restClient = RestClient.builder().requestFactory(pool.requestFactory()).build();
+
+        Mono<String> slow = webClient.get().uri(baseUrl + "/slow").retrieve().bodyToMono(String.class).cache();
+        slow.subscribe();
+        waitFor(() -> (long) pool.stats().get("active") == 1);
+
+        Thread waiter = new Thread(() -> {
+            try {
+                restClient.get().uri(baseUrl + "/fast").retrieve().body(String.class);
+            } catch (RuntimeException e) {
+                // 中断后以异常结束
+            }
+        });
+        waiter.start();
+        waitFor(() -> (long) pool.stats().get("pending") == 1);
+        waiter.interrupt();
+        waiter.join(5000);
+
+        // 被中断的等待者不再占着队列，槽位释放后不会被它白白拿走
+        waitFor(() -> (long) pool.stats().get("pending") == 0);
+        unblock.countDown();
+        assertEquals("slow", slow.block(Duration.ofSeconds(5)));
+        waitFor(() -> (long) pool.stats().get("active") == 0);
+        assertEquals("fast", restClient.get().uri(baseUrl + "/fast").retrieve().body(String.class));
+        assertEquals(2L, pool.stats().get("requests"));
+    }
+
+    private static HttpClientPool pool(Duration acquireTimeout) {
+        HttpClientPool.Settings settings = new HttpClientPool.Settings(HttpClient.Version.HTTP_1_1,
+                Duration.ofSeconds(2), null, 1, acquireTimeout);
+        return new HttpClientPool("test", HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), settings);
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, String body) throws java.io.IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.alibabaai.service.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundUrlGuardTest {
+
+    private final AtomicInteger secretHits = new AtomicInteger();
+    private HttpServer server;
+    private String baseUrl;
+    private WebClient webClient;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/page", exchange -> respond(exchange, 200, null, "page"));
+        server.createContext("/hop", exchange -> respond(exchange, 302, "/page", ""));
+        server.createContext("/loop", exchange -> respond(exchange, 302, "/loop", ""));
+        server.createContext("/metadata", exchange -> respond(exchange, 302, "http://169.254.169.254/latest/meta-data/", ""));
+        server.createContext("/secret", exchange -> {
+            secretHits.incrementAndGet();
+            respond(exchange, 200, null, "secret");
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        // 与 fetch 池一致：客户端本身不跟随重定向
+        webClient = WebClient.builder()
+                .clientConnector(new JdkClientHttpConnector(
+                        HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build()))
+                .build();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void rejectsInternalAddresses() throws Exception {
+        for (String address : new String[]{"127.0.0.1", "10.1.2.3", "172.16.0.1", "192.168.1.1", "169.254.169.254",
+                "100.100.100.200", "0.0.0.0", "::1", "fe80::1", "fd00::1"}) {
+            assertTrue(OutboundUrlGuard.isInternal(InetAddress.getByName(address)), address);
+        }
+        for (String address : new String[]{"8.8.8.8", "47.88.1.1", "2001:4860:4860::8888"}) {
+            assertFalse(OutboundUrlGuard.isInternal(InetAddress.getByName(address)), address);
+        }
+
+        OutboundUrlGuard guard = new OutboundUrlGuard(false, 5);
+        assertThrows(IllegalArgumentException.class, () -> guard.check(URI.create(baseUrl + "/secret")).block());
+        assertThrows(IllegalArgumentException.class, () -> guard.check(URI.create("http://localhost/")).block());
+        assertThrows(IllegalArgumentException.class, () -> guard.check(URI.create("file:///etc/passwd")).block());
+        assertThrows(IllegalArgumentException.class, () -> guard.exchange(webClient, URI.create(baseUrl + "/secret"),
+                target -> webClient.get().uri(target), response -> response.bodyToMono(String.class)).block());
+        assertEquals(0, secretHits.get(), "blocked target must not be contacted");
+    }
+
+    @Test
+    void followsRedirectsOnlyAfterRevalidatingEachHop() {
+        // 只拦截链路本地地址，使本机测试服务器可达
+        OutboundUrlGuard guard = new OutboundUrlGuard(InetAddress::isLinkLocalAddress, 3);
+
+        assertEquals("page", get(guard, "/hop"));
+        IllegalArgumentException blocked = assertThrows(IllegalArgumentException.class, () -> get(guard, "/metadata"));
+        assertTrue(blocked.getMessage().contains("169.254.169.254"), blocked.getMessage());
+        IllegalArgumentException loop = assertThrows(IllegalArgumentException.class, () -> get(guard, "/loop"));
+        assertTrue(loop.getMessage().contains("redirects"), loop.getMessage());
+    }
+
+    private String get(OutboundUrlGuard guard, String path) {
+        return guard.exchange(webClient, URI.create(baseUrl + path), target -> webClient.get().uri(target),
+                response -> response.bodyToMono(String.class)).block();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String location, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (location != null) {
+            exchange.getResponseHeaders().add("Location", location);
+        }
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+        exchange.close();
+    }
+}
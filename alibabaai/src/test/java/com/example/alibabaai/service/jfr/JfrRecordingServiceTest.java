@@ -0,0 +1,55 @@
+package com.example.alibabaai.service.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrRecordingServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordingContainsAppEventsAndNoEnvironment() throws Exception {
+        JfrRecordingService service = new JfrRecordingService(dir, Duration.ofMinutes(1), 64L * 1024 * 1024, 5);
+        try {
+            long id = ((Number) service.start(Duration.ofMinutes(1), "default").get("id")).longValue();
+            assertThrows(IllegalStateException.class, () -> service.start(Duration.ofSeconds(1), "default"));
+
+            ModelCallEvent model = new ModelCallEvent();
+            model.begin();
+            model.model = "qwen-test";
+            model.totalTokens = 42;
+            model.commit();
+            ToolCallEvent tool = new ToolCallEvent();
+            tool.begin();
+            tool.tool = "fetch_urls";
+            tool.commit();
+
+            service.stop(id);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(service.file(id));
+            Set<String> types = events.stream().map(e -> e.getEventType().getName()).collect(Collectors.toSet());
+
+            assertTrue(types.contains("com.example.alibabaai.ModelCall"), types.toString());
+            assertTrue(types.contains("com.example.alibabaai.ToolCall"), types.toString());
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.example.alibabaai.ModelCall")
+                    && "qwen-test".equals(e.getString("model")) && e.getLong("totalTokens") == 42));
+            // 环境变量与系统属性里可能有 API Key，录制文件中不能出现
+            assertFalse(types.contains("jdk.InitialEnvironmentVariable"));
+            assertFalse(types.contains("jdk.InitialSystemProperty"));
+        } finally {
+            service.close();
+        }
+    }
+}
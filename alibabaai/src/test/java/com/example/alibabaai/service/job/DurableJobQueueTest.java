@@ -0,0 +1,175 @@
+package com.example.alibabaai.service.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurableJobQueueTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void completesJobsAndResumesInterruptedOnesAfterRestart() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        JobHandler blocking = handler("slow", spec -> Flux.<String>never().doOnSubscribe(s -> started.countDown()));
+
+        DurableJobQueue first = queue(List.of(blocking, handler("echo", spec -> Flux.just("he", "llo"))));
+        Job echo = first.submit("echo", 0, Map.of());
+        Job slow = first.submit("slow", 0, Map.of());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        awaitStatus(echo, Job.Status.COMPLETED);
+        assertEquals("hello", echo.getResult());
+        // 模拟进程退出：运行中的任务不会被记为失败
+        first.close();
+
+        CountDownLatch resumed = new CountDownLatch(1);
+        DurableJobQueue second = queue(List.of(
+                handler("slow", spec -> Flux.just("done").doOnSubscribe(s -> resumed.countDown())),
+                handler("echo", spec -> Flux.just("unused"))));
+        try {
+            assertTrue(resumed.await(5, TimeUnit.SECONDS));
+            Job recovered = second.get(slow.getSpec().id());
+            awaitStatus(recovered, Job.Status.COMPLETED);
+            assertEquals("done", recovered.getResult());
+            assertEquals(2, recovered.getAttempts());
+            assertEquals("hello", second.get(echo.getSpec().id()).getResult());
+        } finally {
+            second.close();
+        }
+    }
+
+    @Test
+    void runsHigherPriorityFirst() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        StringBuffer order = new StringBuffer();
+        DurableJobQueue queue = new DurableJobQueue(new JobWriteAheadLog(dir.resolve("wal.jsonl"), new ObjectMapper(), false),
+                List.of(handler("gate", spec -> Flux.<String>empty().doOnSubscribe(s -> awaitQuietly(gate))),
+                        handler("mark", spec -> Flux.<String>empty().doOnSubscribe(s -> order.append(spec.payload().get("n"))))),
+                dir.resolve("blobs"), 1, Duration.ofHours(1), Duration.ofSeconds(10), 3, 100);
+        queue.open();
+        try {
+            Job gateJob = queue.submit("gate", 0, Map.of());
+            Job low = queue.submit("mark", 1, Map.of("n", "L"));
+            Job high = queue.submit("mark", 9, Map.of("n", "H"));
+            gate.countDown();
+            awaitStatus(gateJob, Job.Status.COMPLETED);
+            awaitStatus(low, Job.Status.COMPLETED);
+            awaitStatus(high, Job.Status.COMPLETED);
+            assertEquals("HL", order.toString());
+        } finally {
+            queue.close();
+        }
+    }
+
+    @Test
+    void cancelledJobsNeverStart() throws Exception {
+        Set<String> executed = ConcurrentHashMap.newKeySet();
+        DurableJobQueue queue = queue(List.of(handler("mark", spec -> Flux.<String>empty()
+                .doOnSubscribe(s -> executed.add(spec.id())))));
+        try {
+            List<Job> cancelled = new ArrayList<>();
+            List<Job> all = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                Job job = queue.submit("mark", 0, Map.of());
+                all.add(job);
+                if (queue.cancel(job.getSpec().id())) {
+                    cancelled.add(job);
+                }
+            }
+            for (Job job : all) {
+                awaitTerminal(job);
+            }
+            for (Job job : cancelled) {
+                assertEquals(Job.Status.CANCELLED, job.getStatus());
+                assertEquals(0, job.getAttempts());
+                assertFalse(executed.contains(job.getSpec().id()), "cancelled job must not run");
+            }
+        } finally {
+            queue.close();
+        }
+    }
+
+    @Test
+    void imageBlobIsConfinedToBlobDirectory() throws Exception {
+        DurableJobQueue queue = queue(List.of(new ImageAnalysisJobHandler(null, dir.resolve("blobs"))));
+        try {
+            // 客户端不能通过通用提交接口指定 blob
+            assertThrows(IllegalArgumentException.class, () -> queue.submit(ImageAnalysisJobHandler.TYPE, 0,
+                    Map.of("blob", "/etc/passwd")));
+        } finally {
+            queue.close();
+        }
+        Path blobs = dir.resolve("blobs");
+        assertNull(ImageAnalysisJobHandler.resolveBlob(blobs, "/etc/passwd"));
+        assertNull(ImageAnalysisJobHandler.resolveBlob(blobs, "../wal.jsonl"));
+        assertNull(ImageAnalysisJobHandler.resolveBlob(blobs, "a/../../wal.jsonl"));
+        assertEquals(blobs.toAbsolutePath().normalize().resolve("x.bin"), ImageAnalysisJobHandler.resolveBlob(blobs, "x.bin"));
+
+        ImageAnalysisJobHandler handler = new ImageAnalysisJobHandler(null, blobs);
+        JobSpec escaping = new JobSpec("id", ImageAnalysisJobHandler.TYPE, 0, Map.of("blob", "../wal.jsonl"), 0);
+        assertThrows(IllegalArgumentException.class, () -> handler.execute(escaping).blockLast());
+    }
+
+    private DurableJobQueue queue(List<JobHandler> handlers) throws Exception {
+        DurableJobQueue queue = new DurableJobQueue(new JobWriteAheadLog(dir.resolve("wal.jsonl"), new ObjectMapper(), true),
+                handlers, dir.resolve("blobs"), 2, Duration.ofHours(1), Duration.ofSeconds(30), 3, 100);
+        queue.open();
+        return queue;
+    }
+
+    private static JobHandler handler(String type, java.util.function.Function<JobSpec, Flux<String>> body) {
+        return new JobHandler() {
+            @Override
+            public String type() {
+                return type;
+            }
+
+            @Override
+            public Flux<String> execute(JobSpec spec) {
+                return body.apply(spec);
+            }
+        };
+    }
+
+    private static void awaitStatus(Job job, Job.Status status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(status, job.getStatus(), String.valueOf(job.getError()));
+    }
+
+    private static void awaitTerminal(Job job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.getStatus().isTerminal() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(job.getStatus().isTerminal(), job.getSpec().id() + " is still " + job.getStatus());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
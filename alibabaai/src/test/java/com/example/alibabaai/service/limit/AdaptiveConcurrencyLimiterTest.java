@@ -0,0 +1,75 @@
+package com.example.alibabaai.service.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void rejectsBeyondLimitAndReleasesPermits() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+        AdaptiveConcurrencyLimiter.Permit a = limiter.tryAcquire();
+        AdaptiveConcurrencyLimiter.Permit b = limiter.tryAcquire();
+        assertNotNull(a);
+        assertNotNull(b);
+        assertNull(limiter.tryAcquire());
+
+        a.ignore();
+        a.ignore();
+        assertEquals(1, limiter.getInFlight());
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void growsWhileLatencyIsSteadyAndShrinksWhenItRises() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        for (int i = 0; i < 50; i++) {
+            saturate(limiter, 100 * MS);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 10, "limit should grow under steady latency, was " + grown);
+
+        for (int i = 0; i < 30; i++) {
+            saturate(limiter, 1000 * MS);
+        }
+        assertTrue(limiter.getLimit() < grown / 2, "limit should shrink when latency rises, was " + limiter.getLimit());
+    }
+
+    @Test
+    void backsOffOnOverloadAndIgnoresIdleSamples() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        limiter.tryAcquire().dropped();
+        assertEquals(18, limiter.getLimit());
+
+        // 在途远低于上限时的样本不放宽上限
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire().success(10 * MS);
+        }
+        assertEquals(18, limiter.getLimit());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initial) {
+        return new AdaptiveConcurrencyLimiter("test", initial, 2, 100, 0.2, 1.5, 600, 0.9);
+    }
+
+    /**
+     * 占满当前上限后以相同 RTT 全部完成
+     */
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        AdaptiveConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.tryAcquire()) != null) {
+            permits.add(permit);
+        }
+        permits.forEach(p -> p.success(rttNanos));
+    }
+}
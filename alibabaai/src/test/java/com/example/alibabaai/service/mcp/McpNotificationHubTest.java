@@ -0,0 +1,93 @@
+package com.example.alibabaai.service.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class McpNotificationHubTest {
+
+    @Test
+    void slowSubscriberDropsOnlyItsOwnNotifications() throws Exception {
+        McpNotificationHub hub = new McpNotificationHub(4, 256, 8);
+        Collector fast = new Collector(Long.MAX_VALUE);
+        Collector stalled = new Collector(0);
+        hub.subscribe(McpNotificationHub.OverflowPolicy.DROP, 128, null).subscribe(fast);
+        hub.subscribe(McpNotificationHub.OverflowPolicy.LATEST, 4, null).subscribe(stalled);
+
+        for (int i = 1; i <= 100; i++) {
+            hub.onLogging(new McpSchema.LoggingMessageNotification(McpSchema.LoggingLevel.INFO, "test", "n" + i)).block();
+        }
+        waitFor(() -> fast.received.size() == 100);
+
+        // 停滞的订阅者保留最新的 4 条（另有 1 条已交给投递线程），其余计为丢弃
+        stalled.request(100);
+        waitFor(() -> stalled.received.size() == 5);
+        assertEquals(100, stalled.received.get(4).sequence());
+        List<Map<String, Object>> subscribers = subscribers(hub);
+        long dropped = subscribers.stream().mapToLong(s -> (long) s.get("dropped")).sum();
+        assertEquals(95, dropped);
+
+        fast.dispose();
+        stalled.dispose();
+        waitFor(() -> subscribers(hub).isEmpty());
+    }
+
+    @Test
+    void filtersByNotificationType() throws Exception {
+        McpNotificationHub hub = new McpNotificationHub(16, 16, 8);
+        Collector progress = new Collector(Long.MAX_VALUE);
+        hub.subscribe(McpNotificationHub.OverflowPolicy.DROP, null, "progress").subscribe(progress);
+
+        hub.onLogging(new McpSchema.LoggingMessageNotification(McpSchema.LoggingLevel.INFO, "test", "log")).block();
+        hub.onProgress(new McpSchema.ProgressNotification("token-1", 0.5, 1.0, "half way")).block();
+
+        waitFor(() -> progress.received.size() == 1);
+        McpNotificationHub.Notification notification = progress.received.get(0);
+        assertEquals("progress", notification.type());
+        assertEquals("token-1", notification.progressToken());
+        assertEquals(2, notification.sequence());
+        progress.dispose();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> subscribers(McpNotificationHub hub) {
+        return (List<Map<String, Object>>) hub.stats().get("subscribers");
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static final class Collector extends BaseSubscriber<McpNotificationHub.Notification> {
+        private final List<McpNotificationHub.Notification> received = new CopyOnWriteArrayList<>();
+        private final long initialDemand;
+
+        Collector(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        protected void hookOnNext(McpNotificationHub.Notification value) {
+            received.add(value);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.alibabaai.service.mcp;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class McpSessionManagerTest {
+
+    private static final McpSchema.InitializeResult INITIALIZED = new McpSchema.InitializeResult("2025-03-26",
+            null, new McpSchema.Implementation("test-server", "1.0"), null);
+
+    private final AtomicBoolean serverUp = new AtomicBoolean();
+    private final AtomicInteger toolCalls = new AtomicInteger();
+    private McpSessionManager manager;
+
+    @AfterEach
+    void stop() {
+        if (manager != null) {
+            manager.stop();
+        }
+    }
+
+    @Test
+    void gatedCallTimesOutWhileSessionIsDown() {
+        manager = manager(Duration.ZERO);
+        manager.start();
+        GatedMcpToolCallback callback = new GatedMcpToolCallback(tool(), manager, Duration.ofMillis(200));
+
+        long start = System.nanoTime();
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> callback.call("{}"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(error.getMessage().startsWith("MCP session not ready after 200 ms"), error.getMessage());
+        assertTrue(elapsedMillis < 2000, "timed out after " + elapsedMillis + " ms");
+        assertEquals(0, toolCalls.get());
+        assertFalse(manager.isReady());
+
+        serverUp.set(true);
+        await(manager::isReady);
+        assertEquals("ok", callback.call("{}"));
+        assertEquals(1, toolCalls.get());
+    }
+
+    @Test
+    void failedPingMarksSessionNotReadyAndReconnects() {
+        serverUp.set(true);
+        manager = manager(Duration.ofMillis(50));
+        manager.start();
+        await(manager::isReady);
+
+        serverUp.set(false);
+        await(() -> !manager.isReady());
+        assertEquals(1, manager.status().get("reconnects"));
+        GatedMcpToolCallback callback = new GatedMcpToolCallback(tool(), manager, Duration.ofMillis(100));
+        assertThrows(IllegalStateException.class, () -> callback.call("{}"));
+
+        serverUp.set(true);
+        await(manager::isReady);
+        assertEquals("ok", callback.call("{}"));
+        assertEquals(null, manager.status().get("lastError"));
+    }
+
+    @Test
+    void toolFailureTriggersSessionCheck() {
+        serverUp.set(true);
+        manager = manager(Duration.ZERO);
+        manager.start();
+        await(manager::isReady);
+
+        serverUp.set(false);
+        GatedMcpToolCallback callback = new GatedMcpToolCallback(tool(), manager, Duration.ofMillis(100));
+        assertThrows(IllegalStateException.class, () -> callback.call("{}"));
+        await(() -> !manager.isReady());
+        assertEquals(1, manager.status().get("reconnects"));
+    }
+
+    private McpSessionManager manager(Duration healthCheckInterval) {
+        return new McpSessionManager(mock(McpAsyncClient.class),
+                () -> serverUp.get() ? Mono.just(INITIALIZED) : Mono.error(new IllegalStateException("connection refused")),
+                () -> serverUp.get() ? Mono.just("pong") : Mono.error(new IllegalStateException("session not found")),
+                Duration.ofMillis(10), Duration.ofMillis(50), healthCheckInterval);
+    }
+
+    private ToolCallback tool() {
+        ToolDefinition definition = ToolDefinition.builder().name("remote").description("remote tool").inputSchema("{}").build();
+        return new ToolCallback() {
+            @Override
+            public ToolDefinition getToolDefinition() {
+                return definition;
+            }
+
+            @Override
+            public String call(String toolInput) {
+                toolCalls.incrementAndGet();
+                if (!serverUp.get()) {
+                    throw new IllegalStateException("transport closed");
+                }
+                return "ok";
+            }
+        };
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("condition not met within 5s");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.alibabaai.service.mcp.binding;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolArgumentBinderTest {
+
+    record Navigate(String url, Boolean newWindow, Integer width, List<String> tags) {
+    }
+
+    record Mismatched(String url, Integer depth) {
+    }
+
+    private static final McpSchema.Tool TOOL = McpSchema.Tool.builder()
+            .name("navigate")
+            .description("test")
+            .inputSchema("""
+                    {
+                      "type": "object",
+                      "required": ["url"],
+                      "properties": {
+                        "url": { "type": "string" },
+                        "newWindow": { "type": "boolean" },
+                        "width": { "type": "integer", "minimum": 1 },
+                        "tags": { "type": "array", "items": { "type": "string" } }
+                      }
+                    }
+                    """)
+            .build();
+
+    private final ToolArgumentBinders binders = new ToolArgumentBinders(new JsonFactory()).register(TOOL, Navigate.class);
+
+    @Test
+    void bindsTypedValuesAndIntegralDecimals() {
+        Navigate args = binders.bind("navigate", Navigate.class,
+                "{\"url\":\"https://a.test\",\"width\":1024.0,\"newWindow\":\"true\",\"tags\":[\"x\",\"y\"],\"extra\":{\"n\":[1]}}");
+        assertEquals(new Navigate("https://a.test", true, 1024, List.of("x", "y")), args);
+
+        Navigate minimal = binders.bind("navigate", Navigate.class, "{\"url\":\"u\",\"width\":null}");
+        assertNull(minimal.width());
+        assertNull(minimal.newWindow());
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertMessage("missing required argument 'url'", "{\"width\":5}");
+        assertMessage("'width' must be a 32-bit integer, got 10.5", "{\"url\":\"u\",\"width\":10.5}");
+        assertMessage("'width' must be >= 1", "{\"url\":\"u\",\"width\":0}");
+        assertMessage("'newWindow' must be a boolean, got a number", "{\"url\":\"u\",\"newWindow\":1}");
+        assertMessage("'tags[1]' must be a string", "{\"url\":\"u\",\"tags\":[\"a\",2]}");
+        assertMessage("Unexpected", "{\"url\":");
+    }
+
+    @Test
+    void rejectsHugeExponentsWithoutExpandingThem() {
+        assertMessage("'width' must be a 32-bit integer, got 1E+999999999", "{\"url\":\"u\",\"width\":1e999999999}");
+        assertMessage("'width' must be a 32-bit integer, got 1E+2147483647", "{\"url\":\"u\",\"width\":\"1e2147483647\"}");
+        assertMessage("'width' must be a 32-bit integer, got 1E-999999999", "{\"url\":\"u\",\"width\":1e-999999999}");
+    }
+
+    @Test
+    void parsesCallEnvelopeWithArgumentsBeforeName() {
+        ToolArgumentBinders.ToolCall call = binders.parseCall(
+                "{\"arguments\":{\"url\":\"u\",\"width\":800},\"id\":7,\"name\":\"navigate\"}");
+        assertEquals("navigate", call.name());
+        assertEquals(new Navigate("u", null, 800, null), call.arguments());
+
+        assertThrows(IllegalArgumentException.class, () -> binders.parseCall("{\"name\":\"missing\",\"arguments\":{}}"));
+    }
+
+    @Test
+    void failsFastWhenSchemaAndRecordDisagree() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> ToolArgumentBinder.compile(TOOL, Mismatched.class));
+        assertTrue(e.getMessage().contains("depth"), e.getMessage());
+    }
+
+    private void assertMessage(String expected, String json) {
+        ToolArgumentException e = assertThrows(ToolArgumentException.class,
+                () -> binders.bind("navigate", Navigate.class, json));
+        assertTrue(e.getMessage().contains(expected), e.getMessage());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.alibabaai.service.mcp.extract;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HtmlDocumentTest {
+
+    @Test
+    void toleratesMalformedMarkup() {
+        // 未闭合的 p/li、错位的结束标签、没有引号的属性、未结束的注释
+        HtmlDocument document = HtmlDocument.parse("<html><body><div class=a id=main><p>one<p>two</b>"
+                + "<ul><li>x<li>y</ul></div><span>tail<!-- dangling");
+        List<HtmlDocument.Element> paragraphs = document.select("p");
+        assertEquals(2, paragraphs.size());
+        assertEquals("one", paragraphs.get(0).text());
+        assertEquals("two", paragraphs.get(1).text());
+        assertEquals(List.of("x", "y"), document.select("li").stream().map(HtmlDocument.Element::text).toList());
+        assertEquals("main", document.select(".a").get(0).id());
+        assertEquals("tail", document.select("span").get(0).text());
+    }
+
+    @Test
+    void decodesEntities() {
+        HtmlDocument document = HtmlDocument.parse("<p title=\"a &amp; b\">&lt;tag&gt; &quot;q&quot; &#65;&#x42; &copy; &unknown; a&nbsp;b</p>");
+        HtmlDocument.Element p = document.select("p").get(0);
+        assertEquals("a & b", p.attr("title"));
+        String text = p.text();
+        assertTrue(text.startsWith("<tag> \"q\" AB ©"), text);
+        assertTrue(text.contains("&unknown;"), text);
+    }
+
+    @Test
+    void scriptAndStyleAreRawTextAndHidden() {
+        HtmlDocument document = HtmlDocument.parse("<head><title>T &amp; U</title><style>p { color: red } </p></style></head>"
+                + "<body><script>if (a < b && c > d) { document.write('<p>fake</p>'); }</script><p>real</p></body>");
+        assertEquals("T & U", document.title());
+        // 脚本与样式中的 "<p>" 不会被当作元素
+        assertEquals(1, document.select("p").size());
+        assertEquals("real", document.body().text());
+    }
+
+    @Test
+    void selectsWithCompoundSelectorsAndCombinators() {
+        HtmlDocument document = HtmlDocument.parse("<body><div id=outer class=\"box wide\">"
+                + "<section><p class=lead lang=en-US>a</p><div class=box><p>b</p></div></section>"
+                + "<p data-x=\"foo bar\">c</p><a href=\"https://example.com/x.pdf\">d</a></div><p>e</p></body>");
+
+        assertEquals(List.of("a", "b", "c"), texts(document, "#outer p"));
+        assertEquals(List.of("c"), texts(document, "#outer > p"));
+        assertEquals(List.of("b", "c"), texts(document, "div.box > p"));
+        assertEquals(List.of("b"), texts(document, "section div.box > p"));
+        assertEquals(List.of("a", "b"), texts(document, "section p"));
+        assertEquals(List.of("b"), texts(document, "div.box.wide div.box p"));
+        assertEquals(List.of("a"), texts(document, "p.lead[lang|=en]"));
+        assertEquals(List.of("c"), texts(document, "[data-x~=bar]"));
+        assertEquals(List.of("d"), texts(document, "a[href^=https][href$=\".pdf\"][href*=example]"));
+        assertEquals(List.of("a", "c", "e"), texts(document, "p.lead, [data-x], body > p"));
+        assertEquals(3, document.select("#outer > *").size());
+        assertTrue(document.select("article p").isEmpty());
+    }
+
+    @Test
+    void rejectsUnsupportedSelectors() {
+        HtmlDocument document = HtmlDocument.parse("<p>x</p>");
+        assertThrows(IllegalArgumentException.class, () -> document.select("p:first-child"));
+        assertThrows(IllegalArgumentException.class, () -> document.select("p + p"));
+        assertThrows(IllegalArgumentException.class, () -> document.select("[unterminated"));
+        assertThrows(IllegalArgumentException.class, () -> document.select(" "));
+        assertFalse(document.select("P").isEmpty(), "type selectors are case-insensitive");
+    }
+
+    @Test
+    @Timeout(10)
+    void deepNestingDoesNotOverflowOrBacktrack() {
+        // 约 180KB 的 6 万层嵌套，在抓取大小上限之内
+        String deep = "<b>".repeat(60_000) + "deep" + "</b>".repeat(60_000);
+        HtmlDocument document = HtmlDocument.parse("<html><body><p>" + deep + "</p></body></html>");
+        assertEquals("deep", document.body().text());
+        assertTrue(document.body().outerHtml().contains("<b><b>deep</b></b>"));
+        assertEquals("deep", MainContentExtractor.extract(deep, null, 100).text());
+
+        // 多个后代组合符 + 深层嵌套：每个 (元素, 步骤) 只求值一次
+        String divs = "<section>" + "<div>".repeat(200) + "<p>x</p>" + "</div>".repeat(200) + "</section>";
+        assertEquals(List.of("x"), texts(HtmlDocument.parse(divs), "section div div div div div div p"));
+        assertTrue(HtmlDocument.parse(divs).select("article div div div div div div p").isEmpty());
+        assertEquals(List.of("x"), texts(HtmlDocument.parse(divs), "section > div div > div p"));
+
+        String tooLong = String.join(" ", java.util.Collections.nCopies(CssSelector.MAX_STEPS + 1, "div"));
+        assertThrows(IllegalArgumentException.class, () -> document.select(tooLong));
+    }
+
+    private static List<String> texts(HtmlDocument document, String selector) {
+        return document.select(selector).stream().map(HtmlDocument.Element::text).toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.alibabaai.service.mcp.extract;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MainContentExtractorTest {
+
+    private static final String PAGE = "<html><head><title>Release notes</title></head><body>"
+            + "<nav class=menu><a href=/>Home</a> <a href=/docs>Docs</a> <a href=/blog>Blog</a></nav>"
+            + "<div class=sidebar><p>Related: <a href=/a>one</a>, <a href=/b>two</a></p></div>"
+            + "<article class=post-content>"
+            + "<p>The new release improves startup time, reduces memory use, and adds streaming support for images.</p>"
+            + "<p>Connection pools are now shared across upstreams, which keeps TLS sessions warm, avoids handshakes, "
+            + "and lowers tail latency under load.</p>"
+            + "<p>Upgrading requires no configuration changes, although the defaults for timeouts have been tightened.</p>"
+            + "</article>"
+            + "<footer><p>Copyright 2026, all rights reserved, contact us for more.</p></footer>"
+            + "</body></html>";
+
+    @Test
+    void picksMainContentOverNavigationAndFooter() {
+        MainContentExtractor.Extraction extraction = MainContentExtractor.extract(PAGE, null, 0);
+        assertEquals("main-content", extraction.strategy());
+        assertEquals("Release notes", extraction.title());
+        assertTrue(extraction.text().contains("Connection pools are now shared"), extraction.text());
+        assertFalse(extraction.text().contains("Home"), extraction.text());
+        assertFalse(extraction.text().contains("Copyright"), extraction.text());
+        assertFalse(extraction.truncated());
+    }
+
+    @Test
+    void selectorWinsAndFallsBackWhenNothingMatches() {
+        MainContentExtractor.Extraction selected = MainContentExtractor.extract(PAGE, "footer p", 0);
+        assertEquals("selector", selected.strategy());
+        assertEquals(1, selected.matched());
+        assertTrue(selected.text().startsWith("Copyright"), selected.text());
+
+        MainContentExtractor.Extraction fallback = MainContentExtractor.extract(PAGE, "#missing", 0);
+        assertEquals("main-content", fallback.strategy());
+        assertEquals(0, fallback.matched());
+    }
+
+    @Test
+    void fitsOutputToTokenBudget() {
+        MainContentExtractor.Extraction full = MainContentExtractor.extract(PAGE, null, 0);
+        MainContentExtractor.Extraction clipped = MainContentExtractor.extract(PAGE, null, 30);
+        assertTrue(clipped.truncated());
+        assertTrue(clipped.estimatedTokens() <= 30, String.valueOf(clipped.estimatedTokens()));
+        assertTrue(clipped.text().length() < full.text().length());
+        assertTrue(full.text().startsWith(clipped.text().replace("…", "").strip().substring(0, 20)));
+
+        assertEquals(4, MainContentExtractor.estimateTokens("中文字符"));
+        assertEquals(2, MainContentExtractor.estimateTokens("abcdefgh"));
+    }
+
+    @Test
+    void htmlModeReturnsMatchedSourceOrBody() {
+        MainContentExtractor.Extraction matched = MainContentExtractor.extractHtml(PAGE, "article p", 0);
+        assertEquals("selector", matched.strategy());
+        assertEquals(3, matched.matched());
+        assertTrue(matched.text().startsWith("<p>The new release"), matched.text());
+
+        MainContentExtractor.Extraction body = MainContentExtractor.extractHtml(PAGE, null, 0);
+        assertEquals("body", body.strategy());
+        assertTrue(body.text().contains("<nav") && body.text().contains("<article"), body.text());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.alibabaai.service.mcp.selection;
+
+import com.example.alibabaai.config.mcp.ChatClientConfig;
+import com.example.alibabaai.config.mcp.LocalToolConfig;
+import com.example.alibabaai.config.mcp.McpConfig;
+import com.example.alibabaai.config.mcp.ToolSelectionConfig;
+import com.example.alibabaai.service.mcp.FetchUrlsToolCallback;
+import com.example.alibabaai.service.mcp.GatedMcpToolCallback;
+import com.example.alibabaai.service.mcp.MultiUrlFetchService;
+import com.example.alibabaai.service.mcp.binding.ToolArgumentBinders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 用 {@link ChatClientConfig} 的真实装配（两个工具回调 + 默认配置的工具选择）验证选择确实生效
+ */
+class ChatClientToolSelectionTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withPropertyValues("spring.ai.mcp.client.toolcallback.enabled=true")
+            .withUserConfiguration(ToolsConfig.class, LocalToolConfig.class, ToolSelectionConfig.class,
+                    ChatClientConfig.class);
+
+    @Test
+    void defaultTopKNarrowsTheAttachedCallbacks() {
+        runner.run(context -> {
+            ChatClient chatClient = context.getBean("mcpEnabledChatClient", ChatClient.class);
+            List<List<String>> seen = context.getBean(ToolsConfig.class).seen;
+
+            chatClient.prompt("Sends a stream of notifications every 2 seconds").call().content();
+            chatClient.prompt("fetch these URLs in parallel: https://a.example https://b.example").call().content();
+
+            assertEquals(List.of(List.of("start-notification-stream"), List.of("fetch_urls")), seen);
+            Map<String, Object> stats = context.getBean(ToolSelectionAdvisor.class).stats();
+            assertEquals(2L, stats.get("narrowedRequests"));
+            assertEquals(4L, stats.get("toolsOffered"));
+            assertEquals(2L, stats.get("toolsAttached"));
+        });
+    }
+
+    @Configuration
+    static class ToolsConfig {
+
+        final List<List<String>> seen = new CopyOnWriteArrayList<>();
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        /**
+         * 记录每次发给模型的工具名
+         */
+        @Bean
+        ChatClient.Builder chatClientBuilder() {
+            ChatModel model = new ChatModel() {
+                @Override
+                public ChatResponse call(Prompt prompt) {
+                    seen.add(prompt.getOptions() instanceof ToolCallingChatOptions options
+                            ? options.getToolCallbacks().stream().map(c -> c.getToolDefinition().name()).toList()
+                            : List.of());
+                    return new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))));
+                }
+
+                /**
+                 * 与 DashScope 一样使用支持工具调用的选项，ChatClient 才会挂载工具回调
+                 */
+                @Override
+                public ChatOptions getDefaultOptions() {
+                    return ToolCallingChatOptions.builder().build();
+                }
+            };
+            return ChatClient.builder(model);
+        }
+
+        @Bean
+        GatedMcpToolCallback mcpToolCallback() {
+            McpSchema.Tool tool = new McpConfig().startNotificationTool();
+            ToolDefinition definition = ToolDefinition.builder()
+                    .name(tool.name())
+                    .description(tool.description())
+                    .inputSchema("{\"type\":\"object\"}")
+                    .build();
+            ToolCallback delegate = new ToolCallback() {
+                @Override
+                public ToolDefinition getToolDefinition() {
+                    return definition;
+                }
+
+                @Override
+                public String call(String toolInput) {
+                    return "";
+                }
+            };
+            return new GatedMcpToolCallback(delegate, null, Duration.ofSeconds(1));
+        }
+
+        @Bean
+        FetchUrlsToolCallback fetchUrlsToolCallback(McpSchema.Tool fetchUrlsTool, ToolArgumentBinders toolArgumentBinders,
+                                                    ObjectMapper objectMapper) {
+            return new FetchUrlsToolCallback(null, fetchUrlsTool,
+                    toolArgumentBinders.binder(fetchUrlsTool.name(), MultiUrlFetchService.FetchRequest.class), objectMapper);
+        }
+    }
+}
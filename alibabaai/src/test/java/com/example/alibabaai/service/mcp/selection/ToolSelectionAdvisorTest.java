@@ -0,0 +1,81 @@
+package com.example.alibabaai.service.mcp.selection;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolSelectionAdvisorTest {
+
+    private final List<ToolCallback> tools = List.of(
+            tool("chrome_navigate", "Navigate the browser to a URL"),
+            tool("chrome_get_web_content", "Fetch content from a web page"),
+            tool("fetch_urls", "Fetch several URLs in parallel and return their text"),
+            tool("start-notification-stream", "Sends a stream of notifications with configurable count and interval"));
+
+    @Test
+    void attachesOnlyTheMostRelevantTools() {
+        ToolSelectionAdvisor advisor = new ToolSelectionAdvisor(1, 0.1, Set.of(),
+                Map.of("start-notification-stream", "通知 推送"));
+
+        assertEquals(List.of("start-notification-stream"), attached(advisor, "每隔两秒推送 3 条通知"));
+        assertEquals(List.of("chrome_navigate"), attached(advisor, "navigate to https://example.com"));
+
+        Map<String, Object> stats = advisor.stats();
+        assertEquals(2L, stats.get("narrowedRequests"));
+        assertEquals(8L, stats.get("toolsOffered"));
+        assertEquals(2L, stats.get("toolsAttached"));
+        assertTrue((long) stats.get("estimatedTokensSaved") > 0);
+    }
+
+    @Test
+    void alwaysIncludedToolsAreKeptAndSmallToolSetsPassThrough() {
+        ToolSelectionAdvisor advisor = new ToolSelectionAdvisor(1, 0.1, Set.of("fetch_urls"), Map.of());
+        assertEquals(List.of("fetch_urls"), attached(advisor, "hello there"));
+
+        ToolSelectionAdvisor wide = new ToolSelectionAdvisor(4, 0.1, Set.of(), Map.of());
+        ChatClientRequest request = request("hello there");
+        assertSame(request, wide.before(request, null));
+    }
+
+    private List<String> attached(ToolSelectionAdvisor advisor, String text) {
+        ChatClientRequest advised = advisor.before(request(text), null);
+        ToolCallingChatOptions options = (ToolCallingChatOptions) advised.prompt().getOptions();
+        return options.getToolCallbacks().stream().map(c -> c.getToolDefinition().name()).toList();
+    }
+
+    private ChatClientRequest request(String text) {
+        ToolCallingChatOptions options = ToolCallingChatOptions.builder().toolCallbacks(tools).build();
+        return ChatClientRequest.builder().prompt(new Prompt(new UserMessage(text), options)).context(Map.of()).build();
+    }
+
+    private static ToolCallback tool(String name, String description) {
+        ToolDefinition definition = ToolDefinition.builder()
+                .name(name)
+                .description(description)
+                .inputSchema("{\"type\":\"object\",\"properties\":{\"url\":{\"type\":\"string\"}}}")
+                .build();
+        return new ToolCallback() {
+            @Override
+            public ToolDefinition getToolDefinition() {
+                return definition;
+            }
+
+            @Override
+            public String call(String toolInput) {
+                return name;
+            }
+        };
+    }
+}
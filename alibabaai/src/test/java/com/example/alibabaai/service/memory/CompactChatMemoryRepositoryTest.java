@@ -0,0 +1,62 @@
+package com.example.alibabaai.service.memory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactChatMemoryRepositoryTest {
+
+    private static final String SYSTEM_PROMPT = "你是一个乐于助人的助手，请用中文回答。".repeat(20);
+
+    @Test
+    void roundTripsAllMessageKinds() {
+        Object custom = List.of("kept", "as", "is");
+        List<Message> messages = List.of(
+                SystemMessage.builder().text(SYSTEM_PROMPT).build(),
+                UserMessage.builder().text("北京天气怎么样？")
+                        .metadata(Map.of("n", 42, "big", -7L, "ratio", 0.5, "flag", true, "tag", "x", "custom", custom))
+                        .build(),
+                new AssistantMessage("", Map.of("finishReason", "TOOL_CALLS"),
+                        List.of(new AssistantMessage.ToolCall("call_1", "function", "fetch_urls", "{\"urls\":[\"https://a.test\"]}"))),
+                new ToolResponseMessage(List.of(new ToolResponseMessage.ToolResponse("call_1", "fetch_urls", "[0] https://a.test\n晴"))),
+                new AssistantMessage("晴天，气温 20℃。"));
+
+        CompactChatMemoryRepository repository = new CompactChatMemoryRepository();
+        repository.saveAll("c1", messages);
+
+        List<Message> restored = repository.findByConversationId("c1");
+        assertEquals(messages, restored);
+        assertEquals(custom, restored.get(1).getMetadata().get("custom"));
+        assertEquals(List.of("c1"), repository.findConversationIds());
+    }
+
+    @Test
+    void sharesRepeatedTextAcrossConversationsAndReleasesIt() {
+        CompactChatMemoryRepository repository = new CompactChatMemoryRepository();
+        for (int i = 0; i < 10; i++) {
+            repository.saveAll("c" + i, List.of(SystemMessage.builder().text(SYSTEM_PROMPT).build(),
+                    new UserMessage("question " + i)));
+        }
+        Map<String, Object> stats = repository.stats();
+        long sharedBytes = (Long) stats.get("sharedBytes");
+        assertTrue(sharedBytes < SYSTEM_PROMPT.getBytes(java.nio.charset.StandardCharsets.UTF_8).length * 2L, stats.toString());
+
+        for (int i = 0; i < 9; i++) {
+            repository.deleteByConversationId("c" + i);
+        }
+        assertEquals(sharedBytes, repository.stats().get("sharedBytes"));
+        repository.saveAll("c9", List.of(new UserMessage("replaced")));
+        assertEquals(0L, repository.stats().get("sharedBytes"));
+        assertEquals(0, repository.stats().get("sharedTexts"));
+        assertEquals(List.of(new UserMessage("replaced")), repository.findByConversationId("c9"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.alibabaai.service.rag;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentIngestionServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private Path base;
+    private HnswVectorStore store;
+    private DocumentIngestionService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        base = Files.createDirectories(dir.resolve("corpus-root"));
+        store = new HnswVectorStore(dir.resolve("store"), new HashingEmbeddingModel(64), new ObjectMapper(), 8, 32, 32);
+        store.open();
+        service = new DocumentIngestionService(store, new ObjectMapper(), dir.resolve("checkpoints"), base, 200, 4, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.close();
+        store.close();
+    }
+
+    @Test
+    void pathsOutsideBaseDirectoryAreRejected() throws Exception {
+        Path secret = Files.writeString(dir.resolve("secret.txt"), "api-key=123");
+        assertThrows(IllegalArgumentException.class, () -> service.submit(List.of(secret.toString()), null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(List.of("../secret.txt"), null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(List.of("missing.txt"), null, null, null));
+
+        // 基础目录内指向外部的符号链接：直接提交被拒绝，目录遍历时被跳过
+        Path docs = Files.createDirectories(base.resolve("docs"));
+        Files.createSymbolicLink(docs.resolve("leak.txt"), secret);
+        Files.writeString(docs.resolve("readme.md"), "第一段内容。\n\n第二段内容。\n");
+        assertThrows(IllegalArgumentException.class, () -> service.submit(List.of("docs/leak.txt"), null, null, null));
+
+        IngestionJob job = service.submit(List.of("docs"), null, null, null);
+        Map<String, Object> snapshot = await(job);
+        assertEquals(IngestionJob.Status.COMPLETED, snapshot.get("status"));
+        assertEquals(1, snapshot.get("filesTotal"));
+        assertEquals(1L, snapshot.get("filesChunked"));
+        assertTrue((long) snapshot.get("chunksEmbedded") > 0);
+        assertTrue(snapshot.containsKey("chunksPerSecond"));
+        assertTrue(snapshot.containsKey("filesPerSecond"));
+    }
+
+    @Test
+    void rejectsNonPositiveChunkingParameters() throws Exception {
+        Files.writeString(base.resolve("a.txt"), "内容");
+        assertThrows(IllegalArgumentException.class, () -> service.submit(List.of("a.txt"), 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(List.of("a.txt"), 1, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(List.of("a.txt"), null, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(List.of("a.txt"), null, null, -1));
+    }
+
+    @Test
+    void hardSplitAlwaysMovesForwardAndKeepsSurrogatePairs() {
+        String text = "a😀b😀😀c";
+        List<String> parts = TextSegmenter.split(text, 1);
+        assertEquals(List.of("a", "😀", "b", "😀", "😀", "c"), parts);
+        assertEquals(text, String.join("", parts));
+        assertThrows(IllegalArgumentException.class, () -> TextSegmenter.split(text, 0));
+    }
+
+    @Test
+    void chunkerIsLazyAndDeterministic() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 40_000; i++) {
+            text.append("段落 ").append(i).append(" 的内容，用来凑够多个叶子。\n\n");
+        }
+        Path file = Files.writeString(base.resolve("big.txt"), text);
+        AtomicInteger submitted = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(2) {
+            @Override
+            public <T> ForkJoinTask<T> submit(Callable<T> task) {
+                submitted.incrementAndGet();
+                return super.submit(task);
+            }
+        };
+        try {
+            MappedFileChunker chunker = new MappedFileChunker(pool, 400);
+            List<MappedFileChunker.Chunk> all = chunker.chunk(file).collectList().block(Duration.ofSeconds(30));
+            assertTrue(all.size() > 1000);
+            assertTrue(all.get(all.size() - 1).byteOffset() > 1024 * 1024);
+            assertEquals(all.stream().map(MappedFileChunker.Chunk::id).toList(),
+                    chunker.chunk(file).map(MappedFileChunker.Chunk::id).collectList().block(Duration.ofSeconds(30)));
+
+            int leaves = submitted.get() / 2;
+            assertTrue(leaves >= 8, "leaves: " + leaves);
+
+            // 只取前几个块时只切第一组叶子（并行度 2）
+            submitted.set(0);
+            List<MappedFileChunker.Chunk> head = chunker.chunk(file).take(3).collectList().block(Duration.ofSeconds(5));
+            assertEquals(all.subList(0, 3), head);
+            assertEquals(2, submitted.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Map<String, Object> await(IngestionJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            IngestionJob.Status status = job.getStatus();
+            if (status == IngestionJob.Status.COMPLETED || status == IngestionJob.Status.FAILED) {
+                return job.snapshot();
+            }
+            Thread.sleep(20);
+        }
+        return job.snapshot();
+    }
+}
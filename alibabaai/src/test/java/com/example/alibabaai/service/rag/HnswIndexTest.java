@@ -0,0 +1,118 @@
+package com.example.alibabaai.service.rag;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recallMatchesBruteForce() throws Exception {
+        SplittableRandom random = new SplittableRandom(7);
+        float[][] data = new float[3000][];
+        try (MappedVectorStorage storage = new MappedVectorStorage(dir.resolve("vectors.bin"), DIMENSIONS)) {
+            HnswIndex index = new HnswIndex(storage, 16, 200);
+            for (int i = 0; i < data.length; i++) {
+                data[i] = randomVector(random);
+                index.add(data[i]);
+            }
+
+            int k = 10;
+            int hits = 0;
+            int queries = 100;
+            for (int q = 0; q < queries; q++) {
+                float[] query = randomVector(random);
+                int[] expected = bruteForce(data, query, k);
+                int[] actual = index.search(query, k, 64).ids();
+                assertEquals(k, actual.length);
+                for (int id : actual) {
+                    if (Arrays.stream(expected).anyMatch(e -> e == id)) {
+                        hits++;
+                    }
+                }
+            }
+            double recall = hits / (double) (queries * k);
+            assertTrue(recall >= 0.9, "recall@10 = " + recall);
+        }
+    }
+
+    @Test
+    void graphAndVectorsSurviveReopenAndCrashRecovery() throws Exception {
+        Path vectors = dir.resolve("vectors.bin");
+        Path graph = dir.resolve("graph.bin");
+        SplittableRandom random = new SplittableRandom(11);
+        float[] query = randomVector(random);
+        HnswIndex.Result before;
+        HnswIndex.Result live;
+        try (MappedVectorStorage storage = new MappedVectorStorage(vectors, DIMENSIONS)) {
+            HnswIndex index = new HnswIndex(storage, 8, 64);
+            for (int i = 0; i < 500; i++) {
+                index.add(randomVector(random));
+            }
+            before = index.search(query, 5, 50);
+            index.markDeleted(before.ids()[0]);
+            index.save(graph);
+            // 保存图之后追加的节点只在向量文件中，模拟崩溃前未来得及保存图
+            for (int i = 0; i < 20; i++) {
+                index.add(randomVector(random));
+            }
+            live = index.search(query, 4, 50);
+        }
+
+        assertEquals(DIMENSIONS, MappedVectorStorage.peekDimensions(vectors));
+        try (MappedVectorStorage storage = new MappedVectorStorage(vectors, DIMENSIONS)) {
+            assertEquals(520, storage.size());
+            HnswIndex index = new HnswIndex(storage, 8, 64);
+            assertEquals(20, index.load(graph));
+            assertEquals(519, index.size());
+            assertTrue(index.isDeleted(before.ids()[0]));
+
+            HnswIndex.Result after = index.search(query, 4, 50);
+            assertFalse(Arrays.stream(after.ids()).anyMatch(id -> id == before.ids()[0]));
+            assertArrayEquals(live.ids(), after.ids());
+            assertArrayEquals(live.scores(), after.scores(), 1e-6f);
+        }
+    }
+
+    private static float[] randomVector(SplittableRandom random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static int[] bruteForce(float[][] data, float[] query, int k) {
+        float[] q = normalized(query);
+        return IntStream.range(0, data.length)
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> -MappedVectorStorage.dot(normalized(data[i]), q, DIMENSIONS)))
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static float[] normalized(float[] vector) {
+        double norm = Math.sqrt(MappedVectorStorage.dot(vector, vector, vector.length));
+        float[] out = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            out[i] = (float) (vector[i] / norm);
+        }
+        return out;
+    }
+}
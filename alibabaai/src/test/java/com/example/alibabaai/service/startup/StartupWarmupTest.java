@@ -0,0 +1,90 @@
+package com.example.alibabaai.service.startup;
+
+import com.example.alibabaai.service.http.HttpClientPool;
+import com.example.alibabaai.service.http.HttpClientPools;
+import com.example.alibabaai.service.mcp.McpSessionManager;
+import com.example.alibabaai.service.mcp.binding.ToolArgumentBinders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.DefaultApplicationArguments;
+import reactor.core.publisher.Mono;
+
+import javax.net.ssl.SSLContext;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StartupWarmupTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        // 上游一直不响应，模拟网络黑洞
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void timeoutBoundsStartupWhenUpstreamsHang() throws Exception {
+        McpSessionManager session = mock(McpSessionManager.class);
+        when(session.whenReady(any())).thenReturn(Mono.never());
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("mcpSessionManager", session);
+
+        HttpClientPools pools = new HttpClientPools(name -> new HttpClientPool.Settings(HttpClient.Version.HTTP_1_1,
+                Duration.ofSeconds(5), null, 4, Duration.ofSeconds(5)), SSLContext.getDefault(), Runnable::run);
+        StartupWarmup warmup = new StartupWarmup(pools, new ObjectMapper(),
+                beans.getBeanProvider(McpSessionManager.class), beans.getBeanProvider(ToolArgumentBinders.class),
+                List.of("http://127.0.0.1:" + server.getAddress().getPort() + "/"), 1,
+                Duration.ofSeconds(10), Duration.ofMillis(800));
+
+        long start = System.nanoTime();
+        warmup.run(new DefaultApplicationArguments());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 步骤超时（10s）远大于整体超时，应用仍应在整体超时附近就绪
+        assertTrue(elapsedMillis < 3000, "warm-up took " + elapsedMillis + " ms");
+        Map<String, Object> report = warmup.report();
+        assertEquals(true, report.get("finished"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> steps = (Map<String, Object>) report.get("steps");
+        assertTrue(steps.containsKey("chat-pipeline"));
+        // 挂起的网络步骤不阻塞就绪：要么尚未记录，要么因被中断记为失败
+        @SuppressWarnings("unchecked")
+        Map<String, Object> connections = (Map<String, Object>) steps.get("connections");
+        assertTrue(connections == null || Boolean.FALSE.equals(connections.get("ok")), String.valueOf(connections));
+    }
+}
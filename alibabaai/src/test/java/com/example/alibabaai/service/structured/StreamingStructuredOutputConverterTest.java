@@ -0,0 +1,79 @@
+package com.example.alibabaai.service.structured;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingStructuredOutputConverterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String OUTPUT = "好的，结果如下：\n```json\n{\"title\": \"流式解析\", \"score\": 42, "
+            + "\"tags\": [\"json\", \"stream\"], \"author\": {\"name\": \"张三\", \"age\": 30}, "
+            + "\"summary\": \"逐字段输出\"}\n```";
+
+    @Test
+    void reportsValuesAsSoonAsTheyClose() {
+        IncrementalJsonParser parser = new IncrementalJsonParser(MAPPER.getFactory(), 2);
+        List<String> closed = new ArrayList<>();
+        int titleClosedAt = -1;
+        for (int i = 0; i < OUTPUT.length(); i++) {
+            for (IncrementalJsonParser.FieldEvent event : parser.feed(String.valueOf(OUTPUT.charAt(i)))) {
+                closed.add(event.path());
+                if (event.path().equals("title")) {
+                    titleClosedAt = i;
+                }
+            }
+        }
+
+        assertEquals(List.of("title", "score", "tags[0]", "tags[1]", "tags", "author.name", "author.age", "author",
+                "summary"), closed);
+        assertEquals(OUTPUT.indexOf("流式解析") + "流式解析\"".length() - 1, titleClosedAt);
+        assertTrue(parser.isComplete());
+        assertEquals("张三", parser.root().path("author").path("name").asText());
+    }
+
+    @Test
+    void emitsTypedPartialObjects() {
+        StreamingStructuredOutputConverter<Article> converter =
+                new StreamingStructuredOutputConverter<>(Article.class, MAPPER, 1);
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < OUTPUT.length(); i += 7) {
+            chunks.add(OUTPUT.substring(i, Math.min(OUTPUT.length(), i + 7)));
+        }
+
+        List<StreamingStructuredOutputConverter.Partial<Article>> partials =
+                converter.convert(Flux.fromIterable(chunks)).collectList().block(Duration.ofSeconds(5));
+
+        StreamingStructuredOutputConverter.Partial<Article> first = partials.get(0);
+        assertEquals("流式解析", first.value().title());
+        assertNull(first.value().summary());
+        assertFalse(first.complete());
+        StreamingStructuredOutputConverter.Partial<Article> last = partials.get(partials.size() - 1);
+        assertTrue(last.complete());
+        assertEquals(new Article("流式解析", 42, List.of("json", "stream"), "逐字段输出"), last.value());
+        assertTrue(converter.getFormat().contains("\"title\""));
+    }
+
+    @Test
+    void failsWhenStreamEndsBeforeJsonCloses() {
+        StreamingStructuredOutputConverter<Article> converter =
+                new StreamingStructuredOutputConverter<>(Article.class, MAPPER, 1);
+
+        assertThrows(IllegalStateException.class,
+                () -> converter.convert(Flux.just("{\"title\": \"a\", ", "\"score\": 1")).blockLast(Duration.ofSeconds(5)));
+    }
+
+    record Article(String title, int score, List<String> tags, String summary) {
+    }
+}
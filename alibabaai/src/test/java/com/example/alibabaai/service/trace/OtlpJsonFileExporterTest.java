@@ -0,0 +1,79 @@
+package com.example.alibabaai.service.trace;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OtlpJsonFileExporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesOneOtlpJsonLinePerTrace() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Path file = dir.resolve("traces/otlp.jsonl");
+        OtlpJsonFileExporter exporter = new OtlpJsonFileExporter(file, 1024 * 1024, "alibabaai-test", objectMapper);
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(
+                new SpanTreeObservationHandler(1.0, context -> false, 100, exporter::export));
+
+        Observation root = Observation.start("http.server.requests", registry).lowCardinalityKeyValue("uri", "/chat");
+        Observation child = Observation.createNotStarted("chat.model", registry).parentObservation(root).start();
+        child.error(new RuntimeException("upstream timeout"));
+        child.stop();
+        root.stop();
+        exporter.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        assertEquals(1L, exporter.stats().get("exported"));
+
+        JsonNode resourceSpans = objectMapper.readTree(lines.get(0)).path("resourceSpans").path(0);
+        JsonNode resourceAttribute = resourceSpans.path("resource").path("attributes").path(0);
+        assertEquals("service.name", resourceAttribute.path("key").asText());
+        assertEquals("alibabaai-test", resourceAttribute.path("value").path("stringValue").asText());
+
+        JsonNode spans = resourceSpans.path("scopeSpans").path(0).path("spans");
+        assertEquals(2, spans.size());
+        Map<String, JsonNode> byName = new HashMap<>();
+        spans.forEach(span -> byName.put(span.path("name").asText(), span));
+        JsonNode rootSpan = byName.get("http.server.requests");
+        JsonNode childSpan = byName.get("chat.model");
+
+        String traceId = rootSpan.path("traceId").asText();
+        assertTrue(traceId.matches("[0-9a-f]{32}"), traceId);
+        assertTrue(rootSpan.path("spanId").asText().matches("[0-9a-f]{16}"));
+        assertEquals(traceId, childSpan.path("traceId").asText());
+        assertFalse(rootSpan.has("parentSpanId"));
+        assertEquals(rootSpan.path("spanId").asText(), childSpan.path("parentSpanId").asText());
+        assertEquals(TraceSpan.Kind.INTERNAL.otlpCode(), rootSpan.path("kind").asInt());
+
+        // OTLP-JSON 中 64 位时间戳以字符串表示
+        assertTrue(rootSpan.path("startTimeUnixNano").isTextual());
+        long start = Long.parseLong(rootSpan.path("startTimeUnixNano").asText());
+        long end = Long.parseLong(rootSpan.path("endTimeUnixNano").asText());
+        assertTrue(start > 1_600_000_000_000_000_000L && end >= start);
+        assertTrue(Long.parseLong(childSpan.path("startTimeUnixNano").asText()) >= start);
+
+        JsonNode uri = rootSpan.path("attributes").path(0);
+        assertEquals("uri", uri.path("key").asText());
+        assertEquals("/chat", uri.path("value").path("stringValue").asText());
+        assertTrue(rootSpan.path("status").isEmpty());
+        assertEquals(2, childSpan.path("status").path("code").asInt());
+        assertEquals("RuntimeException: upstream timeout", childSpan.path("status").path("message").asText());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.alibabaai.service.trace;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpanTreeObservationHandlerTest {
+
+    private final List<TraceRecord> completed = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void buildsTreeFromNestedAndAsyncObservations() throws Exception {
+        ObservationRegistry registry = registry(1.0, 100);
+
+        Observation root = Observation.start("http.server.requests", registry)
+                .lowCardinalityKeyValue("uri", "/chat");
+        try (Observation.Scope ignored = root.openScope()) {
+            // 同步嵌套：作用域内创建的观测自动以当前观测为父
+            Observation.createNotStarted("advisor", registry).observe(() ->
+                    Observation.createNotStarted("tool", registry)
+                            .contextualName("fetch_urls")
+                            .highCardinalityKeyValue("url", "x".repeat(300))
+                            .observe(() -> {
+                            }));
+        }
+        // 异步：在其他线程上显式指定父观测
+        CompletableFuture.runAsync(() -> Observation.createNotStarted("async-embed", registry)
+                .parentObservation(root)
+                .observe(() -> {
+                }), executor).get(5, TimeUnit.SECONDS);
+        Observation failing = Observation.createNotStarted("failing", registry).parentObservation(root).start();
+        failing.error(new IllegalStateException("boom"));
+        failing.stop();
+        // 根结束时仍在运行的子观测：以根的结束时间计
+        Observation dangling = Observation.createNotStarted("dangling", registry).parentObservation(root).start();
+        root.stop();
+
+        assertEquals(1, completed.size());
+        TraceRecord trace = completed.get(0);
+        assertEquals(32, trace.getTraceId().length());
+        Map<String, TraceSpan> byName = byName(trace);
+        assertEquals(6, byName.size());
+
+        TraceSpan rootSpan = byName.get("http.server.requests");
+        assertNull(rootSpan.getParentSpanId());
+        assertEquals(rootSpan, trace.getRoot());
+        assertEquals("/chat", rootSpan.getAttributes().get("uri"));
+        assertEquals(rootSpan.getSpanId(), byName.get("advisor").getParentSpanId());
+        assertEquals(byName.get("advisor").getSpanId(), byName.get("fetch_urls").getParentSpanId());
+        assertEquals(rootSpan.getSpanId(), byName.get("async-embed").getParentSpanId());
+        assertTrue(byName.get("fetch_urls").getAttributes().get("url").length() <= 257);
+        assertEquals("IllegalStateException: boom", byName.get("failing").getError());
+
+        TraceSpan unfinished = byName.get("dangling");
+        assertFalse(unfinished.isFinished());
+        assertEquals(trace.getEndNanos(), unfinished.getEndNanos());
+        for (TraceSpan span : trace.getSpans()) {
+            assertTrue(span.getStartNanos() >= rootSpan.getStartNanos());
+            assertTrue(span.getEndNanos() <= rootSpan.getEndNanos(), span.getName());
+        }
+        dangling.stop();
+        assertEquals(1, completed.size(), "a late child must not complete the trace again");
+    }
+
+    @Test
+    void samplingIsDecidedAtTheRoot() {
+        ObservationRegistry registry = registry(0.0, 100);
+
+        Observation root = Observation.start("http.server.requests", registry);
+        Observation.createNotStarted("child", registry).parentObservation(root).observe(() -> {
+        });
+        root.stop();
+        assertTrue(completed.isEmpty(), "unsampled roots and their children are not recorded");
+
+        // 强制采样的根（例如带调试头的请求）即使采样率为0也记录
+        Observation forced = Observation.start("forced", registry);
+        Observation.createNotStarted("child", registry).parentObservation(forced).observe(() -> {
+        });
+        forced.stop();
+        assertEquals(1, completed.size());
+        assertEquals(2, completed.get(0).getSpans().size());
+    }
+
+    @Test
+    void capsSpansPerTrace() {
+        ObservationRegistry registry = registry(1.0, 3);
+
+        Observation root = Observation.start("root", registry);
+        for (int i = 0; i < 5; i++) {
+            Observation child = Observation.createNotStarted("child-" + i, registry).parentObservation(root).start();
+            // 被丢弃的 span 的子观测也不记录
+            Observation.createNotStarted("grandchild-" + i, registry).parentObservation(child).observe(() -> {
+            });
+            child.stop();
+        }
+        root.stop();
+
+        TraceRecord trace = completed.get(0);
+        assertEquals(3, trace.getSpans().size());
+        assertEquals(4, trace.getDroppedSpans());
+        assertEquals("root", trace.getRoot().getName());
+    }
+
+    @Test
+    void storeKeepsSlowTracesAndRendersWaterfall() {
+        TraceStore store = new TraceStore(Duration.ZERO, 2, null);
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(
+                new SpanTreeObservationHandler(1.0, context -> false, 100, store));
+
+        String lastTraceId = null;
+        for (int i = 0; i < 3; i++) {
+            Observation root = Observation.start("root-" + i, registry);
+            Observation child = Observation.createNotStarted("child", registry).parentObservation(root).start();
+            Observation.createNotStarted("leaf", registry).parentObservation(child).observe(() -> {
+            });
+            child.stop();
+            root.stop();
+            lastTraceId = root.getContext().<TraceSpan>get(TraceSpan.class).getTrace().getTraceId();
+        }
+
+        assertEquals(3L, store.stats().get("completedTraces"));
+        List<Map<String, Object>> slow = store.listSlow();
+        assertEquals(2, slow.size(), "oldest slow trace is evicted");
+        assertEquals("root-2", slow.get(0).get("name"));
+
+        List<TraceStore.WaterfallRow> rows = store.waterfall(lastTraceId);
+        assertNotNull(rows);
+        assertEquals(List.of("root-2", "child", "leaf"), rows.stream().map(TraceStore.WaterfallRow::name).toList());
+        assertEquals(List.of(0, 1, 2), rows.stream().map(TraceStore.WaterfallRow::depth).toList());
+        assertTrue(rows.stream().allMatch(row -> row.bar().length() == 50));
+        assertTrue(store.waterfallText(lastTraceId).contains("    leaf"));
+        assertNull(store.waterfall("unknown"));
+    }
+
+    private ObservationRegistry registry(double sampleRate, int maxSpans) {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new SpanTreeObservationHandler(sampleRate,
+                context -> "forced".equals(context.getName()), maxSpans, completed::add));
+        return registry;
+    }
+
+    private static Map<String, TraceSpan> byName(TraceRecord trace) {
+        return trace.getSpans().stream().collect(Collectors.toMap(TraceSpan::getName, Function.identity()));
+    }
+}
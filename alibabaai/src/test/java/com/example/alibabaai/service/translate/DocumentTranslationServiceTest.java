@@ -0,0 +1,90 @@
+package com.example.alibabaai.service.translate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentTranslationServiceTest {
+
+    @Test
+    void emitsChunksInDocumentOrderAndKeepsParagraphBreaks() {
+        StubTranslator model = new StubTranslator();
+        DocumentTranslationService service = new DocumentTranslationService(model, 20, 10_000, 4, 8, Duration.ofSeconds(5));
+        String document = "第一段第一句。第一段第二句。\n\n第二段很短。\n\n第三段第一句。第三段第二句。第三段第三句。";
+
+        List<DocumentTranslationService.TranslatedChunk> chunks = service.translate(document, "English", 4)
+                .collectList().block(Duration.ofSeconds(10));
+
+        for (int i = 0; i < chunks.size(); i++) {
+            assertEquals(i, chunks.get(i).index());
+            assertEquals(chunks.size(), chunks.get(i).total());
+        }
+        String translated = String.join("", chunks.stream().map(DocumentTranslationService.TranslatedChunk::text).toList());
+        assertEquals(document, translated.replace("<", "").replace(">", ""));
+        assertTrue(translated.startsWith("<第一段第一句。第一段第二句。>\n\n"), translated);
+        assertTrue(translated.contains("\n\n<第二段很短。>\n\n"), translated);
+        assertTrue(model.maxInFlight.get() > 1, "chunks should be translated in parallel");
+    }
+
+    @Test
+    void failedChunkFallsBackToSourceText() {
+        DocumentTranslationService service = new DocumentTranslationService(new FailingModel(), 100, 10_000, 2, 2,
+                Duration.ofSeconds(5));
+
+        List<DocumentTranslationService.TranslatedChunk> chunks = service.translate("无法翻译的内容。", "English", null)
+                .collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(1, chunks.size());
+        assertEquals("无法翻译的内容。", chunks.get(0).text());
+        assertEquals("quota exceeded", chunks.get(0).error());
+    }
+
+    /**
+     * 把原文包在尖括号里返回；越靠前的块越慢，验证输出顺序不受完成顺序影响
+     */
+    private static final class StubTranslator implements ChatModel {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            String text = prompt.getUserMessage().getText();
+            long delay = Math.max(10, 200 - 50L * calls.getAndIncrement());
+            return Flux.just(new ChatResponse(List.of(new Generation(new AssistantMessage("<" + text + ">")))))
+                    .delaySubscription(Duration.ofMillis(delay))
+                    .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        }
+    }
+
+    private static final class FailingModel implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.error(new IllegalStateException("quota exceeded"));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.alibabaai.service.usage;
+
+import com.example.alibabaai.config.usage.TokenUsageConfig;
+import com.example.alibabaai.config.web.ReactiveWebServerConfig;
+import com.example.alibabaai.controller.chat.ReactiveChatModelController;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.codec.CodecsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.HttpHandlerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.ReactiveWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.WebFluxAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 以 reactive 模式启动内嵌服务器（有 reactor-netty 时为 Netty）与响应式控制器，验证计费归属经 WebFilter 写入 Reactor Context 后到达模型调用与账本
+ */
+@SpringBootTest(classes = ReactiveUsageAttributionTest.ReactiveConfig.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+class ReactiveUsageAttributionTest {
+
+    @DynamicPropertySource
+    static void ledger(DynamicPropertyRegistry registry) throws Exception {
+        String path = Files.createTempDirectory("usage").resolve("ledger.jsonl").toString();
+        registry.add("usage.ledger.path", () -> path);
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private TokenUsageAccountant accountant;
+
+    @Test
+    void attributionReachesStreamingModelCallsThroughReactorContext() throws Exception {
+        assertTrue(context.getBean(ChatModel.class) instanceof MeteredChatModel);
+
+        String body = webTestClient.get().uri("/model/simple/chat?conversation_id=conv-7")
+                .header(UsageAttribution.API_KEY_HEADER, "tenant-key")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+        assertEquals("hello reactive", body);
+
+        UsageAttribution expected = UsageAttribution.of("/model/simple/chat", "conv-7", "tenant-key");
+        assertEquals(List.of(expected), List.copyOf(ReactiveConfig.SEEN));
+
+        // 记账在流的 doFinally 中完成，可能略晚于响应写出
+        String group = String.join("|", expected.endpoint(), expected.conversationId(), expected.apiKey());
+        long deadline = System.currentTimeMillis() + 5000;
+        Map<Long, Map<String, TokenUsageAccountant.UsageTotals>> totals;
+        do {
+            Thread.sleep(10);
+            totals = accountant.aggregate(0, Long.MAX_VALUE, null, List.of("endpoint", "conversationId", "apiKey"));
+        } while ((totals.isEmpty() || !totals.values().iterator().next().containsKey(group))
+                && System.currentTimeMillis() < deadline);
+        TokenUsageAccountant.UsageTotals row = totals.values().iterator().next().get(group);
+        assertEquals(1, row.getCalls(), String.valueOf(totals));
+        assertEquals(7, row.getTotalTokens());
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, ReactiveWebServerFactoryAutoConfiguration.class,
+            HttpHandlerAutoConfiguration.class, WebFluxAutoConfiguration.class, CodecsAutoConfiguration.class,
+            JacksonAutoConfiguration.class})
+    @Import({ReactiveWebServerConfig.class, TokenUsageConfig.class, ReactiveChatModelController.class})
+    static class ReactiveConfig {
+
+        static final Queue<UsageAttribution> SEEN = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 流式桩模型：记录订阅时 Reactor Context 中的计费归属，分两片返回文本，末片带用量
+         */
+        @Bean
+        ChatModel chatModel() {
+            return new ChatModel() {
+                @Override
+                public ChatResponse call(Prompt prompt) {
+                    throw new UnsupportedOperationException("reactive endpoints stream");
+                }
+
+                @Override
+                public Flux<ChatResponse> stream(Prompt prompt) {
+                    return Flux.deferContextual(context -> {
+                        SEEN.add(context.getOrDefault(UsageAttribution.class, UsageAttribution.NONE));
+                        return Flux.just(
+                                new ChatResponse(List.of(new Generation(new AssistantMessage("hello ")))),
+                                new ChatResponse(List.of(new Generation(new AssistantMessage("reactive"))),
+                                        ChatResponseMetadata.builder().model("stub").usage(new DefaultUsage(3, 4)).build()))
+                                .delayElements(Duration.ofMillis(5));
+                    });
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.alibabaai.service.usage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenUsageAccountantTest {
+
+    private static final UsageAttribution ATTRIBUTION = new UsageAttribution("/stream/chat", "conv-1", "key-1");
+
+    @TempDir
+    Path dir;
+
+    private TokenUsageAccountant accountant;
+
+    @AfterEach
+    void close() {
+        if (accountant != null) {
+            accountant.close();
+        }
+    }
+
+    @Test
+    void aggregatesFlushedAndUnflushedUsageWithoutWritingOnQuery() throws Exception {
+        Path path = dir.resolve("ledger.jsonl");
+        accountant = new TokenUsageAccountant(new TokenUsageLedger(path, new ObjectMapper()), Duration.ofHours(1));
+        accountant.record(ATTRIBUTION, "qwen-max", new DefaultUsage(10, 5));
+        accountant.flush();
+        long flushedSize = Files.size(path);
+        accountant.record(ATTRIBUTION, "qwen-max", new DefaultUsage(20, 10));
+        accountant.record(new UsageAttribution("/chat", "conv-2", "key-1"), "qwen-plus", new DefaultUsage(1, 1));
+
+        Map<Long, Map<String, TokenUsageAccountant.UsageTotals>> byModel =
+                accountant.aggregate(0, Long.MAX_VALUE, null, List.of("model"));
+        TokenUsageAccountant.UsageTotals max = byModel.get(0L).get("qwen-max");
+        assertEquals(2, max.getCalls());
+        assertEquals(45, max.getTotalTokens());
+        assertEquals(2, byModel.get(0L).get("qwen-plus").getTotalTokens());
+        assertEquals(flushedSize, Files.size(path));
+
+        accountant.flush();
+        Map<Long, Map<String, TokenUsageAccountant.UsageTotals>> byKey =
+                accountant.aggregate(0, Long.MAX_VALUE, null, List.of("apiKey", "endpoint"));
+        assertEquals(47, byKey.get(0L).entrySet().stream().mapToLong(e -> e.getValue().getTotalTokens()).sum());
+        assertEquals(30, byKey.get(0L).get("key-1|/stream/chat").getPromptTokens());
+    }
+
+    @Test
+    void unknownGroupByIsRejected() {
+        accountant = new TokenUsageAccountant(new TokenUsageLedger(dir.resolve("l.jsonl"), new ObjectMapper()),
+                Duration.ofHours(1));
+        assertThrows(IllegalArgumentException.class,
+                () -> accountant.aggregate(0, Long.MAX_VALUE, null, List.of("model", "tenant")));
+    }
+
+    @Test
+    void cancelledStreamStillRecordsUsageSeenSoFar() throws Exception {
+        accountant = new TokenUsageAccountant(new TokenUsageLedger(dir.resolve("l.jsonl"), new ObjectMapper()),
+                Duration.ofHours(1));
+        ChatModel upstream = new ChatModel() {
+            @Override
+            public ChatResponse call(Prompt prompt) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Flux<ChatResponse> stream(Prompt prompt) {
+                Flux<ChatResponse> chunks = Flux.range(1, 100).map(i -> new ChatResponse(
+                        List.of(new Generation(new AssistantMessage("t"))),
+                        ChatResponseMetadata.builder().model("qwen-max").usage(new DefaultUsage(7, i)).build()));
+                return "fail".equals(prompt.getContents())
+                        ? chunks.take(4).concatWith(Flux.error(new IllegalStateException("upstream reset")))
+                        : chunks;
+            }
+        };
+        MeteredChatModel metered = new MeteredChatModel(upstream, accountant);
+
+        metered.stream(new Prompt("hi"))
+                .contextWrite(context -> context.put(UsageAttribution.class, ATTRIBUTION))
+                .take(3)
+                .blockLast();
+        metered.stream(new Prompt("fail"))
+                .contextWrite(context -> context.put(UsageAttribution.class, ATTRIBUTION))
+                .onErrorResume(e -> Flux.empty())
+                .blockLast();
+
+        TokenUsageAccountant.UsageTotals totals = accountant.aggregate(0, Long.MAX_VALUE, null, List.of("endpoint"))
+                .get(0L).get("/stream/chat");
+        assertEquals(2, totals.getCalls());
+        assertEquals(3 + 4, totals.getCompletionTokens());
+        assertEquals(14, totals.getPromptTokens());
+    }
+}
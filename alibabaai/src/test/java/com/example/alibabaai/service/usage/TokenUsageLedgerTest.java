@@ -0,0 +1,67 @@
+package com.example.alibabaai.service.usage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenUsageLedgerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rangeScanUsesRebuiltIndexAfterRestart() throws Exception {
+        Path path = dir.resolve("ledger.jsonl");
+        TokenUsageLedger ledger = new TokenUsageLedger(path, objectMapper);
+        for (int i = 0; i < 2000; i++) {
+            ledger.append(List.of(entry(i * 1000L, "conv-" + i)));
+        }
+        assertTrue(Files.size(path) > 2 * TokenUsageLedger.INDEX_STRIDE_BYTES);
+
+        TokenUsageLedger reopened = new TokenUsageLedger(path, objectMapper);
+        List<TokenUsageLedger.Entry> seen = new ArrayList<>();
+        reopened.scan(500_000, 600_000, seen::add);
+        assertEquals(100, seen.size());
+        assertEquals(500_000, seen.get(0).ts());
+        assertEquals(599_000, seen.get(99).ts());
+        assertEquals(ledger.indexSize(), reopened.indexSize());
+        assertTrue(reopened.indexSize() > 1);
+
+        // 重建后继续追加，新记录同样可查
+        reopened.append(List.of(entry(2_000_000, "late")));
+        List<TokenUsageLedger.Entry> tail = new ArrayList<>();
+        reopened.scan(1_999_000, Long.MAX_VALUE, tail::add);
+        assertEquals(List.of("conv-1999", "late"), tail.stream().map(TokenUsageLedger.Entry::conversationId).toList());
+    }
+
+    @Test
+    void corruptLinesAreSkippedAndClockRollbackKeepsOrder() throws Exception {
+        Path path = dir.resolve("ledger.jsonl");
+        TokenUsageLedger ledger = new TokenUsageLedger(path, objectMapper);
+        ledger.append(List.of(entry(1_000, "a")));
+        Files.writeString(path, "{not json\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        TokenUsageLedger reopened = new TokenUsageLedger(path, objectMapper);
+        reopened.append(List.of(entry(500, "rolled-back")));
+        List<TokenUsageLedger.Entry> seen = new ArrayList<>();
+        reopened.scan(0, 10_000, seen::add);
+        assertEquals(List.of("a", "rolled-back"), seen.stream().map(TokenUsageLedger.Entry::conversationId).toList());
+        assertEquals(1_000, seen.get(1).ts());
+    }
+
+    private static TokenUsageLedger.Entry entry(long ts, String conversationId) {
+        return new TokenUsageLedger.Entry(ts, "/chat", "qwen-max", conversationId, "key", 1, 10, 5, 15);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.alibabaai.service.vision;
+
+import com.example.alibabaai.controller.chat.ReactiveSimpChatController;
+import com.example.alibabaai.service.rag.RetrievalAdvisor;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageAnalysisServiceTest {
+
+    private final AtomicReference<Prompt> lastPrompt = new AtomicReference<>();
+
+    @Test
+    void streamsTokensBetweenTimingEvents() {
+        ImageAnalysisService service = new ImageAnalysisService(
+                new ChunkedChatModel(Flux.just("", "一只", "猫").delayElements(Duration.ofMillis(50))),
+                "qwen-vl-max-latest", true, 1024);
+
+        List<ImageAnalysisService.AnalysisEvent> events = service.analyze(null, MimeTypeUtils.IMAGE_PNG,
+                Mono.just(new byte[100]), false).collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("upload", "first-token", "token", "token", "complete"),
+                events.stream().map(ImageAnalysisService.AnalysisEvent::event).toList());
+        assertEquals(100, ((Map<?, ?>) events.get(0).data()).get("bytes"));
+        assertEquals("一只", events.get(2).data());
+        Map<?, ?> complete = (Map<?, ?>) events.get(4).data();
+        assertEquals(2, complete.get("chunks"));
+        assertEquals(3L, complete.get("chars"));
+        assertEquals(false, complete.get("highResolution"));
+        assertTrue((long) complete.get("firstTokenMillis") >= 90, complete.toString());
+        assertTrue((long) complete.get("totalMillis") >= (long) complete.get("firstTokenMillis"));
+
+        UserMessage message = (UserMessage) lastPrompt.get().getInstructions().get(0);
+        assertEquals(ImageAnalysisService.DEFAULT_PROMPT, message.getText());
+        assertEquals(1, message.getMedia().size());
+    }
+
+    @Test
+    void oversizedImageAndModelFailureEndWithErrorEvent() {
+        ImageAnalysisService service = new ImageAnalysisService(
+                new ChunkedChatModel(Flux.concat(Flux.just("部分"), Flux.error(new IllegalStateException("model down")))),
+                "qwen-vl-max-latest", true, 10);
+
+        List<ImageAnalysisService.AnalysisEvent> tooLarge = service.analyze("看图", MimeTypeUtils.IMAGE_JPEG,
+                Mono.just(new byte[11]), null).collectList().block(Duration.ofSeconds(5));
+        assertEquals(List.of("error"), tooLarge.stream().map(ImageAnalysisService.AnalysisEvent::event).toList());
+        assertTrue(((Map<?, ?>) tooLarge.get(0).data()).get("message").toString().contains("max 10"));
+
+        List<ImageAnalysisService.AnalysisEvent> failed = service.analyze("看图", MimeTypeUtils.IMAGE_JPEG,
+                Mono.just(new byte[5]), null).collectList().block(Duration.ofSeconds(5));
+        assertEquals(List.of("upload", "first-token", "token", "error"),
+                failed.stream().map(ImageAnalysisService.AnalysisEvent::event).toList());
+        assertEquals("model down", ((Map<?, ?>) failed.get(3).data()).get("message"));
+        assertFalse(failed.stream().anyMatch(event -> "complete".equals(event.event())));
+    }
+
+    @Test
+    void reactiveUploadStopsReadingAtTheImageLimit() {
+        ImageAnalysisService service = new ImageAnalysisService(new ChunkedChatModel(Flux.just("猫")),
+                "qwen-vl-max-latest", true, 1024);
+        WebTestClient client = WebTestClient.bindToController(new ReactiveSimpChatController(
+                new ChunkedChatModel(Flux.empty()), new DefaultListableBeanFactory().getBeanProvider(RetrievalAdvisor.class),
+                service)).build();
+
+        assertEquals(List.of("error"), upload(client, 4096));
+        assertEquals(List.of("upload", "first-token", "token", "complete"), upload(client, 1000));
+    }
+
+    private static List<String> upload(WebTestClient client, int size) {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("file", new ByteArrayResource(new byte[size]) {
+            @Override
+            public String getFilename() {
+                return "cat.png";
+            }
+        }).contentType(MediaType.IMAGE_PNG);
+        return client.post().uri("/image/analyze/upload/stream")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                })
+                .getResponseBody()
+                .map(ServerSentEvent::event)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+    }
+
+    private final class ChunkedChatModel implements ChatModel {
+
+        private final Flux<String> chunks;
+
+        ChunkedChatModel(Flux<String> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            lastPrompt.set(prompt);
+            return chunks.map(chunk -> new ChatResponse(List.of(new Generation(new AssistantMessage(chunk)))));
+        }
+    }
+}
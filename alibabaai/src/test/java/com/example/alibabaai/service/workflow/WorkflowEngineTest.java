@@ -0,0 +1,183 @@
+package com.example.alibabaai.service.workflow;
+
+import com.example.alibabaai.service.usage.UsageAttribution;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkflowEngineTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger notifications = new AtomicInteger();
+
+    private final WorkflowEngine engine = new WorkflowEngine(new EchoChatModel(),
+            new WorkflowToolInvoker(name -> switch (name) {
+                case "slow" -> tool(name, input -> {
+                    sleep(300);
+                    return "page" + input.length();
+                });
+                case "notify" -> tool(name, input -> "sent" + notifications.incrementAndGet());
+                case "broken" -> tool(name, input -> {
+                    throw new IllegalStateException("upstream down");
+                });
+                default -> null;
+            }, null, null),
+            objectMapper,
+            new WorkflowEngine.Settings(16, Duration.ofSeconds(5), Duration.ofMinutes(1), 4, Duration.ofMinutes(5), 100,
+                    Duration.ofMinutes(5), 100, Set.of("slow")));
+
+    @Test
+    void independentBranchesRunConcurrentlyAndResultsAreCached() throws Exception {
+        WorkflowDefinition definition = definition("""
+                {"input":{"a":"https://a.example","b":"https://b.example"},
+                 "steps":[
+                   {"id":"left","tool":"slow","arguments":{"url":"{{input.a}}"}},
+                   {"id":"right","tool":"slow","arguments":{"url":"{{input.b}}","extra":true}},
+                   {"id":"merge","prompt":"merge {{steps.left}} and {{steps.right}}"}]}
+                """);
+
+        Map<String, Object> first = await(engine.start(definition, UsageAttribution.NONE));
+        assertEquals("SUCCEEDED", first.get("status").toString());
+        assertEquals("echo: merge page27 and page40", first.get("output"));
+        long sum = (long) first.get("sumMillis");
+        assertTrue((long) first.get("elapsedMillis") < sum - 150, "branches should overlap: " + first);
+        assertEquals(List.of("left", "right"), step(first, "merge").get("dependsOn"));
+
+        Map<String, Object> second = await(engine.start(definition, UsageAttribution.NONE));
+        assertEquals(true, step(second, "left").get("cached"));
+        assertEquals(true, step(second, "merge").get("cached"));
+        assertEquals(3L, engine.stats().get("cacheHits"));
+    }
+
+    @Test
+    void failedStepSkipsDependentsButNotOtherBranches() throws Exception {
+        WorkflowDefinition definition = definition("""
+                {"steps":[
+                   {"id":"bad","tool":"broken"},
+                   {"id":"after","prompt":"use {{steps.bad}}"},
+                   {"id":"late","tool":"slow","timeout":"100ms","cache":false},
+                   {"id":"fine","prompt":"hello"}]}
+                """);
+
+        Map<String, Object> run = await(engine.start(definition, UsageAttribution.NONE));
+        assertEquals("FAILED", run.get("status").toString());
+        assertEquals("FAILED", step(run, "bad").get("status").toString());
+        assertEquals("upstream down", step(run, "bad").get("error"));
+        assertEquals("SKIPPED", step(run, "after").get("status").toString());
+        assertEquals("Timed out after 100 ms", step(run, "late").get("error"));
+        assertEquals("SUCCEEDED", step(run, "fine").get("status").toString());
+    }
+
+    @Test
+    void sideEffectingToolsAreCachedOnlyWhenAskedTo() throws Exception {
+        WorkflowDefinition byDefault = definition("""
+                {"steps":[{"id":"n","tool":"notify","arguments":{"to":"ops"}}]}
+                """);
+        assertEquals("sent1", await(engine.start(byDefault, UsageAttribution.NONE)).get("output"));
+        Map<String, Object> again = await(engine.start(byDefault, UsageAttribution.NONE));
+        assertEquals("sent2", again.get("output"));
+        assertEquals(false, step(again, "n").get("cached"));
+
+        WorkflowDefinition optedIn = definition("""
+                {"steps":[{"id":"n","tool":"notify","arguments":{"to":"dev"},"cache":true}]}
+                """);
+        assertEquals("sent3", await(engine.start(optedIn, UsageAttribution.NONE)).get("output"));
+        assertEquals("sent3", await(engine.start(optedIn, UsageAttribution.NONE)).get("output"));
+        assertEquals(3, notifications.get());
+    }
+
+    @Test
+    void rejectsCyclesAndUnknownReferences() {
+        assertThrows(IllegalArgumentException.class, () -> engine.start(definition("""
+                {"steps":[{"id":"x","prompt":"{{steps.y}}"},{"id":"y","prompt":"{{steps.x}}"}]}
+                """), UsageAttribution.NONE));
+        assertThrows(IllegalArgumentException.class, () -> engine.start(definition("""
+                {"steps":[{"id":"x","tool":"missing"}]}
+                """), UsageAttribution.NONE));
+        assertThrows(IllegalArgumentException.class, () -> engine.start(definition("""
+                {"steps":[{"id":"x","prompt":"{{input.nope}}"}]}
+                """), UsageAttribution.NONE));
+    }
+
+    private WorkflowDefinition definition(String json) throws Exception {
+        return objectMapper.readValue(json, WorkflowDefinition.class);
+    }
+
+    private static Map<String, Object> await(WorkflowRun run) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!run.isFinished()) {
+            assertTrue(System.currentTimeMillis() < deadline, "run did not finish");
+            Thread.sleep(10);
+        }
+        return run.snapshot(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> step(Map<String, Object> run, String id) {
+        return ((List<Map<String, Object>>) run.get("steps")).stream()
+                .filter(step -> id.equals(step.get("id")))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static ToolCallback tool(String name, java.util.function.Function<String, String> body) {
+        ToolDefinition definition = ToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+        return new ToolCallback() {
+            @Override
+            public ToolDefinition getToolDefinition() {
+                return definition;
+            }
+
+            @Override
+            public String call(String toolInput) {
+                return body.apply(toolInput);
+            }
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 回显用户消息的桩模型，分两段流式返回
+     */
+    private static final class EchoChatModel implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            return response("echo: " + prompt.getUserMessage().getText());
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.just(response("echo: "), response(prompt.getUserMessage().getText()))
+                    .delayElements(Duration.ofMillis(50));
+        }
+
+        private static ChatResponse response(String text) {
+            return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+        }
+    }
+}